@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Block;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.Statement;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import org.eclipse.jdt.internal.corext.dom.ASTNodes;
+
+/**
+ * Benchmarks frequently used {@link ASTNodes} utilities of the clean ups and quick assists.
+ */
+public class ASTNodesBenchmark extends AbstractCorpusBenchmark {
+
+	private List<Statement> fStatements;
+
+	private List<Expression> fExpressions;
+
+	private List<SimpleName> fNames;
+
+	private List<MethodDeclaration> fMethods;
+
+	@Override
+	protected void setUp() {
+		fStatements= new ArrayList<>();
+		fExpressions= new ArrayList<>();
+		fNames= new ArrayList<>();
+		for (CompilationUnit ast : fASTs) {
+			ast.accept(new ASTVisitor() {
+				@Override
+				public void preVisit(ASTNode node) {
+					if (node instanceof Statement && !(node instanceof Block))
+						fStatements.add((Statement) node);
+					else if (node instanceof Expression)
+						fExpressions.add((Expression) node);
+					if (node instanceof SimpleName)
+						fNames.add((SimpleName) node);
+				}
+			});
+		}
+		fMethods= collectMethodDeclarations();
+	}
+
+	@Benchmark
+	public void localVariableIdentifiers(Blackhole blackhole) {
+		for (MethodDeclaration method : fMethods) {
+			blackhole.consume(ASTNodes.getLocalVariableIdentifiers(method.getBody(), true));
+		}
+	}
+
+	@Benchmark
+	public void siblings(Blackhole blackhole) {
+		for (Statement statement : fStatements) {
+			blackhole.consume(ASTNodes.getPreviousSiblings(statement));
+			blackhole.consume(ASTNodes.getNextSiblings(statement));
+			blackhole.consume(ASTNodes.getNextStatement(statement));
+		}
+	}
+
+	@Benchmark
+	public void ancestors(Blackhole blackhole) {
+		for (Expression expression : fExpressions) {
+			blackhole.consume(ASTNodes.getFirstAncestorOrNull(expression, MethodDeclaration.class, TypeDeclaration.class));
+			blackhole.consume(ASTNodes.getTypedAncestor(expression, MethodInvocation.class));
+			blackhole.consume(ASTNodes.getUnparenthesedExpression(expression));
+		}
+	}
+
+	@Benchmark
+	public void types(Blackhole blackhole) {
+		for (Expression expression : fExpressions) {
+			blackhole.consume(ASTNodes.hasType(expression, String.class.getCanonicalName(), Integer.class.getCanonicalName()));
+			blackhole.consume(ASTNodes.instanceOf(expression, List.class.getCanonicalName()));
+			blackhole.consume(ASTNodes.isHardCoded(expression));
+		}
+	}
+
+	@Benchmark
+	public void variables(Blackhole blackhole) {
+		SimpleName previous= null;
+		for (SimpleName name : fNames) {
+			blackhole.consume(ASTNodes.isLocalVariable(name.resolveBinding()));
+			if (previous != null)
+				blackhole.consume(ASTNodes.isSameLocalVariable(previous, name));
+			previous= name;
+		}
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+
+/**
+ * Base class of the benchmarks that run against a generated {@link BenchmarkCorpus}.
+ * <p>
+ * Benchmarks run in the OSGi framework of the test runtime and cannot be forked. The corpus is
+ * created and parsed with bindings once per trial; its size is set by the
+ * <code>corpusSize</code> parameter.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(0)
+@Warmup(iterations= 3, time= 2)
+@Measurement(iterations= 5, time= 2)
+public abstract class AbstractCorpusBenchmark {
+
+	@Param({ "100" })
+	public int corpusSize;
+
+	protected BenchmarkCorpus fCorpus;
+
+	protected CompilationUnit[] fASTs;
+
+	@Setup(Level.Trial)
+	public void setUpCorpus() throws CoreException {
+		fCorpus= BenchmarkCorpus.create(getClass().getSimpleName(), corpusSize, getMethodCount());
+		fASTs= fCorpus.parse(true);
+		setUp();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDownCorpus() throws CoreException {
+		fASTs= null;
+		fCorpus.dispose();
+		fCorpus= null;
+	}
+
+	/**
+	 * @return the number of methods per generated type; {@link BenchmarkCorpus#DEFAULT_METHOD_COUNT}
+	 *         by default
+	 */
+	protected int getMethodCount() {
+		return BenchmarkCorpus.DEFAULT_METHOD_COUNT;
+	}
+
+	/**
+	 * Prepares the benchmark after the corpus has been parsed. Does nothing by default.
+	 *
+	 * @throws CoreException if the preparation fails
+	 */
+	protected void setUp() throws CoreException {
+	}
+
+	/**
+	 * @return all method declarations of the parsed corpus
+	 */
+	protected List<MethodDeclaration> collectMethodDeclarations() {
+		List<MethodDeclaration> result= new ArrayList<>();
+		for (CompilationUnit ast : fASTs) {
+			ast.accept(new ASTVisitor() {
+				@Override
+				public boolean visit(MethodDeclaration node) {
+					result.add(node);
+					return false;
+				}
+			});
+		}
+		return result;
+	}
+}
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceDescription;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+
+import org.eclipse.jdt.launching.JavaRuntime;
+
+/**
+ * A Java project in the workspace of the running benchmark, filled with generated compilation
+ * units.
+ * <p>
+ * Type <code>Type<i>i</i></code> is created in package <code>corpus.p<i>i % 10</i></code> and
+ * extends <code>Type<i>i - 1</i></code>, so every unit imports its superclass from another package
+ * and the types form hierarchies of depth 10. Each type has fields of collection types and methods
+ * with loops, conditionals, local variables and exception handlers.
+ * </p>
+ */
+public final class BenchmarkCorpus {
+
+	private static final int PACKAGE_COUNT= 10;
+
+	/**
+	 * The number of types of each hierarchy. <code>Type<i>i</i></code> is the root of a hierarchy
+	 * iff <i>i</i> is a multiple of this depth.
+	 */
+	public static final int HIERARCHY_DEPTH= 10;
+
+	/**
+	 * Default number of methods per generated type
+	 */
+	public static final int DEFAULT_METHOD_COUNT= 8;
+
+	private final IJavaProject fJavaProject;
+
+	private final ICompilationUnit[] fCompilationUnits;
+
+	private BenchmarkCorpus(IJavaProject javaProject, ICompilationUnit[] compilationUnits) {
+		fJavaProject= javaProject;
+		fCompilationUnits= compilationUnits;
+	}
+
+	/**
+	 * Creates a project with the given number of generated compilation units.
+	 *
+	 * @param name the project name
+	 * @param size the number of compilation units
+	 * @return the corpus
+	 * @throws CoreException if the project could not be created
+	 */
+	public static BenchmarkCorpus create(String name, int size) throws CoreException {
+		return create(name, size, DEFAULT_METHOD_COUNT);
+	}
+
+	/**
+	 * Creates a project with the given number of generated compilation units, each declaring a
+	 * type with the given number of methods.
+	 *
+	 * @param name the project name
+	 * @param size the number of compilation units
+	 * @param methodCount the number of methods per type
+	 * @return the corpus
+	 * @throws CoreException if the project could not be created
+	 */
+	public static BenchmarkCorpus create(String name, int size, int methodCount) throws CoreException {
+		IWorkspace workspace= ResourcesPlugin.getWorkspace();
+		IWorkspaceDescription description= workspace.getDescription();
+		if (description.isAutoBuilding()) {
+			description.setAutoBuilding(false);
+			workspace.setDescription(description);
+		}
+		IProject project= workspace.getRoot().getProject(name);
+		IJavaProject javaProject= JavaCore.create(project);
+		List<ICompilationUnit> units= new ArrayList<>(size);
+		workspace.run(monitor -> {
+			if (project.exists())
+				project.delete(true, true, null);
+			project.create(null);
+			project.open(null);
+			IProjectDescription projectDescription= project.getDescription();
+			projectDescription.setNatureIds(new String[] { JavaCore.NATURE_ID });
+			project.setDescription(projectDescription, null);
+
+			Map<String, String> options= javaProject.getOptions(false);
+			JavaCore.setComplianceOptions(JavaCore.VERSION_11, options);
+			javaProject.setOptions(options);
+
+			IFolder sourceFolder= project.getFolder("src"); //$NON-NLS-1$
+			sourceFolder.create(true, true, null);
+			IClasspathEntry[] classpath= { JavaCore.newSourceEntry(sourceFolder.getFullPath()), JavaRuntime.getDefaultJREContainerEntry() };
+			javaProject.setRawClasspath(classpath, project.getFullPath().append("bin"), null); //$NON-NLS-1$
+
+			IPackageFragmentRoot root= javaProject.getPackageFragmentRoot(sourceFolder);
+			IPackageFragment[] packages= new IPackageFragment[PACKAGE_COUNT];
+			for (int i= 0; i < size; i++) {
+				int packageIndex= i % PACKAGE_COUNT;
+				if (packages[packageIndex] == null)
+					packages[packageIndex]= root.createPackageFragment(getPackageName(i), true, null);
+				units.add(packages[packageIndex].createCompilationUnit(getTypeName(i) + ".java", createSource(i, methodCount), true, null)); //$NON-NLS-1$
+			}
+		}, null);
+		return new BenchmarkCorpus(javaProject, units.toArray(new ICompilationUnit[units.size()]));
+	}
+
+	/**
+	 * @return the Java project of this corpus
+	 */
+	public IJavaProject getJavaProject() {
+		return fJavaProject;
+	}
+
+	/**
+	 * @return the generated compilation units
+	 */
+	public ICompilationUnit[] getCompilationUnits() {
+		return fCompilationUnits;
+	}
+
+	/**
+	 * Parses all compilation units of this corpus in one batch.
+	 *
+	 * @param resolveBindings whether bindings should be resolved
+	 * @return the ASTs, in the order of {@link #getCompilationUnits()}
+	 */
+	public CompilationUnit[] parse(boolean resolveBindings) {
+		ASTParser parser= ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+		parser.setProject(fJavaProject);
+		parser.setResolveBindings(resolveBindings);
+		CompilationUnit[] asts= new CompilationUnit[fCompilationUnits.length];
+		parser.createASTs(fCompilationUnits, new String[0], new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				for (int i= 0; i < fCompilationUnits.length; i++) {
+					if (fCompilationUnits[i].equals(source)) {
+						asts[i]= ast;
+						return;
+					}
+				}
+			}
+		}, null);
+		return asts;
+	}
+
+	/**
+	 * Deletes the project of this corpus.
+	 *
+	 * @throws CoreException if the project could not be deleted
+	 */
+	public void dispose() throws CoreException {
+		fJavaProject.getProject().delete(true, true, null);
+	}
+
+	/**
+	 * @param index the index of a generated type
+	 * @return the fully qualified name of the type
+	 */
+	public static String getQualifiedTypeName(int index) {
+		return getPackageName(index) + '.' + getTypeName(index);
+	}
+
+	private static String getPackageName(int index) {
+		return "corpus.p" + (index % PACKAGE_COUNT); //$NON-NLS-1$
+	}
+
+	private static String getTypeName(int index) {
+		return "Type" + index; //$NON-NLS-1$
+	}
+
+	private static String createSource(int index, int methodCount) {
+		boolean hasSuperclass= index % HIERARCHY_DEPTH != 0;
+		StringBuilder buf= new StringBuilder();
+		buf.append("package ").append(getPackageName(index)).append(";\n\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("import java.util.ArrayList;\n"); //$NON-NLS-1$
+		buf.append("import java.util.HashMap;\n"); //$NON-NLS-1$
+		buf.append("import java.util.List;\n"); //$NON-NLS-1$
+		buf.append("import java.util.Map;\n"); //$NON-NLS-1$
+		if (hasSuperclass)
+			buf.append("\nimport ").append(getPackageName(index - 1)).append('.').append(getTypeName(index - 1)).append(";\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\npublic class ").append(getTypeName(index)); //$NON-NLS-1$
+		if (hasSuperclass)
+			buf.append(" extends ").append(getTypeName(index - 1)); //$NON-NLS-1$
+		buf.append(" {\n"); //$NON-NLS-1$
+		buf.append("\tprivate final List<String> fNames").append(index).append("= new ArrayList<>();\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\tprivate final Map<String, Integer> fCounts").append(index).append("= new HashMap<>();\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\tprotected int fValue").append(index).append(";\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (int m= 0; m < methodCount; m++) {
+			buf.append('\n');
+			buf.append("\tpublic int method").append(index).append('_').append(m).append("(int count, String prefix) {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buf.append("\t\tint sum= ").append(m).append(";\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buf.append("\t\tfor (int k= 0; k < count; k++) {\n"); //$NON-NLS-1$
+			buf.append("\t\t\tString name= prefix + k;\n"); //$NON-NLS-1$
+			buf.append("\t\t\tif (fNames").append(index).append(".contains(name)) {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buf.append("\t\t\t\tsum+= name.length();\n"); //$NON-NLS-1$
+			buf.append("\t\t\t} else {\n"); //$NON-NLS-1$
+			buf.append("\t\t\t\tfNames").append(index).append(".add(name);\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buf.append("\t\t\t\tfCounts").append(index).append(".put(name, Integer.valueOf(k));\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buf.append("\t\t\t}\n"); //$NON-NLS-1$
+			buf.append("\t\t}\n"); //$NON-NLS-1$
+			buf.append("\t\twhile (sum > fValue").append(index).append(") {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buf.append("\t\t\tsum-= count;\n"); //$NON-NLS-1$
+			buf.append("\t\t}\n"); //$NON-NLS-1$
+			buf.append("\t\tint result= helper").append(index).append("(sum);\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buf.append("\t\treturn result + sum;\n"); //$NON-NLS-1$
+			buf.append("\t}\n"); //$NON-NLS-1$
+		}
+		buf.append('\n');
+		buf.append("\tprivate int helper").append(index).append("(int value) {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\t\tint result= value;\n"); //$NON-NLS-1$
+		buf.append("\t\ttry {\n"); //$NON-NLS-1$
+		buf.append("\t\t\tresult= Integer.parseInt(String.valueOf(value));\n"); //$NON-NLS-1$
+		buf.append("\t\t} catch (NumberFormatException e) {\n"); //$NON-NLS-1$
+		buf.append("\t\t\tresult= -1;\n"); //$NON-NLS-1$
+		buf.append("\t\t}\n"); //$NON-NLS-1$
+		buf.append("\t\treturn result;\n"); //$NON-NLS-1$
+		buf.append("\t}\n"); //$NON-NLS-1$
+		buf.append("}\n"); //$NON-NLS-1$
+		return buf.toString();
+	}
+}
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.MethodDeclaration;
+import org.eclipse.jdt.core.dom.Statement;
+
+import org.eclipse.jdt.internal.corext.dom.LocalVariableIndex;
+import org.eclipse.jdt.internal.corext.dom.Selection;
+import org.eclipse.jdt.internal.corext.refactoring.code.flow.FlowContext;
+import org.eclipse.jdt.internal.corext.refactoring.code.flow.FlowInfo;
+import org.eclipse.jdt.internal.corext.refactoring.code.flow.InOutFlowAnalyzer;
+import org.eclipse.jdt.internal.corext.refactoring.code.flow.InputFlowAnalyzer;
+
+/**
+ * Benchmarks the flow analysis of extract method: for every method of the corpus, the statements
+ * between the first and the last one are taken as selection, and the values returned from and
+ * passed into the selection are computed.
+ */
+public class FlowAnalyzerBenchmark extends AbstractCorpusBenchmark {
+
+	private MethodDeclaration[] fMethods;
+
+	private ASTNode[][] fSelectedNodes;
+
+	private Selection[] fSelections;
+
+	@Override
+	protected void setUp() {
+		List<MethodDeclaration> methods= collectMethodDeclarations();
+		fMethods= new MethodDeclaration[methods.size()];
+		fSelectedNodes= new ASTNode[methods.size()][];
+		fSelections= new Selection[methods.size()];
+		for (int i= 0; i < fMethods.length; i++) {
+			MethodDeclaration method= methods.get(i);
+			List<Statement> statements= method.getBody().statements();
+			int from= statements.size() > 2 ? 1 : 0;
+			int to= statements.size() > 2 ? statements.size() - 1 : statements.size();
+			ASTNode[] selected= statements.subList(from, to).toArray(new ASTNode[to - from]);
+			ASTNode last= selected[selected.length - 1];
+			fMethods[i]= method;
+			fSelectedNodes[i]= selected;
+			fSelections[i]= Selection.createFromStartEnd(selected[0].getStartPosition(), last.getStartPosition() + last.getLength());
+		}
+	}
+
+	@Benchmark
+	public void returnValuesAndArguments(Blackhole blackhole) {
+		for (int i= 0; i < fMethods.length; i++) {
+			FlowContext flowContext= new FlowContext(0, LocalVariableIndex.perform(fMethods[i]) + 1);
+			flowContext.setConsiderAccessMode(true);
+			flowContext.setComputeMode(FlowContext.RETURN_VALUES);
+			FlowInfo returnInfo= new InOutFlowAnalyzer(flowContext).perform(fSelectedNodes[i]);
+			blackhole.consume(returnInfo.get(flowContext, FlowInfo.WRITE | FlowInfo.WRITE_POTENTIAL | FlowInfo.UNKNOWN));
+
+			flowContext.setComputeMode(FlowContext.ARGUMENTS);
+			FlowInfo argInfo= new InputFlowAnalyzer(flowContext, fSelections[i], true).perform(fMethods[i]);
+			blackhole.consume(argInfo.get(flowContext, FlowInfo.READ | FlowInfo.READ_POTENTIAL | FlowInfo.UNKNOWN));
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+import org.eclipse.jdt.internal.common.HelperVisitor;
+import org.eclipse.jdt.internal.common.ReferenceHolder;
+
+/**
+ * Benchmarks the lambda based dispatch of {@link HelperVisitor} with one and with several
+ * registered node kinds, on compilation units of normal size and on large ones. The
+ * <code>importsOnly</code> benchmark registers a kind that occurs only outside of type
+ * declarations and shows the cost of the subtrees that cannot contain a registered kind.
+ */
+public class HelperVisitorBenchmark extends AbstractCorpusBenchmark {
+
+	private static final String COUNT= "count"; //$NON-NLS-1$
+
+	@Param({ "8", "256" })
+	public int methodCount;
+
+	@Override
+	protected int getMethodCount() {
+		return methodCount;
+	}
+
+	@Benchmark
+	public void singleKind(Blackhole blackhole) {
+		for (CompilationUnit ast : fASTs) {
+			ReferenceHolder<String, Integer> holder= new ReferenceHolder<>();
+			Set<ASTNode> nodesprocessed= new HashSet<>();
+			HelperVisitor.callMethodInvocationVisitor(ast, holder, nodesprocessed, (node, h) -> {
+				h.merge(COUNT, 1, Integer::sum);
+				return true;
+			});
+			blackhole.consume(holder);
+		}
+	}
+
+	@Benchmark
+	public void importsOnly(Blackhole blackhole) {
+		for (CompilationUnit ast : fASTs) {
+			ReferenceHolder<String, Integer> holder= new ReferenceHolder<>();
+			Set<ASTNode> nodesprocessed= new HashSet<>();
+			HelperVisitor.callImportDeclarationVisitor(ast, holder, nodesprocessed, (node, h) -> {
+				h.merge(COUNT, 1, Integer::sum);
+				return true;
+			});
+			blackhole.consume(holder);
+		}
+	}
+
+	@Benchmark
+	public void severalKinds(Blackhole blackhole) {
+		for (CompilationUnit ast : fASTs) {
+			ReferenceHolder<String, Integer> holder= new ReferenceHolder<>();
+			HelperVisitor<ReferenceHolder<String, Integer>, String, Integer> visitor= new HelperVisitor<>(new HashSet<>(), holder);
+			visitor.addMethodInvocation((node, h) -> {
+				h.merge(COUNT, 1, Integer::sum);
+				return true;
+			});
+			visitor.addClassInstanceCreation((node, h) -> {
+				h.merge(COUNT, 1, Integer::sum);
+				return true;
+			});
+			visitor.addSimpleName((node, h) -> {
+				h.merge(COUNT, 1, Integer::sum);
+				return true;
+			});
+			visitor.addFieldAccess((node, h) -> {
+				h.merge(COUNT, 1, Integer::sum);
+				return true;
+			});
+			visitor.build(ast);
+			blackhole.consume(holder);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.MethodInvocation;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.rewrite.ImportRewrite;
+import org.eclipse.jdt.core.manipulation.CodeStyleConfiguration;
+
+import org.eclipse.jdt.internal.corext.codemanipulation.ContextSensitiveImportRewriteContext;
+
+/**
+ * Benchmarks the import handling shared by the fixes: every type reference and static method
+ * invocation of a unit is added to an {@link ImportRewrite} created with the code style settings
+ * of the project, and the resulting import edit is computed.
+ */
+public class ImportRewriteBenchmark extends AbstractCorpusBenchmark {
+
+	private List<List<ITypeBinding>> fTypes;
+
+	private List<List<IMethodBinding>> fStaticMethods;
+
+	@Override
+	protected void setUp() {
+		fTypes= new ArrayList<>(fASTs.length);
+		fStaticMethods= new ArrayList<>(fASTs.length);
+		for (CompilationUnit ast : fASTs) {
+			List<ITypeBinding> types= new ArrayList<>();
+			List<IMethodBinding> staticMethods= new ArrayList<>();
+			ast.accept(new ASTVisitor() {
+				@Override
+				public boolean visit(SimpleType node) {
+					ITypeBinding binding= node.resolveBinding();
+					if (binding != null)
+						types.add(binding);
+					return false;
+				}
+
+				@Override
+				public boolean visit(MethodInvocation node) {
+					IMethodBinding binding= node.resolveMethodBinding();
+					if (binding != null && Modifier.isStatic(binding.getModifiers()))
+						staticMethods.add(binding);
+					return true;
+				}
+			});
+			fTypes.add(types);
+			fStaticMethods.add(staticMethods);
+		}
+	}
+
+	@Benchmark
+	public void addImports(Blackhole blackhole) throws CoreException {
+		for (int i= 0; i < fASTs.length; i++) {
+			CompilationUnit ast= fASTs[i];
+			ImportRewrite importRewrite= CodeStyleConfiguration.createImportRewrite(ast, true);
+			ContextSensitiveImportRewriteContext context= new ContextSensitiveImportRewriteContext(ast, importRewrite);
+			for (ITypeBinding type : fTypes.get(i)) {
+				blackhole.consume(importRewrite.addImport(type, ast.getAST(), context));
+			}
+			for (IMethodBinding method : fStaticMethods.get(i)) {
+				blackhole.consume(importRewrite.addStaticImport(method.getDeclaringClass().getQualifiedName(), method.getName(), false, context));
+			}
+			blackhole.consume(importRewrite.rewriteImports(null));
+		}
+	}
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.Test;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of this bundle inside the test runtime.
+ * <p>
+ * The following system properties are supported:
+ * </p>
+ * <ul>
+ * <li><code>jdt.benchmark.include</code>: regular expression selecting the benchmarks, e.g.
+ * <code>OrganizeImports.*</code>; all benchmarks by default</li>
+ * <li><code>jdt.benchmark.corpusSize</code>: number of generated compilation units; the value of
+ * the <code>@Param</code> annotation by default</li>
+ * <li><code>jdt.benchmark.result</code>: file to write the results to, in JSON format; no file by
+ * default</li>
+ * </ul>
+ */
+public class ManipulationBenchmarks {
+
+	@Test
+	public void runBenchmarks() throws RunnerException {
+		String include= System.getProperty("jdt.benchmark.include", ".*"); //$NON-NLS-1$ //$NON-NLS-2$
+		ChainedOptionsBuilder options= new OptionsBuilder()
+				.include(ManipulationBenchmarks.class.getPackage().getName() + '.' + include)
+				.exclude(ManipulationBenchmarks.class.getName())
+				.shouldFailOnError(true);
+		String corpusSize= System.getProperty("jdt.benchmark.corpusSize"); //$NON-NLS-1$
+		if (corpusSize != null)
+			options.param("corpusSize", corpusSize); //$NON-NLS-1$
+		String result= System.getProperty("jdt.benchmark.result"); //$NON-NLS-1$
+		if (result != null)
+			options.result(result).resultFormat(ResultFormatType.JSON);
+
+		Collection<RunResult> results= new Runner(options.build()).run();
+		assertFalse("No benchmark selected by " + include, results.isEmpty()); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation;
+import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation.IChooseImportQuery;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+
+/**
+ * Benchmarks the computation of the organize imports edit, without applying it.
+ */
+public class OrganizeImportsBenchmark extends AbstractCorpusBenchmark {
+
+	private static final IChooseImportQuery FIRST_CHOICE= (openChoices, ranges) -> {
+		TypeNameMatch[] result= new TypeNameMatch[openChoices.length];
+		for (int i= 0; i < openChoices.length; i++) {
+			result[i]= openChoices[i][0];
+		}
+		return result;
+	};
+
+	@Benchmark
+	public void organizeImports(Blackhole blackhole) throws CoreException {
+		ICompilationUnit[] units= fCorpus.getCompilationUnits();
+		for (int i= 0; i < units.length; i++) {
+			CompilationUnit ast= fASTs[i];
+			OrganizeImportsOperation operation= new OrganizeImportsOperation(units[i], ast, true, false, true, FIRST_CHOICE);
+			blackhole.consume(operation.createTextEdit(null));
+		}
+	}
+}
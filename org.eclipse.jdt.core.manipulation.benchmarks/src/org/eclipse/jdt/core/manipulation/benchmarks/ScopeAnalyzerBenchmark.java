@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.ReturnStatement;
+
+import org.eclipse.jdt.internal.corext.dom.ScopeAnalyzer;
+
+/**
+ * Benchmarks {@link ScopeAnalyzer#getDeclarationsInScope(int, int)} at every return statement of
+ * the corpus, as used by content assist and the quick fixes.
+ */
+public class ScopeAnalyzerBenchmark extends AbstractCorpusBenchmark {
+
+	private static final int FLAGS= ScopeAnalyzer.VARIABLES | ScopeAnalyzer.METHODS | ScopeAnalyzer.TYPES | ScopeAnalyzer.CHECK_VISIBILITY;
+
+	private List<int[]> fOffsets;
+
+	@Override
+	protected void setUp() {
+		fOffsets= new ArrayList<>(fASTs.length);
+		for (CompilationUnit ast : fASTs) {
+			List<Integer> offsets= new ArrayList<>();
+			ast.accept(new ASTVisitor() {
+				@Override
+				public boolean visit(ReturnStatement node) {
+					offsets.add(Integer.valueOf(node.getStartPosition()));
+					return false;
+				}
+			});
+			fOffsets.add(offsets.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	@Benchmark
+	public void declarationsInScope(Blackhole blackhole) {
+		for (int i= 0; i < fASTs.length; i++) {
+			ScopeAnalyzer analyzer= new ScopeAnalyzer(fASTs[i]);
+			for (int offset : fOffsets.get(i)) {
+				blackhole.consume(analyzer.getDeclarationsInScope(offset, FLAGS));
+			}
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
+
+/**
+ * Benchmarks the creation of {@link TType}s from the type bindings of the corpus and the
+ * assignment checks between them, as done by the generics refactorings.
+ */
+public class TypeEnvironmentBenchmark extends AbstractCorpusBenchmark {
+
+	private ITypeBinding[] fTypeBindings;
+
+	private ITypeBinding[] fExpressionBindings;
+
+	@Override
+	protected void setUp() {
+		List<ITypeBinding> types= new ArrayList<>();
+		List<ITypeBinding> expressions= new ArrayList<>();
+		for (CompilationUnit ast : fASTs) {
+			ast.accept(new ASTVisitor() {
+				@Override
+				public boolean visit(TypeDeclaration node) {
+					types.add(node.resolveBinding());
+					return true;
+				}
+
+				@Override
+				public void preVisit(ASTNode node) {
+					if (node instanceof Expression) {
+						ITypeBinding binding= ((Expression) node).resolveTypeBinding();
+						if (binding != null)
+							expressions.add(binding);
+					}
+				}
+			});
+		}
+		fTypeBindings= types.toArray(new ITypeBinding[types.size()]);
+		fExpressionBindings= expressions.toArray(new ITypeBinding[expressions.size()]);
+	}
+
+	@Benchmark
+	public void create(Blackhole blackhole) {
+		TypeEnvironment environment= new TypeEnvironment();
+		blackhole.consume(environment.create(fTypeBindings));
+		blackhole.consume(environment.create(fExpressionBindings));
+	}
+
+	@Benchmark
+	public void canAssignTo(Blackhole blackhole) {
+		TypeEnvironment environment= new TypeEnvironment(true);
+		TType[] types= environment.create(fTypeBindings);
+		TType[] expressions= environment.create(fExpressionBindings);
+		for (TType expression : expressions) {
+			for (int i= 0; i < types.length; i+= 7) {
+				blackhole.consume(expression.canAssignTo(types[i]));
+			}
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.core.manipulation.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.ltk.core.refactoring.Refactoring;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.refactoring.descriptors.UseSupertypeDescriptor;
+
+import org.eclipse.jdt.internal.corext.refactoring.generics.InferTypeArgumentsRefactoring;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.EnumeratedTypeSet;
+
+/**
+ * Benchmarks the type constraint solvers of Infer Generic Type Arguments and Use Supertype
+ * Where Possible on the class hierarchies of the corpus.
+ * <p>
+ * For every hierarchy of the corpus, a client class keeps instances of the leaf type in a raw
+ * list and calls a method that is declared by the root type. <code>inferTypeArguments</code>
+ * infers the type arguments of all clients, its solver works on {@link EnumeratedTypeSet}s.
+ * <code>useSuperType</code> replaces the leaf type of every hierarchy by its root type. Both
+ * benchmarks check the conditions of the refactorings, which creates and solves the
+ * constraints, but do not create the changes.
+ * </p>
+ */
+public class TypeSetBenchmark extends AbstractCorpusBenchmark {
+
+	private ICompilationUnit[] fClients;
+
+	private IType[] fLeafTypes;
+
+	private IType[] fRootTypes;
+
+	@Override
+	protected void setUp() throws CoreException {
+		IJavaProject project= fCorpus.getJavaProject();
+		IPackageFragmentRoot root= project.getPackageFragmentRoot(project.getProject().getFolder("src")); //$NON-NLS-1$
+		IPackageFragment pack= root.createPackageFragment("corpus.clients", true, null); //$NON-NLS-1$
+		List<ICompilationUnit> clients= new ArrayList<>();
+		List<IType> leafTypes= new ArrayList<>();
+		List<IType> rootTypes= new ArrayList<>();
+		for (int rootIndex= 0; rootIndex + BenchmarkCorpus.HIERARCHY_DEPTH <= corpusSize; rootIndex+= BenchmarkCorpus.HIERARCHY_DEPTH) {
+			int leafIndex= rootIndex + BenchmarkCorpus.HIERARCHY_DEPTH - 1;
+			String name= "Client" + rootIndex; //$NON-NLS-1$
+			clients.add(pack.createCompilationUnit(name + ".java", createClientSource(name, rootIndex, leafIndex), true, null)); //$NON-NLS-1$
+			leafTypes.add(project.findType(BenchmarkCorpus.getQualifiedTypeName(leafIndex)));
+			rootTypes.add(project.findType(BenchmarkCorpus.getQualifiedTypeName(rootIndex)));
+		}
+		fClients= clients.toArray(new ICompilationUnit[clients.size()]);
+		fLeafTypes= leafTypes.toArray(new IType[leafTypes.size()]);
+		fRootTypes= rootTypes.toArray(new IType[rootTypes.size()]);
+	}
+
+	private static String createClientSource(String name, int rootIndex, int leafIndex) {
+		String leaf= "Type" + leafIndex; //$NON-NLS-1$
+		StringBuilder buf= new StringBuilder();
+		buf.append("package corpus.clients;\n\n"); //$NON-NLS-1$
+		buf.append("import java.util.ArrayList;\n"); //$NON-NLS-1$
+		buf.append("import java.util.Iterator;\n"); //$NON-NLS-1$
+		buf.append("import java.util.List;\n\n"); //$NON-NLS-1$
+		buf.append("import ").append(BenchmarkCorpus.getQualifiedTypeName(leafIndex)).append(";\n\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("public class ").append(name).append(" {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\tprivate final List fElements= new ArrayList();\n\n"); //$NON-NLS-1$
+		buf.append("\tpublic void add(").append(leaf).append(" element) {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\t\tfElements.add(element);\n"); //$NON-NLS-1$
+		buf.append("\t}\n\n"); //$NON-NLS-1$
+		buf.append("\tpublic ").append(leaf).append(" get(int index) {\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\t\treturn (").append(leaf).append(") fElements.get(index);\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\t}\n\n"); //$NON-NLS-1$
+		buf.append("\tpublic int sum(String prefix) {\n"); //$NON-NLS-1$
+		buf.append("\t\tint sum= 0;\n"); //$NON-NLS-1$
+		buf.append("\t\tfor (Iterator iter= fElements.iterator(); iter.hasNext();) {\n"); //$NON-NLS-1$
+		buf.append("\t\t\t").append(leaf).append(" element= (").append(leaf).append(") iter.next();\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		buf.append("\t\t\tsum+= element.method").append(rootIndex).append("_0(sum, prefix);\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		buf.append("\t\t}\n"); //$NON-NLS-1$
+		buf.append("\t\treturn sum;\n"); //$NON-NLS-1$
+		buf.append("\t}\n"); //$NON-NLS-1$
+		buf.append("}\n"); //$NON-NLS-1$
+		return buf.toString();
+	}
+
+	@Benchmark
+	public void inferTypeArguments(Blackhole blackhole) throws CoreException {
+		InferTypeArgumentsRefactoring refactoring= new InferTypeArgumentsRefactoring(fClients);
+		blackhole.consume(refactoring.checkAllConditions(new NullProgressMonitor()));
+	}
+
+	@Benchmark
+	public void useSuperType(Blackhole blackhole) throws CoreException {
+		for (int i= 0; i < fLeafTypes.length; i++) {
+			UseSupertypeDescriptor descriptor= new UseSupertypeDescriptor();
+			descriptor.setSubtype(fLeafTypes[i]);
+			descriptor.setSupertype(fRootTypes[i]);
+			RefactoringStatus status= new RefactoringStatus();
+			Refactoring refactoring= descriptor.createRefactoring(status);
+			blackhole.consume(refactoring.checkAllConditions(new NullProgressMonitor()));
+		}
+	}
+}
@@ -14,8 +14,6 @@
 package org.eclipse.jdt.internal.common;
 
 import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -46,7 +44,7 @@ public class HelperVisitor<E extends HelperVisitorProvider<V, T, E>,V,T> {
 	 * two parameters 1) ASTNode 2) your data object Call is processed when build(ASTNode) is
 	 * called.
 	 */
-	Map<VisitorEnum, BiPredicate<? extends ASTNode, E>> predicatemap;
+	VisitorEnumMap<BiPredicate<? extends ASTNode, E>> predicatemap;
 
 	/**
 	 * This map contains one VisitorConsumer per kind if supplied Each BiConsumer is called with two
@@ -54,15 +52,15 @@ public class HelperVisitor<E extends HelperVisitorProvider<V, T, E>,V,T> {
 	 * Because the "visitend" does not return a boolean we need a consumer instead of a supplier
 	 * here.
 	 */
-	Map<VisitorEnum, BiConsumer<? extends ASTNode, E>> consumermap;
+	VisitorEnumMap<BiConsumer<? extends ASTNode, E>> consumermap;
 
 	/**
 	 * Here we store data to implement convenience methods like method visitor where the method name
 	 * can be given as parameter
 	 */
-	Map<VisitorEnum, Object> predicatedata;
+	VisitorEnumMap<Object> predicatedata;
 
-	Map<VisitorEnum, Object> consumerdata;
+	VisitorEnumMap<Object> consumerdata;
 
 	/**
 	 *
@@ -99,10 +97,10 @@ public class HelperVisitor<E extends HelperVisitorProvider<V, T, E>,V,T> {
 	 * @param dataholder - HelperVisitorProvider providing this HelperVisitor
 	 */
 	public HelperVisitor(Set<ASTNode> nodesprocessed, E dataholder) {
-		this.predicatemap= new LinkedHashMap<>();
-		this.consumermap= new LinkedHashMap<>();
-		this.predicatedata= new HashMap<>();
-		this.consumerdata= new HashMap<>();
+		this.predicatemap= new VisitorEnumMap<>();
+		this.consumermap= new VisitorEnumMap<>();
+		this.predicatedata= new VisitorEnumMap<>();
+		this.consumerdata= new VisitorEnumMap<>();
 
 		this.dataholder= dataholder;
 		dataholder.setHelperVisitor(this);
@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.common;
 
+import java.util.BitSet;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 
@@ -33,6 +34,22 @@ public class LambdaASTVisitor<E extends HelperVisitorProvider<V,T,E>, V, T> exte
 	 */
 	private final HelperVisitor<E,V,T> helperVisitor;
 
+	/**
+	 * Node types with a registered BiPredicate or BiConsumer
+	 */
+	private final BitSet registered= new BitSet();
+
+	/**
+	 * Modification counts of the maps of the HelperVisitor when registered was computed
+	 */
+	private int predicatemapModifications= -1;
+
+	private int consumermapModifications= -1;
+
+	private AST ast;
+
+	private ReachableNodeTypes reachable;
+
 	/**
 	 * @param helperVisitor - HelperVisitor
 	 */
@@ -46,6 +63,33 @@ public class LambdaASTVisitor<E extends HelperVisitorProvider<V,T,E>, V, T> exte
 		this.helperVisitor = helperVisitor;
 	}
 
+	/**
+	 * Skips subtrees that cannot contain a node of a kind with a registered BiPredicate or
+	 * BiConsumer.
+	 */
+	@Override
+	public boolean preVisit2(ASTNode node) {
+		VisitorEnumMap<?> predicatemap= this.helperVisitor.predicatemap;
+		VisitorEnumMap<?> consumermap= this.helperVisitor.consumermap;
+		if (predicatemap.getModificationCount() != predicatemapModifications
+				|| consumermap.getModificationCount() != consumermapModifications) {
+			registered.clear();
+			predicatemap.addNodeTypesTo(registered);
+			consumermap.addNodeTypesTo(registered);
+			predicatemapModifications= predicatemap.getModificationCount();
+			consumermapModifications= consumermap.getModificationCount();
+		}
+		int nodetype= node.getNodeType();
+		if (registered.get(nodetype)) {
+			return true;
+		}
+		if (node.getAST() != ast) {
+			ast= node.getAST();
+			reachable= ReachableNodeTypes.of(ast);
+		}
+		return reachable.canContain(nodetype, registered);
+	}
+
 	@Override
 	public boolean visit(AnnotationTypeDeclaration node) {
 		if (this.helperVisitor.predicatemap.containsKey(VisitorEnum.AnnotationTypeDeclaration)) {
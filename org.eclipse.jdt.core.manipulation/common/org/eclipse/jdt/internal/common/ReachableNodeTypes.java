@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.common;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.core.dom.ChildListPropertyDescriptor;
+import org.eclipse.jdt.core.dom.ChildPropertyDescriptor;
+import org.eclipse.jdt.core.dom.StructuralPropertyDescriptor;
+
+/**
+ * For every node type, the node types that can occur in the subtree below a node of that type,
+ * derived from the structural properties of the AST at a given API level. Node types that are
+ * not supported at that level cannot occur and are never reachable.
+ */
+final class ReachableNodeTypes {
+
+	private static final Map<Integer, ReachableNodeTypes> cache= new ConcurrentHashMap<>();
+
+	/**
+	 * Reachable node types per node type
+	 */
+	private final BitSet[] reachable;
+
+	private ReachableNodeTypes(BitSet[] reachable) {
+		this.reachable= reachable;
+	}
+
+	/**
+	 * @param ast - AST
+	 * @return - reachable node types for the API level of the AST
+	 */
+	static ReachableNodeTypes of(AST ast) {
+		return cache.computeIfAbsent(Integer.valueOf(ast.apiLevel()), level -> compute(level.intValue()));
+	}
+
+	/**
+	 * @param nodetype - node type
+	 * @param nodetypes - node types
+	 * @return - true if a node of one of the given types can occur below a node of the given type
+	 */
+	boolean canContain(int nodetype, BitSet nodetypes) {
+		if (nodetype >= reachable.length) {
+			return true;
+		}
+		return reachable[nodetype].intersects(nodetypes);
+	}
+
+	private static ReachableNodeTypes compute(int apiLevel) {
+		// the nodes are created in a private AST, ASTs are not thread safe and creating nodes modifies them
+		AST ast= AST.newAST(apiLevel, false);
+		List<Class<? extends ASTNode>> classes= new ArrayList<>();
+		List<List<StructuralPropertyDescriptor>> properties= new ArrayList<>();
+		classes.add(null);
+		properties.add(null);
+		for (int type= 1; ; type++) {
+			Class<? extends ASTNode> nodeClass;
+			try {
+				nodeClass= ASTNode.nodeClassForType(type);
+			} catch (IllegalArgumentException e) {
+				break;
+			}
+			classes.add(nodeClass);
+			List<StructuralPropertyDescriptor> descriptors;
+			try {
+				descriptors= ast.createInstance(type).structuralPropertiesForType();
+			} catch (RuntimeException e) {
+				// not supported at this API level
+				descriptors= null;
+			}
+			properties.add(descriptors);
+		}
+
+		int count= classes.size();
+		BitSet[] reachable= new BitSet[count];
+		for (int type= 1; type < count; type++) {
+			BitSet children= new BitSet(count);
+			reachable[type]= children;
+			List<StructuralPropertyDescriptor> descriptors= properties.get(type);
+			if (descriptors == null) {
+				continue;
+			}
+			for (StructuralPropertyDescriptor descriptor : descriptors) {
+				Class<?> childClass;
+				if (descriptor.isChildProperty()) {
+					childClass= ((ChildPropertyDescriptor) descriptor).getChildType();
+				} else if (descriptor.isChildListProperty()) {
+					childClass= ((ChildListPropertyDescriptor) descriptor).getElementType();
+				} else {
+					continue;
+				}
+				for (int child= 1; child < count; child++) {
+					if (properties.get(child) != null && childClass.isAssignableFrom(classes.get(child))) {
+						children.set(child);
+					}
+				}
+			}
+		}
+
+		boolean changed= true;
+		while (changed) {
+			changed= false;
+			for (int type= 1; type < count; type++) {
+				BitSet types= reachable[type];
+				int before= types.cardinality();
+				for (int child= types.nextSetBit(0); child >= 0; child= types.nextSetBit(child + 1)) {
+					types.or(reachable[child]);
+				}
+				if (types.cardinality() != before) {
+					changed= true;
+				}
+			}
+		}
+		return new ReachableNodeTypes(reachable);
+	}
+}
@@ -14,9 +14,6 @@
 package org.eclipse.jdt.internal.common;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.jdt.core.dom.ASTNode;
@@ -570,8 +567,16 @@ public enum VisitorEnum {
 		return Stream.of(VisitorEnum.values());
 	}
 
-	static final Map<Integer, VisitorEnum> values= Arrays.stream(VisitorEnum.values())
-			.collect(Collectors.toMap(VisitorEnum::getValue, Function.identity()));
+	/**
+	 * VisitorEnum per node type, indexed by node type
+	 */
+	static final VisitorEnum[] values= new VisitorEnum[Arrays.stream(VisitorEnum.values()).mapToInt(VisitorEnum::getValue).max().getAsInt() + 1];
+
+	static {
+		for (VisitorEnum ve : VisitorEnum.values()) {
+			values[ve.getValue()]= ve;
+		}
+	}
 
 	/**
 	 *
@@ -579,7 +584,7 @@ public enum VisitorEnum {
 	 * @return - corresponding VistorEnum
 	 */
 	public static VisitorEnum fromNodetype(final int nodetype) {
-		return values.get(nodetype);
+		return nodetype >= 0 && nodetype < values.length ? values[nodetype] : null;
 	}
 
 	/**
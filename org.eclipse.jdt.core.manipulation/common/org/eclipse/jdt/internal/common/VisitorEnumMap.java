@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.common;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Map from visitor kind to value, stored in a dense array indexed by the ordinal of the kind.
+ * <p>
+ * Lookups with a {@link VisitorEnum} key neither hash nor box. A <code>null</code> value is the
+ * same as no mapping. Every modification increments {@link #getModificationCount()}, so that
+ * visitors can cache information derived from the registered kinds while the map may still change
+ * during a visit.
+ * </p>
+ *
+ * @param <V> - value type
+ */
+public final class VisitorEnumMap<V> extends AbstractMap<VisitorEnum, V> {
+
+	private static final VisitorEnum[] KINDS= VisitorEnum.values();
+
+	private final Object[] values= new Object[KINDS.length];
+
+	private int size;
+
+	private int modificationCount;
+
+	/**
+	 * @param key - visitor kind
+	 * @return - value for the visitor kind or null
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(VisitorEnum key) {
+		return (V) values[key.ordinal()];
+	}
+
+	@Override
+	public V get(Object key) {
+		return key instanceof VisitorEnum ? get((VisitorEnum) key) : null;
+	}
+
+	/**
+	 * @param key - visitor kind
+	 * @return - true if a value is registered for the visitor kind
+	 */
+	public boolean containsKey(VisitorEnum key) {
+		return values[key.ordinal()] != null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return key instanceof VisitorEnum && containsKey((VisitorEnum) key);
+	}
+
+	@Override
+	public V put(VisitorEnum key, V value) {
+		int index= key.ordinal();
+		V previous= get(key);
+		if (previous == null && value != null) {
+			size++;
+		} else if (previous != null && value == null) {
+			size--;
+		}
+		values[index]= value;
+		modificationCount++;
+		return previous;
+	}
+
+	@Override
+	public V remove(Object key) {
+		if (!(key instanceof VisitorEnum)) {
+			return null;
+		}
+		return put((VisitorEnum) key, null);
+	}
+
+	@Override
+	public void clear() {
+		for (int i= 0; i < values.length; i++) {
+			values[i]= null;
+		}
+		size= 0;
+		modificationCount++;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return - number of modifications of this map
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Adds the node types of all visitor kinds with a value to the given set.
+	 *
+	 * @param nodetypes - set of node types
+	 */
+	void addNodeTypesTo(BitSet nodetypes) {
+		for (int i= 0; i < values.length; i++) {
+			if (values[i] != null) {
+				nodetypes.set(KINDS[i].getValue());
+			}
+		}
+	}
+
+	@Override
+	public Set<Entry<VisitorEnum, V>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Entry<VisitorEnum, V>> iterator() {
+				return new Iterator<>() {
+					private int next= advance(0);
+
+					private int last= -1;
+
+					private int advance(int from) {
+						int i= from;
+						while (i < values.length && values[i] == null) {
+							i++;
+						}
+						return i;
+					}
+
+					@Override
+					public boolean hasNext() {
+						return next < values.length;
+					}
+
+					@Override
+					public Entry<VisitorEnum, V> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						last= next;
+						next= advance(next + 1);
+						return new SimpleEntry<>(KINDS[last], get(KINDS[last]));
+					}
+
+					@Override
+					public void remove() {
+						if (last < 0) {
+							throw new IllegalStateException();
+						}
+						put(KINDS[last], null);
+						last= -1;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
@@ -25,6 +25,10 @@ import org.eclipse.core.runtime.Status;
 
 import org.eclipse.jdt.core.manipulation.JavaManipulation;
 
+import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchyASTCache;
+
+import org.eclipse.jdt.internal.ui.text.ChainIndex;
+
 /**
  * The main plug-in class to be used in the workbench.
  */
@@ -64,6 +68,8 @@ public class JavaManipulationPlugin extends Plugin implements DebugOptionsListen
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		ChainIndex.disposeAll();
+		CallHierarchyASTCache.disposeDefault();
 		super.stop(context);
 		fgDefault= null;
 	}
@@ -56,4 +56,17 @@ public abstract class SemanticHighlightingCore {
 		return false;
 	}
 
+	/**
+	 * Tells whether the semantic highlighting may consume literals. Only semantic highlightings
+	 * that return <code>true</code> are asked to {@link #consumesLiteral(SemanticToken) consume}
+	 * literal tokens, subclasses that override {@link #consumesLiteral(SemanticToken)} must
+	 * override this method as well.
+	 *
+	 * @return <code>true</code> if the semantic highlighting may consume literals
+	 * @since 1.17
+	 */
+	public boolean consumesLiterals() {
+		return false;
+	}
+
 }
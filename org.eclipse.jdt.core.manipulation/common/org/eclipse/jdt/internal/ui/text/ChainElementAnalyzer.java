@@ -12,11 +12,11 @@ package org.eclipse.jdt.internal.ui.text;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import org.eclipse.jdt.core.CompletionContext;
@@ -34,7 +34,10 @@ import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
 public final class ChainElementAnalyzer {
 
-	private static final Map<String, IType> typeCache= new HashMap<>();
+	/** The maximal number of cached types, the cache is cleared when it is full */
+	private static final int MAX_TYPE_CACHE_SIZE= 2000;
+
+	private static final Map<String, IType> typeCache= new ConcurrentHashMap<>();
 
 	private static final Predicate<IField> NON_STATIC_FIELDS_ONLY_FILTER = t -> {
 		try {
@@ -125,7 +128,7 @@ public final class ChainElementAnalyzer {
         return tmp.values();
     }
 
-    private static List<IType> findAllSupertypesIncludingArgument(final ChainType type) {
+    static List<IType> findAllSupertypesIncludingArgument(final ChainType type) {
         if ((type.getPrimitiveType() != null)) {
             return Collections.emptyList();
         }
@@ -267,6 +270,20 @@ public final class ChainElementAnalyzer {
 		return 0;
 	}
 
+	/**
+	 * Forgets the types resolved by {@link #getTypeFromSignature(IJavaProject, String, IType)}.
+	 */
+	public static void clearTypeCache() {
+		typeCache.clear();
+	}
+
+	private static void cacheType(String typeSig, IType type) {
+		if (typeCache.size() >= MAX_TYPE_CACHE_SIZE) {
+			typeCache.clear();
+		}
+		typeCache.put(typeSig, type);
+	}
+
 	public static IType getTypeFromSignature (IJavaProject proj, String typeSig, IType declType) {
 		IType cType= typeCache.get(typeSig);
 		if (cType != null) {
@@ -285,7 +302,7 @@ public final class ChainElementAnalyzer {
 			res= proj.findType(type);
 			if (res != null) {
 				if (isResolved) {
-					typeCache.put(typeSig, res);
+					cacheType(typeSig, res);
 				}
 				return res;
 			}
@@ -293,8 +310,8 @@ public final class ChainElementAnalyzer {
 			if (resType != null) {
 				String fqExpectedType= JavaModelUtil.concatenateName(resType[0][0], resType[0][1]);
 				res= proj.findType(fqExpectedType);
-				if (isResolved) {
-					typeCache.put(typeSig, res);
+				if (isResolved && res != null) {
+					cacheType(typeSig, res);
 				}
 				return res;
 			}
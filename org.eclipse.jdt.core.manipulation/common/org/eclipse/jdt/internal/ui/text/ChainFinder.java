@@ -11,11 +11,17 @@
  */
 package org.eclipse.jdt.internal.ui.text;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IType;
@@ -24,40 +30,126 @@ import org.eclipse.jdt.internal.ui.text.ChainElement.ElementType;
 
 public class ChainFinder {
 
+	/**
+	 * The executor of the searches, shared by all finders. The searches block on the Java model,
+	 * they are not run by the common pool.
+	 */
+	private static final ThreadPoolExecutor EXECUTOR= createExecutor();
+
 	private final List<ChainType> expectedTypes;
 
 	private final List<String> excludedTypes;
 
 	private final IType receiverType;
 
-	private final List<Chain> chains= new LinkedList<>();
-
-	private final Map<IJavaElement, ChainElement> edgeCache= new HashMap<>();
+	private final ChainIndex index;
 
-	private final Map<String, List<IJavaElement>> fieldsAndMethodsCache= new HashMap<>();
+	/**
+	 * The chains found so far for each searched expected type, in the order of the expected types.
+	 * Each list is guarded by itself.
+	 */
+	private volatile List<List<Chain>> chainsByType= Collections.emptyList();
 
-	private final Map<String, Boolean> assignableCache= new HashMap<>();
+	private volatile int maxChains;
 
 	private volatile boolean isCanceled;
 
 	public ChainFinder(final List<ChainType> expectedTypes, final List<String> excludedTypes,
 			final IType receiverType) {
+		this(expectedTypes, excludedTypes, receiverType, new ChainIndex());
+	}
+
+	/**
+	 * @param expectedTypes the types the chains have to end with
+	 * @param excludedTypes the types to ignore
+	 * @param receiverType the type in which the chains are inserted
+	 * @param index the index to get the members, edges and assignability results from, usually
+	 *            the shared index of the project
+	 */
+	public ChainFinder(final List<ChainType> expectedTypes, final List<String> excludedTypes,
+			final IType receiverType, final ChainIndex index) {
 		this.expectedTypes= expectedTypes;
 		this.excludedTypes= excludedTypes;
 		this.receiverType= receiverType;
+		this.index= index;
+	}
+
+	private static ThreadPoolExecutor createExecutor() {
+		final int threads= Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+		final ThreadPoolExecutor executor= new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			final Thread thread= new Thread(runnable, "Call Chain Search"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Returns the executor that runs the searches. A task of the executor may start a search, the
+	 * thread that starts a search runs the parts of it the executor has not started.
+	 *
+	 * @return the executor
+	 */
+	public static Executor getExecutor() {
+		return EXECUTOR;
 	}
 
+	/**
+	 * Searches the chains to every expected type. The expected types are searched in parallel,
+	 * the chains found so far are available from {@link #getChains()} while the search is
+	 * running. The chains are ordered by expected type as if the types were searched one after the
+	 * other, so the chains found are the same in every search.
+	 *
+	 * @param entrypoints the elements the chains start with
+	 * @param maxChains the maximal number of chains to find
+	 * @param minDepth the minimal length of a chain
+	 * @param maxDepth the maximal length of a chain
+	 */
 	public void startChainSearch(final List<ChainElement> entrypoints, final int maxChains, final int minDepth,
 			final int maxDepth) {
+		final List<ChainType> searchedTypes= new ArrayList<>();
 		for (final ChainType expected : expectedTypes) {
 			if (expected != null && !ChainFinder.isFromExcludedType(excludedTypes, expected)) {
-				ChainType expectedType= expected;
-				int expectedDimension= 0;
-				if (expectedType.getDimension() > 0) {
-					expectedDimension= expectedType.getDimension();
+				searchedTypes.add(expected);
+			}
+		}
+		final List<List<Chain>> results= new ArrayList<>(searchedTypes.size());
+		for (int i= 0; i < searchedTypes.size(); i++) {
+			results.add(new ArrayList<>());
+		}
+		this.maxChains= maxChains;
+		chainsByType= results;
+		if (searchedTypes.size() == 1) {
+			searchChainsForExpectedType(0, searchedTypes.get(0), entrypoints, minDepth, maxDepth);
+			return;
+		}
+
+		final List<FutureTask<?>> tasks= new ArrayList<>(searchedTypes.size());
+		for (int i= 0; i < searchedTypes.size(); i++) {
+			final int typeIndex= i;
+			final FutureTask<?> task= new FutureTask<>(() -> searchChainsForExpectedType(typeIndex, searchedTypes.get(typeIndex), entrypoints, minDepth, maxDepth), null);
+			tasks.add(task);
+			EXECUTOR.execute(task);
+		}
+		for (final FutureTask<?> task : tasks) {
+			// runs the task unless the executor has started it, the search never waits for a busy executor
+			task.run();
+			try {
+				task.get();
+			} catch (final InterruptedException e) {
+				cancel();
+				Thread.currentThread().interrupt();
+				return;
+			} catch (final ExecutionException e) {
+				final Throwable cause= e.getCause();
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error) {
+					throw (Error) cause;
 				}
-				searchChainsForExpectedType(expectedType, expectedDimension, entrypoints, maxChains, minDepth,
-						maxDepth);
+				throw new IllegalStateException(cause);
 			}
 		}
 	}
@@ -66,19 +158,17 @@ public class ChainFinder {
 		isCanceled= true;
 	}
 
-	private void searchChainsForExpectedType(final ChainType expectedType, final int expectedDimensions,
-			final List<ChainElement> entrypoints, final int maxChains, final int minDepth, final int maxDepth) {
-		final LinkedList<LinkedList<ChainElement>> incompleteChains= prepareQueue(entrypoints);
+	private void searchChainsForExpectedType(final int typeIndex, final ChainType expectedType, final List<ChainElement> entrypoints,
+			final int minDepth, final int maxDepth) {
+		final int expectedDimensions= Math.max(0, expectedType.getDimension());
+		final Deque<List<ChainElement>> incompleteChains= prepareQueue(entrypoints);
 
-		while (!incompleteChains.isEmpty() && !isCanceled) {
-			final LinkedList<ChainElement> chain= incompleteChains.poll();
-			final ChainElement edge= chain.getLast();
+		while (!incompleteChains.isEmpty() && !isCanceled && !hasEnoughChainsBefore(typeIndex)) {
+			final List<ChainElement> chain= incompleteChains.poll();
+			final ChainElement edge= chain.get(chain.size() - 1);
 			if (isValidEndOfChain(edge, expectedType, expectedDimensions)) {
-				if (chain.size() >= minDepth) {
-					chains.add(new Chain(chain, expectedDimensions));
-					if (chains.size() == maxChains) {
-						break;
-					}
+				if (chain.size() >= minDepth && !addChain(typeIndex, new Chain(chain, expectedDimensions))) {
+					break;
 				}
 				continue;
 			}
@@ -88,20 +178,63 @@ public class ChainFinder {
 		}
 	}
 
+	/**
+	 * @param typeIndex the index of the expected type of the chain
+	 * @param chain the chain to add
+	 * @return <code>false</code> if no more chains are needed for the expected type
+	 */
+	private boolean addChain(final int typeIndex, final Chain chain) {
+		final List<Chain> chains= chainsByType.get(typeIndex);
+		synchronized (chains) {
+			if (chains.size() < maxChains) {
+				chains.add(chain);
+			}
+			return chains.size() < maxChains;
+		}
+	}
+
+	/**
+	 * @param typeIndex the index of an expected type
+	 * @return <code>true</code> if the chains of the preceding expected types are enough, the
+	 *         chains of the expected type are not needed
+	 */
+	private boolean hasEnoughChainsBefore(final int typeIndex) {
+		int count= 0;
+		for (int i= 0; i < typeIndex; i++) {
+			final List<Chain> chains= chainsByType.get(i);
+			synchronized (chains) {
+				count+= chains.size();
+			}
+		}
+		return count >= maxChains;
+	}
+
 	/**
 	 * Returns the potentially incomplete list of call chains that could be found before a time out
-	 * happened. The contents of this list are mutable and may change as the search makes progress.
+	 * happened. The chains are ordered by expected type, the list has at most the maximal number of
+	 * chains. The returned list is a copy, the search may find more chains after this call.
 	 *
 	 * @return The list of call chains
 	 */
 	public List<Chain> getChains() {
-		return chains;
+		final List<Chain> result= new ArrayList<>();
+		for (final List<Chain> chains : chainsByType) {
+			synchronized (chains) {
+				for (final Chain chain : chains) {
+					if (result.size() >= maxChains) {
+						return result;
+					}
+					result.add(chain);
+				}
+			}
+		}
+		return result;
 	}
 
-	private static LinkedList<LinkedList<ChainElement>> prepareQueue(final List<ChainElement> entrypoints) {
-		final LinkedList<LinkedList<ChainElement>> incompleteChains= new LinkedList<>();
+	private static Deque<List<ChainElement>> prepareQueue(final List<ChainElement> entrypoints) {
+		final Deque<List<ChainElement>> incompleteChains= new ArrayDeque<>();
 		for (final ChainElement entrypoint : entrypoints) {
-			final LinkedList<ChainElement> chain= new LinkedList<>();
+			final List<ChainElement> chain= new ArrayList<>(1);
 			chain.add(entrypoint);
 			incompleteChains.add(chain);
 		}
@@ -134,59 +267,31 @@ public class ChainFinder {
 		if (expectedType.getPrimitiveType() != null) {
 			return expectedType.getPrimitiveType().equals(edge.getReturnType().getPrimitiveType());
 		}
-		Boolean isAssignable= assignableCache.get(edge.toString() + expectedType.toString());
-		if (isAssignable == null) {
-			isAssignable= ChainElementAnalyzer.isAssignable(edge, expectedType.getType(), expectedDimension);
-			assignableCache.put(edge.toString() + expectedType.toString(), isAssignable);
-		}
-		return isAssignable;
+		return index.isAssignable(edge, expectedType.getType(), expectedDimension);
 	}
 
-	private void searchDeeper(final LinkedList<ChainElement> chain,
-			final List<LinkedList<ChainElement>> incompleteChains, final ChainType currentlyVisitedType) {
+	private void searchDeeper(final List<ChainElement> chain,
+			final Deque<List<ChainElement>> incompleteChains, final ChainType currentlyVisitedType) {
 		boolean staticOnly= false;
-		if (chain.getLast().getElementType() == ElementType.TYPE) {
+		if (chain.get(chain.size() - 1).getElementType() == ElementType.TYPE) {
 			staticOnly= true;
 		}
 
-		for (final IJavaElement element : findAllFieldsAndMethods(currentlyVisitedType, staticOnly)) {
-			final ChainElement newEdge= createEdge(element);
+		for (final IJavaElement element : index.getFieldsAndMethods(currentlyVisitedType, receiverType, staticOnly)) {
+			if (ChainFinder.isFromExcludedType(excludedTypes, element)) {
+				continue;
+			}
+			final ChainElement newEdge= index.getEdge(element);
 			if (newEdge.getElementType() != null && !chain.contains(newEdge)) {
 				incompleteChains.add(cloneChainAndAppendEdge(chain, newEdge));
 			}
 		}
 	}
 
-	private List<IJavaElement> findAllFieldsAndMethods(final ChainType chainElementType, boolean staticOnly) {
-		List<IJavaElement> cached= fieldsAndMethodsCache.get(chainElementType.toString() + Boolean.toString(staticOnly));
-		if (cached == null) {
-			cached= new LinkedList<>();
-			Collection<IJavaElement> candidates= staticOnly
-					? ChainElementAnalyzer.findAllPublicStaticFieldsAndNonVoidNonPrimitiveStaticMethods(chainElementType, new ChainType(receiverType))
-					: ChainElementAnalyzer.findVisibleInstanceFieldsAndRelevantInstanceMethods(chainElementType, new ChainType(receiverType));
-			for (final IJavaElement e : candidates) {
-				if (!ChainFinder.isFromExcludedType(excludedTypes, e)) {
-					cached.add(e);
-				}
-			}
-			fieldsAndMethodsCache.put(chainElementType.toString() + Boolean.toString(staticOnly), cached);
-		}
-		return cached;
-	}
-
-	private ChainElement createEdge(final IJavaElement member) {
-		ChainElement cached= edgeCache.get(member);
-		if (cached == null) {
-			cached= new ChainElement(member, false);
-			edgeCache.put(member, cached);
-		}
-		return cached;
-	}
-
-	private static LinkedList<ChainElement> cloneChainAndAppendEdge(final LinkedList<ChainElement> chain,
+	private static List<ChainElement> cloneChainAndAppendEdge(final List<ChainElement> chain,
 			final ChainElement newEdge) {
-		@SuppressWarnings("unchecked")
-		final LinkedList<ChainElement> chainCopy= (LinkedList<ChainElement>) chain.clone();
+		final List<ChainElement> chainCopy= new ArrayList<>(chain.size() + 1);
+		chainCopy.addAll(chain);
 		chainCopy.add(newEdge);
 		return chainCopy;
 	}
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Memoizes the edges of the call chain search of a Java project: the fields and methods
+ * reachable from a type, the chain element of every member and the assignability of types. The
+ * index is shared by all searches in the project, including concurrent ones, and is invalidated
+ * by Java element deltas:
+ * <ul>
+ * <li>a structural change of a compilation unit invalidates the members of every type whose
+ * hierarchy contains a type of the unit, and the chain elements of its members</li>
+ * <li>a change of the super types of a type, or a coarse change of a unit, invalidates all
+ * assignability results</li>
+ * <li>a change of the class path or of an archive, or closing or removing the project, drops the
+ * index of the project</li>
+ * </ul>
+ * The indexes of the most recently used projects are kept only, and each index drops its results
+ * of a kind when their number exceeds a limit.
+ */
+public final class ChainIndex {
+
+	/** The maximal number of projects with an index */
+	private static final int MAX_PROJECTS= 8;
+
+	/** The maximal number of member lists of an index */
+	private static final int MAX_MEMBERS= 5000;
+
+	/** The maximal number of chain elements of an index */
+	private static final int MAX_EDGES= 20000;
+
+	/** The maximal number of assignability results of an index */
+	private static final int MAX_ASSIGNABLE= 20000;
+
+	/**
+	 * The indexes of the most recently used projects, guarded by itself.
+	 */
+	private static final Map<IJavaProject, ChainIndex> fgIndexes= new LinkedHashMap<IJavaProject, ChainIndex>(16, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IJavaProject, ChainIndex> eldest) {
+			return size() > MAX_PROJECTS;
+		}
+	};
+
+	private static IElementChangedListener fgListener;
+
+	private static final class MemberKey {
+
+		private final IType fType;
+		private final IType fReceiverType;
+		private final boolean fStaticOnly;
+
+		MemberKey(IType type, IType receiverType, boolean staticOnly) {
+			fType= type;
+			fReceiverType= receiverType;
+			fStaticOnly= staticOnly;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fType, fReceiverType, Boolean.valueOf(fStaticOnly));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof MemberKey))
+				return false;
+			MemberKey other= (MemberKey) obj;
+			return fStaticOnly == other.fStaticOnly && fType.equals(other.fType) && Objects.equals(fReceiverType, other.fReceiverType);
+		}
+	}
+
+	private static final class Members {
+
+		private final List<IJavaElement> fElements;
+		private final List<IType> fHierarchy;
+
+		Members(List<IJavaElement> elements, List<IType> hierarchy) {
+			fElements= elements;
+			fHierarchy= hierarchy;
+		}
+	}
+
+	private static final class AssignableKey {
+
+		private final IType fType;
+		private final int fDimension;
+		private final IType fExpectedType;
+		private final int fExpectedDimension;
+
+		AssignableKey(IType type, int dimension, IType expectedType, int expectedDimension) {
+			fType= type;
+			fDimension= dimension;
+			fExpectedType= expectedType;
+			fExpectedDimension= expectedDimension;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fType, fExpectedType) * 31 + fDimension * 7 + fExpectedDimension;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof AssignableKey))
+				return false;
+			AssignableKey other= (AssignableKey) obj;
+			return fDimension == other.fDimension && fExpectedDimension == other.fExpectedDimension
+					&& fType.equals(other.fType) && fExpectedType.equals(other.fExpectedType);
+		}
+	}
+
+	private final Map<MemberKey, Members> fMembers= new ConcurrentHashMap<>();
+
+	private final Map<IJavaElement, ChainElement> fEdges= new ConcurrentHashMap<>();
+
+	private final Map<AssignableKey, Boolean> fAssignable= new ConcurrentHashMap<>();
+
+	/**
+	 * Creates an index which is not shared and not invalidated by deltas.
+	 */
+	public ChainIndex() {
+	}
+
+	/**
+	 * Returns the shared index of the given project.
+	 *
+	 * @param project the project
+	 * @return the index
+	 */
+	public static ChainIndex get(IJavaProject project) {
+		synchronized (fgIndexes) {
+			if (fgListener == null) {
+				fgListener= ChainIndex::elementChanged;
+				JavaCore.addElementChangedListener(fgListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+			}
+			return fgIndexes.computeIfAbsent(project, p -> new ChainIndex());
+		}
+	}
+
+	/**
+	 * Drops all shared indexes and stops listening to deltas.
+	 */
+	public static void disposeAll() {
+		synchronized (fgIndexes) {
+			if (fgListener != null) {
+				JavaCore.removeElementChangedListener(fgListener);
+				fgListener= null;
+			}
+			fgIndexes.clear();
+		}
+	}
+
+	/**
+	 * Returns the fields and methods that can be reached from a value of the given type, not
+	 * filtered by the excluded types.
+	 *
+	 * @param type the type of the value
+	 * @param receiverType the type from which the members are accessed
+	 * @param staticOnly <code>true</code> to find the static members for a type reference
+	 * @return the fields and methods
+	 */
+	public List<IJavaElement> getFieldsAndMethods(ChainType type, IType receiverType, boolean staticOnly) {
+		if (type.getType() == null)
+			return Collections.emptyList();
+
+		MemberKey key= new MemberKey(type.getType(), receiverType, staticOnly);
+		Members members= fMembers.get(key);
+		if (members == null) {
+			ChainType receiver= new ChainType(receiverType);
+			Collection<IJavaElement> elements= staticOnly
+					? ChainElementAnalyzer.findAllPublicStaticFieldsAndNonVoidNonPrimitiveStaticMethods(type, receiver)
+					: ChainElementAnalyzer.findVisibleInstanceFieldsAndRelevantInstanceMethods(type, receiver);
+			members= new Members(Collections.unmodifiableList(new ArrayList<>(elements)), ChainElementAnalyzer.findAllSupertypesIncludingArgument(type));
+			members= putBounded(fMembers, key, members, MAX_MEMBERS);
+		}
+		return members.fElements;
+	}
+
+	/**
+	 * @param member a field, method or type
+	 * @return the chain element of the member
+	 */
+	public ChainElement getEdge(IJavaElement member) {
+		ChainElement edge= fEdges.get(member);
+		if (edge == null) {
+			edge= putBounded(fEdges, member, new ChainElement(member, false), MAX_EDGES);
+		}
+		return edge;
+	}
+
+	/**
+	 * @param edge the edge
+	 * @param expectedType the expected type
+	 * @param expectedDimension the expected array dimension
+	 * @return <code>true</code> if the return type of the edge is assignable to the expected type
+	 * @see ChainElementAnalyzer#isAssignable(ChainElement, IType, int)
+	 */
+	public boolean isAssignable(ChainElement edge, IType expectedType, int expectedDimension) {
+		IType type= edge.getReturnType().getType();
+		if (type == null || expectedType == null)
+			return ChainElementAnalyzer.isAssignable(edge, expectedType, expectedDimension);
+
+		AssignableKey key= new AssignableKey(type, edge.getReturnTypeDimension(), expectedType, expectedDimension);
+		Boolean result= fAssignable.get(key);
+		if (result == null) {
+			result= putBounded(fAssignable, key, Boolean.valueOf(ChainElementAnalyzer.isAssignable(edge, expectedType, expectedDimension)), MAX_ASSIGNABLE);
+		}
+		return result.booleanValue();
+	}
+
+	/**
+	 * Adds the value unless the map has one for the key. All values are dropped first if the map
+	 * has reached the given size.
+	 *
+	 * @param map the map
+	 * @param key the key
+	 * @param value the value
+	 * @param maxSize the maximal size of the map
+	 * @return the value of the key in the map
+	 */
+	private static <K, V> V putBounded(Map<K, V> map, K key, V value, int maxSize) {
+		if (map.size() >= maxSize)
+			map.clear();
+		V existing= map.putIfAbsent(key, value);
+		return existing != null ? existing : value;
+	}
+
+	private void invalidate(Set<ICompilationUnit> units, boolean hierarchyChanged) {
+		if (hierarchyChanged)
+			fAssignable.clear();
+		if (units.isEmpty())
+			return;
+
+		fMembers.values().removeIf(members -> {
+			for (IType type : members.fHierarchy) {
+				if (units.contains(type.getCompilationUnit()))
+					return true;
+			}
+			return false;
+		});
+		fEdges.keySet().removeIf(element -> units.contains(element.getAncestor(IJavaElement.COMPILATION_UNIT)));
+	}
+
+	private static void elementChanged(ElementChangedEvent event) {
+		Set<ICompilationUnit> units= new HashSet<>();
+		Set<IJavaProject> droppedProjects= new HashSet<>();
+		boolean hierarchyChanged= processDelta(event.getDelta(), units, droppedProjects);
+		if (units.isEmpty() && droppedProjects.isEmpty() && !hierarchyChanged)
+			return;
+
+		List<ChainIndex> indexes;
+		synchronized (fgIndexes) {
+			fgIndexes.keySet().removeAll(droppedProjects);
+			indexes= new ArrayList<>(fgIndexes.values());
+		}
+		if (hierarchyChanged || !droppedProjects.isEmpty())
+			ChainElementAnalyzer.clearTypeCache();
+		for (ChainIndex index : indexes) {
+			index.invalidate(units, hierarchyChanged || !droppedProjects.isEmpty());
+		}
+	}
+
+	/**
+	 * Collects the compilation units with structural changes and the projects whose index has
+	 * to be dropped.
+	 *
+	 * @param delta the delta
+	 * @param units the set to add the changed compilation units to
+	 * @param droppedProjects the set to add the projects to
+	 * @return <code>true</code> if a type hierarchy might have changed
+	 */
+	private static boolean processDelta(IJavaElementDelta delta, Set<ICompilationUnit> units, Set<IJavaProject> droppedProjects) {
+		IJavaElement element= delta.getElement();
+		int flags= delta.getFlags();
+		switch (element.getElementType()) {
+		case IJavaElement.JAVA_MODEL:
+			break;
+		case IJavaElement.JAVA_PROJECT:
+			// closed and removed projects are dropped, the index of an added project is stale
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (flags & (IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED)) != 0) {
+				droppedProjects.add((IJavaProject) element);
+				return true;
+			}
+			break;
+		case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+		case IJavaElement.PACKAGE_FRAGMENT:
+			if (delta.getKind() != IJavaElementDelta.CHANGED
+					|| (flags & (IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0) {
+				droppedProjects.add(element.getJavaProject());
+				return true;
+			}
+			break;
+		case IJavaElement.COMPILATION_UNIT:
+			return processCompilationUnitDelta(delta, units);
+		default:
+			return false;
+		}
+
+		boolean hierarchyChanged= false;
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			hierarchyChanged|= processDelta(child, units, droppedProjects);
+		}
+		return hierarchyChanged;
+	}
+
+	private static boolean processCompilationUnitDelta(IJavaElementDelta delta, Set<ICompilationUnit> units) {
+		ICompilationUnit unit= ((ICompilationUnit) delta.getElement()).getPrimary();
+		if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0) {
+			// no details, e.g. the unit has been saved or changed on disk
+			if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_PRIMARY_RESOURCE)) != 0) {
+				units.add(unit);
+				return true;
+			}
+			return false;
+		}
+		if (delta.getAffectedChildren().length == 0)
+			return false; // only bodies changed
+
+		units.add(unit);
+		return hasHierarchyChange(delta);
+	}
+
+	private static boolean hasHierarchyChange(IJavaElementDelta delta) {
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			int type= child.getElement().getElementType();
+			if (type == IJavaElement.IMPORT_CONTAINER || type == IJavaElement.IMPORT_DECLARATION || type == IJavaElement.PACKAGE_DECLARATION)
+				return true; // changes the resolution of the super type names
+			if (type == IJavaElement.TYPE) {
+				if (child.getKind() != IJavaElementDelta.CHANGED || (child.getFlags() & IJavaElementDelta.F_SUPER_TYPES) != 0)
+					return true;
+			}
+			if (hasHierarchyChange(child))
+				return true;
+		}
+		return false;
+	}
+}
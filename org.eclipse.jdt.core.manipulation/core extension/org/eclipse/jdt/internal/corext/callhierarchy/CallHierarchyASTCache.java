@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.callhierarchy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+
+/**
+ * Workspace wide cache of the ASTs with resolved bindings that are created to find the callees of
+ * members.
+ * <p>
+ * Expanding several callee nodes of the same type root parses and resolves it only once. The
+ * bindings of an AST are resolved lazily and not thread safe, so an AST is lent to one expansion at
+ * a time: {@link #borrow(ITypeRoot)} removes it from the cache and {@link #giveBack(ITypeRoot,
+ * CompilationUnit, long)} puts it back when the expansion is done. An expansion that runs while
+ * the AST of its type root is lent creates its own AST. The ASTs must not be modified.
+ * </p>
+ * <p>
+ * ASTs are invalidated from Java element deltas: a change of a type root invalidates its AST,
+ * changes that are not restricted to the bodies of methods, fields and initializers invalidate all
+ * ASTs because their bindings may be stale. An AST that was created or lent while ASTs have been
+ * invalidated is not given back.
+ * </p>
+ * <p>
+ * Each AST keeps the lookup environment of its bindings alive, the cache keeps the most recently
+ * used ones only. Their number can be set with the system property
+ * <code>org.eclipse.jdt.core.manipulation.callHierarchy.astCacheSize</code>, the cache can be
+ * disabled with <code>org.eclipse.jdt.core.manipulation.callHierarchy.astCache=false</code>.
+ * </p>
+ */
+public final class CallHierarchyASTCache {
+
+	/** Whether ASTs are cached */
+	static final boolean ENABLED= Boolean.parseBoolean(System.getProperty("org.eclipse.jdt.core.manipulation.callHierarchy.astCache", "true")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/** The maximum number of cached ASTs */
+	private static final int MAX_ENTRIES= Integer.getInteger("org.eclipse.jdt.core.manipulation.callHierarchy.astCacheSize", 4).intValue(); //$NON-NLS-1$
+
+	private final class DeltaListener implements IElementChangedListener {
+
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			if (!processDelta(event.getDelta()))
+				clear();
+		}
+
+		/**
+		 * Invalidates the ASTs affected by the given delta.
+		 *
+		 * @param delta the delta
+		 * @return <code>false</code> if all ASTs must be invalidated
+		 */
+		private boolean processDelta(IJavaElementDelta delta) {
+			IJavaElement element= delta.getElement();
+			int kind= delta.getKind();
+			int flags= delta.getFlags();
+			switch (element.getElementType()) {
+				case IJavaElement.JAVA_MODEL:
+				case IJavaElement.JAVA_PROJECT:
+				case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				case IJavaElement.PACKAGE_FRAGMENT:
+					if (kind != IJavaElementDelta.CHANGED || (flags & ~(IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_CONTENT)) != 0)
+						return false;
+					break;
+				case IJavaElement.COMPILATION_UNIT:
+				case IJavaElement.CLASS_FILE:
+					if (kind != IJavaElementDelta.CHANGED)
+						return false;
+					invalidate((ITypeRoot) element);
+					if ((flags & IJavaElementDelta.F_CONTENT) != 0 && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0)
+						return false;
+					break;
+				case IJavaElement.TYPE:
+					if (kind != IJavaElementDelta.CHANGED || (flags & ~IJavaElementDelta.F_CHILDREN) != 0)
+						return false;
+					break;
+				case IJavaElement.METHOD:
+				case IJavaElement.FIELD:
+				case IJavaElement.INITIALIZER:
+					// a change of the body does not change the bindings of other type roots
+					if (kind != IJavaElementDelta.CHANGED || (flags & ~(IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) != 0)
+						return false;
+					break;
+				default:
+					return false;
+			}
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				if (!processDelta(child))
+					return false;
+			}
+			return true;
+		}
+	}
+
+	private static CallHierarchyASTCache fgDefault;
+
+	private final IElementChangedListener fListener;
+
+	private final Map<ITypeRoot, CompilationUnit> fEntries= new LinkedHashMap<ITypeRoot, CompilationUnit>(16, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ITypeRoot, CompilationUnit> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/** Incremented whenever entries are invalidated */
+	private long fModificationStamp;
+
+	private long fHits;
+	private long fMisses;
+	private long fInvalidations;
+
+	private CallHierarchyASTCache() {
+		if (ENABLED) {
+			fListener= new DeltaListener();
+			JavaCore.addElementChangedListener(fListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		} else {
+			fListener= null;
+		}
+	}
+
+	/**
+	 * @return the workspace wide cache
+	 */
+	public static synchronized CallHierarchyASTCache getDefault() {
+		if (fgDefault == null)
+			fgDefault= new CallHierarchyASTCache();
+		return fgDefault;
+	}
+
+	/**
+	 * Removes the listener and the entries of the workspace wide cache, if it has been created.
+	 */
+	public static void disposeDefault() {
+		CallHierarchyASTCache cache;
+		synchronized (CallHierarchyASTCache.class) {
+			cache= fgDefault;
+			fgDefault= null;
+		}
+		if (cache != null) {
+			if (cache.fListener != null)
+				JavaCore.removeElementChangedListener(cache.fListener);
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Lends the cached AST of the given type root to the caller. The AST is removed from the cache
+	 * until it is given back, no other caller gets it in the meantime.
+	 *
+	 * @param typeRoot the type root
+	 * @return the AST with resolved bindings or <code>null</code> if there is none
+	 * @see #giveBack(ITypeRoot, CompilationUnit, long)
+	 */
+	synchronized CompilationUnit borrow(ITypeRoot typeRoot) {
+		if (!ENABLED)
+			return null;
+		CompilationUnit ast= fEntries.remove(getKey(typeRoot));
+		if (ast != null)
+			fHits++;
+		else
+			fMisses++;
+		return ast;
+	}
+
+	/**
+	 * Returns the modification stamp that must be passed to
+	 * {@link #giveBack(ITypeRoot, CompilationUnit, long)}. It must be taken before the AST is
+	 * borrowed or created.
+	 *
+	 * @return the current modification stamp
+	 */
+	synchronized long getModificationStamp() {
+		return fModificationStamp;
+	}
+
+	/**
+	 * Gives back a borrowed or created AST of the given type root. The caller must not use the AST
+	 * anymore. It is cached unless ASTs have been invalidated since the given modification stamp or
+	 * another AST of the type root has been given back in the meantime.
+	 *
+	 * @param typeRoot the type root
+	 * @param ast the AST with resolved bindings
+	 * @param stamp the modification stamp before the AST has been borrowed or created
+	 */
+	synchronized void giveBack(ITypeRoot typeRoot, CompilationUnit ast, long stamp) {
+		if (ENABLED && fModificationStamp == stamp)
+			fEntries.putIfAbsent(getKey(typeRoot), ast);
+	}
+
+	/**
+	 * @return the number of cached ASTs, not counting the lent ones
+	 */
+	public synchronized int size() {
+		return fEntries.size();
+	}
+
+	private synchronized void invalidate(ITypeRoot typeRoot) {
+		fModificationStamp++;
+		if (fEntries.remove(getKey(typeRoot)) != null)
+			fInvalidations++;
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		fModificationStamp++;
+		fInvalidations+= fEntries.size();
+		fEntries.clear();
+	}
+
+	private static ITypeRoot getKey(ITypeRoot typeRoot) {
+		// the deltas of primary working copies are reported on the working copies
+		if (typeRoot instanceof ICompilationUnit)
+			return ((ICompilationUnit) typeRoot).getPrimary();
+		return typeRoot;
+	}
+
+	/**
+	 * @return the number of lookups that found an AST
+	 */
+	public synchronized long getHits() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of lookups that did not find an AST
+	 */
+	public synchronized long getMisses() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of ASTs that have been invalidated
+	 */
+	public synchronized long getInvalidations() {
+		return fInvalidations;
+	}
+
+	/**
+	 * @return the ratio of lookups that found an AST, <code>0</code> if there were no lookups
+	 */
+	public synchronized double getHitRate() {
+		long lookups= fHits + fMisses;
+		return lookups == 0 ? 0 : (double) fHits / lookups;
+	}
+
+	public synchronized void resetStatistics() {
+		fHits= 0;
+		fMisses= 0;
+		fInvalidations= 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "CallHierarchyASTCache [entries=" + fEntries.size() + ", hits=" + fHits + ", misses=" + fMisses + ", invalidations=" + fInvalidations + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+}
@@ -23,6 +23,7 @@ import java.util.Map;
 import org.eclipse.core.runtime.IProgressMonitor;
 
 import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.ITypeRoot;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 
 class CalleeMethodWrapper extends MethodWrapper {
@@ -90,16 +91,26 @@ class CalleeMethodWrapper extends MethodWrapper {
 	protected Map<String, MethodCall> findChildren(IProgressMonitor progressMonitor) {
     	IMember member= getMember();
 		if (member.exists()) {
-			CompilationUnit cu= CallHierarchyCore.getCompilationUnitNode(member, true);
+			// the AST is lent to this expansion only, its bindings must not be resolved concurrently
+			CallHierarchyASTCache cache= CallHierarchyASTCache.getDefault();
+			ITypeRoot typeRoot= member.getTypeRoot();
+			long stamp= cache.getModificationStamp();
+			CompilationUnit cu= cache.borrow(typeRoot);
+			if (cu == null)
+				cu= CallHierarchyCore.getCompilationUnitNode(member, true);
 		    if (progressMonitor != null) {
 		        progressMonitor.worked(5);
 		    }
 
 			if (cu != null) {
-				CalleeAnalyzerVisitor visitor = new CalleeAnalyzerVisitor(this.getMethodCall().getFirstCallLocation(), member, cu, progressMonitor);
-
-				cu.accept(visitor);
-				return visitor.getCallees();
+				try {
+					CalleeAnalyzerVisitor visitor = new CalleeAnalyzerVisitor(this.getMethodCall().getFirstCallLocation(), member, cu, progressMonitor);
+
+					cu.accept(visitor);
+					return visitor.getCallees();
+				} finally {
+					cache.giveBack(typeRoot, cu, stamp);
+				}
 			}
 		}
         return new HashMap<>(0);
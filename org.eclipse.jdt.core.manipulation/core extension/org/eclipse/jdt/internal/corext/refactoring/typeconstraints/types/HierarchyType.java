@@ -13,8 +13,6 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types;
 
-import java.util.Map;
-
 import org.eclipse.core.runtime.Assert;
 
 import org.eclipse.jdt.core.IType;
@@ -62,14 +60,12 @@ public abstract class HierarchyType extends TType {
 
 	public boolean isSubType(HierarchyType other) {
 		if (getEnvironment() == other.getEnvironment()) {
-			Map<TypeTuple, Boolean> cache= getEnvironment().getSubTypeCache();
 			TypeTuple key= new TypeTuple(this, other);
-			Boolean value= cache.get(key);
+			Boolean value= getEnvironment().getCachedSubTypeRelation(key);
 			if (value != null)
 				return value;
 			boolean isSub= doIsSubType(other);
-			value= isSub;
-			cache.put(key, value);
+			getEnvironment().cacheSubTypeRelation(key, isSub);
 			return isSub;
 		}
 		return doIsSubType(other);
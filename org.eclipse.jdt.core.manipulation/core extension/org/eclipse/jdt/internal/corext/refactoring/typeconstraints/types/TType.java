@@ -71,6 +71,7 @@ public abstract class TType {
 	protected static final TType[] EMPTY_TYPE_ARRAY= new TType[0];
 
 	private TypeEnvironment fEnvironment;
+	private final int fIndex;
 	private String fBindingKey;
 	private int fModifiers;
 	private int fFlags;
@@ -83,6 +84,7 @@ public abstract class TType {
 	 */
 	protected TType(TypeEnvironment environment) {
 		fEnvironment= environment;
+		fIndex= environment.registerType(this);
 	}
 
 	/**
@@ -142,6 +144,17 @@ public abstract class TType {
 		return fEnvironment;
 	}
 
+	/**
+	 * Returns the index of this type in its environment. Indices are dense and assigned in
+	 * creation order, so they can be used to represent sets of types as bit sets.
+	 *
+	 * @return the index of this type
+	 * @see TypeEnvironment#getType(int)
+	 */
+	public int getIndex() {
+		return fIndex;
+	}
+
 	/**
 	 * Returns the key of the binding from which this type
 	 * got constructed.
@@ -70,6 +70,9 @@ public class TypeEnvironment {
 		}
 	}
 
+	/** All types created by this environment, indexed by {@link TType#getIndex()} */
+	private final List<TType> fTypes= new ArrayList<>();
+
 	/** Type code for the primitive type "int". */
 	public final PrimitiveType INT= new PrimitiveType(this, PrimitiveType.INT, BindingKey.createTypeBindingKey("int")); //$NON-NLS-1$
 	/** Type code for the primitive type "char". */
@@ -117,20 +120,40 @@ public class TypeEnvironment {
 	private Map<TType, SuperWildcardType>    fSuperWildcardTypes= new HashMap<>();
 	private UnboundWildcardType fUnboundWildcardType= null;
 
-	private static final int MAX_ENTRIES= 1024;
+	/**
+	 * The default maximal number of cached subtype relations, can be set with the system property
+	 * <code>org.eclipse.jdt.core.manipulation.typeEnvironment.subTypeCacheSize</code>.
+	 */
+	private static final int DEFAULT_SUBTYPE_CACHE_SIZE= Integer.getInteger("org.eclipse.jdt.core.manipulation.typeEnvironment.subTypeCacheSize", 1024).intValue(); //$NON-NLS-1$
+
+	/** Rough estimate of the retained size of a type without its binding key, in bytes */
+	private static final int TYPE_SIZE= 96;
+
+	/** Rough estimate of the retained size of a cached subtype relation, in bytes */
+	private static final int SUBTYPE_CACHE_ENTRY_SIZE= 80;
+
+	private int fSubTypeCacheSize= DEFAULT_SUBTYPE_CACHE_SIZE;
 	private Map<TypeTuple, Boolean> fSubTypeCache= new LinkedHashMap<TypeTuple, Boolean>(50, 0.75f, true) {
 		private static final long serialVersionUID= 1L;
 		@Override
 		protected boolean removeEldestEntry(Map.Entry<TypeTuple, Boolean> eldest) {
-			return size() > MAX_ENTRIES;
+			return size() > fSubTypeCacheSize;
 		}
 	};
+	private long fSubTypeCacheHits;
+	private long fSubTypeCacheMisses;
 
 	/**
 	 * Map from TType to its known subtypes, or <code>null</code> iff subtype
 	 * information was not requested in the constructor.
 	 */
 	private Map<TType, ArrayList<TType>> fSubTypes;
+	/**
+	 * The types that got a new subtype in {@link #fSubTypes}, in the order in which the subtypes
+	 * have been added, or <code>null</code> iff subtype information was not requested in the
+	 * constructor.
+	 */
+	private List<TType> fSubTypeChanges;
 	/**
 	 * If <code>true</code>, replace all capture types by their wildcard type.
 	 * @since 3.7
@@ -178,12 +201,98 @@ public class TypeEnvironment {
 	public TypeEnvironment(boolean rememberSubtypes, boolean removeCapures) {
 		if (rememberSubtypes) {
 			fSubTypes= new HashMap<>();
+			fSubTypeChanges= new ArrayList<>();
 		}
 		fRemoveCapures= removeCapures;
 	}
 
-	Map<TypeTuple, Boolean> getSubTypeCache() {
-		return fSubTypeCache;
+	/**
+	 * Registers a newly created type.
+	 *
+	 * @param type the type
+	 * @return the index of the type
+	 */
+	int registerType(TType type) {
+		fTypes.add(type);
+		return fTypes.size() - 1;
+	}
+
+	/**
+	 * Returns the type with the given index.
+	 *
+	 * @param index the index, see {@link TType#getIndex()}
+	 * @return the type
+	 */
+	public TType getType(int index) {
+		return fTypes.get(index);
+	}
+
+	/**
+	 * @return the number of types created by this environment, an upper bound of the type
+	 *         indices
+	 */
+	public int getTypeCount() {
+		return fTypes.size();
+	}
+
+	/**
+	 * Returns the cached subtype relation between the types of the given tuple.
+	 *
+	 * @param tuple the subtype and the supertype
+	 * @return whether the first type is a subtype of the second type or <code>null</code> if
+	 *         this is not cached
+	 */
+	Boolean getCachedSubTypeRelation(TypeTuple tuple) {
+		Boolean result= fSubTypeCache.get(tuple);
+		if (result != null)
+			fSubTypeCacheHits++;
+		else
+			fSubTypeCacheMisses++;
+		return result;
+	}
+
+	void cacheSubTypeRelation(TypeTuple tuple, boolean isSubType) {
+		fSubTypeCache.put(tuple, Boolean.valueOf(isSubType));
+	}
+
+	/**
+	 * Sets the maximal number of cached subtype relations.
+	 *
+	 * @param size the maximal number of cached relations
+	 */
+	public void setSubTypeCacheSize(int size) {
+		fSubTypeCacheSize= Math.max(0, size);
+		if (fSubTypeCache.size() > fSubTypeCacheSize)
+			fSubTypeCache.clear();
+	}
+
+	/**
+	 * @return the number of subtype checks answered from the cache
+	 */
+	public long getSubTypeCacheHits() {
+		return fSubTypeCacheHits;
+	}
+
+	/**
+	 * @return the number of subtype checks that had to be computed
+	 */
+	public long getSubTypeCacheMisses() {
+		return fSubTypeCacheMisses;
+	}
+
+	/**
+	 * Returns a rough estimate of the memory retained by this environment, based on the number
+	 * of types, the length of their binding keys and the number of cached subtype relations.
+	 *
+	 * @return the estimated size in bytes
+	 */
+	public long getEstimatedSize() {
+		long size= (long) fSubTypeCache.size() * SUBTYPE_CACHE_ENTRY_SIZE;
+		for (TType type : fTypes) {
+			String key= type.getBindingKey();
+			size+= TYPE_SIZE + (key != null ? 2L * key.length() : 0);
+		}
+		return size;
 	}
 
 	public TType create(ITypeBinding binding) {
@@ -291,6 +400,28 @@ public class TypeEnvironment {
 		return fSubTypes;
 	}
 
+	/**
+	 * Returns the number of subtypes that have been added to the known subtypes of the types of
+	 * this environment, see {@link TType#getSubTypes()}. Closures of the subtypes computed before
+	 * may be incomplete.
+	 *
+	 * @return the number of subtype changes, <code>0</code> if this environment does not
+	 *         remember subtypes
+	 */
+	public int getSubTypeChangeCount() {
+		return fSubTypeChanges == null ? 0 : fSubTypeChanges.size();
+	}
+
+	/**
+	 * Returns the type that got a new subtype with the given subtype change.
+	 *
+	 * @param index the index of the change, less than {@link #getSubTypeChangeCount()}
+	 * @return the type whose known subtypes have been changed
+	 */
+	public TType getSubTypeChange(int index) {
+		return fSubTypeChanges.get(index);
+	}
+
 	private void cacheSubType(TType supertype, TType result) {
 		if (fSubTypes == null)
 			return;
@@ -305,6 +436,7 @@ public class TypeEnvironment {
 			Assert.isTrue(! subtypes.contains(result));
 		}
 		subtypes.add(result);
+		fSubTypeChanges.add(supertype);
 	}
 
 	private void cacheSubTypes(TType[] interfaces, TType result) {
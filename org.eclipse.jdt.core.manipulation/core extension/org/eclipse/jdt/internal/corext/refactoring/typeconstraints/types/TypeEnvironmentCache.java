@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.corext.util.JavaElementDeltaClassifier;
+
+/**
+ * Keeps the {@link TypeEnvironment}s of finished refactorings per project, so that the next
+ * refactoring in the same project does not have to create the same types again.
+ * <p>
+ * An environment is {@link #acquire(IJavaProject) acquired} for exclusive use and
+ * {@link #release(IJavaProject, TypeEnvironment, Collection) released} with the projects whose
+ * bindings have been added to it when it is not used anymore. Only environments that neither
+ * remember subtypes nor remove captures are cached, and only types created from bindings of the
+ * primary working copies must be added to them.
+ * </p>
+ * <p>
+ * Java element deltas that may change the types of a project, e.g. changes of super types,
+ * modifiers, imports or the class path or discarded working copies (see
+ * {@link JavaElementDeltaClassifier}), invalidate the environments that contain bindings of
+ * the project or of a project that requires it. An environment that is in use while the cache is
+ * invalidated is not cached on release. The estimated size of all cached environments is bounded, the least
+ * recently used environments are dropped first.
+ * </p>
+ * <p>
+ * The cache is disabled by default and can be enabled with the system property
+ * <code>org.eclipse.jdt.core.manipulation.typeEnvironmentCache=true</code>. The maximal size
+ * in bytes and the size of the subtype caches of the cached environments can be set with
+ * <code>org.eclipse.jdt.core.manipulation.typeEnvironmentCache.maxSize</code> and
+ * <code>org.eclipse.jdt.core.manipulation.typeEnvironmentCache.subTypeCacheSize</code>.
+ * </p>
+ */
+public final class TypeEnvironmentCache {
+
+	/** Whether type environments are cached */
+	static final boolean ENABLED= Boolean.getBoolean("org.eclipse.jdt.core.manipulation.typeEnvironmentCache"); //$NON-NLS-1$
+
+	/** The maximal estimated size of all cached environments, in bytes */
+	private static final long MAX_SIZE= Long.getLong("org.eclipse.jdt.core.manipulation.typeEnvironmentCache.maxSize", 32L * 1024 * 1024).longValue(); //$NON-NLS-1$
+
+	/** The size of the subtype caches of the environments created by this cache */
+	private static final int SUBTYPE_CACHE_SIZE= Integer.getInteger("org.eclipse.jdt.core.manipulation.typeEnvironmentCache.subTypeCacheSize", 16 * 1024).intValue(); //$NON-NLS-1$
+
+	private static final class Entry {
+
+		private final TypeEnvironment fEnvironment;
+		private final long fSize;
+		/** The projects whose bindings have been added to the environment */
+		private final Set<IJavaProject> fProjects;
+
+		Entry(TypeEnvironment environment, long size, Set<IJavaProject> projects) {
+			fEnvironment= environment;
+			fSize= size;
+			fProjects= projects;
+		}
+	}
+
+	private static final class Acquisition {
+
+		private final long fModificationStamp;
+		/** The projects whose bindings have been added to the environment by previous users */
+		private final Set<IJavaProject> fProjects;
+
+		Acquisition(long modificationStamp, Set<IJavaProject> projects) {
+			fModificationStamp= modificationStamp;
+			fProjects= projects;
+		}
+	}
+
+	private final class DeltaListener implements IElementChangedListener {
+
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			Set<IJavaProject> affected= new HashSet<>();
+			// collects the projects whose types may be changed
+			JavaElementDeltaClassifier.classify(event.getDelta(), delta -> {
+				affected.add(delta.getElement().getJavaProject());
+				return true;
+			});
+			if (!affected.isEmpty())
+				invalidate(affected);
+		}
+	}
+
+	private static TypeEnvironmentCache fgDefault;
+
+	/** The cached environments, in least recently used order */
+	private final Map<IJavaProject, Entry> fEntries= new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The environments in use */
+	private final Map<TypeEnvironment, Acquisition> fAcquired= new IdentityHashMap<>();
+
+	private final boolean fEnabled;
+
+	private final DeltaListener fListener;
+
+	/** Incremented whenever entries are invalidated */
+	private long fModificationStamp;
+
+	/** The estimated size of all cached environments */
+	private long fSize;
+
+	private long fHits;
+	private long fMisses;
+	private long fInvalidations;
+
+	/**
+	 * Creates a cache. Refactorings use the cache returned by {@link #getDefault()}, other caches
+	 * must be {@link #dispose() disposed}.
+	 *
+	 * @param enabled whether environments are cached
+	 */
+	public TypeEnvironmentCache(boolean enabled) {
+		fEnabled= enabled;
+		if (enabled) {
+			fListener= new DeltaListener();
+			JavaCore.addElementChangedListener(fListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+		} else {
+			fListener= null;
+		}
+	}
+
+	/**
+	 * @return the workspace wide cache
+	 */
+	public static synchronized TypeEnvironmentCache getDefault() {
+		if (fgDefault == null)
+			fgDefault= new TypeEnvironmentCache(ENABLED);
+		return fgDefault;
+	}
+
+	/**
+	 * Removes all entries and stops listening to Java element changes.
+	 */
+	public void dispose() {
+		if (fListener != null)
+			JavaCore.removeElementChangedListener(fListener);
+		clear();
+	}
+
+	/**
+	 * Returns a type environment for exclusive use by a refactoring in the given project. If the
+	 * cache is disabled, a new environment is returned.
+	 *
+	 * @param project the project of the refactoring
+	 * @return a cached or a new type environment, equivalent to one created with
+	 *         {@link TypeEnvironment#TypeEnvironment()}
+	 */
+	public synchronized TypeEnvironment acquire(IJavaProject project) {
+		if (!fEnabled)
+			return new TypeEnvironment();
+
+		TypeEnvironment environment;
+		Set<IJavaProject> projects;
+		Entry entry= fEntries.remove(project);
+		if (entry != null) {
+			fHits++;
+			fSize-= entry.fSize;
+			environment= entry.fEnvironment;
+			projects= entry.fProjects;
+		} else {
+			fMisses++;
+			environment= new TypeEnvironment();
+			environment.setSubTypeCacheSize(SUBTYPE_CACHE_SIZE);
+			projects= new HashSet<>();
+		}
+		fAcquired.put(environment, new Acquisition(fModificationStamp, projects));
+		return environment;
+	}
+
+	/**
+	 * Releases an environment returned by {@link #acquire(IJavaProject)}. The environment must
+	 * not be used anymore.
+	 *
+	 * @param project the project the environment has been acquired for
+	 * @param environment the environment
+	 * @param projects the projects whose bindings have been added to the environment, e.g. the
+	 *            projects of the referencing compilation units
+	 */
+	public synchronized void release(IJavaProject project, TypeEnvironment environment, Collection<IJavaProject> projects) {
+		Acquisition acquisition= fAcquired.remove(environment);
+		if (acquisition == null || acquisition.fModificationStamp != fModificationStamp)
+			return;
+
+		long size= environment.getEstimatedSize();
+		if (size > MAX_SIZE)
+			return;
+		Set<IJavaProject> allProjects= new HashSet<>(acquisition.fProjects);
+		allProjects.add(project);
+		allProjects.addAll(projects);
+		Entry previous= fEntries.put(project, new Entry(environment, size, allProjects));
+		if (previous != null)
+			fSize-= previous.fSize;
+		fSize+= size;
+		for (Iterator<Entry> iter= fEntries.values().iterator(); fSize > MAX_SIZE && iter.hasNext();) {
+			fSize-= iter.next().fSize;
+			iter.remove();
+		}
+	}
+
+	private synchronized void invalidate(Set<IJavaProject> affected) {
+		fModificationStamp++;
+		Set<String> names= new HashSet<>();
+		for (IJavaProject project : affected) {
+			names.add(project.getElementName());
+		}
+		for (Iterator<Entry> iter= fEntries.values().iterator(); iter.hasNext();) {
+			Entry entry= iter.next();
+			if (requiresAny(entry.fProjects, names)) {
+				fSize-= entry.fSize;
+				iter.remove();
+				fInvalidations++;
+			}
+		}
+	}
+
+	private static boolean requiresAny(Set<IJavaProject> projects, Set<String> names) {
+		Set<String> visited= new HashSet<>();
+		for (IJavaProject project : projects) {
+			if (requires(project, names, visited))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Tells whether the given project is one of the named projects or requires one of them,
+	 * directly or indirectly.
+	 *
+	 * @param project the project
+	 * @param names the names of the projects
+	 * @param visited the names of the projects that have already been checked
+	 * @return <code>true</code> if the project depends on the named projects or if its class
+	 *         path could not be read
+	 */
+	private static boolean requires(IJavaProject project, Set<String> names, Set<String> visited) {
+		String name= project.getElementName();
+		if (names.contains(name))
+			return true;
+		if (!visited.add(name))
+			return false;
+		try {
+			for (String required : project.getRequiredProjectNames()) {
+				if (requires(project.getJavaModel().getJavaProject(required), names, visited))
+					return true;
+			}
+			return false;
+		} catch (JavaModelException e) {
+			return true;
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		fModificationStamp++;
+		fInvalidations+= fEntries.size();
+		fEntries.clear();
+		fSize= 0;
+	}
+
+	/**
+	 * @return the estimated size of all cached environments, in bytes
+	 */
+	public synchronized long getFootprint() {
+		return fSize;
+	}
+
+	/**
+	 * @return the number of acquisitions that returned a cached environment
+	 */
+	public synchronized long getHits() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of acquisitions that created a new environment
+	 */
+	public synchronized long getMisses() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of environments that have been invalidated
+	 */
+	public synchronized long getInvalidations() {
+		return fInvalidations;
+	}
+
+	/**
+	 * @return the ratio of acquisitions that returned a cached environment, <code>0</code> if
+	 *         there were no acquisitions
+	 */
+	public synchronized double getHitRate() {
+		long lookups= fHits + fMisses;
+		return lookups == 0 ? 0 : (double) fHits / lookups;
+	}
+
+	/**
+	 * @return the ratio of the subtype checks of the cached environments that were answered
+	 *         from their subtype caches, <code>0</code> if there were no checks
+	 */
+	public synchronized double getSubTypeCacheHitRate() {
+		long hits= 0;
+		long lookups= 0;
+		for (Entry entry : fEntries.values()) {
+			hits+= entry.fEnvironment.getSubTypeCacheHits();
+			lookups+= entry.fEnvironment.getSubTypeCacheHits() + entry.fEnvironment.getSubTypeCacheMisses();
+		}
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	public synchronized void resetStatistics() {
+		fHits= 0;
+		fMisses= 0;
+		fInvalidations= 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "TypeEnvironmentCache [entries=" + fEntries.size() + ", footprint=" + fSize + ", hits=" + fHits + ", misses=" + fMisses + ", invalidations=" + fInvalidations + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+	}
+}
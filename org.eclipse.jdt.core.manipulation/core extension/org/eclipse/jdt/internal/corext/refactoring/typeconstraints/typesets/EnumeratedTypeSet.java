@@ -13,19 +13,25 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets;
 
+import java.util.BitSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.NoSuchElementException;
 
 import org.eclipse.core.runtime.Assert;
 
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.ArrayType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.TTypes;
 
 /**
- * A type-safe wrapper for {@code Set<TType>} that also adds {@code TType}-specific
+ * A set of {@code TType}s that also adds {@code TType}-specific
  * functionality, e.g. subTypes() and superTypes().
+ * <p>
+ * The members are stored as a bit set of their {@link TType#getIndex() indices} in the
+ * type environment, so unions and intersections are word-wise operations and the members
+ * are iterated in the order in which the types have been created.
+ * </p>
  */
 public class EnumeratedTypeSet extends TypeSet {
 	static private int sCount= 0;
@@ -39,9 +45,14 @@ public class EnumeratedTypeSet extends TypeSet {
 	}
 
 	/**
-	 * Set containing the TTypes in this EnumeratedTypeSet.
+	 * The indices of the TTypes in this EnumeratedTypeSet.
 	 */
-	Set<TType> fMembers= new LinkedHashSet<>();
+	BitSet fMembers= new BitSet();
+
+	/**
+	 * The environment of the TTypes in this EnumeratedTypeSet.
+	 */
+	private final TypeEnvironment fTypeEnvironment;
 
 	/**
 	 * Constructs a new EnumeratedTypeSet with the members of Set s in it.
@@ -51,11 +62,21 @@ public class EnumeratedTypeSet extends TypeSet {
 	 * @param typeSetEnvironment the environment
 	 */
 	public EnumeratedTypeSet(Iterator<TType> types, TypeSetEnvironment typeSetEnvironment) {
-		super(typeSetEnvironment);
+		this(typeSetEnvironment);
 		while (types.hasNext()) {
-			fMembers.add(types.next());
+			fMembers.set(indexOf(types.next()));
 		}
-		sCount++;
+	}
+
+	/**
+	 * Constructs a new EnumeratedTypeSet with the types with the given indices in it.
+	 *
+	 * @param indices the indices of the types, not modified
+	 * @param typeSetEnvironment the environment
+	 */
+	EnumeratedTypeSet(BitSet indices, TypeSetEnvironment typeSetEnvironment) {
+		this(typeSetEnvironment);
+		fMembers.or(indices);
 	}
 
 	/**
@@ -65,6 +86,7 @@ public class EnumeratedTypeSet extends TypeSet {
 	 */
 	public EnumeratedTypeSet(TypeSetEnvironment typeSetEnvironment) {
 		super(typeSetEnvironment);
+		fTypeEnvironment= typeSetEnvironment.getTypeEnvironment();
 		sCount++;
 	}
 
@@ -75,10 +97,14 @@ public class EnumeratedTypeSet extends TypeSet {
 	 * @param typeSetEnvironment the environment
 	 */
 	public EnumeratedTypeSet(TType t, TypeSetEnvironment typeSetEnvironment) {
-		super(typeSetEnvironment);
+		this(typeSetEnvironment);
 		Assert.isNotNull(t);
-		fMembers.add(t);
-		sCount++;
+		fMembers.set(indexOf(t));
+	}
+
+	private int indexOf(TType t) {
+		Assert.isTrue(t.getEnvironment() == fTypeEnvironment);
+		return t.getIndex();
 	}
 
 	/**
@@ -95,20 +121,20 @@ public class EnumeratedTypeSet extends TypeSet {
 		if (o instanceof EnumeratedTypeSet) {
 			EnumeratedTypeSet other= (EnumeratedTypeSet) o;
 
-			return fMembers.equals(other.fMembers);
+			return fTypeEnvironment == other.fTypeEnvironment && fMembers.equals(other.fMembers);
 		} else if (o instanceof SingletonTypeSet) {
 			SingletonTypeSet other= (SingletonTypeSet) o;
 
-			return (fMembers.size() == 1) && fMembers.contains(other.anyMember());
+			return isSingleton() && contains(other.anyMember());
 		} else if (o instanceof TypeSet) {
 			TypeSet other= (TypeSet) o;
 
 			for(Iterator<TType> otherIter= other.iterator(); otherIter.hasNext(); ) {
-				if (!fMembers.contains(otherIter.next()))
+				if (!contains(otherIter.next()))
 					return false;
 			}
-			for (TType tType : fMembers) {
-				if (!other.contains(tType))
+			for (Iterator<TType> iter= iterator(); iter.hasNext();) {
+				if (!other.contains(iter.next()))
 					return false;
 			}
 			return true;
@@ -133,7 +159,7 @@ public class EnumeratedTypeSet extends TypeSet {
 
 			result.addAll(this); // copy first since retainAll() modifies in-place
 			result.retainAll(s2);
-			if (result.size() > 0)
+			if (!result.isEmpty())
 				return result;
 			else
 				return getTypeSetEnvironment().getEmptyTypeSet();
@@ -152,8 +178,7 @@ public class EnumeratedTypeSet extends TypeSet {
 			// More than an optimization: the universe never contains array types, so
 			// if s2 has array types, the following will retain them, as it should.
 			EnumeratedTypeSet ets2= (EnumeratedTypeSet) s2;
-			fMembers= new LinkedHashSet<>();
-			fMembers.addAll(ets2.fMembers);
+			fMembers= (BitSet) ets2.fMembers.clone();
 		} else
 			retainAll(s2);
 	}
@@ -167,7 +192,7 @@ public class EnumeratedTypeSet extends TypeSet {
 		if (isUniverse())
 			return makeClone(); // subtypes(universe) = universe
 
-		if (fMembers.contains(getJavaLangObject()))
+		if (contains(getJavaLangObject()))
 			return getTypeSetEnvironment().getUniverseTypeSet();
 
 		return getTypeSetEnvironment().createSubTypesSet(this);
@@ -200,18 +225,18 @@ public class EnumeratedTypeSet extends TypeSet {
 	public TypeSet makeClone() {
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
-		result.fMembers.addAll(fMembers);
+		result.fMembers.or(fMembers);
 		result.initComplete();
 		return result;
 	}
 
 	public int size() {
-		return fMembers.size();
+		return fMembers.cardinality();
 	}
 
 	public void clear() {
 		if (isUniverse())
-			fMembers= new LinkedHashSet<>();
+			fMembers= new BitSet();
 		else
 			fMembers.clear();
 	}
@@ -222,42 +247,46 @@ public class EnumeratedTypeSet extends TypeSet {
 	}
 
 	public TType[] toArray() {
-		return fMembers.toArray(new TType[fMembers.size()]);
+		TType[] result= new TType[size()];
+		int i= 0;
+		for (int index= fMembers.nextSetBit(0); index >= 0; index= fMembers.nextSetBit(index + 1)) {
+			result[i++]= fTypeEnvironment.getType(index);
+		}
+		return result;
 	}
 
 	public boolean add(TType t) {
 		// Doesn't make sense to do here what other methods do (copy-and-modify)
 		Assert.isTrue(!isUniverse(), "Someone's trying to expand the universe!"); //$NON-NLS-1$
-		return fMembers.add(t);
+		int index= indexOf(t);
+		if (fMembers.get(index))
+			return false;
+		fMembers.set(index);
+		return true;
 	}
 
 	@Override
 	public boolean contains(TType t) {
 		if (isUniverse())
 			return true;
-		return fMembers.contains(t);
+		return t != null && t.getEnvironment() == fTypeEnvironment && fMembers.get(t.getIndex());
 	}
 
 	public boolean remove(TType t) {
 		if (isUniverse())
-			fMembers= cloneSet(fMembers);
-		return fMembers.remove(t);
-	}
-
-	private Set<TType> cloneSet(Set<TType> members) {
-		return new LinkedHashSet<>(members);
+			fMembers= (BitSet) fMembers.clone();
+		if (!contains(t))
+			return false;
+		fMembers.clear(t.getIndex());
+		return true;
 	}
 
 	public boolean addAll(TypeSet s) {
-		if (s instanceof EnumeratedTypeSet) {
-			EnumeratedTypeSet ets= (EnumeratedTypeSet) s;
-
-			return fMembers.addAll(ets.fMembers);
-		} else {
-			EnumeratedTypeSet ets= s.enumerate();
-
-			return fMembers.addAll(ets.fMembers);
-		}
+		EnumeratedTypeSet ets= s instanceof EnumeratedTypeSet ? (EnumeratedTypeSet) s : s.enumerate();
+		Assert.isTrue(ets.fTypeEnvironment == fTypeEnvironment);
+		int size= size();
+		fMembers.or(ets.fMembers);
+		return size() != size;
 	}
 
 	@Override
@@ -277,60 +306,74 @@ public class EnumeratedTypeSet extends TypeSet {
 		if (s.isUniverse())
 			return false;
 		EnumeratedTypeSet ets= s.enumerate();
+		if (ets.fTypeEnvironment != fTypeEnvironment)
+			return ets.isEmpty();
 
-		return fMembers.containsAll(ets.fMembers);
+		BitSet missing= (BitSet) ets.fMembers.clone();
+		missing.andNot(fMembers);
+		return missing.isEmpty();
 	}
 
 	public boolean removeAll(EnumeratedTypeSet s) {
 		if (isUniverse())
-			fMembers= cloneSet(fMembers);
-		return fMembers.removeAll(s.fMembers);
+			fMembers= (BitSet) fMembers.clone();
+		if (s.fTypeEnvironment != fTypeEnvironment || !fMembers.intersects(s.fMembers))
+			return false;
+		fMembers.andNot(s.fMembers);
+		return true;
 	}
 
 	public boolean retainAll(TypeSet s) {
 		if (s.isUniverse()) return false;
 
 		EnumeratedTypeSet ets= (EnumeratedTypeSet) s;
+		Assert.isTrue(ets.fTypeEnvironment == fTypeEnvironment);
 
 		if (isUniverse()) {
-			fMembers= cloneSet(ets.fMembers);
+			fMembers= (BitSet) ets.fMembers.clone();
 			return true;
-		} else
-			return fMembers.retainAll(ets.fMembers);
+		} else {
+			int size= size();
+			fMembers.and(ets.fMembers);
+			return size() != size;
+		}
 	}
 
 	@Override
 	public boolean isSingleton() {
-		return fMembers.size() == 1;
+		int first= fMembers.nextSetBit(0);
+		return first >= 0 && fMembers.nextSetBit(first + 1) < 0;
 	}
 
 	@Override
 	public TType anyMember() {
-		return fMembers.iterator().next();
+		int first= fMembers.nextSetBit(0);
+		if (first < 0)
+			throw new NoSuchElementException();
+		return fTypeEnvironment.getType(first);
 	}
 
 	@Override
 	public TypeSet upperBound() {
-		if (fMembers.size() == 1)
-			return new SingletonTypeSet(fMembers.iterator().next(), getTypeSetEnvironment());
-		if (fMembers.contains(getJavaLangObject()))
+		if (isSingleton())
+			return new SingletonTypeSet(anyMember(), getTypeSetEnvironment());
+		if (contains(getJavaLangObject()))
 			return new SingletonTypeSet(getJavaLangObject(), getTypeSetEnvironment());
 
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 		// Add to result each element of fMembers that has no proper supertype in fMembers
-		result.fMembers.addAll(fMembers);
-		for (TType t : fMembers) {
+		result.fMembers.or(fMembers);
+		for (Iterator<TType> iter= iterator(); iter.hasNext();) {
+			TType t= iter.next();
 			if (t.isArrayType()) {
 				ArrayType at= (ArrayType) t;
 				int numDims= at.getDimensions();
 				for(Iterator<TType> subIter=TTypes.getAllSubTypesIterator(at.getElementType()); subIter.hasNext(); ) {
-					result.fMembers.remove(TTypes.createArrayType(subIter.next(), numDims));
+					result.remove(TTypes.createArrayType(subIter.next(), numDims));
 				}
 			} else {
-				for (Iterator<TType> iterator= TTypes.getAllSubTypesIterator(t); iterator.hasNext();) {
-					result.fMembers.remove(iterator.next());
-				}
+				result.fMembers.andNot(getTypeSetEnvironment().getAllSubTypes(t));
 			}
 		}
 		result.initComplete();
@@ -339,19 +382,20 @@ public class EnumeratedTypeSet extends TypeSet {
 
 	@Override
 	public TypeSet lowerBound() {
-		if (fMembers.size() == 1)
-			return new SingletonTypeSet(fMembers.iterator().next(), getTypeSetEnvironment());
+		if (isSingleton())
+			return new SingletonTypeSet(anyMember(), getTypeSetEnvironment());
 
 		EnumeratedTypeSet result= new EnumeratedTypeSet(getTypeSetEnvironment());
 
 		// Add to result each element of fMembers that has no proper subtype in fMembers
-		result.fMembers.addAll(fMembers);
+		result.fMembers.or(fMembers);
 
-		for (TType t : fMembers) {
+		for (Iterator<TType> iter= iterator(); iter.hasNext();) {
+			TType t= iter.next();
 			// java.lang.Object is only in the lower bound if fMembers consists
 			// of only java.lang.Object, but that case is handled above.
 			if (t.equals(getJavaLangObject())) {
-				result.fMembers.remove(t);
+				result.remove(t);
 				continue;
 			}
 
@@ -359,15 +403,13 @@ public class EnumeratedTypeSet extends TypeSet {
 				ArrayType at= (ArrayType) t;
 				int numDims= at.getDimensions();
 				for(Iterator<TType> superIter=TTypes.getAllSuperTypesIterator(at.getElementType()); superIter.hasNext(); ) {
-					result.fMembers.remove(TTypes.createArrayType(superIter.next(), numDims));
+					result.remove(TTypes.createArrayType(superIter.next(), numDims));
 				}
 			} else {
-				for (Iterator<TType> iterator= TTypes.getAllSuperTypesIterator(t); iterator.hasNext();) {
-					result.fMembers.remove(iterator.next());
-				}
+				result.fMembers.andNot(getTypeSetEnvironment().getAllSuperTypes(t));
 			}
 		}
-		if (result.size() > 0)
+		if (!result.isEmpty())
 			return result;
 		else
 			return getTypeSetEnvironment().getEmptyTypeSet();
@@ -375,31 +417,56 @@ public class EnumeratedTypeSet extends TypeSet {
 
 	@Override
 	public boolean hasUniqueLowerBound() {
-		return fMembers.size() == 1;
+		return isSingleton();
 	}
 
 	@Override
 	public boolean hasUniqueUpperBound() {
-		return fMembers.size() == 1;
+		return isSingleton();
 	}
 
 	@Override
 	public TType uniqueLowerBound() {
-		if (fMembers.size() == 1)
-			return fMembers.iterator().next();
+		if (isSingleton())
+			return anyMember();
 		return null;
 	}
 
 	@Override
 	public TType uniqueUpperBound() {
-		if (fMembers.size() == 1)
-			return fMembers.iterator().next();
+		if (isSingleton())
+			return anyMember();
 		return null;
 	}
 
 	@Override
 	public Iterator<TType> iterator() {
-		return fMembers.iterator();
+		return new Iterator<TType>() {
+			private int fNext= fMembers.nextSetBit(0);
+			private int fLast= -1;
+
+			@Override
+			public boolean hasNext() {
+				return fNext >= 0;
+			}
+
+			@Override
+			public TType next() {
+				if (fNext < 0)
+					throw new NoSuchElementException();
+				fLast= fNext;
+				fNext= fMembers.nextSetBit(fNext + 1);
+				return fTypeEnvironment.getType(fLast);
+			}
+
+			@Override
+			public void remove() {
+				if (fLast < 0)
+					throw new IllegalStateException();
+				fMembers.clear(fLast);
+				fLast= -1;
+			}
+		};
 	}
 
 	/**
@@ -216,7 +216,7 @@ public class SubTypesOfSingleton extends TypeSet {
 				ArrayType at= (ArrayType) fUpperBound;
 				fEnumCache= EnumeratedTypeSet.makeArrayTypesForElements(TTypes.getAllSubTypesIterator(at.getComponentType()),getTypeSetEnvironment());
 			} else
-				fEnumCache= new EnumeratedTypeSet(TTypes.getAllSubTypesIterator(fUpperBound), getTypeSetEnvironment());
+				fEnumCache= new EnumeratedTypeSet(getTypeSetEnvironment().getAllSubTypes(fUpperBound), getTypeSetEnvironment());
 
 			fEnumCache.add(fUpperBound);
 			fEnumCache.initComplete();
@@ -200,7 +200,7 @@ public class SuperTypesOfSingleton extends TypeSet {
 				fEnumCache= EnumeratedTypeSet.makeArrayTypesForElements(TTypes.getAllSuperTypesIterator(at.getComponentType()), getTypeSetEnvironment());
 				fEnumCache.add(getJavaLangObject());
 			} else
-				fEnumCache= new EnumeratedTypeSet(TTypes.getAllSuperTypesIterator(fLowerBound), getTypeSetEnvironment());
+				fEnumCache= new EnumeratedTypeSet(getTypeSetEnvironment().getAllSuperTypes(fLowerBound), getTypeSetEnvironment());
 
 			fEnumCache.add(fLowerBound);
 			fEnumCache.initComplete();
@@ -253,8 +253,7 @@ public class SuperTypesSet extends TypeSet {
 						fEnumCache.add(TTypes.createArrayType(elemSuperIter.next(), numDims));
 					anyLBIsIntfOrArray= true;
 				} else {
-					for (Iterator<TType> iterator= TTypes.getAllSuperTypesIterator(lb); iterator.hasNext(); )
-					fEnumCache.fMembers.add(iterator.next());
+					fEnumCache.fMembers.or(getTypeSetEnvironment().getAllSuperTypes(lb));
 				}
 				fEnumCache.add(lb);
 			}
@@ -14,11 +14,13 @@
 
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets;
 
+import java.util.BitSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.TTypes;
 
 
 
@@ -33,6 +35,12 @@ public class TypeSetEnvironment {
 	private final Map<TType, SuperTypesOfSingleton> fSuperTypesOfSingletons= new LinkedHashMap<>();//@perf
 	private final Map<Object, SuperTypesSet> fSuperTypesSets= new LinkedHashMap<>();//@perf
 
+	private static final int MAX_CLOSURES= 1024;
+	private final Map<TType, BitSet> fAllSubTypes= createClosureCache();
+	private final Map<TType, BitSet> fAllSuperTypes= createClosureCache();
+	/** The number of subtype changes of the type environment that the closures reflect */
+	private int fSubTypeChangeCount;
+
 	private int fgCommonExprHits= 0;
 	private int fgCommonExprMisses= 0;
 
@@ -40,6 +48,71 @@ public class TypeSetEnvironment {
 		fTypeEnvironment= typeEnvironment;
 		fUniverse= new TypeUniverseSet(this);
 		fEmptyTypeSet= new EmptyTypeSet(this);
+		fSubTypeChangeCount= typeEnvironment.getSubTypeChangeCount();
+	}
+
+	private static Map<TType, BitSet> createClosureCache() {
+		return new LinkedHashMap<TType, BitSet>(50, 0.75f, true) {
+			private static final long serialVersionUID= 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<TType, BitSet> eldest) {
+				return size() > MAX_CLOSURES;
+			}
+		};
+	}
+
+	public TypeEnvironment getTypeEnvironment() {
+		return fTypeEnvironment;
+	}
+
+	/**
+	 * Returns the indices of the given type and all its subtypes, see
+	 * {@link TTypes#getAllSubTypes(TType)}. The result must not be modified.
+	 *
+	 * @param type the type
+	 * @return the subtype closure of the type
+	 */
+	BitSet getAllSubTypes(TType type) {
+		invalidateSubTypeClosures();
+		BitSet result= fAllSubTypes.get(type);
+		if (result == null) {
+			result= TTypes.getAllSubTypes(type);
+			fAllSubTypes.put(type, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the cached subtype closures that contain a type which got new subtypes since the
+	 * closures have been computed. The supertype closures stay valid, since a type is created
+	 * with all its supertypes.
+	 */
+	private void invalidateSubTypeClosures() {
+		int count= fTypeEnvironment.getSubTypeChangeCount();
+		if (count == fSubTypeChangeCount)
+			return;
+		BitSet changed= new BitSet();
+		for (int i= fSubTypeChangeCount; i < count; i++) {
+			changed.set(fTypeEnvironment.getSubTypeChange(i).getIndex());
+		}
+		fSubTypeChangeCount= count;
+		fAllSubTypes.values().removeIf(closure -> closure.intersects(changed));
+	}
+
+	/**
+	 * Returns the indices of all proper supertypes of the given type, see
+	 * {@link TTypes#getAllSuperTypes(TType)}. The result must not be modified.
+	 *
+	 * @param type the type
+	 * @return the supertype closure of the type
+	 */
+	BitSet getAllSuperTypes(TType type) {
+		BitSet result= fAllSuperTypes.get(type);
+		if (result == null) {
+			result= TTypes.getAllSuperTypes(type);
+			fAllSuperTypes.put(type, result);
+		}
+		return result;
 	}
 
 	public TType getJavaLangObject() {
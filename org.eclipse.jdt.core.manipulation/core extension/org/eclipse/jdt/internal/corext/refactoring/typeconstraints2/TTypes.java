@@ -13,8 +13,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints2;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
 import java.util.Iterator;
-import java.util.Stack;
 
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.AbstractTypeVariable;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.HierarchyType;
@@ -24,48 +26,25 @@ import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeVar
 public class TTypes {
 
 	private static class AllSupertypesIterator implements Iterator<TType> {
-		private final Stack<TType> fWorklist;
+		private final Deque<TType> fWorklist;
 
 		public AllSupertypesIterator(TType type) {
-			fWorklist= new Stack<>();
-			pushSupertypes(type);
+			fWorklist= new ArrayDeque<>();
+			pushSupertypes(type, fWorklist);
 		}
 
 		@Override
 		public boolean hasNext() {
-			return ! fWorklist.empty();
+			return ! fWorklist.isEmpty();
 		}
 
 		@Override
 		public TType next() {
 			TType result= fWorklist.pop();
-			pushSupertypes(result);
+			pushSupertypes(result, fWorklist);
 			return result;
 		}
 
-		private void pushSupertypes(TType type) {
-			if (type.isJavaLangObject())
-				return;
-
-			if (type.isTypeVariable() || type.isCaptureType()) {
-				for (TType bound : ((AbstractTypeVariable) type).getBounds()) {
-					fWorklist.push(bound.getTypeDeclaration());
-				}
-
-			} else {
-				TType superclass= type.getSuperclass();
-				if (superclass == null) {
-					if (type.isInterface())
-						fWorklist.push(type.getEnvironment().getJavaLangObject());
-				} else {
-					fWorklist.push(superclass.getTypeDeclaration());
-				}
-				for (TType intf : type.getInterfaces()) {
-					fWorklist.push(intf.getTypeDeclaration());
-				}
-			}
-		}
-
 		@Override
 		public void remove() {
 			throw new UnsupportedOperationException();
@@ -73,16 +52,16 @@ public class TTypes {
 	}
 
 	private static class AllSubtypesIterator implements Iterator<TType> {
-		private final Stack<TType> fWorklist;
+		private final Deque<TType> fWorklist;
 
 		public AllSubtypesIterator(TType type) {
-			fWorklist= new Stack<>();
+			fWorklist= new ArrayDeque<>();
 			fWorklist.push(type.getTypeDeclaration());
 		}
 
 		@Override
 		public boolean hasNext() {
-			return ! fWorklist.empty();
+			return ! fWorklist.isEmpty();
 		}
 
 		@Override
@@ -123,6 +102,75 @@ public class TTypes {
 		return new AllSupertypesIterator(type);
 	}
 
+	/**
+	 * Returns the types enumerated by {@link #getAllSubTypesIterator(TType)} as a bit set of
+	 * type indices. Types reachable on several paths are only visited once.
+	 *
+	 * @param type the type
+	 * @return the indices of all subtypes of this type (including this type)
+	 * @see TType#getIndex()
+	 */
+	public static BitSet getAllSubTypes(TType type) {
+		BitSet result= new BitSet();
+		Deque<TType> worklist= new ArrayDeque<>();
+		worklist.push(type.getTypeDeclaration());
+		while (!worklist.isEmpty()) {
+			TType current= worklist.pop();
+			if (result.get(current.getIndex()))
+				continue;
+			result.set(current.getIndex());
+			for (TType subType : current.getSubTypes()) {
+				worklist.push(subType.getTypeDeclaration());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the types enumerated by {@link #getAllSuperTypesIterator(TType)} as a bit set of
+	 * type indices. Types reachable on several paths are only visited once.
+	 *
+	 * @param type the type
+	 * @return the indices of all proper supertypes of this type
+	 * @see TType#getIndex()
+	 */
+	public static BitSet getAllSuperTypes(TType type) {
+		BitSet result= new BitSet();
+		Deque<TType> worklist= new ArrayDeque<>();
+		pushSupertypes(type, worklist);
+		while (!worklist.isEmpty()) {
+			TType current= worklist.pop();
+			if (result.get(current.getIndex()))
+				continue;
+			result.set(current.getIndex());
+			pushSupertypes(current, worklist);
+		}
+		return result;
+	}
+
+	private static void pushSupertypes(TType type, Deque<TType> worklist) {
+		if (type.isJavaLangObject())
+			return;
+
+		if (type.isTypeVariable() || type.isCaptureType()) {
+			for (TType bound : ((AbstractTypeVariable) type).getBounds()) {
+				worklist.push(bound.getTypeDeclaration());
+			}
+
+		} else {
+			TType superclass= type.getSuperclass();
+			if (superclass == null) {
+				if (type.isInterface())
+					worklist.push(type.getEnvironment().getJavaLangObject());
+			} else {
+				worklist.push(superclass.getTypeDeclaration());
+			}
+			for (TType intf : type.getInterfaces()) {
+				worklist.push(intf.getTypeDeclaration());
+			}
+		}
+	}
+
 	/**
 	 * @param rhs
 	 * @param lhs
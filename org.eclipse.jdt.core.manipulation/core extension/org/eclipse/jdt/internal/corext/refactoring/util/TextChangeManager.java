@@ -15,9 +15,9 @@
 package org.eclipse.jdt.internal.corext.refactoring.util;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.ltk.core.refactoring.TextChange;
 
@@ -28,10 +28,15 @@ import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
 /**
  * A <code>TextChangeManager</code> manages associations between <code>ICompilationUnit</code>
  * or <code>IFile</code> and <code>TextChange</code> objects.
+ * <p>
+ * The associations can be accessed concurrently, e.g. when the edits of different compilation
+ * units are created on different threads. A single <code>TextChange</code> is not thread-safe and
+ * must only be modified by one thread at a time.
+ * </p>
  */
 public class TextChangeManager {
 
-	private Map<ICompilationUnit, TextChange> fMap= new HashMap<>(10);
+	private Map<ICompilationUnit, TextChange> fMap= new ConcurrentHashMap<>(16);
 
 	private final boolean fKeepExecutedTextEdits;
 
@@ -64,9 +69,11 @@ public class TextChangeManager {
 	public TextChange get(ICompilationUnit cu) {
 		TextChange result= fMap.get(cu);
 		if (result == null) {
-			result= new CompilationUnitChange(cu.getElementName(), cu);
-			result.setKeepPreviewEdits(fKeepExecutedTextEdits);
-			fMap.put(cu, result);
+			result= fMap.computeIfAbsent(cu, unit -> {
+				TextChange change= new CompilationUnitChange(unit.getElementName(), unit);
+				change.setKeepPreviewEdits(fKeepExecutedTextEdits);
+				return change;
+			});
 		}
 		return result;
 	}
@@ -83,18 +90,23 @@ public class TextChangeManager {
 	}
 
 	/**
-	 * Returns all text changes managed by this instance.
+	 * Returns all text changes managed by this instance. The changes are sorted by the name
+	 * and then by the path of their compilation units, so the order does not depend on the
+	 * order in which the changes have been created.
 	 *
 	 * @return all text changes managed by this instance
 	 */
 	public TextChange[] getAllChanges(){
 		Set<ICompilationUnit> cuSet= fMap.keySet();
 		ICompilationUnit[] cus= cuSet.toArray(new ICompilationUnit[cuSet.size()]);
-		// sort by cu name:
+		// sort by cu name, then by path:
 		Arrays.sort(cus, (o1, o2) -> {
 			String name1= o1.getElementName();
 			String name2= o2.getElementName();
-			return name1.compareTo(name2);
+			int result= name1.compareTo(name2);
+			if (result != 0)
+				return result;
+			return o1.getPath().toString().compareTo(o2.getPath().toString());
 		});
 
 		TextChange[] textChanges= new TextChange[cus.length];
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+
+/**
+ * Classifies Java element deltas for caches of information derived from the types of the Java
+ * model, e.g. type hierarchies or bindings.
+ * <p>
+ * A delta is a <em>structural change</em> if it may change the types of its element: elements
+ * that are added or removed, changes of the class path, of archives, of super types, modifiers,
+ * type parameters, imports or package declarations, and changes of compilation units or class
+ * files without fine grained deltas. A compilation unit that becomes or stops being a primary
+ * working copy, e.g. because its working copy is discarded or reverted, is a structural change
+ * too, since its contents may have changed without any details. Changes of the bodies of
+ * methods, fields and initializers are not structural, the deltas of members are reported
+ * separately.
+ * </p>
+ */
+public final class JavaElementDeltaClassifier {
+
+	/**
+	 * Receives the classified deltas.
+	 */
+	public interface IDeltaHandler {
+
+		/**
+		 * Called for a delta that may change the types of its element. The children of the delta
+		 * are not classified.
+		 *
+		 * @param delta the delta
+		 * @return <code>true</code> to classify the remaining deltas, <code>false</code> to stop
+		 */
+		boolean structuralChange(IJavaElementDelta delta);
+
+		/**
+		 * Called for a delta of a method, field or initializer that is not a structural change of
+		 * its declaring type. The default implementation ignores the delta.
+		 *
+		 * @param delta the delta
+		 */
+		default void memberChange(IJavaElementDelta delta) {
+			// ignored
+		}
+	}
+
+	private JavaElementDeltaClassifier() {
+	}
+
+	/**
+	 * Classifies the given delta and its children.
+	 *
+	 * @param delta the delta
+	 * @param handler the handler of the classified deltas
+	 * @return <code>false</code> if the handler stopped the classification
+	 */
+	public static boolean classify(IJavaElementDelta delta, IDeltaHandler handler) {
+		if (isStructuralChange(delta))
+			return handler.structuralChange(delta);
+
+		switch (delta.getElement().getElementType()) {
+			case IJavaElement.METHOD:
+			case IJavaElement.FIELD:
+			case IJavaElement.INITIALIZER:
+				handler.memberChange(delta);
+				break;
+			default:
+				break;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (!classify(child, handler))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Tells whether the given delta may change the types of its element. The children of the
+	 * delta are not considered.
+	 *
+	 * @param delta the delta
+	 * @return <code>true</code> if the delta is a structural change
+	 */
+	public static boolean isStructuralChange(IJavaElementDelta delta) {
+		int kind= delta.getKind();
+		int flags= delta.getFlags();
+		switch (delta.getElement().getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				return false;
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+				return kind != IJavaElementDelta.CHANGED || (flags & ~(IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_CONTENT)) != 0;
+			case IJavaElement.COMPILATION_UNIT:
+			case IJavaElement.CLASS_FILE:
+				if (kind != IJavaElementDelta.CHANGED || (flags & IJavaElementDelta.F_PRIMARY_WORKING_COPY) != 0)
+					return true;
+				return (flags & IJavaElementDelta.F_CONTENT) != 0 && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0;
+			case IJavaElement.TYPE:
+				return kind != IJavaElementDelta.CHANGED || (flags & (IJavaElementDelta.F_SUPER_TYPES | IJavaElementDelta.F_MODIFIERS)) != 0;
+			case IJavaElement.TYPE_PARAMETER:
+			case IJavaElement.IMPORT_CONTAINER:
+			case IJavaElement.IMPORT_DECLARATION:
+			case IJavaElement.PACKAGE_DECLARATION:
+				// may change how types are resolved
+				return true;
+			default:
+				return false;
+		}
+	}
+}
@@ -16,6 +16,8 @@ package org.eclipse.jdt.internal.corext.util;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 
@@ -26,6 +28,11 @@ import org.eclipse.jdt.core.JavaModelException;
 
 /**
  * A thread-safe cache for super type hierarchies.
+ * <p>
+ * Every type contained in a cached hierarchy is indexed, so lookups do not need to
+ * scan the cached hierarchies and do not take the lock that guards modifications
+ * of the cache.
+ * </p>
  */
 // @see JDTUIHelperClasses
 public class SuperTypeHierarchyCache {
@@ -33,10 +40,12 @@ public class SuperTypeHierarchyCache {
 	private static class HierarchyCacheEntry implements ITypeHierarchyChangedListener {
 
 		private ITypeHierarchy fTypeHierarchy;
-		private long fLastAccess;
+		private final IType[] fIndexedTypes;
+		private volatile long fLastAccess;
 
 		public HierarchyCacheEntry(ITypeHierarchy hierarchy) {
 			fTypeHierarchy= hierarchy;
+			fIndexedTypes= hierarchy.getAllTypes();
 			fTypeHierarchy.addTypeHierarchyChangedListener(this);
 			markAsAccessed();
 		}
@@ -50,8 +59,15 @@ public class SuperTypeHierarchyCache {
 			return fTypeHierarchy;
 		}
 
+		/**
+		 * @return the types under which this entry has been added to the index
+		 */
+		public IType[] getIndexedTypes() {
+			return fIndexedTypes;
+		}
+
 		public void markAsAccessed() {
-			fLastAccess= System.currentTimeMillis();
+			fLastAccess= System.nanoTime();
 		}
 
 		public long getLastAccess() {
@@ -75,11 +91,21 @@ public class SuperTypeHierarchyCache {
 
 	private static final int CACHE_SIZE= 8;
 
+	private static int fgCacheSize= CACHE_SIZE;
+
+	/**
+	 * The cached hierarchies. Guarded by itself, which is also the lock taken for all
+	 * modifications of {@link #fgTypeIndex}.
+	 */
 	private static ArrayList<HierarchyCacheEntry> fgHierarchyCache= new ArrayList<>(CACHE_SIZE);
+	/**
+	 * Maps every type contained in a cached hierarchy to the most recently added entry containing it.
+	 */
+	private static Map<IType, HierarchyCacheEntry> fgTypeIndex= new ConcurrentHashMap<>();
 	private static Map<IType, MethodOverrideTester> fgMethodOverrideTesterCache= new LRUMap<>(CACHE_SIZE);
 
-	private static int fgCacheHits= 0;
-	private static int fgCacheMisses= 0;
+	private static final AtomicInteger fgCacheHits= new AtomicInteger();
+	private static final AtomicInteger fgCacheMisses= new AtomicInteger();
 
 	/**
 	 * Returns a super type hierarchy that contains the given type.
@@ -140,11 +166,11 @@ public class SuperTypeHierarchyCache {
 	public static ITypeHierarchy getTypeHierarchy(IType type, IProgressMonitor progressMonitor) throws JavaModelException {
 		ITypeHierarchy hierarchy= findTypeHierarchyInCache(type);
 		if (hierarchy == null) {
-			fgCacheMisses++;
+			fgCacheMisses.incrementAndGet();
 			hierarchy= type.newSupertypeHierarchy(progressMonitor);
 			addTypeHierarchyToCache(hierarchy);
 		} else {
-			fgCacheHits++;
+			fgCacheHits.incrementAndGet();
 		}
 		return hierarchy;
 	}
@@ -152,10 +178,10 @@ public class SuperTypeHierarchyCache {
 	private static void addTypeHierarchyToCache(ITypeHierarchy hierarchy) {
 		synchronized (fgHierarchyCache) {
 			int nEntries= fgHierarchyCache.size();
-			if (nEntries >= CACHE_SIZE) {
+			if (nEntries >= fgCacheSize) {
 				// find obsolete entries or remove entry that was least recently accessed
 				HierarchyCacheEntry oldest= null;
-				ArrayList<HierarchyCacheEntry> obsoleteHierarchies= new ArrayList<>(CACHE_SIZE);
+				ArrayList<HierarchyCacheEntry> obsoleteHierarchies= new ArrayList<>(nEntries);
 				for (HierarchyCacheEntry entry : fgHierarchyCache) {
 					ITypeHierarchy curr= entry.getTypeHierarchy();
 					if (!curr.exists() || hierarchy.contains(curr.getType())) {
@@ -176,6 +202,9 @@ public class SuperTypeHierarchyCache {
 			}
 			HierarchyCacheEntry newEntry= new HierarchyCacheEntry(hierarchy);
 			fgHierarchyCache.add(newEntry);
+			for (IType type : newEntry.getIndexedTypes()) {
+				fgTypeIndex.put(type, newEntry);
+			}
 		}
 	}
 
@@ -191,28 +220,69 @@ public class SuperTypeHierarchyCache {
 
 
 	private static ITypeHierarchy findTypeHierarchyInCache(IType type) {
-		synchronized (fgHierarchyCache) {
-			for (int i= fgHierarchyCache.size() - 1; i>= 0; i--) {
-				HierarchyCacheEntry curr= fgHierarchyCache.get(i);
-				ITypeHierarchy hierarchy= curr.getTypeHierarchy();
-				if (!hierarchy.exists()) {
-					removeHierarchyEntryFromCache(curr);
-				} else {
-					if (hierarchy.contains(type)) {
-						curr.markAsAccessed();
-						return hierarchy;
-					}
-				}
-			}
+		HierarchyCacheEntry curr= fgTypeIndex.get(type);
+		if (curr == null)
+			return null;
+
+		ITypeHierarchy hierarchy= curr.getTypeHierarchy();
+		if (hierarchy == null) // removed concurrently
+			return null;
+		if (!hierarchy.exists()) {
+			removeHierarchyEntryFromCache(curr);
+			return null;
 		}
-		return null;
+		curr.markAsAccessed();
+		return hierarchy;
 	}
 
 	private static void removeHierarchyEntryFromCache(HierarchyCacheEntry entry) {
 		synchronized (fgHierarchyCache) {
+			if (!fgHierarchyCache.remove(entry))
+				return;
+			for (IType type : entry.getIndexedTypes()) {
+				fgTypeIndex.remove(type, entry);
+			}
 			removeMethodOverrideTester(entry.getTypeHierarchy());
 			entry.dispose();
-			fgHierarchyCache.remove(entry);
+		}
+	}
+
+	/**
+	 * Sets the maximal number of hierarchies kept in the cache. If more hierarchies are cached,
+	 * the least recently accessed ones are evicted immediately.
+	 *
+	 * @param size the maximal number of cached hierarchies, must be positive
+	 * @throws IllegalArgumentException if <code>size</code> is not positive
+	 */
+	public static void setCacheSize(int size) {
+		if (size < 1)
+			throw new IllegalArgumentException();
+		synchronized (fgHierarchyCache) {
+			fgCacheSize= size;
+			while (fgHierarchyCache.size() > size) {
+				HierarchyCacheEntry oldest= fgHierarchyCache.get(0);
+				for (HierarchyCacheEntry entry : fgHierarchyCache) {
+					if (entry.getLastAccess() < oldest.getLastAccess())
+						oldest= entry;
+				}
+				removeHierarchyEntryFromCache(oldest);
+			}
+		}
+	}
+
+	/**
+	 * @return the maximal number of hierarchies kept in the cache
+	 */
+	public static int getCacheSize() {
+		return fgCacheSize;
+	}
+
+	/**
+	 * @return the number of hierarchies currently in the cache
+	 */
+	public static int getCachedHierarchyCount() {
+		synchronized (fgHierarchyCache) {
+			return fgHierarchyCache.size();
 		}
 	}
 
@@ -222,7 +292,7 @@ public class SuperTypeHierarchyCache {
 	 * @return Returns a int
 	 */
 	public static int getCacheHits() {
-		return fgCacheHits;
+		return fgCacheHits.get();
 	}
 
 	/**
@@ -230,7 +300,15 @@ public class SuperTypeHierarchyCache {
 	 * @return Returns a int
 	 */
 	public static int getCacheMisses() {
-		return fgCacheMisses;
+		return fgCacheMisses.get();
+	}
+
+	/**
+	 * Resets the hit and miss counters.
+	 */
+	public static void resetCacheStatistics() {
+		fgCacheHits.set(0);
+		fgCacheMisses.set(0);
 	}
 
 	private SuperTypeHierarchyCache() {
@@ -62,6 +62,18 @@ public class JUnitPreferencesConstants {
 	 */
 	public static final String MAX_TEST_RUNS= JUnitCorePlugin.PLUGIN_ID + ".max_test_runs"; //$NON-NLS-1$
 
+	/**
+	 * Maximum number of test status changes that are delivered to the test session
+	 * listeners in one batch. A value of 1 or less disables batching.
+	 */
+	public static final String TEST_STATUS_BATCH_SIZE= JUnitCorePlugin.PLUGIN_ID + ".test_status_batch_size"; //$NON-NLS-1$
+
+	/**
+	 * Maximum time in milliseconds a test status change waits for further changes
+	 * before its batch is delivered to the test session listeners.
+	 */
+	public static final String TEST_STATUS_BATCH_LATENCY= JUnitCorePlugin.PLUGIN_ID + ".test_status_batch_latency"; //$NON-NLS-1$
+
 	/**
 	 * Javadoc location for JUnit 3
 	 */
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+/**
+ * A test session listener that receives coalesced test status changes.
+ * <p>
+ * Instead of {@link #testStarted(TestCaseElement)}, {@link #testEnded(TestCaseElement)} and
+ * {@link #testFailed(TestElement, TestElement.Status, String, String, String)}, a batch listener
+ * is informed once per batch by {@link #testsChanged(TestStatusBatch)}. All other notifications
+ * are delivered as for a plain {@link ITestSessionListener}, after any pending batch.
+ * </p>
+ */
+public interface ITestSessionBatchListener extends ITestSessionListener {
+
+	/**
+	 * A batch of test status changes has been collected.
+	 *
+	 * @param batch the status changes in the order in which they occurred
+	 */
+	void testsChanged(TestStatusBatch batch);
+}
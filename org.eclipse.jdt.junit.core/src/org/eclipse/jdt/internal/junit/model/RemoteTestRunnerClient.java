@@ -15,8 +15,12 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.junit.model;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
@@ -25,6 +29,8 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.SafeRunner;
@@ -228,6 +234,14 @@ public class RemoteTestRunnerClient {
 	private int fPort= -1;
 	private PrintWriter fWriter;
 	private PushbackReader fPushbackReader;
+	/**
+	 * Input of the binary protocol, or <code>null</code> if the runner sends text messages
+	 */
+	private DataInputStream fDataInput;
+	/**
+	 * Tests interned by the binary protocol, indexed by handle
+	 */
+	private final List<String> fTests= new ArrayList<>();
 	private String fLastLineDelimiter;
 	/**
 	 * The protocol version
@@ -266,11 +280,18 @@ public class RemoteTestRunnerClient {
 					System.out.println("Creating server socket "+fServerPort); //$NON-NLS-1$
 				fServerSocket= new ServerSocket(fServerPort);
 				fSocket= fServerSocket.accept();
-				fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(fSocket.getInputStream(), StandardCharsets.UTF_8)));
 				fWriter= new PrintWriter(new OutputStreamWriter(fSocket.getOutputStream(), StandardCharsets.UTF_8), true);
-				String message;
-				while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
-					receiveMessage(message);
+				InputStream input= new BufferedInputStream(fSocket.getInputStream(), 64 * 1024);
+				if (isBinaryProtocol(input)) {
+					fDataInput= new DataInputStream(input);
+					while (fDataInput != null && readFrame(fDataInput))
+						; // frames are dispatched while reading
+				} else {
+					fPushbackReader= new PushbackReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+					String message;
+					while(fPushbackReader != null && (message= readMessage(fPushbackReader)) != null)
+						receiveMessage(message);
+				}
 			} catch (SocketException e) {
 				notifyTestRunTerminated();
 			} catch (IOException e) {
@@ -326,6 +347,13 @@ public class RemoteTestRunnerClient {
 			}
 		} catch(IOException e) {
 		}
+		try {
+			if (fDataInput != null) {
+				fDataInput.close();
+				fDataInput= null;
+			}
+		} catch(IOException e) {
+		}
 		try {
 			if (fSocket != null) {
 				fSocket.close();
@@ -374,6 +402,132 @@ public class RemoteTestRunnerClient {
 		return buf.toString();
 	}
 
+	/**
+	 * Checks whether the runner starts the stream with the preamble of the binary
+	 * protocol. The preamble is consumed, otherwise the stream is reset.
+	 *
+	 * @param input the input stream, must support mark and reset
+	 * @return <code>true</code> if the runner uses the binary protocol
+	 * @throws IOException if reading fails
+	 */
+	private static boolean isBinaryProtocol(InputStream input) throws IOException {
+		input.mark(4);
+		int magic= 0;
+		for (int i= 0; i < 4; i++) {
+			int b= input.read();
+			if (b == -1) {
+				input.reset();
+				return false;
+			}
+			magic= (magic << 8) | b;
+		}
+		if (magic == MessageIds.BINARY_PROTOCOL_MAGIC)
+			return true;
+		input.reset();
+		return false;
+	}
+
+	/**
+	 * Reads and dispatches one frame of the binary protocol.
+	 *
+	 * @param in the input
+	 * @return <code>false</code> if the end of the stream has been reached
+	 * @throws IOException if reading fails
+	 */
+	private boolean readFrame(DataInputStream in) throws IOException {
+		int length;
+		try {
+			length= in.readInt();
+		} catch (EOFException e) {
+			return false;
+		}
+		byte type= in.readByte();
+		switch (type) {
+		case MessageIds.FRAME_MESSAGE:
+			receiveMessage(readString(in));
+			break;
+		case MessageIds.FRAME_TEST_TREE:
+			notifyTestTreeEntry(readString(in));
+			break;
+		case MessageIds.FRAME_DEFINE_TEST:
+			int handle= in.readInt();
+			String test= readString(in);
+			while (fTests.size() <= handle)
+				fTests.add(null);
+			fTests.set(handle, test);
+			break;
+		case MessageIds.FRAME_STATUS_BATCH:
+			int count= in.readInt();
+			for (int i= 0; i < count; i++) {
+				byte status= in.readByte();
+				receiveStatus(status, fTests.get(in.readInt()));
+			}
+			break;
+		case MessageIds.FRAME_BLOCK:
+			byte kind= in.readByte();
+			receiveBlock(kind, readString(in));
+			break;
+		default:
+			// unknown frame from a newer runner
+			in.readFully(new byte[length - 1]);
+			break;
+		}
+		return true;
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length= in.readInt();
+		byte[] bytes= new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void receiveStatus(byte status, String test) {
+		switch (status) {
+		case MessageIds.STATUS_STARTED:
+			notifyTestStarted(test);
+			break;
+		case MessageIds.STATUS_ENDED:
+			notifyTestEnded(test);
+			break;
+		case MessageIds.STATUS_ERROR:
+			extractFailure(test, ITestRunListener2.STATUS_ERROR);
+			break;
+		case MessageIds.STATUS_FAILED:
+			extractFailure(test, ITestRunListener2.STATUS_FAILURE);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void receiveBlock(byte kind, String text) {
+		switch (kind) {
+		case MessageIds.BLOCK_TRACE:
+			fFailedTrace.setLength(0);
+			fFailedTrace.append(text);
+			notifyTestFailed();
+			fFailedTrace.setLength(0);
+			fActualResult.setLength(0);
+			fExpectedResult.setLength(0);
+			break;
+		case MessageIds.BLOCK_EXPECTED:
+			fExpectedResult.setLength(0);
+			fExpectedResult.append(text);
+			break;
+		case MessageIds.BLOCK_ACTUAL:
+			fActualResult.setLength(0);
+			fActualResult.append(text);
+			break;
+		case MessageIds.BLOCK_RERUN_TRACE:
+			fFailedRerunTrace.setLength(0);
+			fFailedRerunTrace.append(text);
+			break;
+		default:
+			break;
+		}
+	}
+
 	private void receiveMessage(String message) {
 	    fCurrentState= fCurrentState.readMessage(message);
 	}
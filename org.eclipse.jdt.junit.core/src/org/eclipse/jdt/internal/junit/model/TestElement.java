@@ -194,6 +194,12 @@ public abstract class TestElement implements ITestElement {
 	private String fExpected;
 	private String fActual;
 
+	/**
+	 * Offset of trace, expected and actual value in the swap file of the test run session,
+	 * or <code>-1</code> if they are in memory.
+	 */
+	private long fFailureOffset= -1;
+
 	private boolean fAssumptionFailed;
 
 	/**
@@ -260,6 +266,7 @@ public abstract class TestElement implements ITestElement {
 
 	@Override
 	public FailureTrace getFailureTrace() {
+		loadFailure();
 		Result testResult= getTestResult(false);
 		if (testResult == Result.ERROR || testResult == Result.FAILURE
 				|| (testResult == Result.IGNORED && fTrace != null)) {
@@ -304,6 +311,7 @@ public abstract class TestElement implements ITestElement {
 	}
 
 	public void setStatus(Status status, String trace, String expected, String actual) {
+		loadFailure();
 		if (trace != null && fTrace != null) {
 			//don't overwrite first trace if same test run logs multiple errors
 			fTrace= fTrace + trace;
@@ -320,21 +328,47 @@ public abstract class TestElement implements ITestElement {
 	}
 
 	public String getTrace() {
+		loadFailure();
 		return fTrace;
 	}
 
 	public String getExpected() {
+		loadFailure();
 		return fExpected;
 	}
 
 	public String getActual() {
+		loadFailure();
 		return fActual;
 	}
 
 	public boolean isComparisonFailure() {
+		loadFailure();
 		return fExpected != null && fActual != null;
 	}
 
+	/**
+	 * Defers loading of trace, expected and actual value until they are requested.
+	 *
+	 * @param offset the offset of the values in the swap file of the test run session
+	 */
+	void setFailureOffset(long offset) {
+		fFailureOffset= offset;
+	}
+
+	private void loadFailure() {
+		long offset= fFailureOffset;
+		if (offset < 0)
+			return;
+		fFailureOffset= -1;
+		String[] failure= ((TestRunSession) getTestRunSession()).readSwappedFailure(offset);
+		if (failure != null) {
+			fTrace= failure[0];
+			fExpected= failure[1];
+			fActual= failure[2];
+		}
+	}
+
 	/**
 	 * @return return the class name
 	 * @see org.eclipse.jdt.internal.junit.runner.ITestIdentifier#getName()
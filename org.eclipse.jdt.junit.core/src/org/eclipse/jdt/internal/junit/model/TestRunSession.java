@@ -16,6 +16,7 @@
 package org.eclipse.jdt.internal.junit.model;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -30,7 +31,11 @@ import org.eclipse.jdt.junit.model.ITestRunSession;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
@@ -42,6 +47,7 @@ import org.eclipse.jdt.core.IJavaProject;
 
 import org.eclipse.jdt.internal.junit.JUnitCorePlugin;
 import org.eclipse.jdt.internal.junit.JUnitMessages;
+import org.eclipse.jdt.internal.junit.JUnitPreferencesConstants;
 import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.model.TestElement.Status;
@@ -73,6 +79,12 @@ public class TestRunSession implements ITestRunSession {
 
 	private final ListenerList<ITestSessionListener> fSessionListeners;
 
+	/**
+	 * Collects test status changes of a running session, or <code>null</code>
+	 * if changes are delivered immediately.
+	 */
+	private final TestStatusCoalescer fCoalescer;
+
 	/**
 	 * The model root, or <code>null</code> if swapped to disk.
 	 */
@@ -88,6 +100,11 @@ public class TestRunSession implements ITestRunSession {
 	 */
 	private HashMap<String, TestElement> fIdToTest;
 
+	/**
+	 * <code>true</code> iff the swap file contains the current test tree.
+	 */
+	private boolean fSwapFileCurrent;
+
 	/**
 	 * The TestSuites for which additional children are expected.
 	 */
@@ -156,6 +173,21 @@ public class TestRunSession implements ITestRunSession {
 	 * @param project may be <code>null</code>
 	 */
 	public TestRunSession(String testRunName, IJavaProject project) {
+		this(testRunName, project, 1, 0);
+	}
+
+	/**
+	 * Creates a test run session that is not connected to a test runner. Events passed to
+	 * the {@link #createTestRunListener() test run listener} are coalesced as for a launched
+	 * session.
+	 *
+	 * @param testRunName name of the test run
+	 * @param project may be <code>null</code>
+	 * @param batchSize the maximal number of test status changes in a batch, <code>1</code>
+	 *            to not coalesce the status changes
+	 * @param batchLatency the maximal time in milliseconds a status change is held back
+	 */
+	public TestRunSession(String testRunName, IJavaProject project, int batchSize, long batchLatency) {
 		//TODO: check assumptions about non-null fields
 
 		fLaunch= null;
@@ -172,6 +204,7 @@ public class TestRunSession implements ITestRunSession {
 		fTestRunnerClient= null;
 
 		fSessionListeners= new ListenerList<>();
+		fCoalescer= createCoalescer(batchSize, batchLatency);
 	}
 
 
@@ -194,7 +227,7 @@ public class TestRunSession implements ITestRunSession {
 		fIdToTest= new HashMap<>();
 
 		fTestRunnerClient= new RemoteTestRunnerClient();
-		fTestRunnerClient.startListening(new ITestRunListener2[] { new TestSessionNotifier() }, port);
+		fTestRunnerClient.startListening(new ITestRunListener2[] { createTestRunListener() }, port);
 
 		final ILaunchManager launchManager= DebugPlugin.getDefault().getLaunchManager();
 		launchManager.addLaunchListener(new ILaunchesListener2() {
@@ -226,6 +259,24 @@ public class TestRunSession implements ITestRunSession {
 
 		fSessionListeners= new ListenerList<>();
 		addTestSessionListener(new TestRunListenerAdapter(this));
+
+		int batchSize= Platform.getPreferencesService().getInt(JUnitCorePlugin.CORE_PLUGIN_ID, JUnitPreferencesConstants.TEST_STATUS_BATCH_SIZE, 256, null);
+		int batchLatency= Platform.getPreferencesService().getInt(JUnitCorePlugin.CORE_PLUGIN_ID, JUnitPreferencesConstants.TEST_STATUS_BATCH_LATENCY, 100, null);
+		fCoalescer= createCoalescer(batchSize, batchLatency);
+	}
+
+	private TestStatusCoalescer createCoalescer(int batchSize, long batchLatency) {
+		return batchSize > 1 && batchLatency > 0 ? new TestStatusCoalescer(batchSize, batchLatency) : null;
+	}
+
+	/**
+	 * Creates a listener that translates the events of a test runner into the notifications
+	 * of this session, e.g. to replay a recorded test run.
+	 *
+	 * @return the listener
+	 */
+	public ITestRunListener2 createTestRunListener() {
+		return new TestSessionNotifier();
 	}
 
 	void reset() {
@@ -239,6 +290,7 @@ public class TestRunSession implements ITestRunSession {
 		fTestRoot= new TestRoot(this);
 		fTestResult= null;
 		fIdToTest= new HashMap<>();
+		fSwapFileCurrent= false;
 	}
 
 	@Override
@@ -368,9 +420,10 @@ public class TestRunSession implements ITestRunSession {
 		}
 
 		try {
-			File swapFile= getSwapFile();
-
-			JUnitModel.exportTestRunSession(this, swapFile);
+			if (!fSwapFileCurrent) {
+				TestRunSessionSwapFile.write(this, getSwapFile());
+				fSwapFileCurrent= true;
+			}
 			fTestResult= fTestRoot.getTestResult(true);
 			fTestRoot= null;
 			fTestRunnerClient= null;
@@ -379,7 +432,7 @@ public class TestRunSession implements ITestRunSession {
 			fFactoryTestSuites= null;
 			fUnrootedSuite= null;
 
-		} catch (IllegalStateException | CoreException e) {
+		} catch (IllegalStateException | IOException e) {
 			JUnitCorePlugin.log(e);
 		}
 	}
@@ -398,7 +451,7 @@ public class TestRunSession implements ITestRunSession {
 	private File getSwapFile() throws IllegalStateException {
 		File historyDir= JUnitCorePlugin.getHistoryDirectory();
 		String isoTime= new SimpleDateFormat("yyyyMMdd-HHmmss.SSS").format(new Date(getStartTime())); //$NON-NLS-1$
-		String swapFileName= isoTime + ".xml"; //$NON-NLS-1$
+		String swapFileName= isoTime + ".bin"; //$NON-NLS-1$
 		return new File(historyDir, swapFileName);
 	}
 
@@ -408,14 +461,32 @@ public class TestRunSession implements ITestRunSession {
 			return;
 
 		try {
-			JUnitModel.importIntoTestRunSession(getSwapFile(), this);
-		} catch (IllegalStateException | CoreException e) {
+			TestRunSessionSwapFile.read(getSwapFile(), this);
+			fSwapFileCurrent= true;
+		} catch (IllegalStateException | IOException e) {
 			JUnitCorePlugin.log(e);
 			fTestRoot= new TestRoot(this);
 			fTestResult= null;
 		}
 	}
 
+	/**
+	 * Reads trace, expected and actual value of a test element that has been swapped in
+	 * without them.
+	 *
+	 * @param offset the offset of the values in the swap file
+	 * @return an array with trace, expected and actual value, or <code>null</code> if the
+	 *         swap file could not be read
+	 */
+	synchronized String[] readSwappedFailure(long offset) {
+		try {
+			return TestRunSessionSwapFile.readFailure(getSwapFile(), offset);
+		} catch (IllegalStateException | IOException e) {
+			JUnitCorePlugin.log(e);
+			return null;
+		}
+	}
+
 	public void stopTestRun() {
 		if (isRunning() || ! isKeptAlive())
 			fIsStopped= true;
@@ -627,6 +698,7 @@ public class TestRunSession implements ITestRunSession {
 
 		@Override
 		public void testRunStarted(int testCount) {
+			flushTestStatus();
 			fIncompleteTestSuites= new ArrayList<>();
 			fFactoryTestSuites= new ArrayList<>();
 
@@ -639,6 +711,7 @@ public class TestRunSession implements ITestRunSession {
 
 			fStartTime= System.currentTimeMillis();
 			fIsRunning= true;
+			fSwapFileCurrent= false;
 
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.sessionStarted();
@@ -647,6 +720,7 @@ public class TestRunSession implements ITestRunSession {
 
 		@Override
 		public void testRunEnded(long elapsedTime) {
+			flushTestStatus();
 			fIsRunning= false;
 
 			for (ITestSessionListener listener : fSessionListeners) {
@@ -656,6 +730,7 @@ public class TestRunSession implements ITestRunSession {
 
 		@Override
 		public void testRunStopped(long elapsedTime) {
+			flushTestStatus();
 			fIsRunning= false;
 			fIsStopped= true;
 
@@ -666,6 +741,7 @@ public class TestRunSession implements ITestRunSession {
 
 		@Override
 		public void testRunTerminated() {
+			flushTestStatus();
 			fIsRunning= false;
 			fIsStopped= true;
 
@@ -678,6 +754,7 @@ public class TestRunSession implements ITestRunSession {
 		public void testTreeEntry(String description) {
 			TestElement testElement= addTreeEntry(description);
 
+			flushTestStatus();
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.testAdded(testElement);
 			}
@@ -687,6 +764,7 @@ public class TestRunSession implements ITestRunSession {
 			TestSuiteElement unrootedSuite= getUnrootedSuite();
 			TestElement testElement= createTestElement(unrootedSuite, testId, testName, false, 1, false, testName, null, null);
 
+			flushTestStatus();
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.testAdded(testElement);
 			}
@@ -697,6 +775,7 @@ public class TestRunSession implements ITestRunSession {
 		@Override
 		public void testStarted(String testId, String testName) {
 			if (fStartedCount == 0) {
+				flushTestStatus();
 				for (ITestSessionListener listener : fSessionListeners) {
 					listener.runningBegins();
 				}
@@ -717,6 +796,10 @@ public class TestRunSession implements ITestRunSession {
 
 			fStartedCount++;
 
+			if (fCoalescer != null) {
+				fCoalescer.testStarted(testCaseElement);
+				return;
+			}
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.testStarted(testCaseElement);
 			}
@@ -748,6 +831,10 @@ public class TestRunSession implements ITestRunSession {
 			if (testCaseElement.getStatus() == Status.RUNNING)
 				setStatus(testCaseElement, Status.OK);
 
+			if (fCoalescer != null) {
+				fCoalescer.testEnded(testCaseElement);
+				return;
+			}
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.testEnded(testCaseElement);
 			}
@@ -772,6 +859,10 @@ public class TestRunSession implements ITestRunSession {
 
 			registerTestFailureStatus(testElement, status, trace, expected, actual);
 
+			if (fCoalescer != null) {
+				fCoalescer.testFailed(testElement, status, trace, expected, actual);
+				return;
+			}
 			for (ITestSessionListener listener : fSessionListeners) {
 				listener.testFailed(testElement, status, trace, expected, actual);
 			}
@@ -790,7 +881,9 @@ public class TestRunSession implements ITestRunSession {
 
 			Status status= Status.convert(statusCode);
 			registerTestFailureStatus(testElement, status, trace, expectedResult, actualResult);
+			fSwapFileCurrent= false;
 
+			flushTestStatus();
 			for (ITestSessionListener listener : fSessionListeners) {
 				//TODO: post old & new status?
 				listener.testReran(testCaseElement, status, trace, expectedResult, actualResult);
@@ -802,6 +895,104 @@ public class TestRunSession implements ITestRunSession {
 		}
 	}
 
+	/**
+	 * Collects test status changes and delivers them to the session listeners as one
+	 * {@link TestStatusBatch} once the batch is full or its first change is older than
+	 * the configured latency. Session events flush the pending batch first, so listeners
+	 * see all notifications in their original order.
+	 * <p>
+	 * Batches are delivered either from the thread of the test runner client or from
+	 * the flush job. Listeners are called without holding the lock that protects the
+	 * pending batch, so that they never block the collection of further changes.
+	 * Deliveries are serialized by a separate lock to keep batches in order.
+	 * </p>
+	 */
+	private class TestStatusCoalescer {
+		private final int fBatchSize;
+		private final long fLatency;
+		private final Job fFlushJob;
+		private final Object fDeliveryLock= new Object();
+		private TestStatusBatch fBatch;
+
+		TestStatusCoalescer(int batchSize, long latency) {
+			fBatchSize= batchSize;
+			fLatency= latency;
+			fFlushJob= new Job(JUnitMessages.TestRunSession_flushTestStatus) {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					flush();
+					return org.eclipse.core.runtime.Status.OK_STATUS;
+				}
+			};
+			fFlushJob.setSystem(true);
+		}
+
+		void testStarted(TestCaseElement testCaseElement) {
+			synchronized (this) {
+				getBatch().addStarted(testCaseElement);
+			}
+			flushIfFull();
+		}
+
+		void testEnded(TestCaseElement testCaseElement) {
+			synchronized (this) {
+				getBatch().addEnded(testCaseElement);
+			}
+			flushIfFull();
+		}
+
+		void testFailed(TestElement testElement, Status status, String trace, String expected, String actual) {
+			synchronized (this) {
+				getBatch().addFailed(testElement, status, trace, expected, actual);
+			}
+			flushIfFull();
+		}
+
+		void flush() {
+			synchronized (fDeliveryLock) {
+				TestStatusBatch batch;
+				synchronized (this) {
+					batch= fBatch;
+					if (batch == null)
+						return;
+					fBatch= null;
+				}
+				batch.delivered();
+				for (ITestSessionListener listener : fSessionListeners) {
+					if (listener instanceof ITestSessionBatchListener)
+						((ITestSessionBatchListener) listener).testsChanged(batch);
+					else
+						batch.replay(listener);
+				}
+			}
+		}
+
+		private TestStatusBatch getBatch() {
+			if (fBatch == null) {
+				fBatch= new TestStatusBatch(fBatchSize);
+				fFlushJob.schedule(fLatency);
+			}
+			return fBatch;
+		}
+
+		private void flushIfFull() {
+			synchronized (this) {
+				if (fBatch == null || fBatch.getSize() < fBatchSize)
+					return;
+			}
+			fFlushJob.cancel();
+			flush();
+		}
+	}
+
+	/**
+	 * Delivers pending test status changes to the session listeners.
+	 */
+	private void flushTestStatus() {
+		if (fCoalescer != null)
+			fCoalescer.flush();
+	}
+
 	private static class IncompleteTestSuite {
 		public TestSuiteElement fTestSuiteElement;
 		public int fOutstandingChildren;
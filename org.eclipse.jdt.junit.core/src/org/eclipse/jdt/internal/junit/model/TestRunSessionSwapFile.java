@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.junit.model.ITestElement.ProgressState;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+
+/**
+ * Compact binary format of a swapped-out {@link TestRunSession}.
+ * <p>
+ * The test tree is written in pre-order. Names are interned: the first occurrence of a
+ * string is written in full, later occurrences only refer to its index. Test names of
+ * the form <code>method(class)</code> are interned as method and class name. Trace,
+ * expected and actual values follow the element they belong to, prefixed by their
+ * length, so that reading the tree skips them. They are read from the file when they
+ * are requested, see {@link #readFailure(File, long)}. They are preceded by the own
+ * status of the element, which is not necessarily an error or failure: ignored tests and
+ * assumption failures have a trace, too.
+ * </p>
+ * <p>
+ * The format is private to the running workbench, swap files are deleted on shutdown.
+ * XML import and export are not affected.
+ * </p>
+ */
+final class TestRunSessionSwapFile {
+
+	private static final int MAGIC= 0x4A555452; // "JUTR"
+
+	private static final int VERSION= 2;
+
+	private static final byte KIND_SUITE= 1;
+	private static final byte KIND_CASE= 2;
+
+	private static final int FLAG_INCOMPLETE= 1;
+	private static final int FLAG_IGNORED= 1 << 1;
+	private static final int FLAG_DYNAMIC= 1 << 2;
+	private static final int FLAG_ASSUMPTION_FAILED= 1 << 3;
+	private static final int FLAG_FAILURE= 1 << 4;
+	private static final int FLAG_SPLIT_NAME= 1 << 5;
+	private static final int FLAG_TIME= 1 << 6;
+
+	/**
+	 * Interned reference to <code>null</code>
+	 */
+	private static final int REF_NULL= 0;
+
+	/**
+	 * Interned reference to a new string, which follows
+	 */
+	private static final int REF_NEW= 1;
+
+	/**
+	 * Input stream that knows its position in the file.
+	 */
+	private static final class PositionInputStream extends FilterInputStream {
+		long fPosition;
+
+		PositionInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b= super.read();
+			if (b != -1)
+				fPosition++;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n= super.read(b, off, len);
+			if (n > 0)
+				fPosition+= n;
+			return n;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped= super.skip(n);
+			fPosition+= skipped;
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported() {
+			return false;
+		}
+	}
+
+	private final Map<String, Integer> fWrittenStrings= new HashMap<>();
+
+	private final List<String> fReadStrings= new ArrayList<>();
+
+	private final ByteArrayOutputStream fFailureBytes= new ByteArrayOutputStream();
+
+	private final DataOutputStream fFailure= new DataOutputStream(fFailureBytes);
+
+	private TestRunSessionSwapFile() {
+	}
+
+	/**
+	 * Writes the test tree of the given session to the swap file.
+	 *
+	 * @param session the test run session
+	 * @param file the swap file
+	 * @throws IOException if writing fails
+	 */
+	static void write(TestRunSession session, File file) throws IOException {
+		// elements may still load their failures from the old file while it is written
+		File tempFile= new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024))) {
+			out.writeInt(MAGIC);
+			out.writeByte(VERSION);
+			TestRunSessionSwapFile writer= new TestRunSessionSwapFile();
+			ITestElement[] children= session.getTestRoot().getChildren();
+			writeVarInt(out, children.length);
+			for (ITestElement child : children) {
+				writer.writeElement(out, (TestElement) child);
+			}
+		}
+		Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Reads the test tree from the swap file into the given session. Trace, expected and
+	 * actual values are not read.
+	 *
+	 * @param file the swap file
+	 * @param session the test run session
+	 * @throws IOException if reading fails or the file is not a swap file
+	 */
+	static void read(File file, TestRunSession session) throws IOException {
+		PositionInputStream position= new PositionInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+		try (DataInputStream in= new DataInputStream(position)) {
+			if (in.readInt() != MAGIC || in.readByte() != VERSION)
+				throw new IOException("Not a test run swap file: " + file); //$NON-NLS-1$
+			session.reset();
+			TestRunSessionSwapFile reader= new TestRunSessionSwapFile();
+			TestSuiteElement root= session.getTestRoot();
+			int count= readVarInt(in);
+			int[] nextId= { 0 };
+			for (int i= 0; i < count; i++) {
+				reader.readElement(in, position, session, root, nextId);
+			}
+		}
+	}
+
+	/**
+	 * Reads trace, expected and actual value of a test element.
+	 *
+	 * @param file the swap file
+	 * @param offset the offset of the values
+	 * @return an array with trace, expected and actual value, each may be <code>null</code>
+	 * @throws IOException if reading fails
+	 */
+	static String[] readFailure(File file, long offset) throws IOException {
+		try (RandomAccessFile in= new RandomAccessFile(file, "r")) { //$NON-NLS-1$
+			in.seek(offset);
+			int length= readVarInt(in);
+			byte[] bytes= new byte[length];
+			in.readFully(bytes);
+			try (DataInputStream failure= new DataInputStream(new ByteArrayInputStream(bytes))) {
+				return new String[] { readString(failure), readString(failure), readString(failure) };
+			}
+		}
+	}
+
+	private void writeElement(DataOutputStream out, TestElement element) throws IOException {
+		boolean isSuite= element instanceof TestSuiteElement;
+		int flags= 0;
+		Status ownStatus;
+		if (isSuite) {
+			ownStatus= ((TestSuiteElement) element).getSuiteStatus();
+			if (element.getProgressState() != ProgressState.COMPLETED || element.getTestResult(false) != Result.UNDEFINED)
+				flags|= FLAG_INCOMPLETE;
+		} else {
+			TestCaseElement testCase= (TestCaseElement) element;
+			ownStatus= testCase.getStatus();
+			if (element.getProgressState() != ProgressState.COMPLETED)
+				flags|= FLAG_INCOMPLETE;
+			if (testCase.isIgnored())
+				flags|= FLAG_IGNORED;
+			if (testCase.isDynamicTest())
+				flags|= FLAG_DYNAMIC;
+		}
+		if (element.isAssumptionFailure())
+			flags|= FLAG_ASSUMPTION_FAILED;
+		String trace= element.getTrace();
+		if (ownStatus.isErrorOrFailure() || trace != null)
+			flags|= FLAG_FAILURE;
+		String testName= element.getTestName();
+		int split= getSplitIndex(testName);
+		if (split > 0)
+			flags|= FLAG_SPLIT_NAME;
+		double time= element.getElapsedTimeInSeconds();
+		if (!Double.isNaN(time))
+			flags|= FLAG_TIME;
+
+		out.writeByte(isSuite ? KIND_SUITE : KIND_CASE);
+		out.writeByte(flags);
+		if (split > 0) {
+			writeInterned(out, testName.substring(0, split));
+			writeInterned(out, testName.substring(split + 1, testName.length() - 1));
+		} else {
+			writeInterned(out, testName);
+		}
+		writeInterned(out, element.getDisplayName());
+		String[] parameterTypes= element.getParameterTypes();
+		if (parameterTypes == null) {
+			writeVarInt(out, 0);
+		} else {
+			writeVarInt(out, parameterTypes.length + 1);
+			for (String parameterType : parameterTypes) {
+				writeInterned(out, parameterType);
+			}
+		}
+		writeString(out, element.getUniqueId());
+		if ((flags & FLAG_TIME) != 0)
+			out.writeDouble(time);
+		if ((flags & FLAG_FAILURE) != 0) {
+			// elements with a trace only, e.g. ignored tests, keep their status
+			if (ownStatus.isError())
+				out.writeByte(ITestRunListener2.STATUS_ERROR);
+			else if (ownStatus.isFailure())
+				out.writeByte(ITestRunListener2.STATUS_FAILURE);
+			else
+				out.writeByte(ITestRunListener2.STATUS_OK);
+			fFailureBytes.reset();
+			writeString(fFailure, trace);
+			writeString(fFailure, element.getExpected());
+			writeString(fFailure, element.getActual());
+			writeVarInt(out, fFailureBytes.size());
+			fFailureBytes.writeTo(out);
+		}
+		if (isSuite) {
+			ITestElement[] children= ((TestSuiteElement) element).getChildren();
+			writeVarInt(out, children.length);
+			for (ITestElement child : children) {
+				writeElement(out, (TestElement) child);
+			}
+		}
+	}
+
+	private void readElement(DataInputStream in, PositionInputStream position, TestRunSession session, TestSuiteElement parent, int[] nextId) throws IOException {
+		byte kind= in.readByte();
+		int flags= in.readByte() & 0xFF;
+		String testName;
+		if ((flags & FLAG_SPLIT_NAME) != 0) {
+			String method= readInterned(in);
+			String className= readInterned(in);
+			testName= method + '(' + className + ')';
+		} else {
+			testName= readInterned(in);
+		}
+		String displayName= readInterned(in);
+		int parameterCount= readVarInt(in);
+		String[] parameterTypes= null;
+		if (parameterCount > 0) {
+			parameterTypes= new String[parameterCount - 1];
+			for (int i= 0; i < parameterTypes.length; i++) {
+				parameterTypes[i]= readInterned(in);
+			}
+		}
+		String uniqueId= readString(in);
+
+		boolean isSuite= kind == KIND_SUITE;
+		String id= Integer.toString(nextId[0]++);
+		TestElement element= session.createTestElement(parent, id, testName, isSuite, 0, (flags & FLAG_DYNAMIC) != 0, displayName, parameterTypes, uniqueId);
+		if ((flags & FLAG_TIME) != 0)
+			element.setElapsedTimeInSeconds(in.readDouble());
+		if (!isSuite)
+			((TestCaseElement) element).setIgnored((flags & FLAG_IGNORED) != 0);
+		if ((flags & FLAG_FAILURE) != 0) {
+			Status status= Status.convert(in.readByte());
+			int length= readVarInt(in);
+			long offset= position.fPosition;
+			in.skipBytes(length);
+			if (status.isErrorOrFailure())
+				session.registerTestFailureStatus(element, status, null, null, null);
+			// the length prefix is read again when the values are loaded
+			element.setFailureOffset(offset - getVarIntSize(length));
+		}
+		if ((flags & FLAG_ASSUMPTION_FAILED) != 0)
+			element.setAssumptionFailed(true);
+		if (isSuite) {
+			int count= readVarInt(in);
+			for (int i= 0; i < count; i++) {
+				readElement(in, position, session, (TestSuiteElement) element, nextId);
+			}
+		}
+		session.registerTestEnded(element, (flags & FLAG_INCOMPLETE) == 0);
+	}
+
+	/**
+	 * @param testName the test name
+	 * @return the index of the '(' if the name has the form <code>method(class)</code>, or -1
+	 */
+	private static int getSplitIndex(String testName) {
+		if (!testName.endsWith(")")) //$NON-NLS-1$
+			return -1;
+		int index= testName.lastIndexOf('(');
+		if (index <= 0 || testName.indexOf('(') != index || testName.indexOf(')') != testName.length() - 1)
+			return -1;
+		return index;
+	}
+
+	private void writeInterned(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			writeVarInt(out, REF_NULL);
+			return;
+		}
+		Integer index= fWrittenStrings.get(value);
+		if (index != null) {
+			writeVarInt(out, index.intValue() + 2);
+			return;
+		}
+		fWrittenStrings.put(value, Integer.valueOf(fWrittenStrings.size()));
+		writeVarInt(out, REF_NEW);
+		writeString(out, value);
+	}
+
+	private String readInterned(DataInputStream in) throws IOException {
+		int ref= readVarInt(in);
+		if (ref == REF_NULL)
+			return null;
+		if (ref == REF_NEW) {
+			String value= readString(in);
+			fReadStrings.add(value);
+			return value;
+		}
+		return fReadStrings.get(ref - 2);
+	}
+
+	private static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			writeVarInt(out, 0);
+			return;
+		}
+		byte[] bytes= value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length + 1);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		int length= readVarInt(in);
+		if (length == 0)
+			return null;
+		byte[] bytes= new byte[length - 1];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeVarInt(DataOutput out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value>>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInput in) throws IOException {
+		int value= 0;
+		int shift= 0;
+		int b;
+		do {
+			b= in.readByte();
+			value|= (b & 0x7F) << shift;
+			shift+= 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	private static int getVarIntSize(int value) {
+		int size= 1;
+		while ((value & ~0x7F) != 0) {
+			size++;
+			value>>>= 7;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+
+/**
+ * A batch of test status changes collected by a {@link TestRunSession}, together with
+ * counters aggregated over the batch.
+ *
+ * @see ITestSessionBatchListener
+ */
+public final class TestStatusBatch {
+
+	private static final int STARTED= 0;
+	private static final int ENDED= 1;
+	private static final int FAILED= 2;
+
+	private static final class Change {
+		final int fKind;
+		final TestElement fElement;
+		final Status fStatus;
+		final String fTrace;
+		final String fExpected;
+		final String fActual;
+
+		Change(int kind, TestElement element, Status status, String trace, String expected, String actual) {
+			fKind= kind;
+			fElement= element;
+			fStatus= status;
+			fTrace= trace;
+			fExpected= expected;
+			fActual= actual;
+		}
+	}
+
+	private final List<Change> fChanges;
+
+	private final long fCreationTime;
+
+	private long fDeliveryTime;
+
+	private int fStartedCount;
+
+	private int fEndedCount;
+
+	private int fFailureCount;
+
+	private int fErrorCount;
+
+	TestStatusBatch(int capacity) {
+		fChanges= new ArrayList<>(capacity);
+		fCreationTime= System.currentTimeMillis();
+	}
+
+	void addStarted(TestCaseElement testCaseElement) {
+		fChanges.add(new Change(STARTED, testCaseElement, null, null, null, null));
+		fStartedCount++;
+	}
+
+	void addEnded(TestCaseElement testCaseElement) {
+		fChanges.add(new Change(ENDED, testCaseElement, null, null, null, null));
+		fEndedCount++;
+	}
+
+	void addFailed(TestElement testElement, Status status, String trace, String expected, String actual) {
+		fChanges.add(new Change(FAILED, testElement, status, trace, expected, actual));
+		if (status.isError())
+			fErrorCount++;
+		else if (status.isFailure())
+			fFailureCount++;
+	}
+
+	void delivered() {
+		fDeliveryTime= System.currentTimeMillis();
+	}
+
+	/**
+	 * @return the number of status changes in this batch
+	 */
+	public int getSize() {
+		return fChanges.size();
+	}
+
+	/**
+	 * @return the number of tests started in this batch
+	 */
+	public int getStartedCount() {
+		return fStartedCount;
+	}
+
+	/**
+	 * @return the number of tests ended in this batch
+	 */
+	public int getEndedCount() {
+		return fEndedCount;
+	}
+
+	/**
+	 * @return the number of failures reported in this batch
+	 */
+	public int getFailureCount() {
+		return fFailureCount;
+	}
+
+	/**
+	 * @return the number of errors reported in this batch
+	 */
+	public int getErrorCount() {
+		return fErrorCount;
+	}
+
+	/**
+	 * @return the time in milliseconds between the first status change of this batch
+	 * and its delivery to the listeners
+	 */
+	public long getLatency() {
+		return fDeliveryTime - fCreationTime;
+	}
+
+	/**
+	 * @return the changed test elements in the order of their changes; an element
+	 * appears once per change
+	 */
+	public TestElement[] getTestElements() {
+		TestElement[] elements= new TestElement[fChanges.size()];
+		for (int i= 0; i < elements.length; i++)
+			elements[i]= fChanges.get(i).fElement;
+		return elements;
+	}
+
+	/**
+	 * @return the test elements that failed in this batch, in the order of their failures
+	 */
+	public TestElement[] getFailedTestElements() {
+		List<TestElement> failed= new ArrayList<>(fFailureCount + fErrorCount);
+		for (Change change : fChanges) {
+			if (change.fKind == FAILED)
+				failed.add(change.fElement);
+		}
+		return failed.toArray(new TestElement[failed.size()]);
+	}
+
+	/**
+	 * @return the test that was started last in this batch, or <code>null</code> if none
+	 */
+	public TestCaseElement getLastStartedTest() {
+		for (int i= fChanges.size() - 1; i >= 0; i--) {
+			Change change= fChanges.get(i);
+			if (change.fKind == STARTED)
+				return (TestCaseElement) change.fElement;
+		}
+		return null;
+	}
+
+	/**
+	 * Delivers the status changes of this batch one by one to a listener that does
+	 * not handle batches.
+	 *
+	 * @param listener the listener to inform
+	 */
+	public void replay(ITestSessionListener listener) {
+		for (Change change : fChanges) {
+			switch (change.fKind) {
+			case STARTED:
+				listener.testStarted((TestCaseElement) change.fElement);
+				break;
+			case ENDED:
+				listener.testEnded((TestCaseElement) change.fElement);
+				break;
+			default:
+				listener.testFailed(change.fElement, change.fStatus, change.fTrace, change.fExpected, change.fActual);
+				break;
+			}
+		}
+	}
+}
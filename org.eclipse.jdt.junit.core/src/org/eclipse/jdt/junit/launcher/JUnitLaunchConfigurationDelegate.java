@@ -71,6 +71,7 @@ import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.launcher.JUnitRuntimeClasspathEntry;
 import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
 import org.eclipse.jdt.internal.junit.util.CoreTestSearchEngine;
 import org.eclipse.jdt.internal.junit.util.IJUnitStatusConstants;
 
@@ -99,6 +100,12 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 
 	private static final String DEFAULT= "<default>"; //$NON-NLS-1$
 
+	/**
+	 * Offer the binary protocol to the test runner unless the text protocol is requested
+	 * explicitly, e.g. for debugging the communication.
+	 */
+	private static final boolean BINARY_PROTOCOL= !Boolean.getBoolean("org.eclipse.jdt.junit.textProtocol"); //$NON-NLS-1$
+
 	@Override
 	public String showCommandLine(ILaunchConfiguration configuration, String mode, ILaunch launch, IProgressMonitor monitor) throws CoreException {
 		if (monitor == null) {
@@ -439,6 +446,9 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		programArguments.add("-port"); //$NON-NLS-1$
 		programArguments.add(String.valueOf(fPort));
 
+		if (BINARY_PROTOCOL)
+			programArguments.add(MessageIds.BINARY_PROTOCOL_ARGUMENT);
+
 		if (fKeepAlive)
 			programArguments.add(0, "-keepalive"); //$NON-NLS-1$
 
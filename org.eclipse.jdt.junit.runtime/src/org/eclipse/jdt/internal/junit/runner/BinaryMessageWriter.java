@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.junit.runner;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes the text messages of the RemoteTestRunner into the length-prefixed
+ * frames of the binary protocol.
+ * <p>
+ * Every frame is sent as <code>length (int) + type (byte) + payload</code>.
+ * Tests are interned on first use, status changes of consecutive messages are
+ * collected into one batch frame, and multi-line blocks such as stack traces are
+ * sent as a single frame. Status batches are written at the latest after
+ * {@link #FLUSH_INTERVAL} milliseconds, so that slow tests still show up as running.
+ * </p>
+ *
+ * @see MessageIds#BINARY_PROTOCOL_MAGIC
+ */
+public class BinaryMessageWriter {
+
+	/**
+	 * Maximum delay in milliseconds before buffered frames are written to the socket
+	 */
+	static final long FLUSH_INTERVAL= 50;
+
+	/**
+	 * Maximum number of status entries in one batch frame
+	 */
+	private static final int MAX_BATCH_SIZE= 512;
+
+	private static final String LINE_SEPARATOR= System.lineSeparator();
+
+	/**
+	 * Thread writing buffered frames that would otherwise wait for the next message
+	 */
+	private class FlushThread extends Thread {
+		public FlushThread() {
+			super("BinaryMessageWriter"); //$NON-NLS-1$
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (!isInterrupted()) {
+					Thread.sleep(FLUSH_INTERVAL);
+					synchronized (BinaryMessageWriter.this) {
+						if (fClosed)
+							return;
+						if (fDirty && System.currentTimeMillis() - fLastFlush >= FLUSH_INTERVAL)
+							flushFrames();
+					}
+				}
+			} catch (InterruptedException e) {
+				// closed
+			} catch (IOException e) {
+				// connection is gone, the test thread will notice on the next message
+			}
+		}
+	}
+
+	private final DataOutputStream fOutput;
+
+	private final Map<String, Integer> fHandles= new HashMap<>();
+
+	private final ByteArrayOutputStream fBatchBytes= new ByteArrayOutputStream(MAX_BATCH_SIZE * 5);
+
+	private final DataOutputStream fBatch= new DataOutputStream(fBatchBytes);
+
+	private int fBatchCount= 0;
+
+	private final ByteArrayOutputStream fFrameBytes= new ByteArrayOutputStream(1024);
+
+	private final DataOutputStream fFrame= new DataOutputStream(fFrameBytes);
+
+	/**
+	 * Kind of the block currently being collected, or <code>0</code> if none
+	 */
+	private byte fBlockKind= 0;
+
+	private String fBlockEnd;
+
+	private final StringBuilder fBlock= new StringBuilder();
+
+	private boolean fDirty= false;
+
+	private boolean fClosed= false;
+
+	private long fLastFlush= System.currentTimeMillis();
+
+	private final FlushThread fFlushThread;
+
+	public BinaryMessageWriter(OutputStream output) throws IOException {
+		fOutput= new DataOutputStream(new BufferedOutputStream(output, 64 * 1024));
+		fOutput.writeInt(MessageIds.BINARY_PROTOCOL_MAGIC);
+		fOutput.flush();
+		fFlushThread= new FlushThread();
+		fFlushThread.start();
+	}
+
+	/**
+	 * Encodes a message in the format of the text protocol.
+	 *
+	 * @param message the message
+	 * @throws IOException if the frame could not be written
+	 */
+	public synchronized void sendMessage(String message) throws IOException {
+		if (fBlockKind != 0) {
+			if (message.startsWith(fBlockEnd)) {
+				writeBlock();
+			} else {
+				fBlock.append(message).append(LINE_SEPARATOR);
+			}
+			return;
+		}
+		if (message.startsWith(MessageIds.TEST_START)) {
+			addStatus(MessageIds.STATUS_STARTED, message);
+		} else if (message.startsWith(MessageIds.TEST_END)) {
+			addStatus(MessageIds.STATUS_ENDED, message);
+		} else if (message.startsWith(MessageIds.TEST_ERROR)) {
+			addStatus(MessageIds.STATUS_ERROR, message);
+		} else if (message.startsWith(MessageIds.TEST_FAILED)) {
+			addStatus(MessageIds.STATUS_FAILED, message);
+		} else if (message.startsWith(MessageIds.TRACE_START)) {
+			startBlock(MessageIds.BLOCK_TRACE, MessageIds.TRACE_END);
+		} else if (message.startsWith(MessageIds.EXPECTED_START)) {
+			startBlock(MessageIds.BLOCK_EXPECTED, MessageIds.EXPECTED_END);
+		} else if (message.startsWith(MessageIds.ACTUAL_START)) {
+			startBlock(MessageIds.BLOCK_ACTUAL, MessageIds.ACTUAL_END);
+		} else if (message.startsWith(MessageIds.RTRACE_START)) {
+			startBlock(MessageIds.BLOCK_RERUN_TRACE, MessageIds.RTRACE_END);
+		} else if (message.startsWith(MessageIds.TEST_TREE)) {
+			writeBatch();
+			beginFrame(MessageIds.FRAME_TEST_TREE);
+			writeString(fFrame, message.substring(MessageIds.MSG_HEADER_LENGTH));
+			endFrame();
+		} else {
+			writeBatch();
+			beginFrame(MessageIds.FRAME_MESSAGE);
+			writeString(fFrame, message);
+			endFrame();
+			if (message.startsWith(MessageIds.TEST_RUN_END) || message.startsWith(MessageIds.TEST_STOPPED) || message.startsWith(MessageIds.TEST_RERAN))
+				flushFrames();
+		}
+	}
+
+	/**
+	 * Writes buffered frames if the last write is older than {@link #FLUSH_INTERVAL}.
+	 * The remaining frames are written by the flush thread.
+	 *
+	 * @throws IOException if the frames could not be written
+	 */
+	public synchronized void flush() throws IOException {
+		if (fDirty && System.currentTimeMillis() - fLastFlush >= FLUSH_INTERVAL)
+			flushFrames();
+	}
+
+	/**
+	 * Writes all buffered frames and stops the flush thread.
+	 *
+	 * @throws IOException if the frames could not be written
+	 */
+	public synchronized void close() throws IOException {
+		if (fClosed)
+			return;
+		fClosed= true;
+		fFlushThread.interrupt();
+		flushFrames();
+		fOutput.close();
+	}
+
+	private void flushFrames() throws IOException {
+		writeBatch();
+		fOutput.flush();
+		fDirty= false;
+		fLastFlush= System.currentTimeMillis();
+	}
+
+	private void addStatus(byte status, String message) throws IOException {
+		String test= message.substring(MessageIds.MSG_HEADER_LENGTH);
+		Integer handle= fHandles.get(test);
+		if (handle == null) {
+			handle= Integer.valueOf(fHandles.size());
+			fHandles.put(test, handle);
+			writeBatch();
+			beginFrame(MessageIds.FRAME_DEFINE_TEST);
+			fFrame.writeInt(handle.intValue());
+			writeString(fFrame, test);
+			endFrame();
+		}
+		fBatch.writeByte(status);
+		fBatch.writeInt(handle.intValue());
+		fDirty= true;
+		if (++fBatchCount == MAX_BATCH_SIZE)
+			writeBatch();
+	}
+
+	private void writeBatch() throws IOException {
+		if (fBatchCount == 0)
+			return;
+		fOutput.writeInt(fBatchBytes.size() + 5);
+		fOutput.writeByte(MessageIds.FRAME_STATUS_BATCH);
+		fOutput.writeInt(fBatchCount);
+		fBatchBytes.writeTo(fOutput);
+		fBatchBytes.reset();
+		fBatchCount= 0;
+	}
+
+	private void startBlock(byte kind, String end) {
+		fBlockKind= kind;
+		fBlockEnd= end;
+		fBlock.setLength(0);
+	}
+
+	private void writeBlock() throws IOException {
+		writeBatch();
+		beginFrame(MessageIds.FRAME_BLOCK);
+		fFrame.writeByte(fBlockKind);
+		writeString(fFrame, fBlock.toString());
+		endFrame();
+		fBlockKind= 0;
+		fBlockEnd= null;
+		fBlock.setLength(0);
+	}
+
+	private void beginFrame(byte type) throws IOException {
+		fFrameBytes.reset();
+		fFrame.writeByte(type);
+	}
+
+	private void endFrame() throws IOException {
+		fOutput.writeInt(fFrameBytes.size());
+		fFrameBytes.writeTo(fOutput);
+		fDirty= true;
+	}
+
+	private static void writeString(DataOutputStream output, String value) throws IOException {
+		byte[] bytes= value.getBytes(StandardCharsets.UTF_8);
+		output.writeInt(bytes.length);
+		output.write(bytes);
+	}
+}
@@ -150,6 +150,61 @@ public class MessageIds {
 	 */
 	public static final String ASSUMPTION_FAILED_TEST_PREFIX= "@AssumptionFailure: "; //$NON-NLS-1$
 
+	/**
+	 * Program argument with which the client announces that it understands the
+	 * binary protocol. Runtimes that do not know the argument ignore it and
+	 * keep sending text messages.
+	 */
+	public static final String BINARY_PROTOCOL_ARGUMENT= "-binaryprotocol"; //$NON-NLS-1$
+
+	/**
+	 * Preamble sent by the RemoteTestRunner before the first frame of the binary
+	 * protocol. Text messages always start with '%', so a client can tell both
+	 * protocols apart from the first byte of the stream.
+	 */
+	public static final int BINARY_PROTOCOL_MAGIC= 0x4A554231; // "JUB1"
+
+	/**
+	 * Binary frame carrying one text message, to be processed like a line of
+	 * the text protocol.
+	 * Payload: message
+	 */
+	public static final byte FRAME_MESSAGE= 1;
+	/**
+	 * Binary frame carrying a test tree entry as described for {@link #TEST_TREE}.
+	 * Payload: treeEntry
+	 */
+	public static final byte FRAME_TEST_TREE= 2;
+	/**
+	 * Binary frame interning a test. Later status frames refer to the test
+	 * by its handle only.
+	 * Payload: handle (int) + testId + "," + testName
+	 */
+	public static final byte FRAME_DEFINE_TEST= 3;
+	/**
+	 * Binary frame carrying a batch of test status changes.
+	 * Payload: count (int) followed by count pairs of status (byte) and handle (int),
+	 * where status is one of {@link #STATUS_STARTED}, {@link #STATUS_ENDED},
+	 * {@link #STATUS_ERROR} or {@link #STATUS_FAILED}.
+	 */
+	public static final byte FRAME_STATUS_BATCH= 4;
+	/**
+	 * Binary frame carrying a complete multi-line block.
+	 * Payload: kind (byte) + text, where kind is one of {@link #BLOCK_TRACE},
+	 * {@link #BLOCK_EXPECTED}, {@link #BLOCK_ACTUAL} or {@link #BLOCK_RERUN_TRACE}.
+	 */
+	public static final byte FRAME_BLOCK= 5;
+
+	public static final byte STATUS_STARTED= 1;
+	public static final byte STATUS_ENDED= 2;
+	public static final byte STATUS_ERROR= 3;
+	public static final byte STATUS_FAILED= 4;
+
+	public static final byte BLOCK_TRACE= 1;
+	public static final byte BLOCK_EXPECTED= 2;
+	public static final byte BLOCK_ACTUAL= 3;
+	public static final byte BLOCK_RERUN_TRACE= 4;
+
 	private MessageIds() {
 	}
 }
@@ -90,6 +90,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Print writer for sending messages
 	 */
 	private PrintWriter fWriter;
+	/**
+	 * Writer for the binary protocol, or <code>null</code> if messages are sent as text
+	 */
+	private BinaryMessageWriter fBinaryWriter;
 	/**
 	 * Reader for incoming messages
 	 */
@@ -111,6 +115,10 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * This allows to rerun tests.
 	 */
 	private boolean fKeepAlive= false;
+	/**
+	 * Does the client understand the binary protocol?
+	 */
+	private boolean fBinaryProtocol= false;
 	/**
 	 * Has the server been stopped
 	 */
@@ -201,6 +209,7 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * -host: the host to connect to default local host
 	 * -port: the port to connect to, mandatory argument
 	 * -keepalive: keep the process alive after a test run
+	 * -binaryprotocol: the client understands the binary protocol
      * </pre>
      */
 	public static void main(String[] args) {
@@ -300,6 +309,9 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 			else if("-keepalive".equals(args[i].toLowerCase())) { //$NON-NLS-1$
 				fKeepAlive= true;
 			}
+			else if(MessageIds.BINARY_PROTOCOL_ARGUMENT.equals(args[i].toLowerCase())) {
+				fBinaryProtocol= true;
+			}
 			else if("-debugging".equals(args[i].toLowerCase()) || "-debug".equals(args[i].toLowerCase())){ //$NON-NLS-1$ //$NON-NLS-2$
 			    fDebugMode= true;
 
@@ -647,6 +659,8 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 		for (int i= 1; i < 20; i++) {
 			try{
 				fClientSocket= new Socket(fHost, fPort);
+				if (fBinaryProtocol)
+					fBinaryWriter= new BinaryMessageWriter(fClientSocket.getOutputStream());
 				try {
 				    fWriter= new PrintWriter(new BufferedWriter(new OutputStreamWriter(fClientSocket.getOutputStream(), "UTF-8")), false/*true*/); //$NON-NLS-1$
 	            } catch (UnsupportedEncodingException e1) {
@@ -676,6 +690,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 	 * Shutsdown the connection to the remote test listener.
 	 */
 	private void shutDown() {
+		if (fBinaryWriter != null) {
+			try {
+				fBinaryWriter.close();
+			} catch (IOException e) {
+				if (fDebugMode)
+					e.printStackTrace();
+			}
+			fBinaryWriter= null;
+		}
 		if (fWriter != null) {
 			fWriter.close();
 			fWriter= null;
@@ -709,6 +732,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	@Override
 	public void sendMessage(String msg) {
+		if (fBinaryWriter != null) {
+			try {
+				fBinaryWriter.sendMessage(msg);
+			} catch (IOException e) {
+				if (fDebugMode)
+					e.printStackTrace();
+			}
+			return;
+		}
 		if(fWriter == null)
 			return;
 		fWriter.println(msg);
@@ -749,6 +781,15 @@ public class RemoteTestRunner implements MessageSender, IVisitsTestTrees {
 
 	@Override
 	public void flush() {
+		if (fBinaryWriter != null) {
+			try {
+				fBinaryWriter.flush();
+			} catch (IOException e) {
+				if (fDebugMode)
+					e.printStackTrace();
+			}
+			return;
+		}
 	    fWriter.flush();
 	}
 
@@ -146,11 +146,12 @@ import org.eclipse.jdt.internal.junit.launcher.ITestKind;
 import org.eclipse.jdt.internal.junit.launcher.JUnitLaunchConfigurationConstants;
 import org.eclipse.jdt.internal.junit.launcher.TestKindRegistry;
 import org.eclipse.jdt.internal.junit.model.ITestRunSessionListener;
-import org.eclipse.jdt.internal.junit.model.ITestSessionListener;
+import org.eclipse.jdt.internal.junit.model.ITestSessionBatchListener;
 import org.eclipse.jdt.internal.junit.model.JUnitModel;
 import org.eclipse.jdt.internal.junit.model.TestCaseElement;
 import org.eclipse.jdt.internal.junit.model.TestElement;
 import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestStatusBatch;
 
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 
@@ -729,11 +730,18 @@ public class TestRunnerViewPart extends ViewPart {
 		}
 	}
 
-	private class TestSessionListener implements ITestSessionListener {
+	private class TestSessionListener implements ITestSessionBatchListener {
+		/**
+		 * The number of errors and failures this listener has been notified of. The counters
+		 * of the session may be ahead when notifications are delivered in batches.
+		 */
+		private int fNotifiedFailures= 0;
+
 		@Override
 		public void sessionStarted(){
 			fTestViewer.registerViewersRefresh();
 			fShowOnErrorOnly= getShowOnErrorOnly();
+			fNotifiedFailures= 0;
 
 			startUpdateJobs();
 
@@ -816,7 +824,10 @@ public class TestRunnerViewPart extends ViewPart {
 		public void testStarted(TestCaseElement testCaseElement) {
 			fTestViewer.registerAutoScrollTarget(testCaseElement);
 			fTestViewer.registerViewerUpdate(testCaseElement);
+			registerStartedMessage(testCaseElement);
+		}
 
+		private void registerStartedMessage(TestCaseElement testCaseElement) {
 			String className= BasicElementLabels.getJavaElementName(testCaseElement.getClassName());
 			String method= BasicElementLabels.getJavaElementName(testCaseElement.getTestMethodName());
 			String status= Messages.format(JUnitMessages.TestRunnerViewPart_message_started, new String[] { className, method });
@@ -831,7 +842,7 @@ public class TestRunnerViewPart extends ViewPart {
 			fTestViewer.registerViewerUpdate(testElement);
 
 		    // show the view on the first error only
-		    if (fShowOnErrorOnly && (getErrorsPlusFailures() == 1))
+		    if (fNotifiedFailures++ == 0 && fShowOnErrorOnly)
 		        postShowTestResultsView();
 
 		    //TODO:
@@ -849,6 +860,32 @@ public class TestRunnerViewPart extends ViewPart {
 			fTestViewer.registerViewerUpdate(testCaseElement);
 		}
 
+		@Override
+		public void testsChanged(TestStatusBatch batch) {
+			for (TestElement testElement : batch.getTestElements()) {
+				fTestViewer.registerViewerUpdate(testElement);
+			}
+			int failures= batch.getFailureCount() + batch.getErrorCount();
+			if (failures > 0) {
+				if (isAutoScroll()) {
+					for (TestElement testElement : batch.getFailedTestElements()) {
+						fTestViewer.registerFailedForAutoScroll(testElement);
+					}
+				}
+				// show the view on the first error only
+				int notified= fNotifiedFailures;
+				fNotifiedFailures+= failures;
+				if (notified == 0 && fShowOnErrorOnly)
+					postShowTestResultsView();
+			}
+			// only the last started test is of interest for scrolling and the status line
+			TestCaseElement lastStarted= batch.getLastStartedTest();
+			if (lastStarted != null) {
+				fTestViewer.registerAutoScrollTarget(lastStarted);
+				registerStartedMessage(lastStarted);
+			}
+		}
+
 		@Override
 		public void testReran(TestCaseElement testCaseElement, TestElement.Status status, String trace, String expectedResult, String actualResult) {
 			fTestViewer.registerViewerUpdate(testCaseElement); //TODO: autoExpand?
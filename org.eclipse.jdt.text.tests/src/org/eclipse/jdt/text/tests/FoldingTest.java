@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.jdt.text.tests.performance.EditorTestHelper;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.SourceViewer;
+import org.eclipse.jface.text.source.projection.ProjectionAnnotationModel;
+import org.eclipse.jface.text.source.projection.ProjectionViewer;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+
+import org.eclipse.jdt.ui.text.folding.IJavaFoldingStructureProvider;
+
+import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+
+/**
+ * Tests that the incremental folding updates after edits in member bodies and Javadoc comments
+ * yield the same folding structure as a full update.
+ */
+public class FoldingTest {
+	@Rule
+	public JUnitProjectTestSetup jpts= new JUnitProjectTestSetup();
+
+	private static final String SOURCE=
+			"package folding;\n" +
+			"\n" +
+			"public class A {\n" +
+			"	private int fField;\n" +
+			"\n" +
+			"	public void m1() {\n" +
+			"		fField++;\n" +
+			"	}\n" +
+			"\n" +
+			"	/**\n" +
+			"	 * Documented.\n" +
+			"	 */\n" +
+			"	public void m2() {\n" +
+			"		fField--;\n" +
+			"	}\n" +
+			"\n" +
+			"	class Inner {\n" +
+			"		void n() {\n" +
+			"		}\n" +
+			"	}\n" +
+			"}\n";
+
+	private boolean fWasFoldingEnabled;
+	private JavaEditor fEditor;
+	private SourceViewer fViewer;
+	private IDocument fDocument;
+
+	@Before
+	public void setUp() throws Exception {
+		fWasFoldingEnabled= EditorTestHelper.enableFolding(true);
+		IJavaProject project= JUnitProjectTestSetup.getProject();
+		IPackageFragmentRoot root= project.getPackageFragmentRoot(project.getProject().getFolder("src"));
+		IPackageFragment pack= root.createPackageFragment("folding", true, null);
+		ICompilationUnit cu= pack.createCompilationUnit("A.java", SOURCE, true, null);
+
+		fEditor= (JavaEditor) EditorTestHelper.openInEditor((IFile) cu.getResource(), true);
+		assertNotNull(fEditor);
+		fViewer= EditorTestHelper.getSourceViewer(fEditor);
+		fDocument= EditorTestHelper.getDocument(fEditor);
+		assertTrue(EditorTestHelper.joinReconciler(fViewer, 0, 10000, 100));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+		EditorTestHelper.enableFolding(fWasFoldingEnabled);
+	}
+
+	private List<String> getFoldingStructure() throws BadLocationException {
+		EditorTestHelper.runEventQueue(fEditor);
+		ProjectionAnnotationModel model= ((ProjectionViewer) fViewer).getProjectionAnnotationModel();
+		List<String> result= new ArrayList<>();
+		Iterator<Annotation> iter= model.getAnnotationIterator();
+		while (iter.hasNext()) {
+			Position position= model.getPosition(iter.next());
+			String line= fDocument.get(position.getOffset(), fDocument.getLineLength(fDocument.getLineOfOffset(position.getOffset()))).trim();
+			result.add(position.getOffset() + ":" + position.getLength() + " " + line);
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private List<String> getFullFoldingStructure() throws BadLocationException {
+		IJavaFoldingStructureProvider provider= fEditor.getAdapter(IJavaFoldingStructureProvider.class);
+		assertNotNull(provider);
+		provider.initialize();
+		return getFoldingStructure();
+	}
+
+	private List<String> edit(String search, int offsetInSearch, int length, String text) throws Exception {
+		int offset= fDocument.get().indexOf(search);
+		assertTrue(offset >= 0);
+		fDocument.replace(offset + offsetInSearch, length, text);
+		EditorTestHelper.forceReconcile(fViewer);
+		assertTrue(EditorTestHelper.joinReconciler(fViewer, 0, 10000, 100));
+		return getFoldingStructure();
+	}
+
+	@Test
+	public void testInitialStructure() throws Exception {
+		List<String> structure= getFoldingStructure();
+		// m1, the Javadoc and code of m2, Inner and n
+		assertEquals(structure.toString(), 5, structure.size());
+		assertEquals(structure, getFullFoldingStructure());
+	}
+
+	@Test
+	public void testBodyEdit() throws Exception {
+		List<String> structure= edit("fField++;", 0, 0, "fField++;\n\t\tfField++;\n\t\t");
+		assertEquals(5, structure.size());
+		assertEquals(structure, getFullFoldingStructure());
+	}
+
+	@Test
+	public void testAddJavadoc() throws Exception {
+		List<String> structure= edit("public void m1()", 0, 0, "/**\n\t * New.\n\t */\n\t");
+		assertEquals(6, structure.size());
+		assertEquals(structure, getFullFoldingStructure());
+	}
+
+	@Test
+	public void testRemoveJavadoc() throws Exception {
+		List<String> structure= edit("/**\n\t * Documented.\n\t */\n\t", 0, "/**\n\t * Documented.\n\t */\n\t".length(), "");
+		assertEquals(4, structure.size());
+		assertEquals(structure, getFullFoldingStructure());
+	}
+
+	@Test
+	public void testEditJavadoc() throws Exception {
+		// a Javadoc comment on a single line is not folded
+		List<String> structure= edit("/**\n\t * Documented.\n\t */", 0, "/**\n\t * Documented.\n\t */".length(), "/** Documented. */");
+		assertEquals(4, structure.size());
+		assertEquals(structure, getFullFoldingStructure());
+	}
+
+	@Test
+	public void testSubsequentEdits() throws Exception {
+		edit("fField--;", 0, 0, "fField--;\n\t\t");
+		List<String> structure= edit("class Inner", 0, 0, "/**\n\t * Inner.\n\t */\n\t");
+		assertEquals(6, structure.size());
+		assertEquals(structure, getFullFoldingStructure());
+	}
+}
@@ -60,6 +60,7 @@ import org.eclipse.jdt.text.tests.templates.TemplatesTestSuite;
 	SpellCheckEngineTestCase.class,
 	SemanticHighlightingTest.class,
 	AutoboxingSemanticHighlightingTest.class,
+	FoldingTest.class,
 	NewForLoopJavaContextTest.class,
 	IteratorForLoopJavaContextTest.class,
 	ArrayWithTempVarForLoopJavaContextTest.class,
@@ -14,10 +14,17 @@ package org.eclipse.jdt.text.tests.contentassist;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -41,12 +48,18 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 import org.eclipse.jdt.ui.text.java.JavaContentAssistInvocationContext;
 
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
+import org.eclipse.jdt.internal.ui.text.Chain;
+import org.eclipse.jdt.internal.ui.text.ChainElement;
+import org.eclipse.jdt.internal.ui.text.ChainFinder;
+import org.eclipse.jdt.internal.ui.text.ChainIndex;
+import org.eclipse.jdt.internal.ui.text.ChainType;
 import org.eclipse.jdt.internal.ui.text.java.ChainCompletionProposalComputer;
 
 public class ChainCompletionTest {
@@ -121,6 +134,151 @@ public class ChainCompletionTest {
 		assertEquals("getBar().getBaz() - 2 elements", proposals.get(0).getDisplayString());
 	}
 
+	@Test
+	public void testMemberChangeInvalidatesIndex() throws Exception {
+		StringBuffer bar= new StringBuffer();
+		bar.append("package test;\n" +
+				"public class Bar {\n" +
+				"}");
+		ICompilationUnit barCU= getCompilationUnit(pkg, bar, "Bar.java");
+
+		StringBuffer baz= new StringBuffer();
+		baz.append("package test;\n" +
+				"public class Baz {\n" +
+				"}");
+		getCompilationUnit(pkg, baz, "Baz.java");
+
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test;\n" +
+				"public class Foo {\n" +
+				"  public Bar getBar() {\n" +
+				"    return new Bar();\n" +
+				"  }\n" +
+				"\n" +
+				"  public static void mainMethod () {\n" +
+				"    Foo f = new Foo();\n" +
+				"    Baz b = f.$\n" +
+				"  }\n" +
+				"}");
+		int completionIndex= getCompletionIndex(buf);
+		ICompilationUnit cu= getCompilationUnit(pkg, buf, "Foo.java");
+
+		assertEquals(0, computeCompletionProposals(cu, completionIndex).size());
+
+		barCU.getBuffer().setContents("package test;\n" +
+				"public class Bar {\n" +
+				"  public Baz getBaz() {\n" +
+				"    return new Baz();\n" +
+				"  }\n" +
+				"}");
+		barCU.save(null, true);
+
+		List<ICompletionProposal> proposals= computeCompletionProposals(cu, completionIndex);
+		assertEquals(1, proposals.size());
+		assertEquals("getBar().getBaz() - 2 elements", proposals.get(0).getDisplayString());
+	}
+
+	@Test
+	public void testParallelSearchOrder() throws Exception {
+		IType source= createChainSource();
+		List<ChainType> expectedTypes= Arrays.asList(new ChainType(source.getType("B")), new ChainType(source.getType("A")), new ChainType(source.getType("C")));
+		List<ChainElement> entrypoints= Arrays.asList(new ChainElement(source.getField("source"), false));
+
+		// the chains are ordered by expected type and limited as if the types were searched one after the other
+		for (int i= 0; i < 20; i++) {
+			ChainFinder finder= new ChainFinder(expectedTypes, Collections.emptyList(), source, ChainIndex.get(fJProject));
+			finder.startChainSearch(entrypoints, 3, 1, 2);
+			assertEquals(Arrays.asList("source.b1", "source.b2", "source.a1"), describe(finder.getChains()));
+
+			finder= new ChainFinder(expectedTypes, Collections.emptyList(), source, new ChainIndex());
+			finder.startChainSearch(entrypoints, 10, 1, 2);
+			assertEquals(Arrays.asList("source.b1", "source.b2", "source.a1", "source.a2", "source.c1"), describe(finder.getChains()));
+		}
+	}
+
+	@Test
+	public void testPartialChainsAfterCancel() throws Exception {
+		IType source= createChainSource();
+		List<ChainType> expectedTypes= Arrays.asList(new ChainType(source.getType("B")), new ChainType(source.getType("A")), new ChainType(source.getType("C")));
+		List<ChainElement> entrypoints= Arrays.asList(new ChainElement(source.getField("source"), false));
+		List<String> allChains= Arrays.asList("source.b1", "source.b2", "source.a1", "source.a2", "source.c1");
+
+		ChainFinder canceled= new ChainFinder(expectedTypes, Collections.emptyList(), source, new ChainIndex());
+		canceled.cancel();
+		canceled.startChainSearch(entrypoints, 10, 1, 2);
+		assertEquals(Collections.emptyList(), canceled.getChains());
+
+		// the chains found before a time out keep the order of the complete search
+		for (int i= 0; i < 20; i++) {
+			ChainFinder finder= new ChainFinder(expectedTypes, Collections.emptyList(), source, new ChainIndex());
+			Future<?> future= CompletableFuture.runAsync(() -> finder.startChainSearch(entrypoints, 10, 1, 2), ChainFinder.getExecutor());
+			Thread.sleep(i % 3);
+			finder.cancel();
+			List<String> partialChains= describe(finder.getChains());
+			future.get(30, TimeUnit.SECONDS);
+			assertTrue(partialChains.toString(), isSubsequence(partialChains, allChains));
+			assertTrue(isSubsequence(describe(finder.getChains()), allChains));
+		}
+	}
+
+	@Test
+	public void testClosedProjectDropsIndex() throws Exception {
+		ChainIndex index= ChainIndex.get(fJProject);
+		assertSame(index, ChainIndex.get(fJProject));
+
+		fJProject.getProject().close(null);
+		assertNotSame(index, ChainIndex.get(fJProject));
+
+		fJProject.getProject().open(null);
+		index= ChainIndex.get(fJProject);
+		JavaProjectHelper.delete(fJProject);
+		assertNotSame(index, ChainIndex.get(fJProject));
+
+		fJProject= JavaProjectHelper.createJavaProject("TestProject", "bin");
+	}
+
+	private IType createChainSource() throws JavaModelException {
+		StringBuffer buf= new StringBuffer();
+		buf.append("package test;\n" +
+				"public class Source {\n" +
+				"  Source source;\n" +
+				"  public A a1() { return null; }\n" +
+				"  public B b1() { return null; }\n" +
+				"  public A a2() { return null; }\n" +
+				"  public B b2() { return null; }\n" +
+				"  public C c1() { return null; }\n" +
+				"  public class A {}\n" +
+				"  public class B {}\n" +
+				"  public class C {}\n" +
+				"}");
+		return getCompilationUnit(pkg, buf, "Source.java").getType("Source");
+	}
+
+	private static List<String> describe(List<Chain> chains) {
+		List<String> result= new ArrayList<>();
+		for (Chain chain : chains) {
+			StringBuilder description= new StringBuilder();
+			for (ChainElement element : chain.getElements()) {
+				if (description.length() > 0)
+					description.append('.');
+				description.append(element.getElement().getElementName());
+			}
+			result.add(description.toString());
+		}
+		return result;
+	}
+
+	private static boolean isSubsequence(List<String> list, List<String> sequence) {
+		int next= 0;
+		for (String element : list) {
+			int index= sequence.subList(next, sequence.size()).indexOf(element);
+			if (index < 0)
+				return false;
+			next+= index + 1;
+		}
+		return true;
+	}
+
 	@Test
 	public void testPrimitiveCompletion() throws Exception {
 		StringBuffer buf= new StringBuffer();
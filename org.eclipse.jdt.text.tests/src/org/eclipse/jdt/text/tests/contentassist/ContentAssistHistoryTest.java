@@ -14,6 +14,7 @@
 package org.eclipse.jdt.text.tests.contentassist;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -243,6 +244,38 @@ public class ContentAssistHistoryTest {
 		assertEqualMap(map(LIST, list(ARRAY_LIST), COLLECTION, list(ARRAY_LIST), ITERABLE, list(ARRAY_LIST), CHAR_SEQUENCE, list(STRING)), loaded.getEntireHistory());
 	}
 
+	@Test
+	public void testLoadXML() throws Exception {
+		Preferences prefs= new Preferences();
+		String key= "myKey";
+		prefs.setValue(key, "<?xml version=\"1.0\" encoding=\"UTF-8\"?><history maxLHS=\"100\" maxRHS=\"10\">"
+				+ "<lhs name=\"" + LIST + "\"><rhs name=\"" + LINKED_LIST + "\"/><rhs name=\"" + ARRAY_LIST + "\"/></lhs>"
+				+ "<lhs name=\"" + CHAR_SEQUENCE + "\"><rhs name=\"" + STRING + "\"/></lhs></history>");
+		ContentAssistHistory loaded= ContentAssistHistory.load(prefs, key);
+
+		assertEqualMap(map(LIST, list(LINKED_LIST, ARRAY_LIST), CHAR_SEQUENCE, list(STRING)), loaded.getEntireHistory());
+
+		ContentAssistHistory.store(loaded, prefs, key);
+		// the public preference keeps its XML format, the binary copy is stored separately
+		assertTrue(prefs.getString(key).startsWith("<"));
+		assertFalse(prefs.getString(key + ".binary").isEmpty());
+		assertEqualMap(map(LIST, list(LINKED_LIST, ARRAY_LIST), CHAR_SEQUENCE, list(STRING)), ContentAssistHistory.load(prefs, key).getEntireHistory());
+	}
+
+	@Test
+	public void testStaleBinaryCopy() throws Exception {
+		Preferences prefs= new Preferences();
+		String key= "myKey";
+		ContentAssistHistory history= new ContentAssistHistory();
+		history.remember(fgStringT, fgStringT);
+		ContentAssistHistory.store(history, prefs, key);
+
+		// the XML document is changed by someone else, the binary copy must be ignored
+		prefs.setValue(key, "<?xml version=\"1.0\" encoding=\"UTF-8\"?><history maxLHS=\"100\" maxRHS=\"10\">"
+				+ "<lhs name=\"" + LIST + "\"><rhs name=\"" + ARRAY_LIST + "\"/></lhs></history>");
+		assertEqualMap(map(LIST, list(ARRAY_LIST)), ContentAssistHistory.load(prefs, key).getEntireHistory());
+	}
+
 	private static void assertEqualMap(Map<String, List<String>> expected, Map<String, RHSHistory> actual) {
 		assertEqualMap("", expected, actual);
 	}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.performance;
+
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Locale;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.AbstractSpellDictionary;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.LocaleSensitiveSpellDictionary;
+
+
+/**
+ * Measures the time to load the US English dictionary and to look up words in it, once with the
+ * word list held on the heap and once with the word list mapped into memory.
+ *
+ * @since 3.13
+ */
+public class SpellDictionaryTest extends TextPerformanceTestCase {
+
+	private static final Class<SpellDictionaryTest> THIS= SpellDictionaryTest.class;
+
+	private static final int WARM_UP_RUNS= 3;
+
+	private static final int MEASURED_RUNS= 20;
+
+	private static final String[] WORDS= { "dictionary", "performance", "measure", "compilation", "unit", "editor", "spelling", "problem", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+			"the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+
+	private static final String[] MISSPELLED_WORDS= { "dictionnary", "perfromance", "mesure", "compilaton" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	private static final int LOOKUPS= 1000;
+
+	private URL fLocation;
+
+
+	/**
+	 * Dictionary that maps its word list into memory as requested.
+	 */
+	private static class Dictionary extends LocaleSensitiveSpellDictionary {
+
+		private final boolean fMapping;
+
+		public Dictionary(URL location, boolean mapping) {
+			super(Locale.US, location);
+			fMapping= mapping;
+		}
+
+		@Override
+		protected boolean isMappingWordList() {
+			return fMapping;
+		}
+	}
+
+
+	public static Test suite() {
+		return new PerformanceTestSetup(new TestSuite(THIS));
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		setWarmUpRuns(WARM_UP_RUNS);
+		setMeasuredRuns(MEASURED_RUNS);
+
+		assertTrue(SpellCheckEngine.getLocalesWithInstalledDictionaries().contains(Locale.US));
+		Enumeration<URL> locations= SpellCheckEngine.getDictionaryLocations();
+		assertTrue(locations.hasMoreElements());
+		fLocation= locations.nextElement();
+	}
+
+	public void testWordList() throws Exception {
+		measure(false);
+	}
+
+	public void testMappedWordList() throws Exception {
+		measure(true);
+	}
+
+	private void measure(boolean mapping) {
+		measure(getNullPerformanceMeter(), getWarmUpRuns(), mapping);
+		PerformanceMeter performanceMeter= createPerformanceMeter();
+		measure(performanceMeter, getMeasuredRuns(), mapping);
+		commitAllMeasurements();
+		assertAllPerformance();
+	}
+
+	private void measure(PerformanceMeter performanceMeter, int runs, boolean mapping) {
+		for (int i= 0; i < runs; i++) {
+			AbstractSpellDictionary dictionary= new Dictionary(fLocation, mapping);
+			performanceMeter.start();
+			for (int j= 0; j < LOOKUPS; j++) {
+				assertTrue(dictionary.isCorrect(WORDS[j % WORDS.length]));
+			}
+			for (String word : MISSPELLED_WORDS) {
+				assertFalse(dictionary.getProposals(word, false).isEmpty());
+			}
+			performanceMeter.stop();
+			dictionary.unload();
+		}
+	}
+}
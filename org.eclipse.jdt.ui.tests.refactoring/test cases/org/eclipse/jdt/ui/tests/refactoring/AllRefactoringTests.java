@@ -113,7 +113,8 @@ import org.junit.runners.Suite;
 
 	//--helpers
 	RenamingNameSuggestorTests.class,
-	DelegateCreatorTests.class
+	DelegateCreatorTests.class,
+	LiteralPrefilterTests.class
 })
 public class AllRefactoringTests {
 }
@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.corext.refactoring.util.LiteralPrefilter;
+
+/**
+ * Tests the literals of patterns and the search for them by {@link LiteralPrefilter}.
+ */
+public class LiteralPrefilterTests {
+
+	/**
+	 * A reader that returns at most a few characters per read.
+	 */
+	private static final class ShortReader extends FilterReader {
+
+		ShortReader(String text) {
+			super(new StringReader(text));
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) throws IOException {
+			return super.read(buffer, offset, Math.min(length, 3));
+		}
+	}
+
+	private static void assertContainsAll(boolean expected, String pattern, String text) throws IOException {
+		LiteralPrefilter prefilter= new LiteralPrefilter(pattern);
+		assertEquals(pattern + " in " + text, expected, prefilter.containsAll(text));
+		assertEquals(pattern + " in " + text, expected, prefilter.containsAll(new StringReader(text)));
+		assertEquals(pattern + " in " + text, expected, prefilter.containsAll(new ShortReader(text)));
+	}
+
+	private static String getLiteral(int i) {
+		return "<" + i + ">";
+	}
+
+	private static String createPattern(int count) {
+		List<String> literals= new ArrayList<>();
+		for (int i= 0; i < count; i++)
+			literals.add(getLiteral(i));
+		return String.join("*", literals);
+	}
+
+	private static String createText(int count, int missing) {
+		StringBuilder text= new StringBuilder();
+		for (int i= count - 1; i >= 0; i--) {
+			if (i != missing)
+				text.append(getLiteral(i)).append(' ');
+		}
+		return text.toString();
+	}
+
+	private static String fill(int length) {
+		char[] chars= new char[length];
+		Arrays.fill(chars, 'x');
+		return new String(chars);
+	}
+
+	@Test
+	public void testLiterals() {
+		assertEquals(Arrays.asList("p.A"), LiteralPrefilter.getLiterals("p.A"));
+		assertEquals(Arrays.asList("p", "A", "B"), LiteralPrefilter.getLiterals("**p?A*B?"));
+		assertEquals(Collections.emptyList(), LiteralPrefilter.getLiterals("*?*"));
+		assertEquals(Collections.emptyList(), LiteralPrefilter.getLiterals(""));
+	}
+
+	@Test
+	public void testEscapedLiterals() {
+		assertEquals(Arrays.asList("a*b"), LiteralPrefilter.getLiterals("a\\*b"));
+		assertEquals(Arrays.asList("a?b", "c"), LiteralPrefilter.getLiterals("a\\?b*c"));
+		assertEquals(Arrays.asList("a\\", "b"), LiteralPrefilter.getLiterals("a\\\\*b"));
+		assertEquals(Arrays.asList("x"), LiteralPrefilter.getLiterals("\\x"));
+		// a trailing backslash escapes nothing and is kept
+		assertEquals(Arrays.asList("ab\\"), LiteralPrefilter.getLiterals("ab\\"));
+		assertEquals(Arrays.asList("a", "\\"), LiteralPrefilter.getLiterals("a*\\"));
+	}
+
+	@Test
+	public void testEscapedWildcards() throws Exception {
+		assertContainsAll(true, "p.A\\*", "x p.A* y");
+		assertContainsAll(false, "p.A\\*", "x p.A y");
+		assertContainsAll(true, "a\\?b*c", "c a?b");
+		assertContainsAll(false, "a\\?b*c", "c axb");
+	}
+
+	@Test
+	public void testTrivial() throws Exception {
+		assertTrue(new LiteralPrefilter("*").isTrivial());
+		assertTrue(new LiteralPrefilter("??").isTrivial());
+		assertFalse(new LiteralPrefilter("*a").isTrivial());
+		assertContainsAll(true, "*?", "");
+		assertContainsAll(false, "a", "");
+	}
+
+	@Test
+	public void testOverlappingLiterals() throws Exception {
+		assertContainsAll(true, "bc*cd", "abcd");
+		assertContainsAll(true, "abab*bab", "ababab");
+		assertContainsAll(false, "abab*bab", "abba bab");
+		// the search continues in the failure state after a mismatch
+		assertContainsAll(true, "abd*bc", "abc abd");
+		assertContainsAll(false, "abd*bc", "abc");
+		assertContainsAll(true, "aab", "aaab");
+	}
+
+	@Test
+	public void testSuffixLiterals() throws Exception {
+		assertContainsAll(true, "abc*bc*c", "zabcz");
+		assertContainsAll(false, "abc*bc*c", "zbcz");
+		assertContainsAll(true, "bc*c", "xbcx");
+		assertContainsAll(true, "c*bc*abc", "abc");
+	}
+
+	@Test
+	public void testMaximalLiterals() throws Exception {
+		int count= LiteralPrefilter.MAX_LITERALS;
+		String pattern= createPattern(count);
+		assertContainsAll(true, pattern, createText(count, -1));
+		assertContainsAll(false, pattern, createText(count, 0));
+		assertContainsAll(false, pattern, createText(count, count - 1));
+	}
+
+	@Test
+	public void testTooManyLiterals() throws Exception {
+		int count= LiteralPrefilter.MAX_LITERALS + 1;
+		String pattern= createPattern(count);
+		assertContainsAll(true, pattern, createText(count, -1));
+		assertContainsAll(false, pattern, createText(count, 0));
+		// only the first literals are searched, a text may pass without the others
+		assertContainsAll(true, pattern, createText(count, count - 1));
+	}
+
+	@Test
+	public void testBufferBoundaries() throws Exception {
+		int size= LiteralPrefilter.BUFFER_SIZE;
+		for (int offset= size - 4; offset <= size; offset++) {
+			String text= fill(offset) + "p.Abc" + fill(size);
+			assertContainsAll(true, "p.Abc", text);
+			assertContainsAll(false, "p.Abd", text);
+		}
+		// the literals are found in different buffers
+		assertContainsAll(true, "first*second", "first" + fill(2 * size) + "second");
+		assertContainsAll(true, "first*second", "second" + fill(2 * size) + "first");
+		assertContainsAll(false, "first*second", "first" + fill(2 * size) + "secon");
+		// the state of the automaton, including its failure states, is kept across the buffers
+		assertContainsAll(true, "p.Abc", fill(size - 2) + "p.Ap.Abc" + fill(size));
+		assertContainsAll(false, "p.Abc", fill(size - 2) + "p.Ap.Abd" + fill(size));
+	}
+}
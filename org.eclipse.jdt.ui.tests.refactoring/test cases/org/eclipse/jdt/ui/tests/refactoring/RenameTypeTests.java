@@ -25,6 +25,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -35,11 +37,19 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
 import org.eclipse.ltk.core.refactoring.Refactoring;
 import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.TextChange;
 import org.eclipse.ltk.core.refactoring.participants.RenameArguments;
 import org.eclipse.ltk.core.refactoring.participants.RenameRefactoring;
 
@@ -62,6 +72,10 @@ import org.eclipse.jdt.internal.core.refactoring.descriptors.RefactoringSignatur
 import org.eclipse.jdt.internal.corext.refactoring.rename.RenameTypeProcessor;
 import org.eclipse.jdt.internal.corext.refactoring.rename.RenamingNameSuggestor;
 import org.eclipse.jdt.internal.corext.refactoring.tagging.INameUpdating;
+import org.eclipse.jdt.internal.corext.refactoring.util.LiteralPrefilter;
+import org.eclipse.jdt.internal.corext.refactoring.util.QualifiedNameFinder;
+import org.eclipse.jdt.internal.corext.refactoring.util.QualifiedNameSearchResult;
+import org.eclipse.jdt.internal.corext.refactoring.util.TextChangeManager;
 
 import org.eclipse.jdt.ui.tests.refactoring.infra.DebugUtils;
 import org.eclipse.jdt.ui.tests.refactoring.rules.RefactoringTestSetup;
@@ -1413,6 +1427,56 @@ public class RenameTypeTests extends GenericRefactoringTest {
 		assertEqualLines("invalid updating", definedContent, newContent.toString());
 	}
 
+	private static Map<String, String> searchQualifiedNames(IProject project, String pattern, boolean streaming) throws CoreException {
+		QualifiedNameSearchResult result= new QualifiedNameSearchResult();
+		QualifiedNameFinder.process(result, pattern, "p.B", "*.xml, *.properties", project, streaming, new NullProgressMonitor());
+		Map<String, String> previews= new TreeMap<>();
+		for (TextChange change : result.getAllChanges())
+			previews.put(((IFile) change.getModifiedElement()).getFullPath().toString(), change.getPreviewContent(new NullProgressMonitor()));
+		return previews;
+	}
+
+	@Test
+	public void testQualifiedNameStreamingSearch() throws Exception {
+		IProject project= getPackageP().getJavaProject().getProject();
+		IFolder folder= project.getFolder("qualified");
+		folder.create(true, true, null);
+		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
+		IFile open= folder.getFile("open.xml");
+		try {
+			StringBuilder large= new StringBuilder();
+			while (large.length() < LiteralPrefilter.BUFFER_SIZE - 2)
+				large.append("<a/>\n");
+			large.setLength(LiteralPrefilter.BUFFER_SIZE - 2);
+			// the first match straddles the buffers of the prefilter
+			large.append("p.A\n<class name=\"p.A\"/>\n");
+
+			createFile(folder, "large.xml", large.toString());
+			createFile(folder, "embedded.xml", "<a>xp.A p.AB p.A.B p.A1 p.A_ p.A</a>\n");
+			createFile(folder, "mapping.properties", "type=p.A\nother=p.Ab\nnested=p.A$Inner\n");
+			createFile(folder, "none.xml", "<a>p.B q.A</a>\n");
+			createFile(folder, "excluded.txt", "p.A\n");
+			createFile(folder, "open.xml", "<a>p.A</a>\n");
+			manager.connect(open.getFullPath(), LocationKind.IFILE, null);
+
+			for (String pattern : new String[] { "p.A", "p.?", "*.A" }) {
+				Map<String, String> expected= searchQualifiedNames(project, pattern, false);
+				Map<String, String> actual= searchQualifiedNames(project, pattern, true);
+				assertEquals(pattern, expected, actual);
+			}
+			Map<String, String> previews= searchQualifiedNames(project, "p.A", true);
+			assertEquals(previews.keySet().toString(), 4, previews.size());
+			assertTrue(previews.get(folder.getFile("large.xml").getFullPath().toString()).endsWith("p.B\n<class name=\"p.B\"/>\n"));
+		} finally {
+			manager.disconnect(open.getFullPath(), LocationKind.IFILE, null);
+			folder.delete(true, null);
+		}
+	}
+
+	private static void createFile(IFolder folder, String name, String content) throws CoreException {
+		folder.getFile(name).create(new ByteArrayInputStream(content.getBytes()), true, null);
+	}
+
 	@Test
 	public void testGenerics1() throws Exception {
 		helper2("A", "B");
@@ -1932,4 +1996,115 @@ public class RenameTypeTests extends GenericRefactoringTest {
 		// Test references in annotations and type parameters
 		helper3("Try", "Bla", true, false, true);
 	}
+
+	private static final int PARALLEL_UNIT_COUNT= 60;
+
+	private static String getUserSource(String packageName, int index, String typeName, String fieldName, String localName) {
+		return "package " + packageName + ";\n"
+				+ "\n"
+				+ ("p".equals(packageName) ? "" : "import p." + typeName + ";\n\n")
+				+ "public class User" + index + " {\n"
+				+ "	private " + typeName + " " + fieldName + "= new " + typeName + "();\n"
+				+ "\n"
+				+ "	void m() {\n"
+				+ "		" + typeName + " " + localName + "= " + fieldName + ";\n"
+				+ "		" + localName + ".toString();\n"
+				+ "	}\n"
+				+ "}\n";
+	}
+
+	/*
+	 * Creates A in p and PARALLEL_UNIT_COUNT units referencing it in p and in q, which have the
+	 * same names in both packages.
+	 */
+	private IType createParallelTestUnits() throws Exception {
+		ICompilationUnit cu= createCU(getPackageP(), "A.java", "package p;\n\npublic class A {\n}\n");
+		for (int i= 0; i < PARALLEL_UNIT_COUNT; i++) {
+			createCU(getPackageP(), "User" + i + ".java", getUserSource("p", i, "A", "fA", "a"));
+			createCU(getPackageQ(), "User" + i + ".java", getUserSource("q", i, "A", "fA", "a"));
+		}
+		return cu.getType("A");
+	}
+
+	private Refactoring createParallelRefactoring(IType type, int parallelism) throws Exception {
+		RenameJavaElementDescriptor descriptor= createRefactoringDescriptor(type, "B");
+		setTheOptions(descriptor, true, false, true, null, RenamingNameSuggestor.STRATEGY_EMBEDDED);
+		Refactoring ref= createRefactoring(descriptor);
+		((RenameTypeProcessor) ((RenameRefactoring) ref).getProcessor()).setParallelism(parallelism);
+		return ref;
+	}
+
+	private static void describeChange(Change change, List<String> result) throws CoreException {
+		result.add(change.getName());
+		if (change instanceof TextChange)
+			result.add(((TextChange) change).getPreviewContent(new NullProgressMonitor()));
+		if (change instanceof CompositeChange) {
+			for (Change child : ((CompositeChange) change).getChildren())
+				describeChange(child, result);
+		}
+	}
+
+	private List<String> describeChange(Refactoring ref) throws CoreException {
+		RefactoringStatus status= ref.checkAllConditions(new NullProgressMonitor());
+		assertTrue(status.toString(), status.isOK());
+		Change change= ref.createChange(new NullProgressMonitor());
+		List<String> result= new ArrayList<>();
+		describeChange(change, result);
+		return result;
+	}
+
+	@Test
+	public void testParallelReferenceUpdates() throws Exception {
+		IType type= createParallelTestUnits();
+		performDummySearch();
+
+		List<String> sequential= describeChange(createParallelRefactoring(type, 1));
+		// the parallel path is only taken with at least 100 referencing units
+		List<String> parallel= describeChange(createParallelRefactoring(type, 4));
+		assertEquals(String.join("\n", sequential), String.join("\n", parallel));
+
+		assertNull("was supposed to pass", performRefactoring(createParallelRefactoring(type, 4)));
+		assertTrue(getPackageP().getCompilationUnit("B.java").exists());
+		for (int i= 0; i < PARALLEL_UNIT_COUNT; i++) {
+			String name= "User" + i + ".java";
+			assertEqualLines(name, getUserSource("p", i, "B", "fB", "b"), getPackageP().getCompilationUnit(name).getSource());
+			assertEqualLines(name, getUserSource("q", i, "B", "fB", "b"), getPackageQ().getCompilationUnit(name).getSource());
+		}
+	}
+
+	@Test
+	public void testParallelReferenceUpdatesAreStable() throws Exception {
+		IType type= createParallelTestUnits();
+		performDummySearch();
+
+		List<String> expected= describeChange(createParallelRefactoring(type, 4));
+		for (int i= 0; i < 3; i++)
+			assertEquals(String.join("\n", expected), String.join("\n", describeChange(createParallelRefactoring(type, 4))));
+	}
+
+	@Test
+	public void testTextChangeManagerOrder() throws Exception {
+		ICompilationUnit p1= createCU(getPackageP(), "X.java", "package p;\nclass X {}\n");
+		ICompilationUnit q1= createCU(getPackageQ(), "X.java", "package q;\nclass X {}\n");
+		ICompilationUnit p2= createCU(getPackageP(), "Y.java", "package p;\nclass Y {}\n");
+
+		TextChangeManager manager= new TextChangeManager();
+		manager.get(p2);
+		manager.get(q1);
+		manager.get(p1);
+		TextChangeManager reversed= new TextChangeManager();
+		reversed.get(p1);
+		reversed.get(q1);
+		reversed.get(p2);
+
+		// sorted by name, ties are broken by the path
+		ICompilationUnit[] expected= { p1, q1, p2 };
+		TextChange[] changes= manager.getAllChanges();
+		TextChange[] reversedChanges= reversed.getAllChanges();
+		assertEquals(expected.length, changes.length);
+		for (int i= 0; i < expected.length; i++) {
+			assertEquals(expected[i], changes[i].getModifiedElement());
+			assertEquals(expected[i], reversedChanges[i].getModifiedElement());
+		}
+	}
 }
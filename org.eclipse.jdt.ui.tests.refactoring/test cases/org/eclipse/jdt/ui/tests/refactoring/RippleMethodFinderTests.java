@@ -19,6 +19,8 @@ import static org.junit.Assert.assertTrue;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import org.junit.Rule;
@@ -26,11 +28,13 @@ import org.junit.Test;
 
 import org.eclipse.core.runtime.NullProgressMonitor;
 
+import org.eclipse.jdt.core.IBuffer;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IPackageFragment;
 
+import org.eclipse.jdt.internal.corext.refactoring.rename.RippleMethodCache;
 import org.eclipse.jdt.internal.corext.refactoring.rename.RippleMethodFinder2;
 
 import org.eclipse.jdt.ui.tests.refactoring.infra.AbstractJunit4CUTestCase;
@@ -81,10 +85,78 @@ public class RippleMethodFinderTests extends AbstractJunit4CUTestCase {
 			start++;
 		}
 
-		for (IMethod method : RippleMethodFinder2.getRelatedMethods(target, new NullProgressMonitor(), null)) {
+		IMethod[] relatedMethods= RippleMethodFinder2.getRelatedMethods(target, new NullProgressMonitor(), null);
+		for (IMethod method : relatedMethods) {
 			assertTrue("method not found: " + method, rippleMethods.remove(method));
 		}
 		assertEquals("found wrong ripple methods: " + rippleMethods, 0, rippleMethods.size());
+
+		// the second search is answered from the cache
+		long hits= RippleMethodCache.getDefault().getHits();
+		assertEquals(new HashSet<>(Arrays.asList(relatedMethods)), new HashSet<>(Arrays.asList(RippleMethodFinder2.getRelatedMethods(target, new NullProgressMonitor(), null))));
+		assertEquals(hits + 1, RippleMethodCache.getDefault().getHits());
+
+		// and so are the searches for the other methods of the group
+		for (IMethod method : relatedMethods) {
+			hits= RippleMethodCache.getDefault().getHits();
+			assertEquals(new HashSet<>(Arrays.asList(relatedMethods)), new HashSet<>(Arrays.asList(RippleMethodFinder2.getRelatedMethods(method, new NullProgressMonitor(), null))));
+			assertEquals(hits + 1, RippleMethodCache.getDefault().getHits());
+		}
+	}
+
+	private static void assertRippleMethods(IMethod target, IMethod... expected) throws Exception {
+		IMethod[] relatedMethods= RippleMethodFinder2.getRelatedMethods(target, new NullProgressMonitor(), null);
+		assertEquals(new HashSet<>(Arrays.asList(expected)), new HashSet<>(Arrays.asList(relatedMethods)));
+	}
+
+	@Test
+	public void testCacheInvalidation() throws Exception {
+		ICompilationUnit cu= createCU(rts.getPackageP(), "A.java",
+				"package p;\n" +
+				"class A {\n" +
+				"  void m() {}\n" +
+				"}\n" +
+				"class B extends A {\n" +
+				"  void m() {}\n" +
+				"}\n");
+		IMethod methodA= cu.getType("A").getMethod("m", new String[0]);
+		IMethod methodB= cu.getType("B").getMethod("m", new String[0]);
+		RippleMethodCache cache= RippleMethodCache.getDefault();
+
+		cu.becomeWorkingCopy(null);
+		try {
+			cache.clear();
+			cache.resetStatistics();
+			assertRippleMethods(methodA, methodA, methodB);
+			assertEquals(1, cache.getMisses());
+
+			// a change of a method body keeps the group
+			IBuffer buffer= cu.getBuffer();
+			buffer.replace(buffer.getContents().indexOf("{}"), 2, "{ int i= 0; }");
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertRippleMethods(methodB, methodA, methodB);
+			assertEquals(1, cache.getMisses());
+			assertEquals(1, cache.getHits());
+
+			// removing a method of the group invalidates it
+			buffer.setContents(
+					"package p;\n" +
+					"class A {\n" +
+					"  void m() {}\n" +
+					"}\n" +
+					"class B extends A {\n" +
+					"}\n");
+			cu.reconcile(ICompilationUnit.NO_AST, false, null, null);
+			assertTrue(cache.getInvalidations() > 0);
+			assertRippleMethods(methodA, methodA);
+			assertEquals(2, cache.getMisses());
+		} finally {
+			cu.discardWorkingCopy();
+		}
+
+		// discarding the working copy reverts the removal, the group of the working copy is invalid
+		assertRippleMethods(methodA, methodA, methodB);
+		assertEquals(3, cache.getMisses());
 	}
 
 	@Test
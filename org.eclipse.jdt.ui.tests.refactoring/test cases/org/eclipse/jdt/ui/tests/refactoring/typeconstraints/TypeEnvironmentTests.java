@@ -40,11 +40,15 @@ import org.eclipse.jdt.core.dom.FieldDeclaration;
 import org.eclipse.jdt.core.dom.IBinding;
 import org.eclipse.jdt.core.dom.ITypeBinding;
 import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
 
 import org.eclipse.jdt.internal.corext.dom.HierarchicalASTVisitor;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.EnumeratedTypeSet;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.TypeSet;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.typesets.TypeSetEnvironment;
 
 import org.eclipse.jdt.ui.tests.refactoring.infra.AbstractJunit4CUTestCase;
 import org.eclipse.jdt.ui.tests.refactoring.infra.RefactoringTestPlugin;
@@ -340,6 +344,40 @@ public class TypeEnvironmentTests extends AbstractJunit4CUTestCase {
 		testBindings(collector.getResult());
 	}
 
+	@Test
+	public void testSubTypeClosuresOfNewSubTypes() throws Exception {
+		String source= "package generic;\nclass A {}\nclass B extends A {}\nclass C extends B {}\nclass D {}\n";
+		ICompilationUnit unit= MyTestSetup.getGenericPackage().createCompilationUnit("Closures.java", source, true, null);
+		ASTParser parser= ASTParser.newParser(AST.getJLSLatest());
+		parser.setProject(unit.getJavaProject());
+		parser.setResolveBindings(true);
+		parser.setSource(unit);
+		CompilationUnit ast= (CompilationUnit) parser.createAST(null);
+		ITypeBinding[] bindings= new ITypeBinding[4];
+		for (int i= 0; i < bindings.length; i++) {
+			bindings[i]= ((TypeDeclaration) ast.types().get(i)).resolveBinding();
+		}
+
+		TypeEnvironment environment= new TypeEnvironment(true);
+		TypeSetEnvironment typeSetEnvironment= new TypeSetEnvironment(environment);
+		TType a= environment.create(bindings[0]);
+		TType d= environment.create(bindings[3]);
+		EnumeratedTypeSet set= new EnumeratedTypeSet(a, typeSetEnvironment);
+		set.add(d);
+		// caches the subtype closure of A, which has no subtypes yet
+		assertEquals(set, set.upperBound());
+
+		int changes= environment.getSubTypeChangeCount();
+		TType c= environment.create(bindings[2]);
+		// B is a new subtype of A, C of B
+		assertEquals(changes + 2, environment.getSubTypeChangeCount());
+		set= new EnumeratedTypeSet(a, typeSetEnvironment);
+		set.add(c);
+		TypeSet upperBound= set.upperBound();
+		assertTrue(upperBound.isSingleton());
+		assertSame(a, upperBound.anyMember());
+	}
+
 	public void _testAssignment() throws Exception {
 		ASTNode node= createAST(MyTestSetup.getGenericPackage());
 		TypeBindingCollector collector= new TypeBindingCollector();
@@ -38,6 +38,10 @@ TestRunFilteredParameterizedRunnerTest4.class,
 TestRunSessionSerializationTests3.class,
 TestRunSessionSerializationTests4.class,
 
+RemoteTestRunnerClientTest.class,
+TestRunSessionSwapTest.class,
+TestRunSessionBatchTest.class,
+
 JUnit3TestFinderTest.class,
 JUnit4TestFinderTest.class,
 JUnit4TestFinderTest16.class,
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.junit.model.ITestRunListener2;
+import org.eclipse.jdt.internal.junit.model.RemoteTestRunnerClient;
+import org.eclipse.jdt.internal.junit.runner.BinaryMessageWriter;
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+
+/**
+ * Sends the messages of a test run through the text and the binary protocol and checks that
+ * {@link RemoteTestRunnerClient} decodes both to the same listener notifications.
+ */
+public class RemoteTestRunnerClientTest {
+
+	private static final long TIMEOUT= 10000;
+
+	private static class RecordingListener implements ITestRunListener2 {
+		private final List<String> fEvents= new ArrayList<>();
+		private boolean fDone;
+
+		private synchronized void record(String event) {
+			fEvents.add(event);
+			notifyAll();
+		}
+
+		private synchronized void done(String event) {
+			record(event);
+			fDone= true;
+			notifyAll();
+		}
+
+		synchronized List<String> waitForEnd() throws InterruptedException {
+			long end= System.currentTimeMillis() + TIMEOUT;
+			while (!fDone && System.currentTimeMillis() < end)
+				wait(100);
+			assertTrue("test run did not end: " + fEvents, fDone);
+			return new ArrayList<>(fEvents);
+		}
+
+		synchronized List<String> waitForEvents(int count) throws InterruptedException {
+			long end= System.currentTimeMillis() + TIMEOUT;
+			while (fEvents.size() < count && System.currentTimeMillis() < end)
+				wait(100);
+			return new ArrayList<>(fEvents);
+		}
+
+		@Override
+		public void testRunStarted(int testCount) {
+			record("runStarted " + testCount);
+		}
+
+		@Override
+		public void testRunEnded(long elapsedTime) {
+			done("runEnded " + elapsedTime);
+		}
+
+		@Override
+		public void testRunStopped(long elapsedTime) {
+			done("runStopped " + elapsedTime);
+		}
+
+		@Override
+		public void testStarted(String testId, String testName) {
+			record("started " + testId + " " + testName);
+		}
+
+		@Override
+		public void testEnded(String testId, String testName) {
+			record("ended " + testId + " " + testName);
+		}
+
+		@Override
+		public void testRunTerminated() {
+			done("runTerminated");
+		}
+
+		@Override
+		public void testTreeEntry(String description) {
+			record("tree " + description);
+		}
+
+		@Override
+		public void testFailed(int status, String testId, String testName, String trace, String expected, String actual) {
+			record("failed " + status + " " + testId + " " + testName + "\ntrace=" + trace + "\nexpected=" + expected + "\nactual=" + actual);
+		}
+
+		@Override
+		public void testReran(String testId, String testClass, String testName, int status, String trace, String expected, String actual) {
+			record("reran " + testId + " " + testClass + " " + testName + " " + status + "\ntrace=" + trace);
+		}
+	}
+
+	private static final String[] RUN= {
+			MessageIds.TEST_RUN_START + "3 v2",
+			MessageIds.TEST_TREE + "1,testA(p.T),false,1,false,-1,testA(p.T),,",
+			MessageIds.TEST_TREE + "2,testä(p.T),false,1,false,-1,testä(p.T),,",
+			MessageIds.TEST_TREE + "3,testC(p.T),false,1,false,-1,testC(p.T),,",
+			MessageIds.TEST_START + "1,testA(p.T)",
+			MessageIds.TEST_END + "1,testA(p.T)",
+			MessageIds.TEST_START + "2,testä(p.T)",
+			MessageIds.TEST_FAILED + "2,testä(p.T)",
+			MessageIds.EXPECTED_START,
+			"ä first",
+			"second",
+			MessageIds.EXPECTED_END,
+			MessageIds.ACTUAL_START,
+			"other",
+			MessageIds.ACTUAL_END,
+			MessageIds.TRACE_START,
+			"junit.framework.ComparisonFailure: expected",
+			"\tat p.T.testä(T.java:5)",
+			MessageIds.TRACE_END,
+			MessageIds.TEST_END + "2,testä(p.T)",
+			MessageIds.TEST_START + "3,testC(p.T)",
+			MessageIds.TEST_ERROR + "3,testC(p.T)",
+			MessageIds.TRACE_START,
+			"java.lang.NullPointerException",
+			MessageIds.TRACE_END,
+			MessageIds.TEST_END + "3,testC(p.T)",
+			MessageIds.TEST_RUN_END + "123"
+	};
+
+	private interface Sender {
+		void send(Socket socket, String[] messages) throws IOException;
+	}
+
+	private static final Sender TEXT= (socket, messages) -> {
+		try (PrintWriter writer= new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)))) {
+			for (String message : messages)
+				writer.println(message);
+		}
+	};
+
+	private static final Sender BINARY= (socket, messages) -> {
+		BinaryMessageWriter writer= new BinaryMessageWriter(socket.getOutputStream());
+		try {
+			for (String message : messages)
+				writer.sendMessage(message);
+		} finally {
+			writer.close();
+		}
+	};
+
+	private static int findFreePort() throws IOException {
+		try (ServerSocket socket= new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static Socket connect(int port) throws Exception {
+		long end= System.currentTimeMillis() + TIMEOUT;
+		while (true) {
+			try {
+				return new Socket(InetAddress.getLoopbackAddress(), port);
+			} catch (ConnectException e) {
+				if (System.currentTimeMillis() > end)
+					throw e;
+				Thread.sleep(20);
+			}
+		}
+	}
+
+	private static List<String> run(Sender sender, String[] messages) throws Exception {
+		RecordingListener listener= new RecordingListener();
+		RemoteTestRunnerClient client= new RemoteTestRunnerClient();
+		int port= findFreePort();
+		client.startListening(new ITestRunListener2[] { listener }, port);
+		try (Socket socket= connect(port)) {
+			sender.send(socket, messages);
+			return listener.waitForEnd();
+		} finally {
+			client.stopWaiting();
+		}
+	}
+
+	@Test
+	public void testTextProtocol() throws Exception {
+		List<String> events= run(TEXT, RUN);
+		assertEquals(events.toString(), 13, events.size());
+		assertEquals("runStarted 3", events.get(0));
+		assertEquals("started 2 testä(p.T)", events.get(6));
+		String nl= System.lineSeparator();
+		assertEquals("failed 2 2 testä(p.T)\ntrace=junit.framework.ComparisonFailure: expected" + nl + "\tat p.T.testä(T.java:5)" + nl
+				+ "\nexpected=ä first" + nl + "second" + nl + "\nactual=other" + nl, events.get(7));
+		assertEquals("failed 1 3 testC(p.T)\ntrace=java.lang.NullPointerException" + nl + "\nexpected=\nactual=", events.get(10));
+		assertEquals("runEnded 123", events.get(12));
+	}
+
+	@Test
+	public void testBinaryProtocol() throws Exception {
+		assertEquals(run(TEXT, RUN), run(BINARY, RUN));
+	}
+
+	@Test
+	public void testBinaryProtocolManyTests() throws Exception {
+		// more status entries than fit into one batch frame, and tests that are reported twice
+		List<String> messages= new ArrayList<>();
+		messages.add(MessageIds.TEST_RUN_START + "1500 v2");
+		for (int i= 0; i < 1500; i++) {
+			messages.add(MessageIds.TEST_START + i + ",test" + i + "(p.T)");
+			messages.add(MessageIds.TEST_END + i + ",test" + i + "(p.T)");
+		}
+		messages.add(MessageIds.TEST_START + "7,test7(p.T)");
+		messages.add(MessageIds.TEST_END + "7,test7(p.T)");
+		messages.add(MessageIds.TEST_RUN_END + "42");
+		String[] run= messages.toArray(new String[messages.size()]);
+		List<String> events= run(BINARY, run);
+		assertEquals(3004, events.size());
+		assertEquals(run(TEXT, run), events);
+	}
+
+	@Test
+	public void testBinaryProtocolFlushesPendingStatus() throws Exception {
+		// a test that runs for a long time must show up as running before the next message
+		RecordingListener listener= new RecordingListener();
+		RemoteTestRunnerClient client= new RemoteTestRunnerClient();
+		int port= findFreePort();
+		client.startListening(new ITestRunListener2[] { listener }, port);
+		try (Socket socket= connect(port)) {
+			BinaryMessageWriter writer= new BinaryMessageWriter(socket.getOutputStream());
+			try {
+				writer.sendMessage(MessageIds.TEST_RUN_START + "1 v2");
+				writer.sendMessage(MessageIds.TEST_START + "1,testA(p.T)");
+				List<String> events= listener.waitForEvents(2);
+				assertEquals(Arrays.asList("runStarted 1", "started 1 testA(p.T)"), events);
+
+				writer.sendMessage(MessageIds.TEST_END + "1,testA(p.T)");
+				writer.sendMessage(MessageIds.TEST_RUN_END + "5");
+			} finally {
+				writer.close();
+			}
+			assertEquals(Arrays.asList("runStarted 1", "started 1 testA(p.T)", "ended 1 testA(p.T)", "runEnded 5"), listener.waitForEnd());
+		} finally {
+			client.stopWaiting();
+		}
+	}
+}
@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.eclipse.jdt.internal.junit.model.ITestRunListener2;
+import org.eclipse.jdt.internal.junit.model.ITestSessionBatchListener;
+import org.eclipse.jdt.internal.junit.model.ITestSessionListener;
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestStatusBatch;
+
+/**
+ * Drives a {@link TestRunSession} with test runner events and checks how the test status
+ * changes are coalesced into {@link TestStatusBatch}es and delivered to the session listeners.
+ */
+public class TestRunSessionBatchTest {
+
+	private static final long TIMEOUT= 10000;
+
+	/** A latency that is not reached while a test runs */
+	private static final long NO_LATENCY= 600000;
+
+	private static class RecordingListener implements ITestSessionListener {
+		private final List<String> fEvents= new ArrayList<>();
+
+		synchronized void record(String event) {
+			fEvents.add(event);
+			notifyAll();
+		}
+
+		synchronized List<String> getEvents() {
+			return new ArrayList<>(fEvents);
+		}
+
+		@Override
+		public void sessionStarted() {
+			record("sessionStarted");
+		}
+
+		@Override
+		public void sessionEnded(long elapsedTime) {
+			record("sessionEnded");
+		}
+
+		@Override
+		public void sessionStopped(long elapsedTime) {
+			record("sessionStopped");
+		}
+
+		@Override
+		public void sessionTerminated() {
+			record("sessionTerminated");
+		}
+
+		@Override
+		public void testAdded(TestElement testElement) {
+			record("added " + testElement.getTestName());
+		}
+
+		@Override
+		public void runningBegins() {
+			record("runningBegins");
+		}
+
+		@Override
+		public void testStarted(TestCaseElement testCaseElement) {
+			record("started " + testCaseElement.getTestName());
+		}
+
+		@Override
+		public void testEnded(TestCaseElement testCaseElement) {
+			record("ended " + testCaseElement.getTestName());
+		}
+
+		@Override
+		public void testFailed(TestElement testElement, Status status, String trace, String expected, String actual) {
+			record("failed " + testElement.getTestName() + " " + status);
+		}
+
+		@Override
+		public void testReran(TestCaseElement testCaseElement, Status status, String trace, String expectedResult, String actualResult) {
+			record("reran " + testCaseElement.getTestName() + " " + status);
+		}
+
+		@Override
+		public boolean acceptsSwapToDisk() {
+			return false;
+		}
+	}
+
+	private static class BatchListener extends RecordingListener implements ITestSessionBatchListener {
+		private final List<TestStatusBatch> fBatches= new ArrayList<>();
+		private final List<Thread> fThreads= new ArrayList<>();
+
+		@Override
+		public void testStarted(TestCaseElement testCaseElement) {
+			record("unbatched started " + testCaseElement.getTestName());
+		}
+
+		@Override
+		public void testEnded(TestCaseElement testCaseElement) {
+			record("unbatched ended " + testCaseElement.getTestName());
+		}
+
+		@Override
+		public void testFailed(TestElement testElement, Status status, String trace, String expected, String actual) {
+			record("unbatched failed " + testElement.getTestName());
+		}
+
+		@Override
+		public void testsChanged(TestStatusBatch batch) {
+			synchronized (this) {
+				fBatches.add(batch);
+				fThreads.add(Thread.currentThread());
+			}
+			List<String> names= new ArrayList<>();
+			for (TestElement element : batch.getTestElements())
+				names.add(element.getTestName());
+			record("batch " + names);
+		}
+
+		synchronized List<TestStatusBatch> getBatches() {
+			return new ArrayList<>(fBatches);
+		}
+
+		synchronized TestStatusBatch waitForBatch() throws InterruptedException {
+			long end= System.currentTimeMillis() + TIMEOUT;
+			while (fBatches.isEmpty() && System.currentTimeMillis() < end)
+				wait(100);
+			assertEquals("batch not delivered: " + getEvents(), 1, fBatches.size());
+			return fBatches.get(0);
+		}
+
+		synchronized Thread getThread(int index) {
+			return fThreads.get(index);
+		}
+	}
+
+	private TestRunSession fSession;
+	private ITestRunListener2 fRunner;
+
+	@After
+	public void tearDown() {
+		if (fSession != null)
+			fSession.removeSwapFile();
+	}
+
+	private void createSession(int batchSize, long batchLatency, ITestSessionListener... listeners) {
+		fSession= new TestRunSession("BatchTest", null, batchSize, batchLatency);
+		for (ITestSessionListener listener : listeners)
+			fSession.addTestSessionListener(listener);
+		fRunner= fSession.createTestRunListener();
+	}
+
+	private void startRun(int testCount) {
+		fRunner.testRunStarted(testCount);
+		fRunner.testTreeEntry("1,p.ATest,true," + testCount);
+		for (int i= 1; i <= testCount; i++)
+			fRunner.testTreeEntry((i + 1) + ",test" + i + "(p.ATest),false,1");
+	}
+
+	private void runTest(int i) {
+		fRunner.testStarted(String.valueOf(i + 1), "test" + i + "(p.ATest)");
+		fRunner.testEnded(String.valueOf(i + 1), "test" + i + "(p.ATest)");
+	}
+
+	private void failTest(int i) {
+		fRunner.testStarted(String.valueOf(i + 1), "test" + i + "(p.ATest)");
+		fRunner.testFailed(ITestRunListener2.STATUS_FAILURE, String.valueOf(i + 1), "test" + i + "(p.ATest)", "trace", null, null);
+		fRunner.testEnded(String.valueOf(i + 1), "test" + i + "(p.ATest)");
+	}
+
+	private static List<String> tail(List<String> events, int from) {
+		return events.subList(from, events.size());
+	}
+
+	@Test
+	public void testFlushWhenBatchIsFull() throws Exception {
+		BatchListener listener= new BatchListener();
+		createSession(3, NO_LATENCY, listener);
+		startRun(3);
+		int start= listener.getEvents().size();
+
+		failTest(1);
+		assertEquals(1, listener.getBatches().size());
+		TestStatusBatch batch= listener.getBatches().get(0);
+		assertEquals(3, batch.getSize());
+		assertEquals(1, batch.getStartedCount());
+		assertEquals(1, batch.getEndedCount());
+		assertEquals(1, batch.getFailureCount());
+		assertEquals(0, batch.getErrorCount());
+		assertEquals(1, batch.getFailedTestElements().length);
+		assertSame(Thread.currentThread(), listener.getThread(0));
+
+		// the next batch is not full
+		runTest(2);
+		assertEquals(1, listener.getBatches().size());
+
+		fRunner.testRunEnded(0);
+		assertEquals(Arrays.asList(
+				"runningBegins",
+				"batch [test1(p.ATest), test1(p.ATest), test1(p.ATest)]",
+				"batch [test2(p.ATest), test2(p.ATest)]",
+				"sessionEnded"), tail(listener.getEvents(), start));
+	}
+
+	@Test
+	public void testFlushAfterLatency() throws Exception {
+		BatchListener listener= new BatchListener();
+		createSession(1000, 50, listener);
+		startRun(3);
+
+		fRunner.testStarted("2", "test1(p.ATest)");
+		TestStatusBatch batch= listener.waitForBatch();
+		assertEquals(1, batch.getSize());
+		assertEquals(1, batch.getStartedCount());
+		assertEquals("test1(p.ATest)", batch.getLastStartedTest().getTestName());
+		assertTrue(String.valueOf(batch.getLatency()), batch.getLatency() >= 0);
+		// delivered by the flush job
+		assertNotSame(Thread.currentThread(), listener.getThread(0));
+	}
+
+	@Test
+	public void testSessionEventsFlushPendingBatch() throws Exception {
+		BatchListener listener= new BatchListener();
+		createSession(1000, NO_LATENCY, listener);
+		startRun(2);
+		int start= listener.getEvents().size();
+
+		runTest(1);
+		fRunner.testRunEnded(0);
+		assertEquals(Arrays.asList(
+				"runningBegins",
+				"batch [test1(p.ATest), test1(p.ATest)]",
+				"sessionEnded"), tail(listener.getEvents(), start));
+
+		// a rerun of the session starts after the pending changes
+		start= listener.getEvents().size();
+		fRunner.testStarted("3", "test2(p.ATest)");
+		fRunner.testRunStarted(2);
+		assertEquals(Arrays.asList(
+				"batch [test2(p.ATest)]",
+				"sessionStarted"), tail(listener.getEvents(), start));
+
+		start= listener.getEvents().size();
+		failTest(1);
+		fRunner.testRunTerminated();
+		assertEquals(Arrays.asList(
+				"runningBegins",
+				"batch [test1(p.ATest), test1(p.ATest), test1(p.ATest)]",
+				"sessionTerminated"), tail(listener.getEvents(), start));
+	}
+
+	@Test
+	public void testReplayToPlainListener() throws Exception {
+		RecordingListener unbatched= new RecordingListener();
+		createSession(1, NO_LATENCY, unbatched);
+		startRun(3);
+		runTest(1);
+		failTest(2);
+		fRunner.testRunEnded(0);
+		List<String> expected= unbatched.getEvents();
+
+		RecordingListener plain= new RecordingListener();
+		BatchListener batched= new BatchListener();
+		createSession(4, NO_LATENCY, plain, batched);
+		startRun(3);
+		runTest(1);
+		failTest(2);
+		fRunner.testRunEnded(0);
+
+		// a listener without batch support sees the same notifications in the same order
+		assertEquals(expected, plain.getEvents());
+		assertEquals(2, batched.getBatches().size());
+		for (String event : batched.getEvents())
+			assertTrue(event, !event.startsWith("unbatched"));
+	}
+}
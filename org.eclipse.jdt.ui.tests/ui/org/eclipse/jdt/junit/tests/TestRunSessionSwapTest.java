@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.junit.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.junit.model.ITestElement;
+import org.eclipse.jdt.junit.model.ITestElement.Result;
+
+import org.eclipse.jdt.internal.junit.model.TestCaseElement;
+import org.eclipse.jdt.internal.junit.model.TestElement;
+import org.eclipse.jdt.internal.junit.model.TestElement.Status;
+import org.eclipse.jdt.internal.junit.model.TestRoot;
+import org.eclipse.jdt.internal.junit.model.TestRunSession;
+import org.eclipse.jdt.internal.junit.model.TestSuiteElement;
+
+/**
+ * Swaps a {@link TestRunSession} out to disk and back in and checks that the test tree is
+ * restored with its status, traces, expected and actual values.
+ */
+public class TestRunSessionSwapTest {
+
+	private TestRunSession fSession;
+
+	@Before
+	public void setUp() {
+		fSession= new TestRunSession("SwapTest", null);
+		TestRoot root= fSession.getTestRoot();
+		TestSuiteElement suite= (TestSuiteElement) fSession.createTestElement(root, "1", "p.ATest", true, 0, false, null, null, null);
+
+		TestElement ok= fSession.createTestElement(suite, "2", "testOk(p.ATest)", false, 0, false, null, null, null);
+		fSession.registerTestEnded(ok, true);
+
+		TestElement failure= fSession.createTestElement(suite, "3", "testFailure(p.ATest)", false, 0, false, "failure ä", null, null);
+		fSession.registerTestFailureStatus(failure, Status.FAILURE, "junit.framework.ComparisonFailure\n\tat p.ATest.testFailure(ATest.java:5)\n", "expected", "actual");
+		fSession.registerTestEnded(failure, true);
+
+		TestElement error= fSession.createTestElement(suite, "4", "testError(p.ATest)", false, 0, false, null, null, null);
+		fSession.registerTestFailureStatus(error, Status.ERROR, "java.lang.NullPointerException\n", null, null);
+		fSession.registerTestEnded(error, true);
+
+		// elements that have a trace but are neither errors nor failures
+		TestCaseElement ignored= (TestCaseElement) fSession.createTestElement(suite, "5", "testIgnored(p.ATest)", false, 0, false, null, null, null);
+		ignored.setIgnored(true);
+		fSession.registerTestFailureStatus(ignored, Status.OK, "ignored for a reason", null, null);
+		fSession.registerTestEnded(ignored, true);
+
+		TestElement assumption= fSession.createTestElement(suite, "6", "testAssumption(p.ATest)", false, 0, false, null, null, null);
+		assumption.setAssumptionFailed(true);
+		fSession.registerTestFailureStatus(assumption, Status.OK, "org.junit.AssumptionViolatedException\n", null, null);
+		fSession.registerTestEnded(assumption, true);
+
+		TestElement notRun= fSession.createTestElement(suite, "7", "testNotRun(p.ATest)", false, 0, false, null, null, null);
+		fSession.registerTestEnded(notRun, false);
+
+		fSession.registerTestEnded(suite, true);
+	}
+
+	@After
+	public void tearDown() {
+		fSession.removeSwapFile();
+	}
+
+	private static String[] describe(TestRoot root) {
+		TestSuiteElement suite= (TestSuiteElement) root.getChildren()[0];
+		ITestElement[] children= suite.getChildren();
+		String[] result= new String[children.length + 1];
+		result[0]= describe(suite);
+		for (int i= 0; i < children.length; i++)
+			result[i + 1]= describe((TestElement) children[i]);
+		return result;
+	}
+
+	private static String describe(TestElement element) {
+		return element.getTestName() + " " + element.getDisplayName()
+				+ " status=" + element.getStatus()
+				+ " result=" + element.getTestResult(false)
+				+ " progress=" + element.getProgressState()
+				+ " assumption=" + element.isAssumptionFailure()
+				+ " trace=" + element.getTrace()
+				+ " expected=" + element.getExpected()
+				+ " actual=" + element.getActual();
+	}
+
+	@Test
+	public void testRoundTrip() {
+		TestRoot before= fSession.getTestRoot();
+		String[] expected= describe(before);
+		int errors= fSession.getErrorCount();
+		int failures= fSession.getFailureCount();
+		int ignored= fSession.getIgnoredCount();
+		int assumptions= fSession.getAssumptionFailureCount();
+
+		fSession.swapOut();
+		TestRoot after= fSession.getTestRoot();
+		assertNotSame(before, after);
+
+		assertEquals(String.join("\n", expected), String.join("\n", describe(after)));
+		assertEquals(errors, fSession.getErrorCount());
+		assertEquals(failures, fSession.getFailureCount());
+		assertEquals(ignored, fSession.getIgnoredCount());
+		assertEquals(assumptions, fSession.getAssumptionFailureCount());
+		assertEquals(2, fSession.getAllFailedTestElements().length);
+	}
+
+	@Test
+	public void testTraceOnlyElementsKeepTheirStatus() {
+		fSession.swapOut();
+		TestSuiteElement suite= (TestSuiteElement) fSession.getTestRoot().getChildren()[0];
+		ITestElement[] children= suite.getChildren();
+
+		TestCaseElement ignored= (TestCaseElement) children[3];
+		assertTrue(ignored.isIgnored());
+		assertEquals(Status.OK, ignored.getStatus());
+		assertEquals(Result.IGNORED, ignored.getTestResult(false));
+		assertEquals("ignored for a reason", ignored.getFailureTrace().getTrace());
+
+		TestElement assumption= (TestElement) children[4];
+		assertTrue(assumption.isAssumptionFailure());
+		assertEquals(Status.OK, assumption.getStatus());
+		assertEquals(Result.IGNORED, assumption.getTestResult(false));
+		assertEquals(1, fSession.getAssumptionFailureCount());
+		assertEquals(1, fSession.getErrorCount());
+		assertEquals(1, fSession.getFailureCount());
+
+		TestElement notRun= (TestElement) children[5];
+		assertEquals(Status.NOT_RUN, notRun.getStatus());
+		assertNull(notRun.getTrace());
+
+		assertEquals(Result.ERROR, suite.getTestResult(true));
+	}
+
+	@Test
+	public void testRepeatedSwap() {
+		String[] expected= describe(fSession.getTestRoot());
+		fSession.swapOut();
+		fSession.getTestRoot();
+		// the swap file is not rewritten, failures that were not loaded must still be found
+		fSession.swapOut();
+		assertEquals(String.join("\n", expected), String.join("\n", describe(fSession.getTestRoot())));
+	}
+}
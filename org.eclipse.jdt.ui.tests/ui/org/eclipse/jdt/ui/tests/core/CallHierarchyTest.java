@@ -23,6 +23,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -36,6 +41,7 @@ import org.eclipse.jdt.core.IMethod;
 import org.eclipse.jdt.core.IType;
 
 import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchy;
+import org.eclipse.jdt.internal.corext.callhierarchy.CallHierarchyASTCache;
 import org.eclipse.jdt.internal.corext.callhierarchy.MethodWrapper;
 
 import org.eclipse.jdt.ui.tests.callhierarchy.CallHierarchyTestHelper;
@@ -140,6 +146,116 @@ public class CallHierarchyTest {
         helper.assertCalls(expectedMethodsTo3, wrapper2.getCalls(new NullProgressMonitor()));
     }
 
+	@Test
+	public void calleesSharedAST() throws Exception {
+        helper.createSimpleClasses();
+
+        CallHierarchyASTCache cache= CallHierarchyASTCache.getDefault();
+        cache.clear();
+        cache.resetStatistics();
+
+        IMethod method= helper.getMethod4();
+        Collection<IMember> expectedMethods= new ArrayList<>();
+        expectedMethods.add(helper.getMethod3());
+
+        helper.assertCalls(expectedMethods, getSingleCalleeRoot(method).getCalls(new NullProgressMonitor()));
+        helper.assertCalls(expectedMethods, getSingleCalleeRoot(method).getCalls(new NullProgressMonitor()));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+
+        method.getCompilationUnit().getBuffer().append(" ");
+        method.getCompilationUnit().save(null, true);
+        assertEquals(1, cache.getInvalidations());
+
+        helper.assertCalls(expectedMethods, getSingleCalleeRoot(method).getCalls(new NullProgressMonitor()));
+        assertEquals(2, cache.getMisses());
+    }
+
+	@Test
+	public void calleesConcurrentExpansions() throws Exception {
+        helper.createSimpleClasses();
+
+        CallHierarchyASTCache cache= CallHierarchyASTCache.getDefault();
+        cache.clear();
+        cache.resetStatistics();
+
+        IMethod method3= helper.getMethod3();
+        IMethod method4= helper.getMethod4();
+        Collection<IMember> expectedMethodsFrom3= Arrays.asList(helper.getMethod1(), helper.getMethod2());
+        Collection<IMember> expectedMethodsFrom4= Arrays.asList(method3);
+
+        int threads= 8;
+        int rounds= 10;
+        ExecutorService executor= Executors.newFixedThreadPool(threads);
+        try {
+            for (int round= 0; round < rounds; round++) {
+                CountDownLatch start= new CountDownLatch(1);
+                List<Future<MethodWrapper[]>> futures= new ArrayList<>();
+                for (int i= 0; i < threads; i++) {
+                    MethodWrapper wrapper= getSingleCalleeRoot(i % 2 == 0 ? method3 : method4);
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return wrapper.getCalls(new NullProgressMonitor());
+                    }));
+                }
+                start.countDown();
+                for (int i= 0; i < threads; i++)
+                    helper.assertCalls(i % 2 == 0 ? expectedMethodsFrom3 : expectedMethodsFrom4, futures.get(i).get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every expansion borrowed the AST or created its own, one of them is kept
+        assertEquals(threads * rounds, cache.getHits() + cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
+	@Test
+	public void calleesBorrowedAST() throws Exception {
+        helper.createSimpleClasses();
+
+        CallHierarchyASTCache cache= CallHierarchyASTCache.getDefault();
+        cache.clear();
+
+        IMethod method= helper.getMethod4();
+        helper.assertCalls(Arrays.asList(helper.getMethod3()), getSingleCalleeRoot(method).getCalls(new NullProgressMonitor()));
+        assertEquals(1, cache.size());
+
+        // the AST is not shared while an expansion resolves its bindings
+        cache.resetStatistics();
+        CountDownLatch borrowed= new CountDownLatch(1);
+        CountDownLatch expanded= new CountDownLatch(1);
+        ExecutorService executor= Executors.newSingleThreadExecutor();
+        try {
+            MethodWrapper wrapper= getSingleCalleeRoot(method);
+            Future<MethodWrapper[]> future= executor.submit(() -> {
+                NullProgressMonitor monitor= new NullProgressMonitor() {
+                    @Override
+                    public void worked(int work) {
+                        borrowed.countDown();
+                        try {
+                            expanded.await(30, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                };
+                return wrapper.getCalls(monitor);
+            });
+            assertTrue(borrowed.await(30, TimeUnit.SECONDS));
+            assertEquals(0, cache.size());
+            helper.assertCalls(Arrays.asList(helper.getMethod3()), getSingleCalleeRoot(method).getCalls(new NullProgressMonitor()));
+            expanded.countDown();
+            helper.assertCalls(Arrays.asList(helper.getMethod3()), future.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+    }
+
 	@Test
 	public void calleesNoResults() throws Exception {
         helper.createSimpleClasses();
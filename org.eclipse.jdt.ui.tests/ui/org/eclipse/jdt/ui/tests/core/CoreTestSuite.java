@@ -56,6 +56,9 @@ IndentManipulationTest.class,
 SelectionHistoryTest.class,
 ASTProviderTest.class,
 JDTFlagsTest18.class,
+SuperTypeHierarchyCacheTest.class,
+ProblemMarkerManagerTest.class,
+TypeEnvironmentCacheTest.class,
 })
 public class CoreTestSuite {
 }
\ No newline at end of file
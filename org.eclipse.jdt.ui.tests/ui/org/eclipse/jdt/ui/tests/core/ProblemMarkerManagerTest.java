@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.jdt.internal.ui.viewsupport.IProblemChangedListener;
+import org.eclipse.jdt.internal.ui.viewsupport.ProblemMarkerManager;
+
+/**
+ * Tests that the problem severities cached by {@link ProblemMarkerManager} are invalidated by
+ * marker and resource changes.
+ */
+public class ProblemMarkerManagerTest {
+
+	private static final int NONE= -1;
+
+	private final IProblemChangedListener fListener= (changedResources, isMarkerChange) -> {
+		// the severities are only cached while listeners are registered
+	};
+
+	private ProblemMarkerManager fManager;
+	private IProject fProject;
+	private IFolder fFolder;
+	private IFolder fSubFolder;
+
+	@Before
+	public void setUp() throws Exception {
+		fManager= new ProblemMarkerManager();
+		fManager.addListener(fListener);
+		createProject();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		fManager.removeListener(fListener);
+		fProject.delete(true, true, null);
+	}
+
+	private void createProject() throws CoreException {
+		fProject= ResourcesPlugin.getWorkspace().getRoot().getProject("ProblemMarkerManagerTest");
+		fProject.create(null);
+		fProject.open(null);
+		fFolder= fProject.getFolder("a");
+		fFolder.create(true, true, null);
+		fSubFolder= fFolder.getFolder("b");
+		fSubFolder.create(true, true, null);
+	}
+
+	private static IFile createFile(IFolder folder, String name) throws CoreException {
+		IFile file= folder.getFile(name);
+		file.create(new ByteArrayInputStream(new byte[0]), true, null);
+		return file;
+	}
+
+	private static IMarker createProblem(IResource resource, int severity) throws CoreException {
+		IMarker marker= resource.createMarker(IMarker.PROBLEM);
+		marker.setAttribute(IMarker.SEVERITY, severity);
+		return marker;
+	}
+
+	private int getSeverity(IResource resource) throws CoreException {
+		return fManager.findMaxProblemSeverity(resource, IResource.DEPTH_INFINITE);
+	}
+
+	@Test
+	public void markerChangesInvalidateParents() throws Exception {
+		IFile file= createFile(fSubFolder, "f.txt");
+		assertEquals(NONE, getSeverity(fProject));
+		assertEquals(NONE, getSeverity(fFolder));
+
+		IMarker marker= createProblem(file, IMarker.SEVERITY_WARNING);
+		assertEquals(IMarker.SEVERITY_WARNING, getSeverity(fProject));
+		assertEquals(IMarker.SEVERITY_WARNING, getSeverity(fFolder));
+		assertEquals(IMarker.SEVERITY_WARNING, getSeverity(fSubFolder));
+
+		marker.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_ERROR);
+		assertEquals(IMarker.SEVERITY_ERROR, getSeverity(fProject));
+		assertEquals(IMarker.SEVERITY_ERROR, getSeverity(fFolder));
+
+		marker.delete();
+		assertEquals(NONE, getSeverity(fProject));
+		assertEquals(NONE, getSeverity(fSubFolder));
+	}
+
+	@Test
+	public void markersOnContainers() throws Exception {
+		assertEquals(NONE, getSeverity(fProject));
+		IMarker marker= createProblem(fSubFolder, IMarker.SEVERITY_INFO);
+		assertEquals(IMarker.SEVERITY_INFO, getSeverity(fProject));
+		assertEquals(IMarker.SEVERITY_INFO, fManager.findMaxFileProblemSeverity(fSubFolder));
+		assertEquals(NONE, fManager.findMaxFileProblemSeverity(fFolder));
+
+		marker.delete();
+		assertEquals(NONE, getSeverity(fProject));
+		assertEquals(NONE, fManager.findMaxFileProblemSeverity(fSubFolder));
+	}
+
+	@Test
+	public void fileSeverityExcludesSubFolders() throws Exception {
+		IMarker warning= createProblem(createFile(fFolder, "x.txt"), IMarker.SEVERITY_WARNING);
+		createProblem(createFile(fSubFolder, "f.txt"), IMarker.SEVERITY_ERROR);
+
+		assertEquals(IMarker.SEVERITY_WARNING, fManager.findMaxFileProblemSeverity(fFolder));
+		assertEquals(IMarker.SEVERITY_ERROR, getSeverity(fFolder));
+		assertEquals(IMarker.SEVERITY_ERROR, fManager.findMaxFileProblemSeverity(fSubFolder));
+
+		warning.delete();
+		assertEquals(NONE, fManager.findMaxFileProblemSeverity(fFolder));
+		assertEquals(IMarker.SEVERITY_ERROR, getSeverity(fFolder));
+	}
+
+	@Test
+	public void removedResources() throws Exception {
+		IFile file= createFile(fSubFolder, "f.txt");
+		createProblem(file, IMarker.SEVERITY_ERROR);
+		createProblem(createFile(fFolder, "x.txt"), IMarker.SEVERITY_WARNING);
+		assertEquals(IMarker.SEVERITY_ERROR, getSeverity(fProject));
+
+		file.delete(true, null);
+		assertEquals(IMarker.SEVERITY_WARNING, getSeverity(fProject));
+
+		fFolder.delete(true, null);
+		assertEquals(NONE, getSeverity(fProject));
+	}
+
+	@Test
+	public void recreatedProject() throws Exception {
+		createProblem(createFile(fSubFolder, "f.txt"), IMarker.SEVERITY_ERROR);
+		assertEquals(IMarker.SEVERITY_ERROR, getSeverity(fProject));
+		assertEquals(IMarker.SEVERITY_ERROR, fManager.findMaxFileProblemSeverity(fSubFolder));
+
+		// no marker deltas are reported for the members of a removed project
+		fProject.delete(true, true, null);
+		createProject();
+		assertEquals(NONE, getSeverity(fProject));
+		assertEquals(NONE, getSeverity(fSubFolder));
+		assertEquals(NONE, fManager.findMaxFileProblemSeverity(fSubFolder));
+	}
+
+	@Test
+	public void reopenedProject() throws Exception {
+		createProblem(createFile(fSubFolder, "f.txt"), IMarker.SEVERITY_WARNING);
+		assertEquals(IMarker.SEVERITY_WARNING, getSeverity(fProject));
+
+		fProject.close(null);
+		fProject.open(null);
+		assertEquals(fProject.findMaxProblemSeverity(IMarker.PROBLEM, true, IResource.DEPTH_INFINITE), getSeverity(fProject));
+	}
+
+	@Test
+	public void notCachedWithoutListeners() throws Exception {
+		fManager.removeListener(fListener);
+		try {
+			IFile file= createFile(fSubFolder, "f.txt");
+			assertEquals(NONE, getSeverity(fProject));
+			createProblem(file, IMarker.SEVERITY_ERROR);
+			assertEquals(IMarker.SEVERITY_ERROR, getSeverity(fProject));
+			assertEquals(IMarker.SEVERITY_ERROR, fManager.findMaxFileProblemSeverity(fSubFolder));
+		} finally {
+			fManager.addListener(fListener);
+		}
+	}
+}
@@ -25,6 +25,7 @@ import org.junit.Test;
 import org.w3c.dom.Element;
 
 import org.eclipse.jdt.internal.corext.util.History;
+import org.eclipse.jdt.internal.corext.util.HistoryStore;
 
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
@@ -120,6 +121,10 @@ public class SelectionHistoryTest {
 		@Override
 		protected String createFromElement(Element type) {return null;}
 		@Override
+		protected void writeEntry(String object, HistoryStore.Writer writer) {}
+		@Override
+		protected String readEntry(HistoryStore.Reader reader) {return null;}
+		@Override
 		protected String getKey(String object) {return object;}
 
 	}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeHierarchy;
+
+import org.eclipse.jdt.internal.corext.util.SuperTypeHierarchyCache;
+
+import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
+
+public class SuperTypeHierarchyCacheTest {
+	@Rule
+	public ProjectTestSetup pts= new ProjectTestSetup();
+
+	private IPackageFragment fPackage;
+	private int fCacheSize;
+
+	@Before
+	public void setUp() throws CoreException {
+		IPackageFragmentRoot src= JavaProjectHelper.addSourceContainer(pts.getProject(), "src");
+		fPackage= src.createPackageFragment("test1", false, new NullProgressMonitor());
+		fCacheSize= SuperTypeHierarchyCache.getCacheSize();
+		SuperTypeHierarchyCache.setCacheSize(1);
+		SuperTypeHierarchyCache.setCacheSize(fCacheSize);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		SuperTypeHierarchyCache.setCacheSize(fCacheSize);
+		JavaProjectHelper.clear(pts.getProject(), pts.getDefaultClasspath());
+	}
+
+	private IType createType(String name) throws CoreException {
+		String source= "package test1;\npublic class " + name + " {\n}\n";
+		return fPackage.createCompilationUnit(name + ".java", source, false, null).getType(name);
+	}
+
+	@Test
+	public void cachedHierarchyIsFoundForContainedTypes() throws Exception {
+		IType a= createType("A");
+		IType b= fPackage.createCompilationUnit("B.java", "package test1;\npublic class B extends A {\n}\n", false, null).getType("B");
+
+		SuperTypeHierarchyCache.resetCacheStatistics();
+		ITypeHierarchy hierarchy= SuperTypeHierarchyCache.getTypeHierarchy(b);
+		assertEquals(1, SuperTypeHierarchyCache.getCacheMisses());
+
+		assertTrue(SuperTypeHierarchyCache.hasInCache(a));
+		assertSame(hierarchy, SuperTypeHierarchyCache.getTypeHierarchy(a));
+		assertEquals(1, SuperTypeHierarchyCache.getCacheHits());
+		assertEquals(1, SuperTypeHierarchyCache.getCacheMisses());
+	}
+
+	@Test
+	public void setCacheSizeEvictsLeastRecentlyAccessed() throws Exception {
+		IType a= createType("A");
+		IType b= createType("B");
+		IType c= createType("C");
+
+		SuperTypeHierarchyCache.setCacheSize(3);
+		SuperTypeHierarchyCache.getTypeHierarchy(a);
+		SuperTypeHierarchyCache.getTypeHierarchy(b);
+		SuperTypeHierarchyCache.getTypeHierarchy(c);
+		assertEquals(3, SuperTypeHierarchyCache.getCachedHierarchyCount());
+
+		SuperTypeHierarchyCache.getTypeHierarchy(a);
+		SuperTypeHierarchyCache.setCacheSize(2);
+		assertEquals(2, SuperTypeHierarchyCache.getCacheSize());
+		assertEquals(2, SuperTypeHierarchyCache.getCachedHierarchyCount());
+		assertTrue(SuperTypeHierarchyCache.hasInCache(a));
+		assertFalse(SuperTypeHierarchyCache.hasInCache(b));
+		assertTrue(SuperTypeHierarchyCache.hasInCache(c));
+
+		// c has been accessed after a by the lookups above
+		SuperTypeHierarchyCache.setCacheSize(1);
+		assertEquals(1, SuperTypeHierarchyCache.getCachedHierarchyCount());
+		assertFalse(SuperTypeHierarchyCache.hasInCache(a));
+		assertTrue(SuperTypeHierarchyCache.hasInCache(c));
+	}
+
+	@Test(expected= IllegalArgumentException.class)
+	public void setCacheSizeRejectsZero() {
+		SuperTypeHierarchyCache.setCacheSize(0);
+	}
+}
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.core.runtime.CoreException;
+
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironmentCache;
+
+/**
+ * Tests that the environments of {@link TypeEnvironmentCache} are invalidated by changes of the
+ * projects whose bindings they contain.
+ */
+public class TypeEnvironmentCacheTest {
+
+	private TypeEnvironmentCache fCache;
+	private IJavaProject fProject;
+	private IJavaProject fDependent;
+	private IPackageFragment fPackage;
+	private IPackageFragment fDependentPackage;
+
+	@Before
+	public void setUp() throws CoreException {
+		fProject= JavaProjectHelper.createJavaProject("TypeEnvironmentCacheTest", "bin");
+		fPackage= JavaProjectHelper.addSourceContainer(fProject, "src").createPackageFragment("p", true, null);
+		fDependent= JavaProjectHelper.createJavaProject("TypeEnvironmentCacheTestDependent", "bin");
+		fDependentPackage= JavaProjectHelper.addSourceContainer(fDependent, "src").createPackageFragment("q", true, null);
+		JavaProjectHelper.addRequiredProject(fDependent, fProject);
+		fCache= new TypeEnvironmentCache(true);
+	}
+
+	@After
+	public void tearDown() throws CoreException {
+		fCache.dispose();
+		JavaProjectHelper.delete(fDependent);
+		JavaProjectHelper.delete(fProject);
+	}
+
+	private static void createType(IPackageFragment pack, String name) throws CoreException {
+		pack.createCompilationUnit(name + ".java", "package " + pack.getElementName() + ";\npublic class " + name + " {\n}\n", true, null);
+	}
+
+	@Test
+	public void reusedEnvironment() throws Exception {
+		TypeEnvironment environment= fCache.acquire(fProject);
+		fCache.release(fProject, environment, Collections.singleton(fProject));
+		assertSame(environment, fCache.acquire(fProject));
+		assertEquals(1, fCache.getHits());
+		assertEquals(1, fCache.getMisses());
+	}
+
+	@Test
+	public void changeOfReferencingProject() throws Exception {
+		// the environment of a type in the project contains bindings of the dependent project
+		TypeEnvironment environment= fCache.acquire(fProject);
+		fCache.release(fProject, environment, Arrays.asList(fProject, fDependent));
+
+		createType(fDependentPackage, "B");
+		assertEquals(1, fCache.getInvalidations());
+		assertNotSame(environment, fCache.acquire(fProject));
+	}
+
+	@Test
+	public void changeOfUntouchedProject() throws Exception {
+		TypeEnvironment environment= fCache.acquire(fProject);
+		fCache.release(fProject, environment, Collections.singleton(fProject));
+
+		createType(fDependentPackage, "B");
+		assertEquals(0, fCache.getInvalidations());
+		assertSame(environment, fCache.acquire(fProject));
+	}
+
+	@Test
+	public void changeOfRequiredProject() throws Exception {
+		TypeEnvironment environment= fCache.acquire(fDependent);
+		fCache.release(fDependent, environment, Collections.singleton(fDependent));
+
+		createType(fPackage, "A");
+		assertEquals(1, fCache.getInvalidations());
+		assertNotSame(environment, fCache.acquire(fDependent));
+	}
+
+	@Test
+	public void projectsOfPreviousUses() throws Exception {
+		TypeEnvironment environment= fCache.acquire(fProject);
+		fCache.release(fProject, environment, Arrays.asList(fProject, fDependent));
+		assertSame(environment, fCache.acquire(fProject));
+		// the bindings of the dependent project added by the first use are still in the environment
+		fCache.release(fProject, environment, Collections.singleton(fProject));
+
+		createType(fDependentPackage, "B");
+		assertEquals(1, fCache.getInvalidations());
+		assertNotSame(environment, fCache.acquire(fProject));
+	}
+
+	@Test
+	public void changeWhileAcquired() throws Exception {
+		TypeEnvironment environment= fCache.acquire(fProject);
+		createType(fDependentPackage, "B");
+		fCache.release(fProject, environment, Arrays.asList(fProject, fDependent));
+		assertNotSame(environment, fCache.acquire(fProject));
+	}
+}
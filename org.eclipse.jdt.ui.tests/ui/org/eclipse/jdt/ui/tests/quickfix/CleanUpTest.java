@@ -18,18 +18,25 @@
 package org.eclipse.jdt.ui.tests.quickfix;
 
 import static org.eclipse.jdt.internal.ui.fix.MultiFixMessages.ConstantsCleanUp_description;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.io.StringWriter;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -42,6 +49,9 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.MultiTextEdit;
+
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
 
@@ -58,21 +68,28 @@ import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 import org.eclipse.jdt.core.manipulation.CleanUpOptionsCore;
+import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
 
 import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.corext.fix.CleanUpConstants;
+import org.eclipse.jdt.internal.corext.fix.CleanUpRefactoring;
+import org.eclipse.jdt.internal.corext.fix.CleanUpTelemetry;
 import org.eclipse.jdt.internal.corext.fix.FixMessages;
 import org.eclipse.jdt.internal.corext.fix.UpdateProperty;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 import org.eclipse.jdt.internal.corext.util.Messages;
 
 import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.cleanup.CleanUpContext;
 import org.eclipse.jdt.ui.cleanup.CleanUpOptions;
+import org.eclipse.jdt.ui.cleanup.CleanUpRequirements;
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
 import org.eclipse.jdt.ui.cleanup.ICleanUpFix;
 import org.eclipse.jdt.ui.tests.core.rules.Java13ProjectTestSetup;
 import org.eclipse.jdt.ui.tests.core.rules.ProjectTestSetup;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.fix.AbstractCleanUp;
 import org.eclipse.jdt.internal.ui.fix.AbstractCleanUpCore;
 import org.eclipse.jdt.internal.ui.fix.Java50CleanUp;
 import org.eclipse.jdt.internal.ui.fix.MultiFixMessages;
@@ -374,6 +391,271 @@ public class CleanUpTest extends CleanUpTestCase {
 		assertRefactoringResultAsExpected(new ICompilationUnit[] {cu1, cu2, cu3}, new String[] {expected1, expected2, expected3}, null);
 	}
 
+	@Test
+	public void testUnusedCodeParallel() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit[] cus= new ICompilationUnit[25];
+		String[] expected= new String[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			String sample= "" //
+					+ "package test1;\n" //
+					+ "import java.util.List;\n" //
+					+ "public class E" + i + " {\n" //
+					+ "}\n";
+			cus[i]= pack1.createCompilationUnit("E" + i + ".java", sample, false, null);
+
+			sample= "" //
+					+ "package test1;\n" //
+					+ "public class E" + i + " {\n" //
+					+ "}\n";
+			expected[i]= sample;
+		}
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setParallelism(4);
+		performRefactoring(ref, cus, JavaPlugin.getDefault().getCleanUpRegistry().createCleanUps(), null);
+
+		for (int i= 0; i < cus.length; i++) {
+			assertEquals(expected[i], cus[i].getBuffer().getContents());
+		}
+	}
+
+	@Test
+	public void testParallelCleanUpsAreNotConcurrent() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit[] cus= new ICompilationUnit[40];
+		for (int i= 0; i < cus.length; i++) {
+			String sample= "" //
+					+ "package test1;\n" //
+					+ "import java.util.List;\n" //
+					+ "public class E" + i + " {\n" //
+					+ "}\n";
+			cus[i]= pack1.createCompilationUnit("E" + i + ".java", sample, false, null);
+		}
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+
+		AtomicInteger calls= new AtomicInteger();
+		AtomicInteger active= new AtomicInteger();
+		AtomicInteger maxActive= new AtomicInteger();
+		AbstractCleanUp statefulCleanUp= new AbstractCleanUp() {
+			@Override
+			public CleanUpRequirements getRequirements() {
+				return new CleanUpRequirements(true, false, false, null);
+			}
+
+			@Override
+			public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
+				calls.incrementAndGet();
+				maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(2);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					active.decrementAndGet();
+				}
+				return null;
+			}
+		};
+
+		ICleanUp[] registered= JavaPlugin.getDefault().getCleanUpRegistry().createCleanUps();
+		ICleanUp[] cleanUps= Arrays.copyOf(registered, registered.length + 1);
+		cleanUps[registered.length]= statefulCleanUp;
+
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setParallelism(4);
+		performRefactoring(ref, cus, cleanUps, null);
+
+		assertTrue(calls.get() >= cus.length);
+		assertEquals(1, maxActive.get());
+		for (int i= 0; i < cus.length; i++) {
+			assertFalse(cus[i].getBuffer().getContents().contains("import java.util.List;"));
+		}
+	}
+
+	@Test
+	public void testUnusedCodeIncremental() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit[] cus= new ICompilationUnit[5];
+		String[] expected= new String[cus.length];
+		for (int i= 0; i < cus.length; i++) {
+			String sample= "" //
+					+ "package test1;\n" //
+					+ "import java.util.List;\n" //
+					+ "public class E" + i + " {\n" //
+					+ "    private int fUnused;\n" //
+					+ "    public void foo() {\n" //
+					+ "        int i= 10;\n" //
+					+ "    }\n" //
+					+ "}\n";
+			cus[i]= pack1.createCompilationUnit("E" + i + ".java", sample, false, null);
+
+			sample= "" //
+					+ "package test1;\n" //
+					+ "public class E" + i + " {\n" //
+					+ "    public void foo() {\n" //
+					+ "    }\n" //
+					+ "}\n";
+			expected[i]= sample;
+		}
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_PRIVATE_MEMBERS);
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_PRIVATE_FELDS);
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_LOCAL_VARIABLES);
+
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setIncremental(true);
+		performRefactoring(ref, cus, JavaPlugin.getDefault().getCleanUpRegistry().createCleanUps(), null);
+
+		for (int i= 0; i < cus.length; i++) {
+			assertEquals(expected[i], cus[i].getBuffer().getContents());
+		}
+
+		CleanUpRefactoring.FixpointRound[] rounds= ref.getFixpointRounds();
+		assertTrue(rounds.length > 0);
+		assertEquals(cus.length, rounds[0].getParsed());
+		for (CleanUpRefactoring.FixpointRound round : rounds) {
+			assertTrue(round.getParsed() + round.getReconciled() + round.getReused() + round.getWithoutAST() <= cus.length);
+		}
+	}
+
+	@Test
+	public void testIncrementalReusesReconciledAST() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String sample= "" //
+				+ "package test1;\n" //
+				+ "public class E1 {\n" //
+				+ "}\n";
+		ICompilationUnit cu= pack1.createCompilationUnit("E1.java", sample, false, null);
+
+		// round 1 inserts a comment, round 2 reconciles the changed unit without changing it,
+		// round 3 must get the AST of round 2
+		AbstractCleanUp insertComment= new AbstractCleanUp() {
+			@Override
+			public CleanUpRequirements getRequirements() {
+				return new CleanUpRequirements(true, false, false, null);
+			}
+
+			@Override
+			public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
+				ICompilationUnit unit= context.getCompilationUnit();
+				if (unit.getSource().startsWith("// comment"))
+					return null;
+				return progressMonitor -> {
+					CompilationUnitChange change= new CompilationUnitChange("insert comment", unit);
+					change.setEdit(new InsertEdit(0, "// comment\n"));
+					return change;
+				};
+			}
+		};
+		List<CompilationUnit> asts= new ArrayList<>();
+		class RecordingCleanUp extends AbstractCleanUp {
+			@Override
+			public CleanUpRequirements getRequirements() {
+				return new CleanUpRequirements(true, true, false, null);
+			}
+
+			@Override
+			public ICleanUpFix createFix(CleanUpContext context) throws CoreException {
+				asts.add(context.getAST());
+				return null;
+			}
+		}
+
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		ref.setIncremental(true);
+		performRefactoring(ref, new ICompilationUnit[] { cu }, new ICleanUp[] { insertComment, new RecordingCleanUp(), new RecordingCleanUp() }, null);
+
+		assertEquals("// comment\n" + sample, cu.getBuffer().getContents());
+
+		CleanUpRefactoring.FixpointRound[] rounds= ref.getFixpointRounds();
+		assertEquals(3, rounds.length);
+		assertEquals(1, rounds[0].getParsed());
+		assertEquals(1, rounds[1].getReconciled());
+		assertEquals(0, rounds[1].getParsed());
+		assertEquals(1, rounds[2].getReused());
+		assertEquals(0, rounds[2].getParsed() + rounds[2].getReconciled());
+
+		assertEquals(2, asts.size());
+		assertNotNull(asts.get(0));
+		assertSame(asts.get(0), asts.get(1));
+	}
+
+	@Test
+	public void testTelemetry() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		String sample= "" //
+				+ "package test1;\n" //
+				+ "import java.util.List;\n" //
+				+ "import java.util.Map;\n" //
+				+ "public class E1 {\n" //
+				+ "}\n";
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", sample, false, null);
+
+		enable(CleanUpConstants.REMOVE_UNUSED_CODE_IMPORTS);
+
+		CleanUpRefactoring ref= new CleanUpRefactoring();
+		ref.setUseOptionsFromProfile(true);
+		CleanUpTelemetry telemetry= new CleanUpTelemetry();
+		ref.setTelemetry(telemetry);
+		performRefactoring(ref, new ICompilationUnit[] { cu1 }, JavaPlugin.getDefault().getCleanUpRegistry().createCleanUps(), null);
+
+		int edits= 0;
+		for (CleanUpTelemetry.Record record : telemetry.getRecords()) {
+			assertEquals(cu1, record.getCompilationUnit());
+			edits+= record.getEdits();
+		}
+		assertTrue(edits > 0);
+		assertEquals(telemetry.getRecords().size(), telemetry.getSummaries().stream().mapToInt(CleanUpTelemetry.Summary::getUnits).sum());
+
+		StringWriter writer= new StringWriter();
+		telemetry.write(writer);
+		String[] lines= writer.toString().split("\n");
+		assertEquals("cleanUp,compilationUnit,timeMicros,edits,requiresAST", lines[0]);
+		assertEquals(telemetry.getRecords().size() + 1, lines.length);
+	}
+
+	@Test
+	public void testTelemetryCountsLeafEdits() throws Exception {
+		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
+		ICompilationUnit cu1= pack1.createCompilationUnit("E1.java", "package test1;\npublic class E1 {\n}\n", false, null);
+		AbstractCleanUp cleanUp= new AbstractCleanUp() {
+			@Override
+			public CleanUpRequirements getRequirements() {
+				return new CleanUpRequirements(false, false, false, null);
+			}
+		};
+
+		CleanUpTelemetry telemetry= new CleanUpTelemetry();
+		telemetry.record(cleanUp, cu1, 0, null);
+		telemetry.record(cleanUp, cu1, 0, new MultiTextEdit());
+		MultiTextEdit nested= new MultiTextEdit();
+		nested.addChild(new MultiTextEdit());
+		telemetry.record(cleanUp, cu1, 0, nested);
+		MultiTextEdit edit= new MultiTextEdit();
+		edit.addChild(new InsertEdit(0, "a"));
+		MultiTextEdit group= new MultiTextEdit();
+		group.addChild(new InsertEdit(1, "b"));
+		group.addChild(new InsertEdit(2, "c"));
+		edit.addChild(group);
+		telemetry.record(cleanUp, cu1, 0, edit);
+
+		int[] edits= telemetry.getRecords().stream().mapToInt(CleanUpTelemetry.Record::getEdits).toArray();
+		assertArrayEquals(new int[] { 0, 0, 0, 3 }, edits);
+		CleanUpTelemetry.Summary summary= telemetry.getSummaries().get(0);
+		assertEquals(4, summary.getUnits());
+		assertEquals(1, summary.getFixes());
+		assertEquals(3, summary.getEdits());
+	}
+
 	@Test
 	public void testUnusedCode02() throws Exception {
 		IPackageFragment pack1= fSourceFolder.createPackageFragment("test1", false, null);
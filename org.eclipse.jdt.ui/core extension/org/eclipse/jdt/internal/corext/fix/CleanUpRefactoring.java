@@ -13,12 +13,19 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.fix;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.swt.widgets.Display;
 
@@ -62,6 +69,7 @@ import org.eclipse.ltk.core.refactoring.TextFileChange;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.core.WorkingCopyOwner;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -187,10 +195,22 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 		private final CleanUpTarget fTarget;
 		private final ICleanUp[] fCleanUpsArray;
+		private final CompilationUnit fAST;
 
 		public ParseListElement(CleanUpTarget cleanUpTarget, ICleanUp[] cleanUps) {
+			this(cleanUpTarget, cleanUps, null);
+		}
+
+		/**
+		 * @param cleanUpTarget the target
+		 * @param cleanUps the clean ups still to apply
+		 * @param ast the AST of the current content of the target, can be reused by the next
+		 *            round, or <code>null</code>
+		 */
+		public ParseListElement(CleanUpTarget cleanUpTarget, ICleanUp[] cleanUps, CompilationUnit ast) {
 			fTarget= cleanUpTarget;
 			fCleanUpsArray= cleanUps;
+			fAST= ast;
 		}
 
 		public CleanUpTarget getTarget() {
@@ -200,6 +220,87 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		public ICleanUp[] getCleanUps() {
 			return fCleanUpsArray;
 		}
+
+		public CompilationUnit getAST() {
+			return fAST;
+		}
+	}
+
+	/**
+	 * Timing and AST sources of one round of the fixpoint iteration over the targets of a
+	 * project.
+	 */
+	public static final class FixpointRound {
+
+		private final IJavaProject fProject;
+		private final int fRound;
+		private final int fParsed;
+		private final int fReconciled;
+		private final int fReused;
+		private final int fWithoutAST;
+		private final long fTime;
+
+		private FixpointRound(IJavaProject project, int round, int parsed, int reconciled, int reused, int withoutAST, long time) {
+			fProject= project;
+			fRound= round;
+			fParsed= parsed;
+			fReconciled= reconciled;
+			fReused= reused;
+			fWithoutAST= withoutAST;
+			fTime= time;
+		}
+
+		public IJavaProject getProject() {
+			return fProject;
+		}
+
+		/**
+		 * @return the number of the round, starting at <code>1</code> for every project
+		 */
+		public int getRound() {
+			return fRound;
+		}
+
+		/**
+		 * @return the number of units parsed with an {@link ASTBatchParser}
+		 */
+		public int getParsed() {
+			return fParsed;
+		}
+
+		/**
+		 * @return the number of working copies reconciled to get their AST
+		 */
+		public int getReconciled() {
+			return fReconciled;
+		}
+
+		/**
+		 * @return the number of units which got the AST of the previous round
+		 */
+		public int getReused() {
+			return fReused;
+		}
+
+		/**
+		 * @return the number of units whose clean ups did not require an AST
+		 */
+		public int getWithoutAST() {
+			return fWithoutAST;
+		}
+
+		/**
+		 * @return the time spent in this round in milliseconds
+		 */
+		public long getTime() {
+			return fTime;
+		}
+
+		@Override
+		public String toString() {
+			return "CleanUpRefactoring " + fProject.getElementName() + " round " + fRound + ": " + fTime + " ms, parsed " + fParsed //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+					+ ", reconciled " + fReconciled + ", reused " + fReused + ", without AST " + fWithoutAST; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
 	}
 
 	private final static class CleanUpRefactoringProgressMonitor extends SubProgressMonitor {
@@ -244,17 +345,57 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		}
 	}
 
+	/**
+	 * Progress monitor handed to a parser running on a worker thread. Work is forwarded
+	 * to the shared {@link CleanUpRefactoringProgressMonitor}, cancellation is read from
+	 * the monitor of the refactoring and from the other partitions of the same round.
+	 */
+	private final static class PartitionProgressMonitor extends NullProgressMonitor {
+
+		private final CleanUpRefactoringProgressMonitor fParent;
+		private final AtomicBoolean fAborted;
+
+		private PartitionProgressMonitor(CleanUpRefactoringProgressMonitor parent, AtomicBoolean aborted) {
+			fParent= parent;
+			fAborted= aborted;
+		}
+
+		@Override
+		public void internalWorked(double work) {
+			synchronized (fParent) {
+				fParent.internalWorked(work);
+			}
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return fAborted.get() || fParent.isCanceled();
+		}
+	}
+
 	private static class CleanUpASTRequestor extends ASTRequestor {
 
 		private final List<ParseListElement> fUndoneElements;
 		private final Hashtable<ICompilationUnit, List<CleanUpChange>> fSolutions;
 		private final Hashtable<ICompilationUnit, ParseListElement> fCompilationUnitParseElementMap;
 		private final CleanUpRefactoringProgressMonitor fMonitor;
-
-		public CleanUpASTRequestor(List<ParseListElement> parseList, Hashtable<ICompilationUnit, List<CleanUpChange>> solutions, CleanUpRefactoringProgressMonitor monitor) {
+		private final boolean fKeepASTs;
+		private final CleanUpTelemetry fTelemetry;
+
+		/**
+		 * @param parseList the elements of this round
+		 * @param solutions map from primary compilation unit to the changes calculated so far
+		 * @param monitor the monitor to report progress to
+		 * @param keepASTs whether elements which need another round keep their AST if it is
+		 *            still up to date
+		 * @param telemetry the telemetry to record the clean ups to, or <code>null</code>
+		 */
+		public CleanUpASTRequestor(List<ParseListElement> parseList, Hashtable<ICompilationUnit, List<CleanUpChange>> solutions, CleanUpRefactoringProgressMonitor monitor, boolean keepASTs, CleanUpTelemetry telemetry) {
 			fSolutions= solutions;
 			fMonitor= monitor;
-			fUndoneElements= new ArrayList<>();
+			fKeepASTs= keepASTs;
+			fTelemetry= telemetry;
+			fUndoneElements= Collections.synchronizedList(new ArrayList<ParseListElement>());
 			fCompilationUnitParseElementMap= new Hashtable<>(parseList.size());
 			for (ParseListElement element : parseList) {
 				fCompilationUnitParseElementMap.put(element.getTarget().getCompilationUnit(), element);
@@ -263,8 +404,23 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 		@Override
 		public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+			// the lookup environment of a finished batch is gone, its ASTs are not kept
+			acceptAST(source, ast, false);
+		}
 
-			fMonitor.subTask(fMonitor.getSubTaskMessage(source));
+		/**
+		 * Calculates the fixes of a unit.
+		 *
+		 * @param source the unit
+		 * @param ast the AST of the unit or <code>null</code>
+		 * @param reusable whether the AST can be used by the next round if the clean ups did not
+		 *            change the unit
+		 */
+		public void acceptAST(ICompilationUnit source, CompilationUnit ast, boolean reusable) {
+
+			synchronized (fMonitor) {
+				fMonitor.subTask(fMonitor.getSubTaskMessage(source));
+			}
 
 			ICompilationUnit primary= (ICompilationUnit)source.getPrimaryElement();
 			ParseListElement element= fCompilationUnitParseElementMap.get(primary);
@@ -276,13 +432,24 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			} else {
 				context= new CleanUpContext(source, ast);
 			}
-			ICleanUp[] rejectedCleanUps= calculateSolutions(context, element.getCleanUps());
+			List<ICleanUp> rejectedCleanUps= new ArrayList<>();
+			boolean changed;
+			// the clean up instances are shared by all units and are not thread safe, only the
+			// parsing of the partitions runs in parallel
+			synchronized (this) {
+				changed= calculateSolutions(context, element.getCleanUps(), rejectedCleanUps);
+			}
 
-			if (rejectedCleanUps.length > 0) {
-				fUndoneElements.add(new ParseListElement(target, rejectedCleanUps));
-				fMonitor.reset();
+			if (rejectedCleanUps.size() > 0) {
+				CompilationUnit reusableAST= fKeepASTs && reusable && !changed ? ast : null;
+				fUndoneElements.add(new ParseListElement(target, rejectedCleanUps.toArray(new ICleanUp[rejectedCleanUps.size()]), reusableAST));
+				synchronized (fMonitor) {
+					fMonitor.reset();
+				}
 			} else {
-				fMonitor.flush();
+				synchronized (fMonitor) {
+					fMonitor.flush();
+				}
 			}
 		}
 
@@ -290,24 +457,45 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			acceptAST(source, null);
 		}
 
-		public List<ParseListElement> getUndoneElements() {
-			return fUndoneElements;
+		/**
+		 * Returns the elements which need another round, in the order given by
+		 * <code>order</code> so that the result does not depend on the order in
+		 * which the ASTs have been accepted.
+		 *
+		 * @param order map from the primary compilation unit of each target to its position
+		 * @return the elements which need another round
+		 */
+		public List<ParseListElement> getUndoneElements(Map<ICompilationUnit, Integer> order) {
+			List<ParseListElement> result= new ArrayList<>(fUndoneElements);
+			if (result.size() > 1) {
+				Collections.sort(result, (e1, e2) -> order.get(e1.getTarget().getCompilationUnit().getPrimary()).compareTo(order.get(e2.getTarget().getCompilationUnit().getPrimary())));
+			}
+			return result;
 		}
 
-		private ICleanUp[] calculateSolutions(CleanUpContext context, ICleanUp[] cleanUps) {
-			List<ICleanUp>result= new ArrayList<>();
+		/**
+		 * Calculates the solution of the given clean ups and adds the clean ups which have to
+		 * be applied in another round to <code>rejectedCleanUps</code>.
+		 *
+		 * @param context the context
+		 * @param cleanUps the clean ups to apply
+		 * @param rejectedCleanUps the list to add the rejected clean ups to
+		 * @return <code>true</code> if a solution has been found, i.e. the content of the unit
+		 *         changes
+		 */
+		private boolean calculateSolutions(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> rejectedCleanUps) {
 			CleanUpChange solution;
 			try {
-				solution= calculateChange(context, cleanUps, result, null);
+				solution= calculateChange(context, cleanUps, rejectedCleanUps, null, fTelemetry);
 			} catch (CoreException e) {
 				throw new FixCalculationException(e);
 			}
 
 			if (solution != null) {
 				integrateSolution(solution, context.getCompilationUnit());
+				return true;
 			}
-
-			return result.toArray(new ICleanUp[result.size()]);
+			return false;
 		}
 
 		private void integrateSolution(CleanUpChange solution, ICompilationUnit source) {
@@ -324,20 +512,30 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 
 	private class CleanUpFixpointIterator {
 
+		private final IJavaProject fProject;
 		private List<ParseListElement> fParseList;
 		private final Hashtable<ICompilationUnit, List<CleanUpChange>> fSolutions;
 		private final Hashtable<ICompilationUnit, ICompilationUnit> fWorkingCopies; // map from primary to working copy
+		private final WorkingCopyOwner fWorkingCopyOwner; // owner of all working copies, so that they see each other
+		private final Map<ICompilationUnit, Integer> fTargetOrder; // map from primary to position in targets
 		private final Map<String, String> fCleanUpOptions;
 		private final int fSize;
 		private int fIndex;
+		private int fRound;
+		private ForkJoinPool fPool;
+		private Boolean fCanReconcile;
 
-		public CleanUpFixpointIterator(CleanUpTarget[] targets, ICleanUp[] cleanUps) {
+		public CleanUpFixpointIterator(IJavaProject project, CleanUpTarget[] targets, ICleanUp[] cleanUps) {
+			fProject= project;
 			fSolutions= new Hashtable<>(targets.length);
 			fWorkingCopies= new Hashtable<>();
+			fWorkingCopyOwner= new WorkingCopyOwner() {};
+			fTargetOrder= new Hashtable<>(targets.length);
 
 			fParseList= new ArrayList<>(targets.length);
 			for (CleanUpTarget target : targets) {
 				fParseList.add(new ParseListElement(target, cleanUps));
+				fTargetOrder.putIfAbsent(target.getCompilationUnit().getPrimary(), Integer.valueOf(fTargetOrder.size()));
 			}
 
 			fCleanUpOptions= new Hashtable<>();
@@ -356,7 +554,10 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		}
 
 		public void next(IProgressMonitor monitor) throws CoreException {
+			long start= System.currentTimeMillis();
 			List<ICompilationUnit> parseList= new ArrayList<>();
+			List<ICompilationUnit> reconcileList= new ArrayList<>();
+			Map<ICompilationUnit, CompilationUnit> reusedASTs= new LinkedHashMap<>();
 			List<ICompilationUnit> sourceList= new ArrayList<>();
 
 			try {
@@ -366,37 +567,50 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 						if (fWorkingCopies.containsKey(compilationUnit)) {
 							compilationUnit= fWorkingCopies.get(compilationUnit);
 						} else {
-							compilationUnit= compilationUnit.getWorkingCopy(new WorkingCopyOwner() {}, null);
+							compilationUnit= compilationUnit.getWorkingCopy(fWorkingCopyOwner, null);
 							fWorkingCopies.put(compilationUnit.getPrimary(), compilationUnit);
 						}
 						applyChange(compilationUnit, fSolutions.get(compilationUnit.getPrimary()));
 					}
 
-					if (requiresAST(element.getCleanUps())) {
-						parseList.add(compilationUnit);
-					} else {
+					if (!requiresAST(element.getCleanUps())) {
 						sourceList.add(compilationUnit);
+					} else if (element.getAST() != null) {
+						reusedASTs.put(compilationUnit, element.getAST());
+					} else if (fIncremental && compilationUnit != element.getTarget().getCompilationUnit() && canReconcile()) {
+						reconcileList.add(compilationUnit);
+					} else {
+						parseList.add(compilationUnit);
 					}
 				}
 
-				CleanUpRefactoringProgressMonitor cuMonitor= new CleanUpRefactoringProgressMonitor(monitor, parseList.size() + sourceList.size(), fSize, fIndex);
-				CleanUpASTRequestor requestor= new CleanUpASTRequestor(fParseList, fSolutions, cuMonitor);
-				if (parseList.size() > 0) {
-					ASTBatchParser parser= new ASTBatchParser() {
-						@Override
-						protected ASTParser createParser(IJavaProject project) {
-							ASTParser result= createCleanUpASTParser();
-							result.setProject(project);
-
-							Map<String, String> options= RefactoringASTParser.getCompilerOptions(project);
-							options.putAll(fCleanUpOptions);
-							result.setCompilerOptions(options);
-							return result;
+				CleanUpRefactoringProgressMonitor cuMonitor= new CleanUpRefactoringProgressMonitor(monitor, parseList.size() + reconcileList.size() + reusedASTs.size() + sourceList.size(), fSize, fIndex);
+				CleanUpASTRequestor requestor= new CleanUpASTRequestor(fParseList, fSolutions, cuMonitor, fIncremental, fTelemetry);
+				int reconciled= 0;
+				try {
+					for (Entry<ICompilationUnit, CompilationUnit> entry : reusedASTs.entrySet()) {
+						acceptAST(requestor, entry.getKey(), entry.getValue(), monitor);
+					}
+					for (ICompilationUnit cu : reconcileList) {
+						CompilationUnit ast= reconcile(cu);
+						if (ast != null) {
+							acceptAST(requestor, cu, ast, monitor);
+							reconciled++;
+						} else {
+							parseList.add(cu);
 						}
-					};
+					}
+				} catch (FixCalculationException e) {
+					throw e.getException();
+				}
+				if (parseList.size() > 0) {
 					try {
-						ICompilationUnit[] units= parseList.toArray(new ICompilationUnit[parseList.size()]);
-						parser.createASTs(units, new String[0], requestor, cuMonitor);
+						if (fParallelism > 1 && parseList.size() >= 2 * MIN_PARTITION_SIZE) {
+							parseInParallel(parseList, requestor, cuMonitor);
+						} else {
+							ICompilationUnit[] units= parseList.toArray(new ICompilationUnit[parseList.size()]);
+							createBatchParser().createASTs(units, new String[0], requestor, cuMonitor);
+						}
 					} catch (FixCalculationException e) {
 						throw e.getException();
 					}
@@ -411,13 +625,153 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 						throw new OperationCanceledException();
 				}
 
-				fParseList= requestor.getUndoneElements();
+				fParseList= requestor.getUndoneElements(fTargetOrder);
 				fIndex= cuMonitor.getIndex();
+
+				fRound++;
+				FixpointRound round= new FixpointRound(fProject, fRound, parseList.size(), reconciled, reusedASTs.size(), sourceList.size(), System.currentTimeMillis() - start);
+				fFixpointRounds.add(round);
+				if (JavaPlugin.DEBUG_CLEAN_UP_FIXPOINT)
+					System.out.println(round);
 			} finally {
 			}
 		}
 
+		private void acceptAST(CleanUpASTRequestor requestor, ICompilationUnit cu, CompilationUnit ast, IProgressMonitor monitor) {
+			monitor.worked(1);
+
+			requestor.acceptAST(cu, ast, true);
+
+			if (monitor.isCanceled())
+				throw new OperationCanceledException();
+		}
+
+		/**
+		 * Reconciles a working copy changed by a previous round. The AST of the reconcile is
+		 * created with the options of the project, see {@link #canReconcile()}. Bindings are
+		 * resolved against the other working copies changed so far.
+		 *
+		 * @param workingCopy the working copy
+		 * @return the AST with bindings and problems, or <code>null</code> if the unit has to
+		 *         be parsed
+		 * @throws JavaModelException if the working copy could not be reconciled
+		 */
+		private CompilationUnit reconcile(ICompilationUnit workingCopy) throws JavaModelException {
+			int flags= ICompilationUnit.FORCE_PROBLEM_DETECTION;
+			if (IASTSharedValues.SHARED_AST_STATEMENT_RECOVERY)
+				flags|= ICompilationUnit.ENABLE_STATEMENTS_RECOVERY;
+			if (IASTSharedValues.SHARED_BINDING_RECOVERY)
+				flags|= ICompilationUnit.ENABLE_BINDINGS_RECOVERY;
+			CompilationUnit ast= workingCopy.reconcile(IASTSharedValues.SHARED_AST_LEVEL, flags, workingCopy.getOwner(), null);
+			if (ast == null)
+				return null;
+
+			// problems beyond the limit of the project are missing, the parser reports all of them
+			try {
+				int maxProblems= Integer.parseInt(workingCopy.getJavaProject().getOption(JavaCore.COMPILER_PB_MAX_PER_UNIT, true));
+				if (maxProblems > 0 && ast.getProblems().length >= maxProblems)
+					return null;
+			} catch (NumberFormatException e) {
+				return null;
+			}
+			return ast;
+		}
+
+		/**
+		 * Returns whether a reconcile reports every problem the clean ups require. This is the
+		 * case if the project options enable all compiler options required by the clean ups.
+		 *
+		 * @return <code>true</code> if changed working copies can be reconciled
+		 */
+		private boolean canReconcile() {
+			if (fCanReconcile == null) {
+				boolean result= true;
+				for (Entry<String, String> entry : fCleanUpOptions.entrySet()) {
+					String value= fProject.getOption(entry.getKey(), true);
+					if (!entry.getValue().equals(value) && !(isSeverity(entry.getValue()) && isSeverity(value))) {
+						result= false;
+						break;
+					}
+				}
+				fCanReconcile= Boolean.valueOf(result);
+			}
+			return fCanReconcile.booleanValue();
+		}
+
+		private boolean isSeverity(String value) {
+			return JavaCore.ERROR.equals(value) || JavaCore.WARNING.equals(value) || JavaCore.INFO.equals(value);
+		}
+
+		private ASTBatchParser createBatchParser() {
+			return new ASTBatchParser() {
+				@Override
+				protected ASTParser createParser(IJavaProject project) {
+					ASTParser result= createCleanUpASTParser();
+					result.setProject(project);
+
+					Map<String, String> options= RefactoringASTParser.getCompilerOptions(project);
+					options.putAll(fCleanUpOptions);
+					result.setCompilerOptions(options);
+					return result;
+				}
+			};
+		}
+
+		/**
+		 * Splits <code>parseList</code> into partitions and parses each of them with its own
+		 * parser on a worker thread. Only parsing and binding resolution run in parallel: the
+		 * worker threads calculate the fixes of their units, too, but one unit at a time since
+		 * the clean ups are shared by all partitions. Solutions are keyed by compilation unit and
+		 * each unit belongs to exactly one partition, therefore the result does not depend on the
+		 * scheduling.
+		 *
+		 * @param parseList the units to parse
+		 * @param requestor the requestor calculating the fixes
+		 * @param cuMonitor the monitor to report progress to
+		 */
+		private void parseInParallel(List<ICompilationUnit> parseList, CleanUpASTRequestor requestor, CleanUpRefactoringProgressMonitor cuMonitor) {
+			if (fPool == null)
+				fPool= new ForkJoinPool(fParallelism);
+
+			int partitionCount= Math.min(fParallelism, parseList.size() / MIN_PARTITION_SIZE);
+			int partitionSize= (parseList.size() + partitionCount - 1) / partitionCount;
+
+			cuMonitor.beginTask("", parseList.size()); //$NON-NLS-1$
+			AtomicBoolean aborted= new AtomicBoolean();
+			List<ForkJoinTask<?>> tasks= new ArrayList<>(partitionCount);
+			for (int start= 0; start < parseList.size(); start+= partitionSize) {
+				List<ICompilationUnit> partition= parseList.subList(start, Math.min(start + partitionSize, parseList.size()));
+				ICompilationUnit[] units= partition.toArray(new ICompilationUnit[partition.size()]);
+				tasks.add(fPool.submit(() -> {
+					try {
+						createBatchParser().createASTs(units, new String[0], requestor, new PartitionProgressMonitor(cuMonitor, aborted));
+					} catch (RuntimeException e) {
+						aborted.set(true);
+						throw e;
+					}
+				}));
+			}
+
+			RuntimeException exception= null;
+			for (ForkJoinTask<?> task : tasks) {
+				try {
+					task.join();
+				} catch (RuntimeException e) {
+					if (exception == null || exception instanceof OperationCanceledException)
+						exception= e;
+				}
+			}
+			if (exception != null)
+				throw exception;
+			if (cuMonitor.isCanceled())
+				throw new OperationCanceledException();
+		}
+
 		public void dispose() {
+			if (fPool != null) {
+				fPool.shutdownNow();
+				fPool= null;
+			}
 			for (ICompilationUnit cu : fWorkingCopies.values()) {
 				try {
 					cu.discardWorkingCopy();
@@ -438,12 +792,13 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		}
 
 		public Change[] getResult() {
+			List<ICompilationUnit> units= new ArrayList<>(fSolutions.keySet());
+			Collections.sort(units, (u1, u2) -> fTargetOrder.get(u1).compareTo(fTargetOrder.get(u2)));
 
-			Change[] result= new Change[fSolutions.size()];
+			Change[] result= new Change[units.size()];
 			int i=0;
-			for (Entry<ICompilationUnit, List<CleanUpChange>> entry : fSolutions.entrySet()) {
-				List<CleanUpChange> changes= entry.getValue();
-				ICompilationUnit unit= entry.getKey();
+			for (ICompilationUnit unit : units) {
+				List<CleanUpChange> changes= fSolutions.get(unit);
 
 				int saveMode;
 				if (fLeaveFilesDirty) {
@@ -501,6 +856,30 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	 */
 	private static final int SLOW_CLEAN_UP_THRESHOLD= 2000;
 
+	/**
+	 * Number of worker threads used to parse compilation units and to resolve their bindings,
+	 * <code>1</code> to do all the work on the calling thread. The fixes are calculated one
+	 * unit at a time in either case.
+	 */
+	private static final int DEFAULT_PARALLELISM= Integer.getInteger("org.eclipse.jdt.ui.cleanUp.parallelism", 1).intValue(); //$NON-NLS-1$
+
+	/**
+	 * The minimal number of compilation units parsed by one worker thread.
+	 */
+	private static final int MIN_PARTITION_SIZE= 10;
+
+	/**
+	 * File to append the {@link CleanUpTelemetry} of every run to, <code>null</code> to not
+	 * record the execution of the clean ups by default.
+	 */
+	private static final String TELEMETRY_FILE= System.getProperty("org.eclipse.jdt.ui.cleanUp.telemetry"); //$NON-NLS-1$
+
+	/**
+	 * Whether rounds after the first one reconcile the changed working copies and reuse the
+	 * ASTs of unchanged units instead of parsing all of them again.
+	 */
+	private static final boolean DEFAULT_INCREMENTAL= Boolean.getBoolean("org.eclipse.jdt.ui.cleanUp.incremental"); //$NON-NLS-1$
+
 	private final List<ICleanUp> fCleanUps;
 	private final Hashtable<IJavaProject, List<CleanUpTarget>> fProjects;
 	private Change fChange;
@@ -508,6 +887,10 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	private final String fName;
 
 	private boolean fUseOptionsFromProfile;
+	private int fParallelism;
+	private boolean fIncremental;
+	private final List<FixpointRound> fFixpointRounds;
+	private CleanUpTelemetry fTelemetry;
 
 	public CleanUpRefactoring() {
 		this(FixMessages.CleanUpRefactoring_Refactoring_name);
@@ -518,12 +901,76 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		fCleanUps= new ArrayList<>();
 		fProjects= new Hashtable<>();
 		fUseOptionsFromProfile= false;
+		fParallelism= Math.max(1, DEFAULT_PARALLELISM);
+		fIncremental= DEFAULT_INCREMENTAL;
+		fFixpointRounds= new ArrayList<>();
+		if (TELEMETRY_FILE != null)
+			fTelemetry= new CleanUpTelemetry();
 	}
 
 	public void setUseOptionsFromProfile(boolean enabled) {
 		fUseOptionsFromProfile= enabled;
 	}
 
+	/**
+	 * Sets the number of worker threads used to parse the targets of a project and to
+	 * resolve their bindings. Projects are still processed one after the other since
+	 * clean ups keep per project state between {@link ICleanUp#checkPreConditions} and
+	 * {@link ICleanUp#checkPostConditions}.
+	 * <p>
+	 * With a value greater than <code>1</code>, {@link ICleanUp#createFix(CleanUpContext)}
+	 * is called on the worker threads, but never concurrently: clean ups hold their options
+	 * and per run state in fields and are not required to be thread safe. The speed up is
+	 * therefore limited to parsing and binding resolution.
+	 * </p>
+	 *
+	 * @param parallelism the number of worker threads, <code>1</code> to process
+	 *            all targets on the calling thread
+	 */
+	public void setParallelism(int parallelism) {
+		fParallelism= Math.max(1, parallelism);
+	}
+
+	/**
+	 * Sets whether the rounds after the first one are incremental. In incremental mode, the
+	 * working copies changed by a round are reconciled instead of being parsed again, provided
+	 * the project options enable all compiler options required by the clean ups, and
+	 * reconciled units which did not change keep their AST. ASTs of a batch parser are not
+	 * kept since their lookup environment is discarded at the end of the batch.
+	 *
+	 * @param incremental <code>true</code> to reconcile changed units and reuse unchanged ASTs
+	 */
+	public void setIncremental(boolean incremental) {
+		fIncremental= incremental;
+	}
+
+	/**
+	 * Sets the telemetry to record the execution of every clean up on every compilation unit
+	 * to. The telemetry is not cleared between runs.
+	 * <p>
+	 * If the system property <code>org.eclipse.jdt.ui.cleanUp.telemetry</code> is set, a
+	 * telemetry is created by default. After every run, the records of the telemetry are
+	 * appended to the file named by the property and cleared.
+	 * </p>
+	 *
+	 * @param telemetry the telemetry or <code>null</code> to not record the clean ups
+	 */
+	public void setTelemetry(CleanUpTelemetry telemetry) {
+		fTelemetry= telemetry;
+	}
+
+	public CleanUpTelemetry getTelemetry() {
+		return fTelemetry;
+	}
+
+	/**
+	 * @return the rounds of the last {@link #checkFinalConditions(IProgressMonitor)}, in the
+	 *         order in which they ran
+	 */
+	public FixpointRound[] getFixpointRounds() {
+		return fFixpointRounds.toArray(new FixpointRound[fFixpointRounds.size()]);
+	}
+
 	public void addCompilationUnit(ICompilationUnit unit) {
 		addCleanUpTarget(new CleanUpTarget(unit));
 	}
@@ -609,6 +1056,7 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		if (pm == null)
 			pm= new NullProgressMonitor();
 
+		fFixpointRounds.clear();
 		if (fProjects.isEmpty() || fCleanUps.isEmpty()) {
 			pm.beginTask("", 1); //$NON-NLS-1$
 			pm.worked(1);
@@ -653,12 +1101,25 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 			findFilesToBeModified(change, files);
 			result.merge(Checks.validateModifiesFiles(files.toArray(new IFile[files.size()]), getValidationContext(), pm));
 		} finally {
+			exportTelemetry();
 			pm.done();
 		}
 
 		return result;
 	}
 
+	private void exportTelemetry() {
+		if (TELEMETRY_FILE == null || fTelemetry == null)
+			return;
+
+		try {
+			fTelemetry.export(new File(TELEMETRY_FILE));
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		}
+		fTelemetry.clear();
+	}
+
 	private void findFilesToBeModified(CompositeChange change, List<IResource> result) throws JavaModelException {
 		for (Change child : change.getChildren()) {
 			if (child instanceof CompositeChange) {
@@ -672,7 +1133,7 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	}
 
 	private Change[] cleanUpProject(IJavaProject project, CleanUpTarget[] targets, ICleanUp[] cleanUps, IProgressMonitor monitor) throws CoreException {
-		CleanUpFixpointIterator iter= new CleanUpFixpointIterator(targets, cleanUps);
+		CleanUpFixpointIterator iter= new CleanUpFixpointIterator(project, targets, cleanUps);
 
 		SubProgressMonitor subMonitor= new SubProgressMonitor(monitor, 2 * targets.length * cleanUps.length);
 		subMonitor.beginTask("", targets.length); //$NON-NLS-1$
@@ -755,6 +1216,23 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	}
 
 	public static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps) throws CoreException {
+		return calculateChange(context, cleanUps, undoneCleanUps, slowCleanUps, null);
+	}
+
+	/**
+	 * Calculates the change of the given clean ups for one compilation unit.
+	 *
+	 * @param context the context of the compilation unit
+	 * @param cleanUps the clean ups to apply
+	 * @param undoneCleanUps the list to add the clean ups to which have to be applied in another
+	 *            round
+	 * @param slowCleanUps the set to add the clean ups to which take longer than
+	 *            {@link #SLOW_CLEAN_UP_THRESHOLD}, or <code>null</code>
+	 * @param telemetry the telemetry to record every executed clean up to, or <code>null</code>
+	 * @return the change or <code>null</code> if there is nothing to change
+	 * @throws CoreException if a fix could not be created
+	 */
+	public static CleanUpChange calculateChange(CleanUpContext context, ICleanUp[] cleanUps, List<ICleanUp> undoneCleanUps, HashSet<ICleanUp> slowCleanUps, CleanUpTelemetry telemetry) throws CoreException {
 		if (cleanUps.length == 0)
 			return null;
 
@@ -763,17 +1241,24 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		do {
 			ICleanUp cleanUp= cleanUps[i];
 			ICleanUpFix fix;
-			if (slowCleanUps != null) {
-				long timeBefore= System.currentTimeMillis();
+			long time= 0;
+			if (slowCleanUps != null || telemetry != null) {
+				long timeBefore= System.nanoTime();
 				fix= cleanUp.createFix(context);
-				if (System.currentTimeMillis() - timeBefore > SLOW_CLEAN_UP_THRESHOLD)
+				time= System.nanoTime() - timeBefore;
+				if (slowCleanUps != null && time / 1000000 > SLOW_CLEAN_UP_THRESHOLD)
 					slowCleanUps.add(cleanUp);
 			} else {
 				fix= cleanUp.createFix(context);
 			}
-			if (fix != null) {
+			if (fix == null) {
+				if (telemetry != null)
+					telemetry.record(cleanUp, context.getCompilationUnit(), time, null);
+			} else {
 				CompilationUnitChange current= fix.createChange(null);
 				TextEdit currentEdit= current.getEdit();
+				if (telemetry != null)
+					telemetry.record(cleanUp, context.getCompilationUnit(), time, currentEdit);
 
 				if (solution != null) {
 					if (TextEditUtil.overlaps(currentEdit, solution.getEdit())) {
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.fix;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.TextEdit;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+
+import org.eclipse.jdt.ui.cleanup.ICleanUp;
+
+/**
+ * Records the execution of every clean up on every compilation unit of a
+ * {@link CleanUpRefactoring}: the time spent in {@link ICleanUp#createFix}, the number of text
+ * edits of the resulting fix and whether the clean up required an AST.
+ * <p>
+ * Records can be added from several threads, the clean up refactoring calculates fixes on its
+ * worker threads in parallel mode, one compilation unit at a time.
+ * </p>
+ *
+ * @see CleanUpRefactoring#setTelemetry(CleanUpTelemetry)
+ */
+public class CleanUpTelemetry {
+
+	/**
+	 * The execution of one clean up on one compilation unit.
+	 */
+	public static final class Record {
+
+		private final String fCleanUp;
+		private final ICompilationUnit fCompilationUnit;
+		private final long fTime;
+		private final int fEdits;
+		private final boolean fRequiresAST;
+
+		private Record(String cleanUp, ICompilationUnit compilationUnit, long time, int edits, boolean requiresAST) {
+			fCleanUp= cleanUp;
+			fCompilationUnit= compilationUnit;
+			fTime= time;
+			fEdits= edits;
+			fRequiresAST= requiresAST;
+		}
+
+		/**
+		 * @return the class name of the clean up
+		 */
+		public String getCleanUp() {
+			return fCleanUp;
+		}
+
+		public ICompilationUnit getCompilationUnit() {
+			return fCompilationUnit;
+		}
+
+		/**
+		 * @return the time spent in <code>createFix</code> in nanoseconds
+		 */
+		public long getTime() {
+			return fTime;
+		}
+
+		/**
+		 * @return the number of leaf text edits of the fix, <code>0</code> if there was no fix
+		 *         or its edit is empty
+		 */
+		public int getEdits() {
+			return fEdits;
+		}
+
+		public boolean requiresAST() {
+			return fRequiresAST;
+		}
+	}
+
+	/**
+	 * The records of one clean up, summed up over all compilation units.
+	 */
+	public static final class Summary {
+
+		private final String fCleanUp;
+		private int fUnits;
+		private int fFixes;
+		private int fEdits;
+		private int fASTs;
+		private long fTime;
+		private long fMaxTime;
+
+		private Summary(String cleanUp) {
+			fCleanUp= cleanUp;
+		}
+
+		private void add(Record record) {
+			fUnits++;
+			if (record.getEdits() > 0)
+				fFixes++;
+			fEdits+= record.getEdits();
+			if (record.requiresAST())
+				fASTs++;
+			fTime+= record.getTime();
+			fMaxTime= Math.max(fMaxTime, record.getTime());
+		}
+
+		/**
+		 * @return the class name of the clean up
+		 */
+		public String getCleanUp() {
+			return fCleanUp;
+		}
+
+		/**
+		 * @return the number of compilation units the clean up ran on
+		 */
+		public int getUnits() {
+			return fUnits;
+		}
+
+		/**
+		 * @return the number of compilation units the clean up produced edits for
+		 */
+		public int getFixes() {
+			return fFixes;
+		}
+
+		/**
+		 * @return the total number of text edits
+		 */
+		public int getEdits() {
+			return fEdits;
+		}
+
+		/**
+		 * @return the number of compilation units for which the clean up required an AST
+		 */
+		public int getASTs() {
+			return fASTs;
+		}
+
+		/**
+		 * @return the total time spent in <code>createFix</code> in nanoseconds
+		 */
+		public long getTime() {
+			return fTime;
+		}
+
+		/**
+		 * @return the longest time spent in <code>createFix</code> for one compilation unit in
+		 *         nanoseconds
+		 */
+		public long getMaxTime() {
+			return fMaxTime;
+		}
+	}
+
+	private static final String HEADER= "cleanUp,compilationUnit,timeMicros,edits,requiresAST"; //$NON-NLS-1$
+
+	private final ConcurrentLinkedQueue<Record> fRecords= new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Records the execution of a clean up.
+	 *
+	 * @param cleanUp the clean up
+	 * @param compilationUnit the compilation unit the clean up ran on
+	 * @param time the time spent in <code>createFix</code> in nanoseconds
+	 * @param edit the edit of the fix or <code>null</code> if there was no fix
+	 */
+	public void record(ICleanUp cleanUp, ICompilationUnit compilationUnit, long time, TextEdit edit) {
+		boolean requiresAST= cleanUp.getRequirements().requiresAST();
+		fRecords.add(new Record(cleanUp.getClass().getName(), compilationUnit.getPrimary(), time, countEdits(edit), requiresAST));
+	}
+
+	/**
+	 * Counts the leaf edits of an edit tree. Edits that only group other edits are not
+	 * counted, so an empty {@link MultiTextEdit} has no edits.
+	 *
+	 * @param edit the root of the edit tree or <code>null</code>
+	 * @return the number of leaf edits
+	 */
+	private static int countEdits(TextEdit edit) {
+		if (edit == null)
+			return 0;
+		if (!edit.hasChildren())
+			return edit instanceof MultiTextEdit ? 0 : 1;
+		int result= 0;
+		for (TextEdit child : edit.getChildren()) {
+			result+= countEdits(child);
+		}
+		return result;
+	}
+
+	/**
+	 * @return all records in the order in which they have been added
+	 */
+	public List<Record> getRecords() {
+		return new ArrayList<>(fRecords);
+	}
+
+	/**
+	 * @return one summary per clean up, the most expensive clean up first
+	 */
+	public List<Summary> getSummaries() {
+		Map<String, Summary> summaries= new LinkedHashMap<>();
+		for (Record record : fRecords) {
+			summaries.computeIfAbsent(record.getCleanUp(), Summary::new).add(record);
+		}
+		List<Summary> result= new ArrayList<>(summaries.values());
+		Collections.sort(result, (s1, s2) -> Long.compare(s2.getTime(), s1.getTime()));
+		return result;
+	}
+
+	public void clear() {
+		fRecords.clear();
+	}
+
+	/**
+	 * Writes all records as comma separated values, one line per record, preceded by a header
+	 * line.
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public void write(Writer writer) throws IOException {
+		writer.write(HEADER);
+		writer.write('\n');
+		writeRecords(writer);
+	}
+
+	/**
+	 * Appends all records to the given file as comma separated values. The header line is
+	 * written if the file is new or empty.
+	 *
+	 * @param file the file to append to
+	 * @throws IOException if writing fails
+	 */
+	public void export(File file) throws IOException {
+		boolean writeHeader= !file.exists() || file.length() == 0;
+		try (Writer writer= new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+			if (writeHeader) {
+				writer.write(HEADER);
+				writer.write('\n');
+			}
+			writeRecords(writer);
+		}
+	}
+
+	private void writeRecords(Writer writer) throws IOException {
+		for (Record record : fRecords) {
+			writer.write(record.getCleanUp());
+			writer.write(',');
+			writeValue(writer, record.getCompilationUnit().getPath().toString());
+			writer.write(',');
+			writer.write(Long.toString(record.getTime() / 1000));
+			writer.write(',');
+			writer.write(Integer.toString(record.getEdits()));
+			writer.write(',');
+			writer.write(Boolean.toString(record.requiresAST()));
+			writer.write('\n');
+		}
+	}
+
+	private static void writeValue(Writer writer, String value) throws IOException {
+		if (value.indexOf(',') == -1 && value.indexOf('"') == -1) {
+			writer.write(value);
+		} else {
+			writer.write('"');
+			writer.write(value.replace("\"", "\"\"")); //$NON-NLS-1$ //$NON-NLS-2$
+			writer.write('"');
+		}
+	}
+}
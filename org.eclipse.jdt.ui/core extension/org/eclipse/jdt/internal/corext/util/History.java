@@ -62,7 +62,9 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
  * MAX_HISTORY_SIZE. If the list exceeds this size the eldest element is removed
  * from the list. An element can be added/renewed with a call to <code>accessed(Object)</code>.
  *
- * The history can be stored to/loaded from an xml file.
+ * The history can be stored to/loaded from an xml file, or from a binary {@link HistoryStore} if
+ * the history {@link #hasBinaryFormat() has a binary format}. An xml file is migrated to the binary
+ * format when the history is saved.
  *
  * @param <K> key type
  * @param <V> value type
@@ -72,6 +74,8 @@ public abstract class History<K, V> {
 	private static final String DEFAULT_ROOT_NODE_NAME= "histroyRootNode"; //$NON-NLS-1$
 	private static final String DEFAULT_INFO_NODE_NAME= "infoNode"; //$NON-NLS-1$
 	private static final int MAX_HISTORY_SIZE= 60;
+	private static final String XML_EXTENSION= ".xml"; //$NON-NLS-1$
+	private static final String STORE_EXTENSION= ".bin"; //$NON-NLS-1$
 
 	private static JavaUIException createException(Throwable t, String message) {
 		return new JavaUIException(JavaUIStatus.createError(IStatus.ERROR, message, t));
@@ -165,6 +169,21 @@ public abstract class History<K, V> {
 	}
 
 	public synchronized void load() {
+		long start= System.nanoTime();
+		if (hasBinaryFormat()) {
+			File store= getStoreFile();
+			if (store.exists()) {
+				try {
+					loadStore(store);
+				} catch (IOException e) {
+					JavaPlugin.log(e);
+				}
+				if (JavaPlugin.DEBUG_HISTORY)
+					System.out.println("History " + store.getName() + ": loaded " + fHistory.size() + " entries in " + (System.nanoTime() - start) / 1000 + " \u00b5s"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				return;
+			}
+		}
+
 		IPath stateLocation= JavaPlugin.getDefault().getStateLocation().append(fFileName);
 		File file= stateLocation.toFile();
 		if (file.exists()) {
@@ -182,10 +201,23 @@ public abstract class History<K, V> {
 					JavaPlugin.log(e);
 				}
 			}
+			if (JavaPlugin.DEBUG_HISTORY)
+				System.out.println("History " + fFileName + ": loaded " + fHistory.size() + " entries in " + (System.nanoTime() - start) / 1000 + " \u00b5s"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
 		}
 	}
 
 	public synchronized void save() {
+		if (hasBinaryFormat()) {
+			try {
+				saveStore(getStoreFile());
+				// the history has been migrated
+				JavaPlugin.getDefault().getStateLocation().append(fFileName).toFile().delete();
+			} catch (IOException e) {
+				JavaPlugin.log(e);
+			}
+			return;
+		}
+
 		IPath stateLocation= JavaPlugin.getDefault().getStateLocation().append(fFileName);
 		File file= stateLocation.toFile();
 		OutputStream out= null;
@@ -231,6 +263,36 @@ public abstract class History<K, V> {
 	 */
 	protected abstract V createFromElement(Element element);
 
+	/**
+	 * Tells whether this history is stored in the binary {@link HistoryStore} format.
+	 *
+	 * @return <code>true</code> if this history is stored in the binary format,
+	 *         <code>false</code> if it is stored as XML
+	 */
+	protected boolean hasBinaryFormat() {
+		return false;
+	}
+
+	/**
+	 * Writes an object to a binary history store.
+	 *
+	 * @param object The object to store
+	 * @param writer The writer to write the fields of the object to
+	 * @throws IOException if writing fails
+	 */
+	protected abstract void writeEntry(V object, HistoryStore.Writer writer) throws IOException;
+
+	/**
+	 * Reads an object from a binary history store. All fields written by
+	 * {@link #writeEntry(Object, HistoryStore.Writer)} must be read, even if no object is
+	 * returned.
+	 *
+	 * @param reader The reader to read the fields of the object from
+	 * @return a new instance of an Object or <code>null</code> if the entry is invalid
+	 * @throws IOException if reading fails
+	 */
+	protected abstract V readEntry(HistoryStore.Reader reader) throws IOException;
+
 	/**
 	 * Get key for object
 	 *
@@ -248,6 +310,36 @@ public abstract class History<K, V> {
 		}
 	}
 
+	private File getStoreFile() {
+		String name= fFileName;
+		if (name.endsWith(XML_EXTENSION))
+			name= name.substring(0, name.length() - XML_EXTENSION.length());
+		return JavaPlugin.getDefault().getStateLocation().append(name + STORE_EXTENSION).toFile();
+	}
+
+	private void loadStore(File file) throws IOException {
+		try (HistoryStore.Reader reader= new HistoryStore.Reader(new FileInputStream(file), fRootNodeName)) {
+			int count= reader.getCount();
+			for (int i= 0; i < count; i++) {
+				V object= readEntry(reader);
+				if (object != null) {
+					fHistory.put(getKey(object), object);
+				}
+			}
+		} finally {
+			rebuildPositions();
+		}
+	}
+
+	private void saveStore(File file) throws IOException {
+		Collection<V> values= getValues();
+		try (HistoryStore.Writer writer= new HistoryStore.Writer(new FileOutputStream(file), fRootNodeName, values.size())) {
+			for (V object : values) {
+				writeEntry(object, writer);
+			}
+		}
+	}
+
 	private void load(InputSource inputSource) throws CoreException {
 		Element root;
 		try {
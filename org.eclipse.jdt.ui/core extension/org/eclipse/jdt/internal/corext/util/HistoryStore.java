@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary format for histories.
+ * <p>
+ * A store starts with a magic number, the format version and the kind of the history, followed by
+ * the number of entries and the entries themselves. The fields of an entry are written and read in
+ * the same order, strings are stored as length prefixed UTF-8.
+ * </p>
+ *
+ * @see History
+ */
+public final class HistoryStore {
+
+	/** The magic number of history stores */
+	private static final int MAGIC= 0x4A484953;
+
+	/** The current version of the format */
+	public static final int VERSION= 1;
+
+	private HistoryStore() {
+	}
+
+	/**
+	 * Writes the entries of a history.
+	 */
+	public static final class Writer implements Closeable {
+
+		private final DataOutputStream fOutput;
+
+		/**
+		 * Creates a writer and writes the header of the store.
+		 *
+		 * @param output the stream to write to, closed when the writer is closed
+		 * @param kind the kind of the history
+		 * @param count the number of entries that will be written
+		 * @throws IOException if writing fails
+		 */
+		public Writer(OutputStream output, String kind, int count) throws IOException {
+			fOutput= new DataOutputStream(new BufferedOutputStream(output));
+			fOutput.writeInt(MAGIC);
+			fOutput.writeInt(VERSION);
+			writeString(kind);
+			fOutput.writeInt(count);
+		}
+
+		public void writeString(String value) throws IOException {
+			byte[] bytes= value.getBytes(StandardCharsets.UTF_8);
+			fOutput.writeInt(bytes.length);
+			fOutput.write(bytes);
+		}
+
+		public void writeInt(int value) throws IOException {
+			fOutput.writeInt(value);
+		}
+
+		public void writeLong(long value) throws IOException {
+			fOutput.writeLong(value);
+		}
+
+		@Override
+		public void close() throws IOException {
+			fOutput.close();
+		}
+	}
+
+	/**
+	 * Reads the entries of a history.
+	 */
+	public static final class Reader implements Closeable {
+
+		private final DataInputStream fInput;
+		private final int fCount;
+
+		/**
+		 * Creates a reader and reads the header of the store.
+		 *
+		 * @param input the stream to read from, closed when the reader is closed
+		 * @param kind the expected kind of the history
+		 * @throws IOException if the stream does not contain a history store of the given kind in
+		 *             a supported version
+		 */
+		public Reader(InputStream input, String kind) throws IOException {
+			fInput= new DataInputStream(new BufferedInputStream(input));
+			if (fInput.readInt() != MAGIC)
+				throw new IOException("Not a history store"); //$NON-NLS-1$
+			int version= fInput.readInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported history store version: " + version); //$NON-NLS-1$
+			String storedKind= readString();
+			if (!kind.equals(storedKind))
+				throw new IOException("Unexpected history kind: " + storedKind); //$NON-NLS-1$
+			fCount= fInput.readInt();
+			if (fCount < 0)
+				throw new IOException("Invalid number of entries: " + fCount); //$NON-NLS-1$
+		}
+
+		/**
+		 * @return the number of entries in the store
+		 */
+		public int getCount() {
+			return fCount;
+		}
+
+		public String readString() throws IOException {
+			int length= fInput.readInt();
+			if (length < 0)
+				throw new IOException("Invalid string length: " + length); //$NON-NLS-1$
+			byte[] bytes= new byte[length];
+			fInput.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		public int readInt() throws IOException {
+			return fInput.readInt();
+		}
+
+		public long readLong() throws IOException {
+			return fInput.readLong();
+		}
+
+		@Override
+		public void close() throws IOException {
+			fInput.close();
+		}
+	}
+}
@@ -13,13 +13,14 @@
  *******************************************************************************/
  package org.eclipse.jdt.internal.corext.util;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.w3c.dom.Element;
 
@@ -54,8 +55,15 @@ import org.eclipse.jdt.core.search.TypeNameMatch;
 
 import org.eclipse.jdt.internal.corext.CorextMessages;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 /**
  * History for the open type dialog. Object and keys are both {@link TypeNameMatch}s.
+ * <p>
+ * A Java element delta marks the history as inconsistent and schedules a background consistency
+ * check. Entries that are requested for display before the check has finished are validated on
+ * demand, every entry is validated at most once per inconsistency.
+ * </p>
  */
 public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 
@@ -167,8 +175,12 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 
 	// Needs to be volatile since accesses aren't synchronized.
 	private volatile boolean fNeedsConsistencyCheck;
+	// Incremented whenever the history is marked as inconsistent. Not synchronized either.
+	private final AtomicInteger fGeneration= new AtomicInteger();
 	// Map of cached time stamps
 	private Map<TypeNameMatch, Long> fTimestampMapping;
+	// Map from entries to the generation in which they have been validated
+	private Map<TypeNameMatch, Integer> fValidatedGeneration;
 
 	private final IElementChangedListener fDeltaListener;
 	private final UpdateJob fUpdateJob;
@@ -197,6 +209,7 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	private OpenTypeHistory() {
 		super(FILENAME, NODE_ROOT, NODE_TYPE_INFO);
 		fTimestampMapping= new HashMap<>();
+		fValidatedGeneration= new HashMap<>();
 		fNeedsConsistencyCheck= true;
 		load();
 		fDeltaListener= new TypeHistoryDeltaListener();
@@ -211,6 +224,7 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	}
 
 	public void markAsInconsistent() {
+		fGeneration.incrementAndGet();
 		fNeedsConsistencyCheck= true;
 		// cancel the old job. If no job is running this is a NOOP.
 		fUpdateJob.cancel();
@@ -255,37 +269,57 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	@Override
 	public synchronized TypeNameMatch remove(TypeNameMatch info) {
 		fTimestampMapping.remove(info);
+		fValidatedGeneration.remove(info);
 		return (TypeNameMatch)super.remove(info);
 	}
 
 	public synchronized void replace(TypeNameMatch old, TypeNameMatch newMatch) {
 		fTimestampMapping.remove(old);
+		fValidatedGeneration.remove(old);
 		fTimestampMapping.put(newMatch, getContainerTimestamp(newMatch));
 		super.remove(old);
 		super.accessed(newMatch);
 	}
 
+	/**
+	 * Returns the valid entries of the history, the most recently accessed first. Entries that
+	 * have not been validated since the history has been marked as inconsistent are validated.
+	 *
+	 * @return the valid entries
+	 */
 	public synchronized TypeNameMatch[] getTypeInfos() {
-		Collection<TypeNameMatch> values= getValues();
-		int size= values.size();
-		TypeNameMatch[] result= new TypeNameMatch[size];
-		int i= size - 1;
-		for (TypeNameMatch typeNameMatch : values) {
-			result[i]= typeNameMatch;
-			i--;
-		}
-		return result;
+		return validate(new ArrayList<>(getValues()));
 	}
 
+	/**
+	 * Returns the valid entries of the history that match the given filter, the most recently
+	 * accessed first. Only the matching entries are validated.
+	 *
+	 * @param filter the filter or <code>null</code>
+	 * @return the valid matching entries
+	 */
 	public synchronized TypeNameMatch[] getFilteredTypeInfos(TypeInfoFilter filter) {
-		List<TypeNameMatch> result= new ArrayList<>();
+		List<TypeNameMatch> types= new ArrayList<>();
 		for (TypeNameMatch type : getValues()) {
 			if ((filter == null || filter.matchesHistoryElement(type)) && !TypeFilter.isFiltered(type.getFullyQualifiedName()))
-				result.add(type);
+				types.add(type);
+		}
+		return validate(types);
+	}
+
+	private TypeNameMatch[] validate(List<TypeNameMatch> types) {
+		long start= System.nanoTime();
+		int generation= fGeneration.get();
+		List<TypeNameMatch> result= new ArrayList<>(types.size());
+		for (TypeNameMatch type : types) {
+			TypeNameMatch valid= validate(type, generation);
+			if (valid != null)
+				result.add(valid);
 		}
+		if (JavaPlugin.DEBUG_HISTORY)
+			System.out.println("OpenTypeHistory: validated " + types.size() + " entries for display in " + (System.nanoTime() - start) / 1000 + " \u00b5s"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		Collections.reverse(result);
 		return result.toArray(new TypeNameMatch[result.size()]);
-
 	}
 
 	@Override
@@ -294,39 +328,66 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 	}
 
 	private synchronized void internalCheckConsistency(IProgressMonitor monitor) throws OperationCanceledException {
-		// Setting fNeedsConsistencyCheck is necessary here since
+		long start= System.nanoTime();
+		// The generation must be read before the flag is reset since
 		// markAsInconsistent isn't synchronized.
-		fNeedsConsistencyCheck= true;
+		int generation= fGeneration.get();
+		fNeedsConsistencyCheck= false;
 		List<TypeNameMatch> typesToCheck= new ArrayList<>(getKeys());
 		monitor.beginTask(CorextMessages.TypeInfoHistory_consistency_check, typesToCheck.size());
 		monitor.setTaskName(CorextMessages.TypeInfoHistory_consistency_check);
 		for (TypeNameMatch type : typesToCheck) {
-			long currentTimestamp= getContainerTimestamp(type);
-			Long lastTested= fTimestampMapping.get(type);
-			if (lastTested != null && currentTimestamp != IResource.NULL_STAMP && currentTimestamp == lastTested.longValue() && !isContainerDirty(type))
-				continue;
+			validate(type, generation);
+			if (monitor.isCanceled()) {
+				fNeedsConsistencyCheck= true;
+				throw new OperationCanceledException();
+			}
+			monitor.worked(1);
+		}
+		monitor.done();
+		if (JavaPlugin.DEBUG_HISTORY)
+			System.out.println("OpenTypeHistory: checked " + typesToCheck.size() + " entries in " + (System.nanoTime() - start) / 1000 + " \u00b5s"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Validates an entry unless it has already been validated in the given generation. Entries
+	 * whose type does not exist any more are removed, entries whose modifiers have changed are
+	 * replaced.
+	 *
+	 * @param type the entry to validate
+	 * @param generation the current generation
+	 * @return the valid entry or <code>null</code> if the entry has been removed
+	 */
+	private TypeNameMatch validate(TypeNameMatch type, int generation) {
+		Integer validated= fValidatedGeneration.get(type);
+		if (validated != null && validated.intValue() == generation)
+			return type;
+
+		TypeNameMatch result= type;
+		long currentTimestamp= getContainerTimestamp(type);
+		Long lastTested= fTimestampMapping.get(type);
+		if (lastTested == null || currentTimestamp == IResource.NULL_STAMP || currentTimestamp != lastTested.longValue() || isContainerDirty(type)) {
 			try {
 				IType jType= type.getType();
 				if (jType == null || !jType.exists()) {
 					remove(type);
+					return null;
+				}
+				// copy over the modifiers since they may have changed
+				int modifiers= jType.getFlags();
+				if (modifiers != type.getModifiers()) {
+					result= SearchEngine.createTypeNameMatch(jType, modifiers);
+					replace(type, result);
 				} else {
-					// copy over the modifiers since they may have changed
-					int modifiers= jType.getFlags();
-					if (modifiers != type.getModifiers()) {
-						replace(type, SearchEngine.createTypeNameMatch(jType, modifiers));
-					} else {
-						fTimestampMapping.put(type, currentTimestamp);
-					}
+					fTimestampMapping.put(type, currentTimestamp);
 				}
 			} catch (JavaModelException e) {
 				remove(type);
+				return null;
 			}
-			if (monitor.isCanceled())
-				throw new OperationCanceledException();
-			monitor.worked(1);
 		}
-		monitor.done();
-		fNeedsConsistencyCheck= false;
+		fValidatedGeneration.put(result, generation);
+		return result;
 	}
 
 	private long getContainerTimestamp(TypeNameMatch match) {
@@ -381,6 +442,37 @@ public class OpenTypeHistory extends History<TypeNameMatch, TypeNameMatch> {
 		save();
 	}
 
+	@Override
+	protected boolean hasBinaryFormat() {
+		return true;
+	}
+
+	@Override
+	protected void writeEntry(TypeNameMatch type, HistoryStore.Writer writer) throws IOException {
+		writer.writeString(type.getType().getHandleIdentifier());
+		writer.writeInt(type.getModifiers());
+		Long timestamp= fTimestampMapping.get(type);
+		writer.writeLong(timestamp == null ? IResource.NULL_STAMP : timestamp.longValue());
+	}
+
+	@Override
+	protected TypeNameMatch readEntry(HistoryStore.Reader reader) throws IOException {
+		String handle= reader.readString();
+		int modifiers= reader.readInt();
+		long timestamp= reader.readLong();
+
+		// the element is created from the handle only, its existence is checked when validated
+		IJavaElement element= JavaCore.create(handle);
+		if (!(element instanceof IType))
+			return null;
+
+		TypeNameMatch info= SearchEngine.createTypeNameMatch((IType) element, modifiers);
+		if (timestamp != IResource.NULL_STAMP) {
+			fTimestampMapping.put(info, timestamp);
+		}
+		return info;
+	}
+
 	@Override
 	protected TypeNameMatch createFromElement(Element type) {
 		String handle= type.getAttribute(NODE_HANDLE);
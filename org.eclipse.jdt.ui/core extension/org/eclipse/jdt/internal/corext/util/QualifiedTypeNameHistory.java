@@ -13,6 +13,8 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.util;
 
+import java.io.IOException;
+
 import org.w3c.dom.Element;
 
 public class QualifiedTypeNameHistory extends History<String, String> {
@@ -46,6 +48,21 @@ public class QualifiedTypeNameHistory extends History<String, String> {
 		return element.getAttribute(NODE_NAME);
 	}
 
+	@Override
+	protected boolean hasBinaryFormat() {
+		return true;
+	}
+
+	@Override
+	protected void writeEntry(String object, HistoryStore.Writer writer) throws IOException {
+		writer.writeString(object);
+	}
+
+	@Override
+	protected String readEntry(HistoryStore.Reader reader) throws IOException {
+		return reader.readString();
+	}
+
 	@Override
 	protected String getKey(String object) {
 		return object;
@@ -16,13 +16,19 @@ package org.eclipse.jdt.internal.corext.refactoring.rename;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -142,6 +148,18 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 	private static final GroupCategorySet CATEGORY_FIELD_RENAME= new GroupCategorySet(new GroupCategory("org.eclipse.jdt.internal.corext.refactoring.rename.renameType.field", RefactoringCoreMessages.RenameTypeProcessor_changeCategory_fields, RefactoringCoreMessages.RenameTypeProcessor_changeCategory_fields_description)); //$NON-NLS-1$
 	private static final GroupCategorySet CATEGORY_LOCAL_RENAME= new GroupCategorySet(new GroupCategory("org.eclipse.jdt.internal.corext.refactoring.rename.renameType.local", RefactoringCoreMessages.RenameTypeProcessor_changeCategory_local_variables, RefactoringCoreMessages.RenameTypeProcessor_changeCategory_local_variables_description)); //$NON-NLS-1$
 
+	/**
+	 * Number of worker threads used to create the reference updates and to parse the compilation
+	 * units of similarly named local variables, <code>1</code> to do all the work on the calling
+	 * thread.
+	 */
+	private static final int DEFAULT_PARALLELISM= Integer.getInteger("org.eclipse.jdt.ui.refactoring.renameType.parallelism", 1).intValue(); //$NON-NLS-1$
+
+	/**
+	 * The minimal number of compilation units updated by one worker thread.
+	 */
+	private static final int MIN_PARTITION_SIZE= 50;
+
 	private IType fType;
 	private SearchResultGroup[] fReferences;
 	private TextChangeManager fChangeManager;
@@ -172,6 +190,8 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 	private int fCachedRenamingStrategy= -1;
 	private RefactoringStatus fCachedRefactoringStatus= null;
 
+	private int fParallelism;
+
 	public static final class ParticipantDescriptorFilter implements IParticipantDescriptorFilter {
 
 		@Override
@@ -186,6 +206,71 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 		}
 	}
 
+	/**
+	 * Parses the compilation units of the similarly named local variables ahead of their use
+	 * on worker threads. At most a few units per thread are parsed ahead to bound the number
+	 * of ASTs held at a time.
+	 */
+	private static final class ResolvedASTPrefetcher {
+
+		private final Iterator<ICompilationUnit> fPending;
+		private final Map<ICompilationUnit, ForkJoinTask<CompilationUnit>> fTasks= new LinkedHashMap<>();
+		private final ForkJoinPool fPool;
+		private final int fLookahead;
+
+		/**
+		 * @param units the units to parse in the order in which they are requested
+		 * @param parallelism the number of worker threads
+		 */
+		ResolvedASTPrefetcher(Collection<ICompilationUnit> units, int parallelism) {
+			fPending= units.iterator();
+			fPool= new ForkJoinPool(parallelism);
+			fLookahead= 2 * parallelism;
+			prefetch();
+		}
+
+		/**
+		 * Returns the resolved AST of the given unit, waiting for it to be parsed if necessary.
+		 * The ASTs of the units before the given one are not requested anymore and dropped.
+		 *
+		 * @param unit the compilation unit
+		 * @return the AST with bindings
+		 */
+		CompilationUnit get(ICompilationUnit unit) {
+			ForkJoinTask<CompilationUnit> task= null;
+			if (fTasks.containsKey(unit)) {
+				for (Iterator<Entry<ICompilationUnit, ForkJoinTask<CompilationUnit>>> iter= fTasks.entrySet().iterator(); task == null;) {
+					Entry<ICompilationUnit, ForkJoinTask<CompilationUnit>> entry= iter.next();
+					iter.remove();
+					if (entry.getKey().equals(unit))
+						task= entry.getValue();
+					else
+						entry.getValue().cancel(false);
+				}
+			}
+			prefetch();
+			if (task == null)
+				return parse(unit);
+			return task.join();
+		}
+
+		private void prefetch() {
+			while (fTasks.size() < fLookahead && fPending.hasNext()) {
+				ICompilationUnit unit= fPending.next();
+				fTasks.put(unit, fPool.submit(() -> parse(unit)));
+			}
+		}
+
+		static CompilationUnit parse(ICompilationUnit unit) {
+			return new RefactoringASTParser(IASTSharedValues.SHARED_AST_LEVEL).parse(unit, true);
+		}
+
+		void dispose() {
+			fPool.shutdownNow();
+			fTasks.clear();
+		}
+	}
+
 	private static class NoOverrideProgressMonitor extends SubProgressMonitor {
 		public NoOverrideProgressMonitor(IProgressMonitor monitor, int ticks) {
 			super(monitor, ticks, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL);
@@ -208,6 +293,20 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 		fUpdateTextualMatches= false;
 		fUpdateSimilarElements= false; // default is no
 		fRenamingStrategy= RenamingNameSuggestor.STRATEGY_EXACT;
+		fParallelism= Math.max(1, DEFAULT_PARALLELISM);
+	}
+
+	/**
+	 * Sets the number of worker threads used to create the reference updates and to parse the
+	 * compilation units of similarly named local variables. The text changes are the same as
+	 * with a single thread, see {@link TextChangeManager#getAllChanges()}.
+	 *
+	 * @param parallelism the number of worker threads, <code>1</code> to do all the work on
+	 *            the calling thread
+	 * @since 3.27
+	 */
+	public void setParallelism(int parallelism) {
+		fParallelism= Math.max(1, parallelism);
 	}
 
 	public RenameTypeProcessor(JavaRefactoringArguments arguments, RefactoringStatus status) {
@@ -1195,19 +1294,94 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 	}
 
 	private void addReferenceUpdates(TextChangeManager manager, IProgressMonitor pm) {
+		if (fParallelism > 1 && fReferences.length >= 2 * MIN_PARTITION_SIZE) {
+			addReferenceUpdatesInParallel(manager, pm);
+			return;
+		}
 		pm.beginTask("", fReferences.length); //$NON-NLS-1$
+		for (SearchResultGroup reference : fReferences) {
+			addReferenceUpdates(manager, reference);
+			pm.worked(1);
+		}
+	}
+
+	private void addReferenceUpdates(TextChangeManager manager, SearchResultGroup reference) {
+		ICompilationUnit cu= reference.getCompilationUnit();
+		if (cu == null)
+			return;
+
+		String name= RefactoringCoreMessages.RenameTypeRefactoring_update_reference;
+
+		for (SearchMatch match : reference.getSearchResults()) {
+			ReplaceEdit replaceEdit= new ReplaceEdit(match.getOffset(), match.getLength(), getNewElementName());
+			TextChangeCompatibility.addTextEdit(manager.get(cu), name, replaceEdit, CATEGORY_TYPE_RENAME);
+		}
+	}
+
+	/**
+	 * Splits the references into partitions by compilation unit and adds the updates of each
+	 * partition on a worker thread. Every compilation unit belongs to exactly one partition and
+	 * its groups are processed in their original order, so its text change is only modified
+	 * by one thread and gets the same edits as when processed sequentially.
+	 *
+	 * @param manager the thread-safe change manager
+	 * @param pm the progress monitor, only accessed on the calling thread
+	 */
+	private void addReferenceUpdatesInParallel(TextChangeManager manager, IProgressMonitor pm) {
+		Map<ICompilationUnit, List<SearchResultGroup>> groupsByUnit= new LinkedHashMap<>();
 		for (SearchResultGroup reference : fReferences) {
 			ICompilationUnit cu= reference.getCompilationUnit();
-			if (cu == null)
-				continue;
+			if (cu != null)
+				groupsByUnit.computeIfAbsent(cu, unit -> new ArrayList<>(1)).add(reference);
+		}
+		List<List<SearchResultGroup>> units= new ArrayList<>(groupsByUnit.values());
+		int partitionCount= Math.max(1, Math.min(fParallelism, units.size() / MIN_PARTITION_SIZE));
+		int partitionSize= (units.size() + partitionCount - 1) / partitionCount;
 
-			String name= RefactoringCoreMessages.RenameTypeRefactoring_update_reference;
+		pm.beginTask("", fReferences.length); //$NON-NLS-1$
+		ForkJoinPool pool= new ForkJoinPool(fParallelism);
+		try {
+			AtomicBoolean aborted= new AtomicBoolean();
+			List<ForkJoinTask<Integer>> tasks= new ArrayList<>(partitionCount);
+			for (int start= 0; start < units.size(); start+= partitionSize) {
+				List<List<SearchResultGroup>> partition= units.subList(start, Math.min(start + partitionSize, units.size()));
+				tasks.add(pool.submit(() -> {
+					int groups= 0;
+					try {
+						for (List<SearchResultGroup> unit : partition) {
+							if (aborted.get())
+								throw new OperationCanceledException();
+							for (SearchResultGroup reference : unit) {
+								addReferenceUpdates(manager, reference);
+								groups++;
+							}
+						}
+					} catch (RuntimeException e) {
+						aborted.set(true);
+						throw e;
+					}
+					return Integer.valueOf(groups);
+				}));
+			}
 
-			for (SearchMatch match : reference.getSearchResults()) {
-				ReplaceEdit replaceEdit= new ReplaceEdit(match.getOffset(), match.getLength(), getNewElementName());
-				TextChangeCompatibility.addTextEdit(manager.get(cu), name, replaceEdit, CATEGORY_TYPE_RENAME);
+			RuntimeException exception= null;
+			for (ForkJoinTask<Integer> task : tasks) {
+				try {
+					pm.worked(task.join().intValue());
+				} catch (RuntimeException e) {
+					if (exception == null || exception instanceof OperationCanceledException)
+						exception= e;
+				}
+				if (pm.isCanceled())
+					aborted.set(true);
 			}
-			pm.worked(1);
+			if (exception != null)
+				throw exception;
+			if (pm.isCanceled())
+				throw new OperationCanceledException();
+		} finally {
+			pool.shutdownNow();
+			pm.done();
 		}
 	}
 
@@ -1285,6 +1459,26 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 		Assert.isNotNull(fPreloadedElementToName);
 		Assert.isNotNull(fPreloadedElementToSelection);
 
+		ResolvedASTPrefetcher prefetcher= null;
+		if (fParallelism > 1) {
+			Set<ICompilationUnit> localUnits= new LinkedHashSet<>();
+			for (IJavaElement element : fPreloadedElementToName.keySet()) {
+				if (element instanceof ILocalVariable && fPreloadedElementToSelection.get(element).booleanValue())
+					localUnits.add((ICompilationUnit) element.getAncestor(IJavaElement.COMPILATION_UNIT));
+			}
+			if (localUnits.size() > 1)
+				prefetcher= new ResolvedASTPrefetcher(localUnits, fParallelism);
+		}
+		try {
+			return initializeSimilarElementsRenameProcessors(progressMonitor, context, prefetcher);
+		} finally {
+			if (prefetcher != null)
+				prefetcher.dispose();
+		}
+	}
+
+	private RefactoringStatus initializeSimilarElementsRenameProcessors(IProgressMonitor progressMonitor, CheckConditionsContext context, ResolvedASTPrefetcher prefetcher) throws CoreException {
+
 		final RefactoringStatus status= new RefactoringStatus();
 		final Set<IMethod> handledTopLevelMethods= new HashSet<>();
 		final Set<Warning> warnings= new HashSet<>();
@@ -1337,7 +1531,7 @@ public class RenameTypeProcessor extends JavaRenameProcessor implements ITextUpd
 				final ILocalVariable currentLocal= (ILocalVariable) element;
 
 				if (currentResolvedCU == null)
-					currentResolvedCU= new RefactoringASTParser(IASTSharedValues.SHARED_AST_LEVEL).parse(currentCU, true);
+					currentResolvedCU= prefetcher != null ? prefetcher.get(currentCU) : ResolvedASTPrefetcher.parse(currentCU);
 
 				processor= createLocalRenameProcessor(currentLocal, newName, currentResolvedCU);
 
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.rename;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.search.SearchMatch;
+
+import org.eclipse.jdt.internal.corext.util.JavaElementDeltaClassifier;
+import org.eclipse.jdt.internal.corext.util.JavaElementDeltaClassifier.IDeltaHandler;
+
+/**
+ * Workspace wide cache of the ripple methods computed by {@link RippleMethodFinder2}.
+ * <p>
+ * An entry holds the ripple methods of a group of methods, i.e. the methods that are renamed
+ * together, and the way binaries are treated. It is found from every method of the group. Entries
+ * are invalidated from Java element deltas: a change of a method declaration invalidates the
+ * entries of methods with the same name, structural changes (see
+ * {@link JavaElementDeltaClassifier}) invalidate all entries, including discarded or reverted
+ * working copies. Changes of method bodies keep the entries.
+ * </p>
+ * <p>
+ * Only searches with the primary working copies are cached. The cache can be disabled with the
+ * system property <code>org.eclipse.jdt.ui.refactoring.rippleMethodCache=false</code>.
+ * </p>
+ *
+ * @since 3.27
+ */
+public final class RippleMethodCache {
+
+	/** Whether ripple methods are cached */
+	static final boolean ENABLED= Boolean.parseBoolean(System.getProperty("org.eclipse.jdt.ui.refactoring.rippleMethodCache", "true")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/** The maximum number of cached groups */
+	private static final int MAX_ENTRIES= 256;
+
+	/** How the binary declarations are treated */
+	enum Mode {
+		/** binary declarations are ignored */
+		EXCLUDE_BINARIES,
+		/** binary declarations are ripple methods */
+		INCLUDE_BINARIES,
+		/** binary declarations are reported as references in binaries */
+		BINARY_REFERENCES
+	}
+
+	/**
+	 * The result of a ripple method search, shared by the methods of the group.
+	 */
+	static final class Entry {
+
+		private final IMethod[] fRippleMethods;
+		private final Map<IMethod, SearchMatch> fBinaryMatches;
+
+		/**
+		 * @param rippleMethods the ripple methods
+		 * @param binaryMatches the matches of the binary ripple methods that are reported as
+		 *            references in binaries or <code>null</code>
+		 */
+		Entry(IMethod[] rippleMethods, Map<IMethod, SearchMatch> binaryMatches) {
+			fRippleMethods= rippleMethods.clone();
+			fBinaryMatches= binaryMatches;
+		}
+
+		IMethod[] getRippleMethods() {
+			return fRippleMethods.clone();
+		}
+
+		Map<IMethod, SearchMatch> getBinaryMatches() {
+			return fBinaryMatches;
+		}
+	}
+
+	private static final class Key {
+
+		private final IMethod fMethod;
+		private final Mode fMode;
+
+		Key(IMethod method, Mode mode) {
+			fMethod= method;
+			fMode= mode;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fMethod, fMode);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			Key other= (Key) obj;
+			return fMode == other.fMode && fMethod.equals(other.fMethod);
+		}
+	}
+
+	private final class DeltaListener implements IElementChangedListener, IDeltaHandler {
+
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			JavaElementDeltaClassifier.classify(event.getDelta(), this);
+		}
+
+		@Override
+		public boolean structuralChange(IJavaElementDelta delta) {
+			clear();
+			return false;
+		}
+
+		@Override
+		public void memberChange(IJavaElementDelta delta) {
+			IJavaElement element= delta.getElement();
+			if (element.getElementType() == IJavaElement.METHOD
+					&& (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & IJavaElementDelta.F_MODIFIERS) != 0))
+				invalidate(element.getElementName());
+		}
+	}
+
+	private static RippleMethodCache fgDefault;
+
+	/** The group of every cached method */
+	private final Map<Key, Entry> fEntries= new HashMap<>();
+
+	/** The keys of the methods of the cached groups, in least recently used order */
+	private final Map<Entry, Set<Key>> fGroups= new LinkedHashMap<>(16, 0.75f, true);
+
+	/** Incremented whenever entries are invalidated */
+	private final AtomicLong fModificationStamp= new AtomicLong();
+
+	private long fHits;
+	private long fMisses;
+	private long fInvalidations;
+
+	private RippleMethodCache() {
+		JavaCore.addElementChangedListener(new DeltaListener(), ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+	}
+
+	/**
+	 * @return the workspace wide cache
+	 */
+	public static synchronized RippleMethodCache getDefault() {
+		if (fgDefault == null)
+			fgDefault= new RippleMethodCache();
+		return fgDefault;
+	}
+
+	/**
+	 * Returns the cached ripple methods of the group of the given method.
+	 *
+	 * @param method the method
+	 * @param mode how binary declarations are treated
+	 * @return the entry or <code>null</code> if there is none
+	 */
+	synchronized Entry get(IMethod method, Mode mode) {
+		Entry entry= fEntries.get(new Key(method, mode));
+		if (entry != null) {
+			fGroups.get(entry); // most recently used
+			fHits++;
+		} else {
+			fMisses++;
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns the modification stamp that must be passed to {@link #put(IMethod, Mode, Entry, long)}
+	 * when the ripple methods have been computed.
+	 *
+	 * @return the current modification stamp
+	 */
+	long getModificationStamp() {
+		return fModificationStamp.get();
+	}
+
+	/**
+	 * Caches the ripple methods of the group of the given method unless entries have been
+	 * invalidated since the given modification stamp. The entry is found from the method and from
+	 * all its ripple methods.
+	 *
+	 * @param method the method
+	 * @param mode how binary declarations are treated
+	 * @param entry the ripple methods
+	 * @param stamp the modification stamp before the ripple methods have been computed
+	 */
+	synchronized void put(IMethod method, Mode mode, Entry entry, long stamp) {
+		if (fModificationStamp.get() != stamp)
+			return;
+
+		Set<Key> keys= new LinkedHashSet<>();
+		keys.add(new Key(method, mode));
+		for (IMethod rippleMethod : entry.fRippleMethods) {
+			keys.add(new Key(rippleMethod, mode));
+		}
+		for (Key key : keys) {
+			Entry previous= fEntries.get(key);
+			if (previous != null)
+				removeGroup(previous);
+		}
+		for (Key key : keys) {
+			fEntries.put(key, entry);
+		}
+		fGroups.put(entry, keys);
+		for (Iterator<Set<Key>> iter= fGroups.values().iterator(); fGroups.size() > MAX_ENTRIES && iter.hasNext();) {
+			Set<Key> eldest= iter.next();
+			iter.remove();
+			fEntries.keySet().removeAll(eldest);
+		}
+	}
+
+	private void removeGroup(Entry entry) {
+		Set<Key> keys= fGroups.remove(entry);
+		if (keys != null)
+			fEntries.keySet().removeAll(keys);
+	}
+
+	private synchronized void invalidate(String methodName) {
+		fModificationStamp.incrementAndGet();
+		for (Iterator<Map.Entry<Entry, Set<Key>>> iter= fGroups.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<Entry, Set<Key>> group= iter.next();
+			if (methodName.equals(group.getValue().iterator().next().fMethod.getElementName())) {
+				fEntries.keySet().removeAll(group.getValue());
+				iter.remove();
+				fInvalidations++;
+			}
+		}
+	}
+
+	/**
+	 * Removes all entries.
+	 */
+	public synchronized void clear() {
+		fModificationStamp.incrementAndGet();
+		fInvalidations+= fGroups.size();
+		fEntries.clear();
+		fGroups.clear();
+	}
+
+	/**
+	 * @return the number of lookups that found an entry
+	 */
+	public synchronized long getHits() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of lookups that did not find an entry
+	 */
+	public synchronized long getMisses() {
+		return fMisses;
+	}
+
+	/**
+	 * @return the number of groups that have been invalidated
+	 */
+	public synchronized long getInvalidations() {
+		return fInvalidations;
+	}
+
+	/**
+	 * @return the ratio of lookups that found an entry, <code>0</code> if there were no lookups
+	 */
+	public synchronized double getHitRate() {
+		long lookups= fHits + fMisses;
+		return lookups == 0 ? 0 : (double) fHits / lookups;
+	}
+
+	public synchronized void resetStatistics() {
+		fHits= 0;
+		fMisses= 0;
+		fInvalidations= 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "RippleMethodCache [groups=" + fGroups.size() + ", hits=" + fHits + ", misses=" + fMisses + ", invalidations=" + fInvalidations + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+}
@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +51,8 @@ import org.eclipse.jdt.core.search.SearchRequestor;
 
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringScopeFactory;
 import org.eclipse.jdt.internal.corext.refactoring.base.ReferencesInBinaryContext;
+import org.eclipse.jdt.internal.corext.refactoring.rename.RippleMethodCache.Entry;
+import org.eclipse.jdt.internal.corext.refactoring.rename.RippleMethodCache.Mode;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 import org.eclipse.jdt.internal.corext.util.MethodOverrideTester;
 import org.eclipse.jdt.internal.corext.util.SearchUtils;
@@ -68,6 +71,7 @@ public class RippleMethodFinder2 {
 	private final boolean fExcludeBinaries;
 	private final ReferencesInBinaryContext fBinaryRefs;
 	private Map<IMethod, SearchMatch> fDeclarationToMatch;
+	private Map<IMethod, SearchMatch> fReportedBinaryMatches;
 	private boolean fSearchOnlyInCompilationUnit = false;
 
 	private static class MultiMap<K, V> {
@@ -153,7 +157,7 @@ public class RippleMethodFinder2 {
 			if (! MethodChecks.isVirtual(method))
 				return new IMethod[]{ method };
 
-			return new RippleMethodFinder2(method, excludeBinaries, false).getAllRippleMethods(pm, owner);
+			return getRelatedMethods(method, excludeBinaries ? Mode.EXCLUDE_BINARIES : Mode.INCLUDE_BINARIES, null, pm, owner);
 		} finally{
 			pm.done();
 		}
@@ -177,22 +181,63 @@ public class RippleMethodFinder2 {
 			if (! MethodChecks.isVirtual(method))
 				return new IMethod[]{ method };
 
-			return new RippleMethodFinder2(method, binaryRefs).getAllRippleMethods(pm, owner);
+			return getRelatedMethods(method, Mode.BINARY_REFERENCES, binaryRefs, pm, owner);
 		} finally{
 			pm.done();
 		}
 	}
 
+	/**
+	 * Returns the ripple methods from the {@link RippleMethodCache} if possible, otherwise
+	 * computes and caches them.
+	 *
+	 * @param method the method
+	 * @param mode how binary declarations are treated
+	 * @param binaryRefs the context to report references in binaries to, or <code>null</code>
+	 * @param pm the progress monitor
+	 * @param owner the working copy owner or <code>null</code> for the primary working copies
+	 * @return the ripple methods
+	 * @throws CoreException if the search fails
+	 */
+	private static IMethod[] getRelatedMethods(IMethod method, Mode mode, ReferencesInBinaryContext binaryRefs, IProgressMonitor pm, WorkingCopyOwner owner) throws CoreException {
+		if (owner != null || !RippleMethodCache.ENABLED)
+			return createFinder(method, mode, binaryRefs).getAllRippleMethods(pm, owner);
+
+		RippleMethodCache cache= RippleMethodCache.getDefault();
+		Entry entry= cache.get(method, mode);
+		if (entry != null) {
+			if (binaryRefs != null) {
+				for (SearchMatch match : entry.getBinaryMatches().values())
+					binaryRefs.add(match);
+			}
+			return entry.getRippleMethods();
+		}
+
+		long stamp= cache.getModificationStamp();
+		RippleMethodFinder2 finder= createFinder(method, mode, binaryRefs);
+		IMethod[] rippleMethods= finder.getAllRippleMethods(pm, owner);
+		cache.put(method, mode, new Entry(rippleMethods, finder.fReportedBinaryMatches), stamp);
+		return rippleMethods;
+	}
+
+	private static RippleMethodFinder2 createFinder(IMethod method, Mode mode, ReferencesInBinaryContext binaryRefs) {
+		if (mode == Mode.BINARY_REFERENCES)
+			return new RippleMethodFinder2(method, binaryRefs);
+		return new RippleMethodFinder2(method, mode == Mode.EXCLUDE_BINARIES, false);
+	}
+
 	private IMethod[] getAllRippleMethods(IProgressMonitor pm, WorkingCopyOwner owner) throws CoreException {
 		IMethod[] rippleMethods= findAllRippleMethods(pm, owner);
 		if (fDeclarationToMatch == null)
 			return rippleMethods;
 
 		List<IMethod> filteredMethods= new ArrayList<>(rippleMethods.length / 2);
+		fReportedBinaryMatches= new LinkedHashMap<>();
 		for (IMethod currentMethod : rippleMethods) {
-			Object match= fDeclarationToMatch.get(currentMethod);
+			SearchMatch match= fDeclarationToMatch.get(currentMethod);
 			if (match != null) {
-				fBinaryRefs.add((SearchMatch) match);
+				fBinaryRefs.add(match);
+				fReportedBinaryMatches.put(currentMethod, match);
 			} else {
 				filteredMethods.add(currentMethod);
 			}
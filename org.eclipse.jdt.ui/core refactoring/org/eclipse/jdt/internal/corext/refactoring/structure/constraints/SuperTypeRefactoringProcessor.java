@@ -107,6 +107,7 @@ import org.eclipse.jdt.internal.corext.refactoring.structure.ImportRewriteUtil;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.CompilationUnitRange;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TType;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironment;
+import org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types.TypeEnvironmentCache;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.CastVariable2;
 import org.eclipse.jdt.internal.corext.refactoring.typeconstraints2.ITypeConstraintVariable;
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
@@ -1116,13 +1117,18 @@ public abstract class SuperTypeRefactoringProcessor extends RefactoringProcessor
 		Assert.isNotNull(monitor);
 		Assert.isNotNull(status);
 		int level= 3;
-		TypeEnvironment environment= new TypeEnvironment();
+		// environments are only shared if all bindings come from the primary working copies
+		final IJavaProject environmentProject= JavaCore.getWorkingCopies(fOwner).length == 0 ? subType.getJavaProject() : null;
+		final TypeEnvironment environment= environmentProject != null ? TypeEnvironmentCache.getDefault().acquire(environmentProject) : new TypeEnvironment();
 		final SuperTypeConstraintsModel model= new SuperTypeConstraintsModel(environment, environment.create(subBinding), environment.create(superBinding));
 		final SuperTypeConstraintsCreator creator= new SuperTypeConstraintsCreator(model, fInstanceOf);
+		// the projects whose bindings are added to the environment
+		final Set<IJavaProject> environmentProjects= new HashSet<>();
 		try {
 			monitor.beginTask("", 300); //$NON-NLS-1$
 			monitor.setTaskName(RefactoringCoreMessages.SuperTypeRefactoringProcessor_creating);
 			final Map<IJavaProject, Set<SearchResultGroup>> firstPass= getReferencingCompilationUnits(subType, new SubProgressMonitor(monitor, 100), status);
+			environmentProjects.addAll(firstPass.keySet());
 			final Map<IJavaProject, Set<ICompilationUnit>> secondPass= new HashMap<>();
 			Collection<SearchResultGroup> collection= null;
 			try {
@@ -1223,6 +1229,7 @@ public abstract class SuperTypeRefactoringProcessor extends RefactoringProcessor
 				subMonitor= new SubProgressMonitor(monitor, 100);
 				try {
 					final Set<IJavaProject> keySet= secondPass.keySet();
+					environmentProjects.addAll(keySet);
 					subMonitor.beginTask("", keySet.size() * 100); //$NON-NLS-1$
 					subMonitor.setTaskName(RefactoringCoreMessages.SuperTypeRefactoringProcessor_creating);
 					for (IJavaProject project : keySet) {
@@ -1271,6 +1278,8 @@ public abstract class SuperTypeRefactoringProcessor extends RefactoringProcessor
 			fTypeOccurrences= solver.getTypeOccurrences();
 			fObsoleteCasts= solver.getObsoleteCasts();
 		} finally {
+			if (environmentProject != null)
+				TypeEnvironmentCache.getDefault().release(environmentProject, environment, environmentProjects);
 			monitor.done();
 		}
 	}
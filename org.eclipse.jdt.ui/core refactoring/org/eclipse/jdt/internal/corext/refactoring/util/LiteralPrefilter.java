@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.refactoring.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Tells whether a text contains all literals of a search pattern, without keeping the text in
+ * memory.
+ * <p>
+ * The literals are the parts of a pattern in the 'StringMatcher' format of
+ * {@link org.eclipse.jdt.internal.ui.util.PatternConstructor} between the wildcards. A text that
+ * does not contain all of them cannot match the pattern. The literals are searched in one pass
+ * with an Aho-Corasick automaton.
+ * </p>
+ */
+public final class LiteralPrefilter {
+
+	/**
+	 * The maximal number of literals, so that the found literals fit into a <code>long</code>.
+	 * Only the first literals of a pattern with more literals are searched.
+	 */
+	public static final int MAX_LITERALS= 64;
+
+	/** The number of characters read at once by {@link #containsAll(Reader)} */
+	public static final int BUFFER_SIZE= 8192;
+
+	/** The labels of the outgoing edges of the states, sorted */
+	private final char[][] fLabels;
+
+	/** The targets of the outgoing edges of the states */
+	private final int[][] fTargets;
+
+	/** The longest proper suffix of each state that is also a state */
+	private final int[] fFailures;
+
+	/** The literals ending in each state, including the ones ending in its failure states */
+	private final long[] fOutputs;
+
+	/** The mask of all literals */
+	private final long fAll;
+
+	/**
+	 * Creates a prefilter for the given search pattern.
+	 *
+	 * @param pattern a pattern in which '*' and '?' are wildcards and '\' escapes them
+	 */
+	public LiteralPrefilter(String pattern) {
+		List<String> literals= getLiterals(pattern);
+		if (literals.size() > MAX_LITERALS)
+			literals= literals.subList(0, MAX_LITERALS);
+
+		List<StringBuilder> labels= new ArrayList<>();
+		List<List<Integer>> targets= new ArrayList<>();
+		List<Long> outputs= new ArrayList<>();
+		labels.add(new StringBuilder());
+		targets.add(new ArrayList<>());
+		outputs.add(Long.valueOf(0));
+		for (int i= 0; i < literals.size(); i++) {
+			String literal= literals.get(i);
+			int state= 0;
+			for (int j= 0; j < literal.length(); j++) {
+				char c= literal.charAt(j);
+				int index= labels.get(state).indexOf(String.valueOf(c));
+				if (index >= 0) {
+					state= targets.get(state).get(index).intValue();
+				} else {
+					int next= labels.size();
+					labels.add(new StringBuilder());
+					targets.add(new ArrayList<>());
+					outputs.add(Long.valueOf(0));
+					labels.get(state).append(c);
+					targets.get(state).add(Integer.valueOf(next));
+					state= next;
+				}
+			}
+			outputs.set(state, Long.valueOf(outputs.get(state).longValue() | 1L << i));
+		}
+
+		int count= labels.size();
+		fLabels= new char[count][];
+		fTargets= new int[count][];
+		fOutputs= new long[count];
+		for (int state= 0; state < count; state++) {
+			String stateLabels= labels.get(state).toString();
+			List<Integer> stateTargets= targets.get(state);
+			Integer[] order= new Integer[stateLabels.length()];
+			for (int i= 0; i < order.length; i++) {
+				order[i]= Integer.valueOf(i);
+			}
+			Arrays.sort(order, (a, b) -> stateLabels.charAt(a.intValue()) - stateLabels.charAt(b.intValue()));
+			fLabels[state]= new char[order.length];
+			fTargets[state]= new int[order.length];
+			for (int i= 0; i < order.length; i++) {
+				fLabels[state][i]= stateLabels.charAt(order[i].intValue());
+				fTargets[state][i]= stateTargets.get(order[i].intValue()).intValue();
+			}
+			fOutputs[state]= outputs.get(state).longValue();
+		}
+
+		fFailures= new int[count];
+		Deque<Integer> queue= new ArrayDeque<>();
+		queue.add(Integer.valueOf(0));
+		while (!queue.isEmpty()) {
+			int state= queue.remove().intValue();
+			for (int i= 0; i < fLabels[state].length; i++) {
+				int target= fTargets[state][i];
+				if (state != 0) {
+					fFailures[target]= next(fFailures[state], fLabels[state][i]);
+					fOutputs[target]|= fOutputs[fFailures[target]];
+				}
+				queue.add(Integer.valueOf(target));
+			}
+		}
+		fAll= literals.size() == MAX_LITERALS ? -1L : (1L << literals.size()) - 1;
+	}
+
+	/**
+	 * Splits a pattern into the literals between its wildcards.
+	 *
+	 * @param pattern the pattern
+	 * @return the non-empty literals
+	 */
+	public static List<String> getLiterals(String pattern) {
+		List<String> literals= new ArrayList<>();
+		StringBuilder literal= new StringBuilder();
+		boolean escaped= false;
+		for (int i= 0; i < pattern.length(); i++) {
+			char c= pattern.charAt(i);
+			if (escaped) {
+				literal.append(c);
+				escaped= false;
+			} else if (c == '\\') {
+				escaped= true;
+			} else if (c == '*' || c == '?') {
+				if (literal.length() > 0)
+					literals.add(literal.toString());
+				literal.setLength(0);
+			} else {
+				literal.append(c);
+			}
+		}
+		if (escaped)
+			literal.append('\\');
+		if (literal.length() > 0)
+			literals.add(literal.toString());
+		return literals;
+	}
+
+	/**
+	 * @return <code>true</code> if every text may match the pattern, i.e. it has no literals
+	 */
+	public boolean isTrivial() {
+		return fAll == 0;
+	}
+
+	private int next(int state, char c) {
+		while (true) {
+			int index= Arrays.binarySearch(fLabels[state], c);
+			if (index >= 0)
+				return fTargets[state][index];
+			if (state == 0)
+				return 0;
+			state= fFailures[state];
+		}
+	}
+
+	/**
+	 * Tells whether the given text contains all literals of the pattern. Stops reading as soon as
+	 * all literals have been found.
+	 *
+	 * @param reader the text, not closed by this method
+	 * @return <code>true</code> if the text contains all literals
+	 * @throws IOException if reading fails
+	 */
+	public boolean containsAll(Reader reader) throws IOException {
+		if (fAll == 0)
+			return true;
+		char[] buffer= new char[BUFFER_SIZE];
+		int state= 0;
+		long found= 0;
+		int read;
+		while ((read= reader.read(buffer)) != -1) {
+			for (int i= 0; i < read; i++) {
+				state= next(state, buffer[i]);
+				found|= fOutputs[state];
+			}
+			if (found == fAll)
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Tells whether the given text contains all literals of the pattern.
+	 *
+	 * @param text the text
+	 * @return <code>true</code> if the text contains all literals
+	 */
+	public boolean containsAll(CharSequence text) {
+		if (fAll == 0)
+			return true;
+		int state= 0;
+		long found= 0;
+		for (int i= 0, length= text.length(); i < length; i++) {
+			state= next(state, text.charAt(i));
+			found|= fOutputs[state];
+			if (found == fAll)
+				return true;
+		}
+		return false;
+	}
+}
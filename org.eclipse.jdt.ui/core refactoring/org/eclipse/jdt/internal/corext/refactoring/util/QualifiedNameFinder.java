@@ -14,9 +14,22 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.util;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.runtime.Assert;
@@ -24,12 +37,15 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 
 import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.LocationKind;
 
 import org.eclipse.text.edits.ReplaceEdit;
 
@@ -48,10 +64,22 @@ import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.internal.corext.refactoring.RefactoringCoreMessages;
 import org.eclipse.jdt.internal.corext.refactoring.changes.TextChangeCompatibility;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.util.PatternConstructor;
 
 public class QualifiedNameFinder {
 
+	/**
+	 * Whether non-Java files are searched by {@link StreamingSearch} instead of the text search
+	 * engine.
+	 */
+	private static final boolean STREAMING= Boolean.getBoolean("org.eclipse.jdt.ui.refactoring.qualifiedNames.streaming"); //$NON-NLS-1$
+
+	/**
+	 * Number of worker threads of the streaming search.
+	 */
+	private static final int DEFAULT_PARALLELISM= Integer.getInteger("org.eclipse.jdt.ui.refactoring.qualifiedNames.parallelism", Runtime.getRuntime().availableProcessors()).intValue(); //$NON-NLS-1$
+
 	private static final GroupCategorySet QUALIFIED_NAMES= new GroupCategorySet(
 		new GroupCategory("org.eclipse.jdt.internal.corext.qualifiedNames", //$NON-NLS-1$
 			RefactoringCoreMessages.QualifiedNameFinder_qualifiedNames_name,
@@ -74,20 +102,7 @@ public class QualifiedNameFinder {
 
 		@Override
 		public boolean acceptFile(IFile file) throws CoreException {
-			IJavaElement element= JavaCore.create(file);
-			if ((element != null && element.exists()))
-				return false;
-
-			// Only touch text files (see bug https://bugs.eclipse.org/bugs/show_bug.cgi?id=114153 ):
-			if (! FileBuffers.getTextFileBufferManager().isTextFileLocation(file.getFullPath(), false))
-				return false;
-
-			IPath path= file.getProjectRelativePath();
-			String segment= path.segment(0);
-			if (segment != null && (segment.startsWith(".refactorings") || segment.startsWith(".deprecations"))) //$NON-NLS-1$ //$NON-NLS-2$
-				return false;
-
-			return true;
+			return isCandidate(file);
 		}
 
 		@Override
@@ -95,37 +110,301 @@ public class QualifiedNameFinder {
 			int start= matchAccess.getMatchOffset();
 			int length= matchAccess.getMatchLength();
 
-			// skip embedded FQNs (bug 130764):
-			if (start > 0) {
-				char before= matchAccess.getFileContentChar(start - 1);
-				if (before == '.' || Character.isJavaIdentifierPart(before))
-					return true;
-			}
-			int fileContentLength= matchAccess.getFileContentLength();
 			int end= start + length;
-			if (end < fileContentLength) {
-				char after= matchAccess.getFileContentChar(end);
-				if (Character.isJavaIdentifierPart(after))
-					return true;
+			int before= start > 0 ? matchAccess.getFileContentChar(start - 1) : -1;
+			int after= end < matchAccess.getFileContentLength() ? matchAccess.getFileContentChar(end) : -1;
+			if (isEmbedded(before, after))
+				return true;
+
+			addEdit(fResult, matchAccess.getFile(), start, length, fNewValue);
+
+			return true;
+		}
+	}
+
+	/**
+	 * Searches the files of a scope for a pattern without creating documents for the files that
+	 * cannot contain a match.
+	 * <p>
+	 * The calling thread visits the resources and passes the candidate files through a bounded
+	 * queue to the worker threads. The documents of the files that are open in file buffers are
+	 * not thread safe, their content is taken on the calling thread and queued with the file. A
+	 * worker first streams the content of a file through a
+	 * {@link LiteralPrefilter}, only if the file contains all literals of the pattern it is read
+	 * completely and matched against the regular expression. The edits of a file are added to the
+	 * result as soon as the file has been searched.
+	 * </p>
+	 */
+	private static final class StreamingSearch {
+
+		/**
+		 * A file to search, with the content of its file buffer if the file is open.
+		 */
+		private static final class Candidate {
+
+			final IFile fFile;
+			final String fOpenContent;
+
+			Candidate(IFile file, String openContent) {
+				fFile= file;
+				fOpenContent= openContent;
 			}
+		}
 
-			IFile file= matchAccess.getFile();
-			synchronized(fResult) {
-				TextChange change= fResult.getChange(file);
-				TextChangeCompatibility.addTextEdit(
-					change,
-					RefactoringCoreMessages.QualifiedNameFinder_update_name,
-					new ReplaceEdit(start, length, fNewValue), QUALIFIED_NAMES);
+		private final QualifiedNameSearchResult fResult;
+		private final String fNewValue;
+		private final LiteralPrefilter fPrefilter;
+		private final Pattern fSearchPattern;
+		private final Pattern fFilePattern;
+		private final int fParallelism;
+		private final BlockingQueue<Candidate> fQueue;
+		private final AtomicBoolean fAborted= new AtomicBoolean();
+
+		/** Set when no more files will be queued */
+		private final AtomicBoolean fDone= new AtomicBoolean();
+
+		StreamingSearch(QualifiedNameSearchResult result, String pattern, String newValue, Pattern filePattern, int parallelism) {
+			fResult= result;
+			fNewValue= newValue;
+			fPrefilter= new LiteralPrefilter(pattern);
+			fSearchPattern= PatternConstructor.createPattern(pattern, true, false);
+			fFilePattern= filePattern;
+			fParallelism= Math.max(1, parallelism);
+			fQueue= new ArrayBlockingQueue<>(4 * fParallelism);
+		}
+
+		void search(IResource[] roots, IProgressMonitor monitor) throws CoreException {
+			monitor.beginTask("", IProgressMonitor.UNKNOWN); //$NON-NLS-1$
+			ForkJoinPool pool= new ForkJoinPool(fParallelism);
+			List<ForkJoinTask<?>> workers= new ArrayList<>(fParallelism);
+			try {
+				for (int i= 0; i < fParallelism; i++) {
+					workers.add(pool.submit(this::work));
+				}
+				try {
+					for (IResource root : roots) {
+						if (root.isAccessible())
+							root.accept(proxy -> {
+								if (fAborted.get() || monitor.isCanceled())
+									throw new OperationCanceledException();
+								if (proxy.isDerived())
+									return false;
+								if (proxy.getType() != IResource.FILE)
+									return true;
+								if (fFilePattern.matcher(proxy.getName()).matches()) {
+									IFile file= (IFile) proxy.requestResource();
+									if (isCandidate(file)) {
+										put(new Candidate(file, getOpenContent(file)));
+										monitor.worked(1);
+									}
+								}
+								return false;
+							}, IResource.NONE);
+					}
+				} catch (RuntimeException | CoreException e) {
+					fAborted.set(true);
+					throw e;
+				} finally {
+					fDone.set(true);
+				}
+
+				RuntimeException exception= null;
+				for (ForkJoinTask<?> worker : workers) {
+					try {
+						worker.join();
+					} catch (RuntimeException e) {
+						if (exception == null || exception instanceof OperationCanceledException)
+							exception= e;
+					}
+				}
+				if (exception != null)
+					throw exception;
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+			} finally {
+				pool.shutdownNow();
+				monitor.done();
 			}
+		}
 
-			return true;
+		/**
+		 * Returns the content of the file buffer of a file. Must be called on the thread that
+		 * visits the resources, the documents of the file buffers are not thread safe.
+		 *
+		 * @param file the file
+		 * @return the content of the document of the file, or <code>null</code> if the file is not
+		 *         open in a file buffer
+		 */
+		private static String getOpenContent(IFile file) {
+			ITextFileBuffer buffer= FileBuffers.getTextFileBufferManager().getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+			return buffer != null ? buffer.getDocument().get() : null;
+		}
+
+		private void put(Candidate candidate) {
+			try {
+				while (!fQueue.offer(candidate, 100, TimeUnit.MILLISECONDS)) {
+					if (fAborted.get())
+						throw new OperationCanceledException();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
+		}
+
+		private void work() {
+			try {
+				while (!fAborted.get()) {
+					Candidate candidate= fQueue.poll(100, TimeUnit.MILLISECONDS);
+					if (candidate != null)
+						search(candidate.fFile, candidate.fOpenContent);
+					else if (fDone.get() && fQueue.isEmpty())
+						return;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				fAborted.set(true);
+				throw new OperationCanceledException();
+			} catch (RuntimeException e) {
+				fAborted.set(true);
+				throw e;
+			}
+		}
+
+		private void search(IFile file, String openContent) {
+			try {
+				if (openContent != null) {
+					if (fPrefilter.containsAll(openContent))
+						match(file, openContent);
+					return;
+				}
+				if (!fPrefilter.isTrivial()) {
+					try (Reader reader= openReader(file)) {
+						if (!fPrefilter.containsAll(reader))
+							return;
+					}
+				}
+				StringBuilder content= new StringBuilder();
+				try (Reader reader= openReader(file)) {
+					char[] chars= new char[8192];
+					int read;
+					while ((read= reader.read(chars)) != -1) {
+						content.append(chars, 0, read);
+					}
+				}
+				match(file, content);
+			} catch (CoreException | IOException e) {
+				JavaPlugin.log(e);
+			}
+		}
+
+		private void match(IFile file, CharSequence content) {
+			Matcher matcher= fSearchPattern.matcher(content);
+			List<int[]> matches= new ArrayList<>();
+			while (matcher.find()) {
+				int start= matcher.start();
+				int end= matcher.end();
+				if (start == end)
+					continue;
+				if (!isEmbedded(start > 0 ? content.charAt(start - 1) : -1, end < content.length() ? content.charAt(end) : -1))
+					matches.add(new int[] { start, end - start });
+			}
+			if (matches.isEmpty())
+				return;
+			synchronized (fResult) {
+				for (int[] match : matches) {
+					addEdit(fResult, file, match[0], match[1], fNewValue);
+				}
+			}
+		}
+
+		/**
+		 * Opens a reader on the content of a file, without the byte order mark like the
+		 * documents of the file buffers.
+		 *
+		 * @param file the file
+		 * @return the reader
+		 * @throws CoreException if the file cannot be read
+		 * @throws IOException if reading fails
+		 */
+		private static Reader openReader(IFile file) throws CoreException, IOException {
+			BufferedReader reader= new BufferedReader(new InputStreamReader(file.getContents(), file.getCharset()));
+			reader.mark(1);
+			if (reader.read() != '\uFEFF')
+				reader.reset();
+			return reader;
 		}
 	}
 
 	private QualifiedNameFinder() {
 	}
 
+	/**
+	 * Tells whether qualified names in the given file are updated.
+	 *
+	 * @param file the file
+	 * @return <code>true</code> if the file is a text file that is not a Java element and does not
+	 *         belong to the refactoring history
+	 */
+	private static boolean isCandidate(IFile file) {
+		IJavaElement element= JavaCore.create(file);
+		if ((element != null && element.exists()))
+			return false;
+
+		// Only touch text files (see bug https://bugs.eclipse.org/bugs/show_bug.cgi?id=114153 ):
+		if (! FileBuffers.getTextFileBufferManager().isTextFileLocation(file.getFullPath(), false))
+			return false;
+
+		IPath path= file.getProjectRelativePath();
+		String segment= path.segment(0);
+		if (segment != null && (segment.startsWith(".refactorings") || segment.startsWith(".deprecations"))) //$NON-NLS-1$ //$NON-NLS-2$
+			return false;
+
+		return true;
+	}
+
+	/**
+	 * Tells whether a match is part of a longer name.
+	 *
+	 * @param before the character before the match, <code>-1</code> if the match starts the file
+	 * @param after the character after the match, <code>-1</code> if the match ends the file
+	 * @return <code>true</code> if the match is embedded in another qualified name or identifier
+	 */
+	private static boolean isEmbedded(int before, int after) {
+		// skip embedded FQNs (bug 130764):
+		if (before != -1 && (before == '.' || Character.isJavaIdentifierPart((char) before)))
+			return true;
+		return after != -1 && Character.isJavaIdentifierPart((char) after);
+	}
+
+	private static void addEdit(QualifiedNameSearchResult result, IFile file, int start, int length, String newValue) {
+		synchronized(result) {
+			TextChange change= result.getChange(file);
+			TextChangeCompatibility.addTextEdit(
+				change,
+				RefactoringCoreMessages.QualifiedNameFinder_update_name,
+				new ReplaceEdit(start, length, newValue), QUALIFIED_NAMES);
+		}
+	}
+
 	public static void process(QualifiedNameSearchResult result, String pattern, String newValue, String filePatterns, IProject root, IProgressMonitor monitor) {
+		process(result, pattern, newValue, filePatterns, root, STREAMING, monitor);
+	}
+
+	/**
+	 * Adds the edits that update the qualified names in the non-Java files of a project and its
+	 * referencing projects to a result.
+	 *
+	 * @param result the result to add the edits to
+	 * @param pattern the search pattern, in which '*' and '?' are wildcards
+	 * @param newValue the replacement of the matches
+	 * @param filePatterns the comma separated patterns of the names of the files to search
+	 * @param root the project whose files and the files of its referencing projects are searched
+	 * @param streaming <code>true</code> to search with a streaming prefilter, <code>false</code>
+	 *            to search with the text search engine
+	 * @param monitor the progress monitor, or <code>null</code>
+	 */
+	public static void process(QualifiedNameSearchResult result, String pattern, String newValue, String filePatterns, IProject root, boolean streaming, IProgressMonitor monitor) {
 		Assert.isNotNull(pattern);
 		Assert.isNotNull(newValue);
 		Assert.isNotNull(root);
@@ -140,6 +419,15 @@ public class QualifiedNameFinder {
 			return;
 		}
 
+		if (streaming) {
+			try {
+				new StreamingSearch(result, pattern, newValue, getFilePattern(filePatterns), DEFAULT_PARALLELISM).search(getRoots(root), monitor);
+			} catch (CoreException e) {
+				JavaPlugin.log(e);
+			}
+			return;
+		}
+
 		ResultCollector collector= new ResultCollector(result, newValue);
 		TextSearchEngine engine= TextSearchEngine.create();
 		Pattern searchPattern= PatternConstructor.createPattern(pattern, true, false);
@@ -148,13 +436,14 @@ public class QualifiedNameFinder {
 	}
 
 	private static TextSearchScope createScope(String filePatterns, IProject root) {
+		return TextSearchScope.newSearchScope(getRoots(root), getFilePattern(filePatterns), false);
+	}
+
+	private static IResource[] getRoots(IProject root) {
 		HashSet<IProject> res= new HashSet<>();
 		res.add(root);
 		addReferencingProjects(root, res);
-		IResource[] resArr= res.toArray(new IResource[res.size()]);
-		Pattern filePattern= getFilePattern(filePatterns);
-
-		return TextSearchScope.newSearchScope(resArr, filePattern, false);
+		return res.toArray(new IResource[res.size()]);
 	}
 
 	private static Pattern getFilePattern(String filePatterns) {
@@ -165,6 +165,12 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 
 	public static boolean DEBUG_RESULT_COLLECTOR;
 
+	public static boolean DEBUG_CLEAN_UP_FIXPOINT;
+
+	public static boolean DEBUG_FOLDING;
+
+	public static boolean DEBUG_HISTORY;
+
 	private static JavaPlugin fgJavaPlugin;
 
 	private static LinkedHashMap<String, Long> fgRepeatedMessages= new LinkedHashMap<String, Long>(20, 0.75f, true) {
@@ -1132,6 +1138,9 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 		DEBUG_AST_PROVIDER= options.getBooleanOption("org.eclipse.jdt.ui/debug/ASTProvider", false); //$NON-NLS-1$
 		DEBUG_BREADCRUMB_ITEM_DROP_DOWN= options.getBooleanOption("org.eclipse.jdt.ui/debug/BreadcrumbItemDropDown", false); //$NON-NLS-1$
 		DEBUG_RESULT_COLLECTOR= options.getBooleanOption("org.eclipse.jdt.ui/debug/ResultCollector", false); //$NON-NLS-1$
+		DEBUG_CLEAN_UP_FIXPOINT= options.getBooleanOption("org.eclipse.jdt.ui/debug/CleanUpFixpoint", false); //$NON-NLS-1$
+		DEBUG_FOLDING= options.getBooleanOption("org.eclipse.jdt.ui/debug/Folding", false); //$NON-NLS-1$
+		DEBUG_HISTORY= options.getBooleanOption("org.eclipse.jdt.ui/debug/History", false); //$NON-NLS-1$
 	}
 
 	/**
@@ -15,6 +15,7 @@
 package org.eclipse.jdt.internal.ui.javaeditor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.swt.widgets.Display;
@@ -78,9 +79,8 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		@Override
 		protected boolean visitLiteral(Expression node) {
 			fToken.update(node);
-			for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-				SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-				if (fJobHighlightings[i].isEnabled() && semanticHighlighting.consumesLiteral(fToken)) {
+			for (int i : fJobLiteralHighlightings) {
+				if (fJobSemanticHighlightings[i].consumesLiteral(fToken)) {
 					int offset= node.getStartPosition();
 					int length= node.getLength();
 					if (offset > -1 && length > 0)
@@ -98,7 +98,6 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 */
 		@Override
 		public boolean visit(ConstructorInvocation node) {
-			// XXX Hack for performance reasons (should loop over fJobSemanticHighlightings can call consumes(*))
 			if (fJobDeprecatedMemberHighlighting != null) {
 				IMethodBinding constructorBinding= node.resolveConstructorBinding();
 				if (constructorBinding != null && constructorBinding.isDeprecated()) {
@@ -117,7 +116,6 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 */
 		@Override
 		public boolean visit(SuperConstructorInvocation node) {
-			// XXX Hack for performance reasons (should loop over fJobSemanticHighlightings can call consumes(*))
 			if (fJobDeprecatedMemberHighlighting != null) {
 				IMethodBinding constructorBinding= node.resolveConstructorBinding();
 				if (constructorBinding != null && constructorBinding.isDeprecated()) {
@@ -136,12 +134,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 				int offset= node.getStartPosition();
 				int length= node.getLength();
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return false;
-						}
+					if (fJobRestrictedIdentifierHighlighting != null) {
+						addPosition(offset, length, fJobRestrictedIdentifierHighlighting);
+						return false;
 					}
 				}
 			}
@@ -155,12 +150,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 				int offset= node.getStartPosition();
 				int length= 5; // length of 'yield'
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return true;
-						}
+					if (fJobRestrictedIdentifierHighlighting != null) {
+						addPosition(offset, length, fJobRestrictedIdentifierHighlighting);
+						return true;
 					}
 				}
 			}
@@ -174,12 +166,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 				int offset= node.getRestrictedIdentifierStartPosition();
 				int length= 6; // length of 'record'
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return true;
-						}
+					if (fJobRestrictedIdentifierHighlighting != null) {
+						addPosition(offset, length, fJobRestrictedIdentifierHighlighting);
+						return true;
 					}
 				}
 			}
@@ -193,12 +182,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 					int offset= node.getRestrictedIdentifierStartPosition();
 					int length= 7; // length of 'permits'
 					if (offset > -1) {
-						for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-							SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-							if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-								addPosition(offset, length, fJobHighlightings[i]);
-								return true;
-							}
+						if (fJobRestrictedIdentifierHighlighting != null) {
+							addPosition(offset, length, fJobRestrictedIdentifierHighlighting);
+							return true;
 						}
 					}
 				}
@@ -223,12 +209,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 					return true;
 				}
 				if (offset > -1 && length > 0) {
-					for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-						SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-						if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-							addPosition(offset, length, fJobHighlightings[i]);
-							return false;
-						}
+					if (fJobRestrictedIdentifierHighlighting != null) {
+						addPosition(offset, length, fJobRestrictedIdentifierHighlighting);
+						return false;
 					}
 				}
 			}
@@ -241,9 +224,8 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		@Override
 		public boolean visit(SimpleName node) {
 			fToken.update(node);
-			for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-				SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-				if (fJobHighlightings[i].isEnabled() && semanticHighlighting.consumes(fToken)) {
+			for (int i : fJobNameHighlightings) {
+				if (fJobSemanticHighlightings[i].consumes(fToken)) {
 					int offset= node.getStartPosition();
 					int length= node.getLength();
 					if (offset > -1 && length > 0)
@@ -262,24 +244,16 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 * @param highlighting The highlighting
 		 */
 		private void addPosition(int offset, int length, Highlighting highlighting) {
-			boolean isExisting= false;
-			// TODO: use binary search
-			for (int i= 0, n= fRemovedPositions.size(); i < n; i++) {
-				HighlightedPosition position= (HighlightedPosition) fRemovedPositions.get(i);
-				if (position == null)
-					continue;
-				if (position.isEqual(offset, length, highlighting)) {
-					isExisting= true;
-					fRemovedPositions.set(i, null);
+			for (int i= computeIndexAtOffset(offset), n= fOldPositions.length; i < n && fOldOffsets[i] == offset; i++) {
+				if (!fOldRetained[i] && fOldLengths[i] == length && fOldHighlightings[i] == highlighting) {
+					fOldRetained[i]= true;
 					fNOfRemovedPositions--;
-					break;
+					return;
 				}
 			}
 
-			if (!isExisting) {
-				Position position= fJobPresenter.createHighlightedPosition(offset, length, highlighting);
-				fAddedPositions.add(position);
-			}
+			Position position= fJobPresenter.createHighlightedPosition(offset, length, highlighting);
+			fAddedPositions.add(position);
 		}
 
 		/**
@@ -289,16 +263,33 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 */
 		@Override
 		protected void retainPositions(int offset, int length) {
-			// TODO: use binary search
-			for (int i= 0, n= fRemovedPositions.size(); i < n; i++) {
-				HighlightedPosition position= (HighlightedPosition) fRemovedPositions.get(i);
-				if (position != null && position.isContained(offset, length)) {
-					fRemovedPositions.set(i, null);
+			int end= offset + length;
+			for (int i= computeIndexAtOffset(offset), n= fOldPositions.length; i < n && fOldOffsets[i] <= end; i++) {
+				if (!fOldRetained[i] && fOldLengths[i] >= 0 && fOldOffsets[i] + fOldLengths[i] <= end) {
+					fOldRetained[i]= true;
 					fNOfRemovedPositions--;
 				}
 			}
 		}
 
+		/**
+		 * Returns the index of the first old position with an offset equal or greater than the given offset.
+		 * @param offset The offset
+		 * @return The index
+		 */
+		private int computeIndexAtOffset(int offset) {
+			int i= -1;
+			int j= fOldOffsets.length;
+			while (j - i > 1) {
+				int k= (i + j) >> 1;
+				if (fOldOffsets[k] >= offset)
+					j= k;
+				else
+					i= k;
+			}
+			return j;
+		}
+
 		@Override
 		public boolean visit(GuardedPattern node) {
 			try {
@@ -306,12 +297,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 					int offset= node.getRestrictedIdentifierStartPosition();
 					int length= 4; // length of 'when'
 					if (offset > -1) {
-						for (int i= 0; i < fJobSemanticHighlightings.length; i++) {
-							SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-							if (semanticHighlighting instanceof RestrictedIdentifiersHighlighting) {
-								addPosition(offset, length, fJobHighlightings[i]);
-								return true;
-							}
+						if (fJobRestrictedIdentifierHighlighting != null) {
+							addPosition(offset, length, fJobRestrictedIdentifierHighlighting);
+							return true;
 						}
 					}
 				}
@@ -343,6 +331,21 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	/** Number of removed positions */
 	private int fNOfRemovedPositions;
 
+	/**
+	 * Background job's old highlighted positions, ordered by offset. Their offsets, lengths and
+	 * highlightings are copied to the following arrays when reconciling starts, deleted positions
+	 * have a length of <code>-1</code>.
+	 */
+	private Position[] fOldPositions= new Position[0];
+	/** Offsets of the old positions */
+	private int[] fOldOffsets= new int[0];
+	/** Lengths of the old positions */
+	private int[] fOldLengths= new int[0];
+	/** Highlightings of the old positions */
+	private Highlighting[] fOldHighlightings= new Highlighting[0];
+	/** <code>true</code> if the old position at the index is retained */
+	private boolean[] fOldRetained= new boolean[0];
+
 	/** Background job */
 	private Job fJob;
 	/** Background job lock */
@@ -367,10 +370,26 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	private Highlighting[] fJobHighlightings;
 
 	/**
-	 * XXX Hack for performance reasons (should loop over fJobSemanticHighlightings can call consumes(*))
+	 * Dispatch table for simple names: indices of the enabled highlightings - cache for background
+	 * thread, only valid during {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)}
+	 */
+	private int[] fJobNameHighlightings;
+	/**
+	 * Dispatch table for literals: indices of the enabled highlightings that may consume literals -
+	 * cache for background thread, only valid during {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)}
+	 */
+	private int[] fJobLiteralHighlightings;
+	/**
+	 * The enabled deprecated member highlighting for constructor invocations - cache for background
+	 * thread, only valid during {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)}
 	 * @since 3.5
 	 */
 	private Highlighting fJobDeprecatedMemberHighlighting;
+	/**
+	 * The restricted identifiers highlighting - cache for background thread, only valid during
+	 * {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)}
+	 */
+	private Highlighting fJobRestrictedIdentifierHighlighting;
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener#aboutToBeReconciled()
@@ -412,14 +431,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			startReconcilingPositions();
 
 			if (!fJobPresenter.isCanceled()) {
-				fJobDeprecatedMemberHighlighting= null;
-				for (int i= 0, n= fJobSemanticHighlightings.length; i < n; i++) {
-					SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
-					if (fJobHighlightings[i].isEnabled() && semanticHighlighting instanceof DeprecatedMemberHighlighting) {
-						fJobDeprecatedMemberHighlighting= fJobHighlightings[i];
-						break;
-					}
-				}
+				createDispatchTables();
 				reconcilePositions(subtrees);
 			}
 
@@ -435,13 +447,43 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			fJobPresenter= null;
 			fJobSemanticHighlightings= null;
 			fJobHighlightings= null;
+			fJobNameHighlightings= null;
+			fJobLiteralHighlightings= null;
 			fJobDeprecatedMemberHighlighting= null;
+			fJobRestrictedIdentifierHighlighting= null;
 			synchronized (fReconcileLock) {
 				fIsReconciling= false;
 			}
 		}
 	}
 
+	/**
+	 * Creates the tables that map the kinds of nodes to the highlightings that may consume them, so
+	 * that the position collector only asks the enabled highlightings.
+	 */
+	private void createDispatchTables() {
+		int n= fJobSemanticHighlightings.length;
+		int[] nameHighlightings= new int[n];
+		int[] literalHighlightingIndices= new int[n];
+		int names= 0, literals= 0;
+		fJobDeprecatedMemberHighlighting= null;
+		fJobRestrictedIdentifierHighlighting= null;
+		for (int i= 0; i < n; i++) {
+			SemanticHighlighting semanticHighlighting= fJobSemanticHighlightings[i];
+			if (fJobRestrictedIdentifierHighlighting == null && semanticHighlighting instanceof RestrictedIdentifiersHighlighting)
+				fJobRestrictedIdentifierHighlighting= fJobHighlightings[i];
+			if (!fJobHighlightings[i].isEnabled())
+				continue;
+			nameHighlightings[names++]= i;
+			if (semanticHighlighting.consumesLiterals())
+				literalHighlightingIndices[literals++]= i;
+			if (fJobDeprecatedMemberHighlighting == null && semanticHighlighting instanceof DeprecatedMemberHighlighting)
+				fJobDeprecatedMemberHighlighting= fJobHighlightings[i];
+		}
+		fJobNameHighlightings= Arrays.copyOf(nameHighlightings, names);
+		fJobLiteralHighlightings= Arrays.copyOf(literalHighlightingIndices, literals);
+	}
+
 	/**
 	 * @param node Root node
 	 * @return Array of subtrees that may be affected by past document changes
@@ -456,7 +498,19 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 */
 	private void startReconcilingPositions() {
 		fJobPresenter.addAllPositions(fRemovedPositions);
-		fNOfRemovedPositions= fRemovedPositions.size();
+		int n= fRemovedPositions.size();
+		fOldPositions= fRemovedPositions.toArray(new Position[n]);
+		fOldOffsets= new int[n];
+		fOldLengths= new int[n];
+		fOldHighlightings= new Highlighting[n];
+		fOldRetained= new boolean[n];
+		for (int i= 0; i < n; i++) {
+			HighlightedPosition position= (HighlightedPosition) fOldPositions[i];
+			fOldOffsets[i]= position.getOffset();
+			fOldLengths[i]= position.isDeleted() ? -1 : position.getLength();
+			fOldHighlightings[i]= position.getHighlighting();
+		}
+		fNOfRemovedPositions= n;
 	}
 
 	/**
@@ -471,11 +525,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 
 		for (ASTNode subtree : subtrees)
 			subtree.accept(fCollector);
-		List<Position> oldPositions= fRemovedPositions;
 		List<Position> newPositions= new ArrayList<>(fNOfRemovedPositions);
-		for (Position current : oldPositions) {
-			if (current != null)
-				newPositions.add(current);
+		for (int i= 0, n= fOldPositions.length; i < n; i++) {
+			if (!fOldRetained[i])
+				newPositions.add(fOldPositions[i]);
 		}
 		fRemovedPositions= newPositions;
 	}
@@ -518,6 +571,11 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		fRemovedPositions.clear();
 		fNOfRemovedPositions= 0;
 		fAddedPositions.clear();
+		fOldPositions= new Position[0];
+		fOldOffsets= new int[0];
+		fOldLengths= new int[0];
+		fOldHighlightings= new Highlighting[0];
+		fOldRetained= new boolean[0];
 	}
 
 	/**
@@ -455,6 +455,11 @@ public class SemanticHighlightings {
 			return isAutoUnBoxing(token.getLiteral());
 		}
 
+		@Override
+		public boolean consumesLiterals() {
+			return true;
+		}
+
 		/*
 		 * @see org.eclipse.jdt.internal.ui.javaeditor.SemanticHighlighting#consumes(org.eclipse.jdt.internal.ui.javaeditor.SemanticToken)
 		 */
@@ -1754,6 +1759,11 @@ public class SemanticHighlightings {
 			Expression expr= token.getLiteral();
 			return expr != null && expr.getNodeType() == ASTNode.NUMBER_LITERAL;
 		}
+
+		@Override
+		public boolean consumesLiterals() {
+			return true;
+		}
 	}
 
 	/**
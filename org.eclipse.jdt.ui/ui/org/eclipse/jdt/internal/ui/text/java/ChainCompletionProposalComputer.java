@@ -14,8 +14,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -47,6 +46,7 @@ import org.eclipse.jdt.internal.ui.text.Chain;
 import org.eclipse.jdt.internal.ui.text.ChainElement;
 import org.eclipse.jdt.internal.ui.text.ChainElementAnalyzer;
 import org.eclipse.jdt.internal.ui.text.ChainFinder;
+import org.eclipse.jdt.internal.ui.text.ChainIndex;
 import org.eclipse.jdt.internal.ui.text.ChainType;
 import org.eclipse.jdt.internal.ui.text.template.contentassist.TemplateProposal;
 
@@ -164,20 +164,24 @@ public class ChainCompletionProposalComputer implements IJavaCompletionProposalC
 		final IType invocationType= ctx.getCompilationUnit().findPrimaryType();
 
 		final List<ChainType> expectedTypes= ChainElementAnalyzer.resolveBindingsForExpectedTypes(ctx.getProject(), ctx.getCoreContext());
-		final ChainFinder finder= new ChainFinder(expectedTypes, Arrays.asList(excludedTypes), invocationType);
-		final ExecutorService executor= Executors.newSingleThreadExecutor();
+		final ChainFinder finder= new ChainFinder(expectedTypes, Arrays.asList(excludedTypes), invocationType, ChainIndex.get(ctx.getProject()));
+		Future<?> future= CompletableFuture.runAsync(() -> {
+			if (findEntrypoints()) {
+				finder.startChainSearch(entrypoints, maxChains, minDepth, maxDepth);
+			}
+		}, ChainFinder.getExecutor());
 		try {
-			Future<?> future= executor.submit(() -> {
-				if (findEntrypoints()) {
-					finder.startChainSearch(entrypoints, maxChains, minDepth, maxDepth);
-				}
-			});
 			long timeout= Long.parseLong(JavaManipulation.getPreference(PreferenceConstants.PREF_CHAIN_TIMEOUT, ctx.getProject()));
 			future.get(timeout, TimeUnit.SECONDS);
 		} catch (final Exception e) {
 			finder.cancel();
-			executor.shutdownNow();
-			setError("Timeout during call chain computation."); //$NON-NLS-1$
+			future.cancel(true);
+			// the chains found before the time out are still proposed
+			List<Chain> chains= finder.getChains();
+			if (chains.isEmpty()) {
+				setError("Timeout during call chain computation."); //$NON-NLS-1$
+			}
+			return buildCompletionProposals(chains);
 		}
 		return buildCompletionProposals(finder.getChains());
 	}
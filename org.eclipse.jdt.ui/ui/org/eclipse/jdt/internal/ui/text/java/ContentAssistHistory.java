@@ -13,10 +13,14 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.java;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -59,6 +63,8 @@ import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.ITypeHierarchy;
 import org.eclipse.jdt.core.JavaModelException;
 
+import org.eclipse.jdt.internal.corext.util.HistoryStore;
+
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.JavaUIException;
 import org.eclipse.jdt.internal.ui.JavaUIStatus;
@@ -118,6 +124,70 @@ public final class ContentAssistHistory {
 			}
 		}
 
+		/**
+		 * Stores the history in the binary {@link HistoryStore} format.
+		 *
+		 * @param history the history to store
+		 * @param xmlHash the hash code of the XML document the history has been stored to
+		 * @return the Base64 encoded store
+		 * @throws CoreException if serialization fails
+		 */
+		public String storeBinary(ContentAssistHistory history, int xmlHash) throws CoreException {
+			ByteArrayOutputStream output= new ByteArrayOutputStream();
+			try (HistoryStore.Writer writer= new HistoryStore.Writer(output, NODE_ROOT, history.fLHSCache.size())) {
+				writer.writeInt(xmlHash);
+				writer.writeInt(history.fMaxLHS);
+				writer.writeInt(history.fMaxRHS);
+				for (Entry<String, MRUSet<String>> entry : history.fLHSCache.entrySet()) {
+					writer.writeString(entry.getKey());
+					writer.writeInt(entry.getValue().size());
+					for (String rhs : entry.getValue()) {
+						writer.writeString(rhs);
+					}
+				}
+			} catch (IOException e) {
+				throw createException(e, JavaTextMessages.ContentAssistHistory_serialize_error);
+			}
+			return Base64.getEncoder().encodeToString(output.toByteArray());
+		}
+
+		/**
+		 * Loads a history stored in the binary {@link HistoryStore} format.
+		 *
+		 * @param value the Base64 encoded store
+		 * @param xmlHash the hash code of the XML document the history is stored in
+		 * @return the deserialized history, or <code>null</code> if the store cannot be read or
+		 *         has not been written together with the XML document
+		 */
+		public ContentAssistHistory loadBinary(String value, int xmlHash) {
+			try (HistoryStore.Reader reader= new HistoryStore.Reader(new ByteArrayInputStream(Base64.getDecoder().decode(value.getBytes(StandardCharsets.US_ASCII))), NODE_ROOT)) {
+				if (reader.readInt() != xmlHash)
+					return null;
+				int maxLHS= reader.readInt();
+				int maxRHS= reader.readInt();
+				ContentAssistHistory history= new ContentAssistHistory(maxLHS > 0 ? maxLHS : DEFAULT_TRACKED_LHS, maxRHS > 0 ? maxRHS : DEFAULT_TRACKED_RHS);
+				int nLHS= reader.getCount();
+				for (int i= 0; i < nLHS; i++) {
+					Set<String> cache= history.getCache(reader.readString());
+					int nRHS= reader.readInt();
+					for (int j= 0; j < nRHS; j++) {
+						cache.add(reader.readString());
+					}
+				}
+				return history;
+			} catch (IOException | IllegalArgumentException e) {
+				// the XML document is read instead
+				return null;
+			}
+		}
+
+		/**
+		 * Loads a history stored as XML document.
+		 *
+		 * @param source the XML document
+		 * @return the deserialized history, or <code>null</code> if the document is not a history
+		 * @throws CoreException if deserialization fails
+		 */
 		public ContentAssistHistory load(InputSource source) throws CoreException {
 			Element root;
 			try {
@@ -317,6 +387,8 @@ public final class ContentAssistHistory {
 	private static final RHSHistory EMPTY_HISTORY= new RHSHistory(null);
 	private static final int DEFAULT_TRACKED_LHS= 100;
 	private static final int DEFAULT_TRACKED_RHS= 10;
+	/** The suffix of the preference key under which the binary copy of a history is stored */
+	private static final String BINARY_KEY_SUFFIX= ".binary"; //$NON-NLS-1$
 
 	private static final Set<String> UNCACHEABLE;
 	static {
@@ -449,7 +521,8 @@ public final class ContentAssistHistory {
 	}
 
 	/**
-	 * Stores the history as XML document into the given preferences.
+	 * Stores the history as XML document into the given preferences. A binary copy that is faster
+	 * to load is stored under the key with the suffix <code>.binary</code>.
 	 *
 	 * @param history the history to store
 	 * @param preferences the preferences to store the history into
@@ -458,13 +531,17 @@ public final class ContentAssistHistory {
 	 * @see #load(Preferences, String) on how to restore a history stored by this method
 	 */
 	public static void store(ContentAssistHistory history, Preferences preferences, String key) throws CoreException {
+		ReaderWriter readerWriter= new ReaderWriter();
 		StringWriter writer= new StringWriter();
-		new ReaderWriter().store(history, new StreamResult(writer));
-		preferences.setValue(key, writer.toString());
+		readerWriter.store(history, new StreamResult(writer));
+		String xml= writer.toString();
+		preferences.setValue(key, xml);
+		preferences.setValue(key + BINARY_KEY_SUFFIX, readerWriter.storeBinary(history, xml.hashCode()));
 	}
 
 	/**
-	 * Loads a history from an XML encoded preference value.
+	 * Loads a history from an XML encoded preference value. The binary copy of the history is read
+	 * instead if it has been stored together with the XML document.
 	 *
 	 * @param preferences the preferences to retrieve the history from
 	 * @param key the key under which the history is stored
@@ -476,9 +553,20 @@ public final class ContentAssistHistory {
 	 */
 	public static ContentAssistHistory load(Preferences preferences, String key) throws CoreException {
 		String value= preferences.getString(key);
-		if (value != null && value.length() > 0) {
-			return new ReaderWriter().load(new InputSource(new StringReader(value)));
-		}
-		return null;
+		if (value == null || value.length() == 0)
+			return null;
+
+		long start= System.nanoTime();
+		ReaderWriter readerWriter= new ReaderWriter();
+		ContentAssistHistory history= null;
+		String binary= preferences.getString(key + BINARY_KEY_SUFFIX);
+		if (binary != null && binary.length() > 0)
+			history= readerWriter.loadBinary(binary, value.hashCode());
+		boolean fromBinary= history != null;
+		if (history == null)
+			history= readerWriter.load(new InputSource(new StringReader(value)));
+		if (JavaPlugin.DEBUG_HISTORY)
+			System.out.println("ContentAssistHistory: loaded " + (fromBinary ? "binary copy" : "XML document") + " in " + (System.nanoTime() - start) / 1000 + " \u00b5s"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		return history;
 	}
 }
@@ -14,6 +14,7 @@
 package org.eclipse.jdt.internal.ui.text.spelling.engine;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -21,16 +22,19 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CodingErrorAction;
 import java.nio.charset.MalformedInputException;
+import java.nio.file.FileAlreadyExistsException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.eclipse.core.runtime.IStatus;
@@ -93,6 +97,18 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 */
 	private static final String UTF_8= "UTF-8"; //$NON-NLS-1$
 
+	/**
+	 * Tells whether word lists are mapped into memory, see {@link #isMappingWordList()}.
+	 * @since 3.27
+	 */
+	private static final boolean MAP_WORD_LISTS= Boolean.parseBoolean(System.getProperty("org.eclipse.jdt.ui.spelling.mapWordLists", "true")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	/**
+	 * The folder in the plug-in state location that holds the mapped word lists
+	 * @since 3.27
+	 */
+	private static final String WORD_LIST_FOLDER= "spelling"; //$NON-NLS-1$
+
 	/** The bucket capacity */
 	protected static final int BUCKET_CAPACITY= 4;
 
@@ -111,9 +127,19 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	/** The phonetic distance algorithm */
 	private IPhoneticDistanceAlgorithm fDistanceAlgorithm= new DefaultPhoneticDistanceAlgorithm();
 
-	/** The mapping from phonetic hashes to word lists */
+	/**
+	 * The mapping from phonetic hashes to word lists. If the word list has been mapped into
+	 * memory this only holds the words added since.
+	 */
 	private final Map<ByteArrayWrapper, Object> fHashBuckets= new HashMap<>(getInitialSize(), LOAD_FACTOR);
 
+	/**
+	 * The word list mapped into memory or <code>null</code> if the word list is held in
+	 * {@link #fHashBuckets}.
+	 * @since 3.27
+	 */
+	private MappedWordList fWordList;
+
 	/** The phonetic hash provider */
 	private IPhoneticHashProvider fHashProvider= new DefaultPhoneticHashProvider();
 
@@ -156,7 +182,35 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 			JavaPlugin.log(e);
 			return null;
 		}
-		return fHashBuckets.get(hashBytes);
+		Object candidates= fHashBuckets.get(hashBytes);
+		MappedWordList wordList= fWordList;
+		if (wordList == null)
+			return candidates;
+
+		Object mapped= wordList.getWords(hashBytes.byteArray);
+		if (mapped == null)
+			return candidates;
+		if (candidates == null)
+			return mapped;
+
+		ArrayList<Object> merged= new ArrayList<>(BUCKET_CAPACITY);
+		addCandidates(merged, mapped);
+		addCandidates(merged, candidates);
+		return merged;
+	}
+
+	/**
+	 * Adds the words of a bucket to the given list.
+	 *
+	 * @param list the list to add to
+	 * @param bucket either a single word or a list of words
+	 * @since 3.27
+	 */
+	private static void addCandidates(ArrayList<Object> list, Object bucket) {
+		if (bucket instanceof ArrayList)
+			list.addAll((ArrayList<?>)bucket);
+		else
+			list.add(bucket);
 	}
 
 	/**
@@ -314,7 +368,8 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 	 * @since 3.3
 	 */
 	protected boolean isEmpty() {
-		return fHashBuckets.isEmpty();
+		MappedWordList wordList= fWordList;
+		return fHashBuckets.isEmpty() && (wordList == null || wordList.isEmpty());
 	}
 
 	/**
@@ -574,7 +629,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 
 	@Override
 	public synchronized final boolean isLoaded() {
-		return fLoaded || fHashBuckets.size() > 0;
+		return fLoaded || fHashBuckets.size() > 0 || fWordList != null;
 	}
 
 	/**
@@ -589,6 +644,15 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		 if (!fMustLoad)
 			 return fLoaded;
 
+		long[] stamp= null;
+		if (url != null && MAP_WORD_LISTS && isMappingWordList()) {
+			stamp= getWordListStamp(url);
+			if (stamp != null && mapWordList(url, stamp, false)) {
+				fMustLoad= false;
+				return true;
+			}
+		}
+
 		if (url != null) {
 			InputStream stream= null;
 			int line= 0;
@@ -627,6 +691,8 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 								hashWord(word);
 						}
 					}
+					if (stamp != null)
+						mapWordList(url, stamp, true);
 					return true;
 				}
 			} catch (FileNotFoundException ex) {
@@ -659,6 +725,115 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		return false;
 	}
 
+	/**
+	 * Tells whether the word list of this dictionary should be kept in a compact file that is
+	 * mapped into memory instead of on the heap. The file is built from the word list when the
+	 * dictionary is loaded for the first time, and rebuilt whenever the word list changes. Words
+	 * added afterwards are held on the heap.
+	 * <p>
+	 * Subclasses with large word lists that can be read from a stable URL should return
+	 * <code>true</code>. The default implementation returns <code>false</code>.
+	 * </p>
+	 *
+	 * @return <code>true</code> if the word list should be mapped into memory
+	 * @since 3.27
+	 */
+	protected boolean isMappingWordList() {
+		return false;
+	}
+
+	/**
+	 * Returns the modification stamp and the length of the given word list.
+	 *
+	 * @param url the URL of the word list
+	 * @return the modification stamp and the length or <code>null</code> if they are unknown
+	 * @since 3.27
+	 */
+	private static long[] getWordListStamp(final URL url) {
+		long stamp;
+		long length;
+		if ("file".equals(url.getProtocol())) { //$NON-NLS-1$
+			File file= new File(url.getPath());
+			stamp= file.lastModified();
+			length= file.length();
+		} else {
+			try {
+				URLConnection connection= url.openConnection();
+				stamp= connection.getLastModified();
+				length= connection.getContentLengthLong();
+			} catch (IOException e) {
+				return null;
+			}
+		}
+		if (stamp <= 0 || length < 0)
+			return null;
+		return new long[] { stamp, length };
+	}
+
+	/**
+	 * Maps the compact file of the given word list into memory.
+	 *
+	 * @param url the URL of the word list
+	 * @param stamp the modification stamp and the length of the word list
+	 * @param build <code>true</code> to build the file from the words that have been hashed
+	 *            into the dictionary if it is missing
+	 * @return <code>true</code> iff the word list has been mapped
+	 * @since 3.27
+	 */
+	private boolean mapWordList(final URL url, final long[] stamp, final boolean build) {
+		String key= url.toExternalForm() + '\n' + getEncoding() + '\n' + fHashProvider.getClass().getName();
+		String prefix= Integer.toHexString(key.hashCode()) + '-';
+		// every version of the word list gets its own file: a file that is mapped, possibly by
+		// another dictionary or until the buffer is garbage collected, cannot be replaced on all platforms
+		File folder= JavaPlugin.getDefault().getStateLocation().append(WORD_LIST_FOLDER).toFile();
+		File file= new File(folder, prefix + Long.toHexString(stamp[0]) + '-' + Long.toHexString(stamp[1]) + ".words"); //$NON-NLS-1$
+		try {
+			MappedWordList wordList= MappedWordList.open(file, key, stamp[0], stamp[1]);
+			if (wordList == null && build) {
+				if (file.exists() && !file.delete())
+					return false; // corrupt, but still in use
+				Map<byte[], Object> buckets= new HashMap<>(fHashBuckets.size());
+				for (Entry<ByteArrayWrapper, Object> entry : fHashBuckets.entrySet())
+					buckets.put(entry.getKey().byteArray, entry.getValue());
+				try {
+					MappedWordList.write(file, key, stamp[0], stamp[1], buckets);
+				} catch (FileAlreadyExistsException e) {
+					// built by another dictionary in the meantime
+				}
+				wordList= MappedWordList.open(file, key, stamp[0], stamp[1]);
+				deleteWordLists(folder, prefix, file);
+			}
+			if (wordList == null)
+				return false;
+
+			fHashBuckets.clear();
+			fWordList= wordList;
+			return true;
+		} catch (IOException exception) {
+			JavaPlugin.log(exception);
+			return false;
+		}
+	}
+
+	/**
+	 * Deletes the files of older versions of a word list. Files that are still mapped cannot be
+	 * deleted on all platforms, they are deleted when the word list is built the next time.
+	 *
+	 * @param folder the folder of the word list files
+	 * @param prefix the prefix of the files of the word list
+	 * @param current the file of the current version
+	 * @since 3.27
+	 */
+	private static void deleteWordLists(File folder, String prefix, File current) {
+		File[] files= folder.listFiles((directory, name) -> name.startsWith(prefix) && name.endsWith(".words")); //$NON-NLS-1$
+		if (files == null)
+			return;
+		for (File file : files) {
+			if (!file.equals(current))
+				file.delete();
+		}
+	}
+
 	/**
 	 * Compacts the dictionary.
 	 *
@@ -698,6 +873,7 @@ public abstract class AbstractSpellDictionary implements ISpellDictionary {
 		fLoaded= false;
 		fMustLoad= true;
 		fHashBuckets.clear();
+		fWordList= null;
 	}
 
 	@Override
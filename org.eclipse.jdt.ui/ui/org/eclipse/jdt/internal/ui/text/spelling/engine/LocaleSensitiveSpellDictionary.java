@@ -58,6 +58,11 @@ public class LocaleSensitiveSpellDictionary extends AbstractSpellDictionary {
 		return new URL(fLocation, fLocale.toString() + ".dictionary");  //$NON-NLS-1$
 	}
 
+	@Override
+	protected boolean isMappingWordList() {
+		return true;
+	}
+
 	@Override
 	protected int getInitialSize() {
 		return 32 * 1024;
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.spelling.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+
+/**
+ * Read-only word list of a spell dictionary, stored in a compact file that is mapped into memory.
+ * <p>
+ * The file starts with a header that identifies the word list it has been built from. The header
+ * is followed by the bucket table, sorted by phonetic hash, the word table and the packed UTF-8
+ * encoded hashes and words. Bucket <code>i</code> holds the words from <code>word(i)</code> to
+ * <code>word(i + 1)</code> and its hash ends where the hash of bucket <code>i + 1</code> starts.
+ * Both tables end with a sentinel entry.
+ * </p>
+ * <p>
+ * Lookups only read the mapped buffer at absolute positions and can be done concurrently.
+ * </p>
+ *
+ * @since 3.27
+ */
+final class MappedWordList {
+
+	/** The magic number of word list files */
+	private static final int MAGIC= 0x4A445357;
+
+	/** The version of the file format */
+	private static final int VERSION= 1;
+
+	/** The order of the phonetic hashes in the bucket table */
+	private static final Comparator<byte[]> HASH_ORDER= MappedWordList::compare;
+
+	/** The mapped file */
+	private final ByteBuffer fBuffer;
+
+	/** The number of buckets */
+	private final int fBucketCount;
+
+	/** The position of the bucket table */
+	private final int fBucketTable;
+
+	/** The position of the word table */
+	private final int fWordTable;
+
+	/** The position of the hash area */
+	private final int fHashArea;
+
+	/** The position of the word area */
+	private final int fWordArea;
+
+	private MappedWordList(ByteBuffer buffer, int bucketCount, int wordCount, int hashAreaSize) {
+		fBuffer= buffer;
+		fBucketCount= bucketCount;
+		fBucketTable= buffer.position();
+		fWordTable= fBucketTable + (bucketCount + 1) * 8;
+		fHashArea= fWordTable + (wordCount + 1) * 4;
+		fWordArea= fHashArea + hashAreaSize;
+	}
+
+	/**
+	 * Maps the given word list file.
+	 *
+	 * @param file the word list file
+	 * @param key the key of the word list the file must have been built from
+	 * @param stamp the modification stamp of the word list the file must have been built from
+	 * @param length the length of the word list the file must have been built from
+	 * @return the mapped word list or <code>null</code> if the file does not exist or does not
+	 *         match the word list
+	 * @throws IOException if the file could not be mapped
+	 */
+	static MappedWordList open(File file, String key, long stamp, long length) throws IOException {
+		if (!file.isFile())
+			return null;
+
+		ByteBuffer buffer;
+		try (FileChannel channel= FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				return null;
+			buffer= channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		try {
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				return null;
+			if (buffer.getLong() != stamp || buffer.getLong() != length)
+				return null;
+			byte[] keyBytes= new byte[buffer.getInt()];
+			buffer.get(keyBytes);
+			if (!key.equals(new String(keyBytes, StandardCharsets.UTF_8)))
+				return null;
+
+			int bucketCount= buffer.getInt();
+			int wordCount= buffer.getInt();
+			int hashAreaSize= buffer.getInt();
+			MappedWordList wordList= new MappedWordList(buffer, bucketCount, wordCount, hashAreaSize);
+			if (wordList.fWordArea + wordList.getWordOffset(wordCount) != buffer.limit())
+				return null;
+			return wordList;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+			// truncated or corrupt file, it will be rebuilt
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the given buckets to a word list file.
+	 * <p>
+	 * The file is written to a temporary file first and then moved into place, so that a
+	 * concurrent reader never maps a partially written file. An existing file is not replaced:
+	 * it may still be mapped, and mapped files cannot be replaced on all platforms.
+	 * </p>
+	 *
+	 * @param file the word list file, must not exist
+	 * @param key the key of the word list
+	 * @param stamp the modification stamp of the word list
+	 * @param length the length of the word list
+	 * @param buckets the mapping from UTF-8 encoded phonetic hashes to either a single UTF-8
+	 *            encoded word or a list of them
+	 * @throws IOException if the file could not be written or already exists
+	 */
+	static void write(File file, String key, long stamp, long length, Map<byte[], Object> buckets) throws IOException {
+		List<Entry<byte[], Object>> entries= new ArrayList<>(buckets.entrySet());
+		Collections.sort(entries, Entry.comparingByKey(HASH_ORDER));
+
+		long hashAreaSize= 0;
+		long wordAreaSize= 0;
+		int wordCount= 0;
+		for (Entry<byte[], Object> entry : entries) {
+			hashAreaSize+= entry.getKey().length;
+			for (byte[] word : getWords(entry.getValue())) {
+				wordAreaSize+= word.length;
+				wordCount++;
+			}
+		}
+		if (hashAreaSize + wordAreaSize + (entries.size() + wordCount) * 8L > Integer.MAX_VALUE / 2)
+			throw new IOException("Word list too large: " + file); //$NON-NLS-1$
+
+		File directory= file.getParentFile();
+		directory.mkdirs();
+		File temporary= File.createTempFile(file.getName(), null, directory);
+		try {
+			try (DataOutputStream output= new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+				byte[] keyBytes= key.getBytes(StandardCharsets.UTF_8);
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeLong(stamp);
+				output.writeLong(length);
+				output.writeInt(keyBytes.length);
+				output.write(keyBytes);
+				output.writeInt(entries.size());
+				output.writeInt(wordCount);
+				output.writeInt((int) hashAreaSize);
+
+				int hashOffset= 0;
+				int wordIndex= 0;
+				for (Entry<byte[], Object> entry : entries) {
+					output.writeInt(hashOffset);
+					output.writeInt(wordIndex);
+					hashOffset+= entry.getKey().length;
+					wordIndex+= getWords(entry.getValue()).size();
+				}
+				output.writeInt(hashOffset);
+				output.writeInt(wordIndex);
+
+				int wordOffset= 0;
+				for (Entry<byte[], Object> entry : entries) {
+					for (byte[] word : getWords(entry.getValue())) {
+						output.writeInt(wordOffset);
+						wordOffset+= word.length;
+					}
+				}
+				output.writeInt(wordOffset);
+
+				for (Entry<byte[], Object> entry : entries) {
+					output.write(entry.getKey());
+				}
+				for (Entry<byte[], Object> entry : entries) {
+					for (byte[] word : getWords(entry.getValue())) {
+						output.write(word);
+					}
+				}
+			}
+			Files.move(temporary.toPath(), file.toPath());
+		} finally {
+			temporary.delete();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<byte[]> getWords(Object bucket) {
+		if (bucket instanceof byte[])
+			return Collections.singletonList((byte[]) bucket);
+		return (List<byte[]>) bucket;
+	}
+
+	/**
+	 * Returns the words with the given phonetic hash.
+	 *
+	 * @param hash the UTF-8 encoded phonetic hash
+	 * @return the UTF-8 encoded word if there is exactly one, a list of them if there are more or
+	 *         <code>null</code> if there is none
+	 */
+	Object getWords(byte[] hash) {
+		int low= 0;
+		int high= fBucketCount - 1;
+		while (low <= high) {
+			int middle= (low + high) >>> 1;
+			int comparison= compareHash(middle, hash);
+			if (comparison < 0) {
+				low= middle + 1;
+			} else if (comparison > 0) {
+				high= middle - 1;
+			} else {
+				int first= getFirstWord(middle);
+				int end= getFirstWord(middle + 1);
+				if (end - first == 1)
+					return getWord(first);
+				ArrayList<byte[]> words= new ArrayList<>(end - first);
+				for (int word= first; word < end; word++) {
+					words.add(getWord(word));
+				}
+				return words;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Tells whether this word list is empty.
+	 *
+	 * @return <code>true</code> if this word list has no words
+	 */
+	boolean isEmpty() {
+		return fBucketCount == 0;
+	}
+
+	private int getHashOffset(int bucket) {
+		return fBuffer.getInt(fBucketTable + bucket * 8);
+	}
+
+	private int getFirstWord(int bucket) {
+		return fBuffer.getInt(fBucketTable + bucket * 8 + 4);
+	}
+
+	private int getWordOffset(int word) {
+		return fBuffer.getInt(fWordTable + word * 4);
+	}
+
+	private byte[] getWord(int word) {
+		int start= fWordArea + getWordOffset(word);
+		byte[] result= new byte[fWordArea + getWordOffset(word + 1) - start];
+		for (int i= 0; i < result.length; i++) {
+			result[i]= fBuffer.get(start + i);
+		}
+		return result;
+	}
+
+	private int compareHash(int bucket, byte[] hash) {
+		int start= fHashArea + getHashOffset(bucket);
+		int length= fHashArea + getHashOffset(bucket + 1) - start;
+		int common= Math.min(length, hash.length);
+		for (int i= 0; i < common; i++) {
+			int comparison= Byte.toUnsignedInt(fBuffer.get(start + i)) - Byte.toUnsignedInt(hash[i]);
+			if (comparison != 0)
+				return comparison;
+		}
+		return length - hash.length;
+	}
+
+	private static int compare(byte[] hash1, byte[] hash2) {
+		int common= Math.min(hash1.length, hash2.length);
+		for (int i= 0; i < common; i++) {
+			int comparison= Byte.toUnsignedInt(hash1[i]) - Byte.toUnsignedInt(hash2[i]);
+			if (comparison != 0)
+				return comparison;
+		}
+		return hash1.length - hash2.length;
+	}
+}
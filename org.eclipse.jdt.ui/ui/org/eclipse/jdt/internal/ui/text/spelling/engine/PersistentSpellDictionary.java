@@ -87,6 +87,11 @@ public class PersistentSpellDictionary extends AbstractSpellDictionary {
 		hashWord(word);
 	}
 
+	@Override
+	protected boolean isMappingWordList() {
+		return true;
+	}
+
 	@Override
 	protected final URL getURL() {
 		return fLocation;
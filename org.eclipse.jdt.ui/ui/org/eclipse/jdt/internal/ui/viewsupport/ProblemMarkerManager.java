@@ -23,6 +23,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.ListenerList;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
 import org.eclipse.core.resources.IProject;
@@ -48,6 +49,10 @@ import org.eclipse.jdt.internal.ui.javaeditor.CompilationUnitAnnotationModelEven
  * Listens to resource deltas and filters for marker changes of type IMarker.PROBLEM
  * Viewers showing error ticks should register as listener to
  * this type.
+ * <p>
+ * While listeners are registered, the maximum problem severities of containers are cached and
+ * invalidated from the same resource deltas, see {@link #findMaxProblemSeverity(IResource, int)}.
+ * </p>
  */
 public class ProblemMarkerManager implements IResourceChangeListener, IAnnotationModelListener , IAnnotationModelListenerExtension {
 
@@ -57,14 +62,20 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 	private static class ProjectErrorVisitor implements IResourceDeltaVisitor {
 
 		private HashSet<IResource> fChangedElements;
+		private HashSet<IResource> fChangedProjects;
 
-		public ProjectErrorVisitor(HashSet<IResource> changedElements) {
+		public ProjectErrorVisitor(HashSet<IResource> changedElements, HashSet<IResource> changedProjects) {
 			fChangedElements= changedElements;
+			fChangedProjects= changedProjects;
 		}
 
 		@Override
 		public boolean visit(IResourceDelta delta) throws CoreException {
 			IResource res= delta.getResource();
+			if (res instanceof IProject && (delta.getKind() == IResourceDelta.REMOVED || (delta.getFlags() & IResourceDelta.OPEN) != 0)) {
+				// markers of the members are not reported when a project is opened, closed or removed
+				fChangedProjects.add(res);
+			}
 			if (res instanceof IProject && delta.getKind() == IResourceDelta.CHANGED) {
 				IProject project= (IProject) res;
 				if (!project.isAccessible()) {
@@ -109,6 +120,8 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 	private final Set<IResource> fResourcesWithMarkerChanges= ConcurrentHashMap.newKeySet();
 	private final Set<IResource> fResourcesWithAnnotationChanges= ConcurrentHashMap.newKeySet();
 
+	private final ProblemSeverityCache fSeverityCache= new ProblemSeverityCache();
+
 	private final Throttler throttledUpdates= new Throttler(PlatformUI.getWorkbench().getDisplay(), Duration.ofMillis(250), this::runPendingUpdates);
 
 	public ProblemMarkerManager() {
@@ -120,15 +133,20 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 	@Override
 	public void resourceChanged(IResourceChangeEvent event) {
 		HashSet<IResource> changedElements= new HashSet<>();
+		HashSet<IResource> changedProjects= new HashSet<>();
 
 		try {
 			IResourceDelta delta= event.getDelta();
 			if (delta != null)
-				delta.accept(new ProjectErrorVisitor(changedElements));
+				delta.accept(new ProjectErrorVisitor(changedElements, changedProjects));
 		} catch (CoreException e) {
 			JavaPlugin.log(e.getStatus());
+			fSeverityCache.clear();
 		}
 
+		fSeverityCache.invalidateSubtrees(changedProjects);
+		fSeverityCache.invalidate(changedElements);
+
 		if (fResourcesWithMarkerChanges.addAll(changedElements)) {
 			fireChanges();
 		}
@@ -153,6 +171,43 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 	}
 
 
+	/**
+	 * Returns the maximum severity of the problem markers on the given resource and its members.
+	 * The severities of containers are cached while listeners are registered and looking up the
+	 * severity of a project or folder with {@link IResource#DEPTH_INFINITE} is then cheap.
+	 *
+	 * @param resource the resource
+	 * @param depth the depth, one of {@link IResource#DEPTH_ZERO}, {@link IResource#DEPTH_ONE} and
+	 *            {@link IResource#DEPTH_INFINITE}
+	 * @return the maximum severity or <code>-1</code> if there are no problem markers
+	 * @throws CoreException if the markers could not be accessed
+	 * @see IResource#findMaxProblemSeverity(String, boolean, int)
+	 */
+	public int findMaxProblemSeverity(IResource resource, int depth) throws CoreException {
+		if (fListeners.isEmpty()) {
+			// not listening to resource changes
+			return resource.findMaxProblemSeverity(IMarker.PROBLEM, true, depth);
+		}
+		return fSeverityCache.findMaxProblemSeverity(resource, depth);
+	}
+
+	/**
+	 * Returns the maximum severity of the problem markers on the given container and the files
+	 * that are its direct members, e.g. the severity of a package without its sub packages. The
+	 * severities are cached while listeners are registered.
+	 *
+	 * @param container the container
+	 * @return the maximum severity or <code>-1</code> if there are no problem markers
+	 * @throws CoreException if the markers could not be accessed
+	 */
+	public int findMaxFileProblemSeverity(IContainer container) throws CoreException {
+		if (fListeners.isEmpty()) {
+			// not listening to resource changes
+			return ProblemSeverityCache.computeFileSeverity(container);
+		}
+		return fSeverityCache.findMaxFileProblemSeverity(container);
+	}
+
 	/**
 	 * Adds a listener for problem marker changes.
 	 * @param listener the listener to add
@@ -174,6 +229,7 @@ public class ProblemMarkerManager implements IResourceChangeListener, IAnnotatio
 		if (fListeners.isEmpty()) {
 			JavaPlugin.getWorkspace().removeResourceChangeListener(this);
 			JavaPlugin.getDefault().getCompilationUnitDocumentProvider().removeGlobalAnnotationModelListener(this);
+			fSeverityCache.clear();
 		}
 	}
 
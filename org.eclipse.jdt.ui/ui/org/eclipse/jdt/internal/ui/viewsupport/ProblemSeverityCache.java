@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.viewsupport;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+
+/**
+ * Caches the maximum severity of the problem markers in the subtree of containers.
+ * <p>
+ * The severity of a container is rolled up from the markers on the container itself, the markers
+ * on its files and the cached severities of its sub containers. When the problem markers of a
+ * resource change, only the resource and its parents are invalidated, so that recomputing the
+ * severity of a project only looks at the containers on the path to the changed resource.
+ * </p>
+ * <p>
+ * The severity of a container and the files that are its direct members is cached separately, it
+ * is the severity of a package that must not consider the markers of its sub packages.
+ * </p>
+ * <p>
+ * The cache can be read concurrently. A value computed while the cache is invalidated is not
+ * stored.
+ * </p>
+ *
+ * @since 3.27
+ */
+final class ProblemSeverityCache {
+
+	/** Maps containers to the maximum problem severity in their subtree */
+	private final Map<IResource, Integer> fSeverities= new ConcurrentHashMap<>();
+
+	/** Maps containers to the maximum problem severity of the container and its files */
+	private final Map<IResource, Integer> fFileSeverities= new ConcurrentHashMap<>();
+
+	/** Incremented before the cache is invalidated */
+	private final AtomicLong fModificationStamp= new AtomicLong();
+
+	/**
+	 * Returns the maximum severity of the problem markers on the given resource and its members,
+	 * see {@link IResource#findMaxProblemSeverity(String, boolean, int)}.
+	 *
+	 * @param resource the resource
+	 * @param depth the depth, one of {@link IResource#DEPTH_ZERO}, {@link IResource#DEPTH_ONE} and
+	 *            {@link IResource#DEPTH_INFINITE}
+	 * @return the maximum severity or <code>-1</code> if there are no problem markers
+	 * @throws CoreException if the markers could not be accessed
+	 */
+	int findMaxProblemSeverity(IResource resource, int depth) throws CoreException {
+		if (depth != IResource.DEPTH_INFINITE || resource.getType() == IResource.FILE)
+			return resource.findMaxProblemSeverity(IMarker.PROBLEM, true, depth);
+		return getSeverity((IContainer) resource);
+	}
+
+	/**
+	 * Returns the maximum severity of the problem markers on the given container and the files
+	 * that are its direct members.
+	 *
+	 * @param container the container
+	 * @return the maximum severity or <code>-1</code> if there are no problem markers
+	 * @throws CoreException if the markers could not be accessed
+	 */
+	int findMaxFileProblemSeverity(IContainer container) throws CoreException {
+		Integer cached= fFileSeverities.get(container);
+		if (cached != null)
+			return cached.intValue();
+
+		long stamp= fModificationStamp.get();
+		int severity= computeFileSeverity(container);
+		if (fModificationStamp.get() == stamp)
+			fFileSeverities.put(container, Integer.valueOf(severity));
+		return severity;
+	}
+
+	/**
+	 * Computes the maximum severity of the problem markers on the given container and the files
+	 * that are its direct members without using a cache.
+	 *
+	 * @param container the container
+	 * @return the maximum severity or <code>-1</code> if there are no problem markers
+	 * @throws CoreException if the markers could not be accessed
+	 */
+	static int computeFileSeverity(IContainer container) throws CoreException {
+		int severity= container.findMaxProblemSeverity(IMarker.PROBLEM, true, IResource.DEPTH_ZERO);
+		for (IResource member : container.members(IContainer.INCLUDE_HIDDEN | IContainer.INCLUDE_TEAM_PRIVATE_MEMBERS)) {
+			if (severity == IMarker.SEVERITY_ERROR)
+				break;
+			if (member.getType() == IResource.FILE)
+				severity= Math.max(severity, member.findMaxProblemSeverity(IMarker.PROBLEM, true, IResource.DEPTH_ZERO));
+		}
+		return severity;
+	}
+
+	private int getSeverity(IContainer container) throws CoreException {
+		Integer cached= fSeverities.get(container);
+		if (cached != null)
+			return cached.intValue();
+
+		long stamp= fModificationStamp.get();
+		int severity= findMaxFileProblemSeverity(container);
+		if (severity != IMarker.SEVERITY_ERROR) {
+			for (IResource member : container.members(IContainer.INCLUDE_HIDDEN | IContainer.INCLUDE_TEAM_PRIVATE_MEMBERS)) {
+				if (member.getType() != IResource.FILE)
+					severity= Math.max(severity, getSeverity((IContainer) member));
+				if (severity == IMarker.SEVERITY_ERROR)
+					break;
+			}
+		}
+		if (fModificationStamp.get() == stamp)
+			fSeverities.put(container, Integer.valueOf(severity));
+		return severity;
+	}
+
+	/**
+	 * Invalidates the given resources. The parents of a resource with changed problem markers
+	 * must be invalidated as well.
+	 *
+	 * @param resources the resources whose problem markers have changed or that have been added
+	 *            or removed
+	 */
+	void invalidate(Collection<IResource> resources) {
+		if (resources.isEmpty())
+			return;
+		fModificationStamp.incrementAndGet();
+		for (IResource resource : resources) {
+			fSeverities.remove(resource);
+			fFileSeverities.remove(resource);
+		}
+	}
+
+	/**
+	 * Invalidates the given resources and all their members, e.g. when a project is opened,
+	 * closed or removed without reporting marker changes for its members.
+	 *
+	 * @param resources the resources to invalidate
+	 */
+	void invalidateSubtrees(Collection<IResource> resources) {
+		if (resources.isEmpty())
+			return;
+		fModificationStamp.incrementAndGet();
+		for (IResource resource : resources) {
+			IPath path= resource.getFullPath();
+			fSeverities.keySet().removeIf(r -> path.isPrefixOf(r.getFullPath()));
+			fFileSeverities.keySet().removeIf(r -> path.isPrefixOf(r.getFullPath()));
+		}
+	}
+
+	void clear() {
+		fModificationStamp.incrementAndGet();
+		fSeverities.clear();
+		fFileSeverities.clear();
+	}
+}
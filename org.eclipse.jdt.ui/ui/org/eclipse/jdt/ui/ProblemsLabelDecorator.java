@@ -38,6 +38,7 @@ import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IMarker;
@@ -595,7 +596,7 @@ public class ProblemsLabelDecorator implements ILabelDecorator, ILightweightLabe
 				return ERRORTICK_BUILDPATH_ERROR;
 			}
 		}
-		severity= res.findMaxProblemSeverity(IMarker.PROBLEM, true, depth);
+		severity= JavaPlugin.getDefault().getProblemMarkerManager().findMaxProblemSeverity(res, depth);
 		return convertToTick(severity);
 	}
 
@@ -603,7 +604,12 @@ public class ProblemsLabelDecorator implements ILabelDecorator, ILightweightLabe
 		if (res == null || !res.isAccessible()) {
 			return 0;
 		}
-		int severity= -1;
+		int severity= findMaxProblemSeverity(res, depth);
+		if (severity == -1) {
+			// no need to look at the positions of the markers
+			return 0;
+		}
+		severity= -1;
 		IMarker[] markers= res.findMarkers(IMarker.PROBLEM, true, depth);
 		if (markers != null && markers.length > 0) {
 			for (int i= 0; i < markers.length && (severity != IMarker.SEVERITY_ERROR); i++) {
@@ -640,23 +646,19 @@ public class ProblemsLabelDecorator implements ILabelDecorator, ILightweightLabe
 			return 0;
 		}
 
-		// markers on package itself (e.g. missing @NonNullByDefault)
-		int severity= findMaxProblemSeverity(res, IMarker.PROBLEM, true, IResource.DEPTH_ZERO);
-		if (severity == IMarker.SEVERITY_ERROR)
-			return ERRORTICK_ERROR;
-
-		// markers on CUs
-		for (ICompilationUnit cu : pack.getCompilationUnits()) {
-			severity= Math.max(severity, findMaxProblemSeverity(cu.getResource(), IMarker.PROBLEM, true, IResource.DEPTH_ZERO));
+		// markers on package itself (e.g. missing @NonNullByDefault), on CUs and other files
+		int severity= -1;
+		if (res instanceof IContainer) {
+			severity= findMaxFileProblemSeverity((IContainer) res);
 			if (severity == IMarker.SEVERITY_ERROR)
 				return ERRORTICK_ERROR;
 		}
 
-		// markers on files and folders
+		// markers in folders
 		for (Object object : pack.getNonJavaResources()) {
-			if (object instanceof IResource) {
+			if (object instanceof IContainer) {
 				IResource resource= (IResource) object;
-				severity= Math.max(severity, findMaxProblemSeverity(resource, IMarker.PROBLEM, true, IResource.DEPTH_INFINITE));
+				severity= Math.max(severity, findMaxProblemSeverity(resource, IResource.DEPTH_INFINITE));
 				if (severity == IMarker.SEVERITY_ERROR)
 					return ERRORTICK_ERROR;
 			}
@@ -672,9 +674,21 @@ public class ProblemsLabelDecorator implements ILabelDecorator, ILightweightLabe
 		return 0;
 	}
 
-	private int findMaxProblemSeverity (IResource res, String type, boolean includeSubtypes, int depth) throws CoreException {
+	private int findMaxProblemSeverity(IResource res, int depth) throws CoreException {
+		try {
+			return JavaPlugin.getDefault().getProblemMarkerManager().findMaxProblemSeverity(res, depth);
+		} catch (CoreException e) {
+			if (e.getStatus().getCode() == IResourceStatus.RESOURCE_NOT_FOUND) {
+				// Ignore failure in the case of concurrent deletion
+				return -1;
+			}
+			throw e;
+		}
+	}
+
+	private int findMaxFileProblemSeverity(IContainer container) throws CoreException {
 		try {
-			return res.findMaxProblemSeverity(type, includeSubtypes, depth);
+			return JavaPlugin.getDefault().getProblemMarkerManager().findMaxFileProblemSeverity(container);
 		} catch (CoreException e) {
 			if (e.getStatus().getCode() == IResourceStatus.RESOURCE_NOT_FOUND) {
 				// Ignore failure in the case of concurrent deletion
@@ -31,7 +31,9 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.Region;
@@ -287,6 +289,104 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		}
 	}
 
+	/**
+	 * The elements whose folding structure is recomputed by an incremental update.
+	 */
+	private static final class UpdateScope {
+		/** The elements that are recomputed together with their descendants */
+		private final Set<IJavaElement> fSubtrees= new HashSet<>();
+		/** The elements that are recomputed without their descendants */
+		private final Set<IJavaElement> fElements= new HashSet<>();
+		/** The first type of the input, computes the header comment */
+		private final IType fFirstType;
+
+		UpdateScope(IType firstType) {
+			fFirstType= firstType;
+		}
+
+		boolean contains(IJavaElement element) {
+			if (fElements.contains(element))
+				return true;
+			for (IJavaElement ancestor= element; ancestor != null; ancestor= ancestor.getParent()) {
+				if (fSubtrees.contains(ancestor))
+					return true;
+			}
+			return false;
+		}
+
+		int size() {
+			return fSubtrees.size() + fElements.size();
+		}
+	}
+
+	/**
+	 * Tracks the regions of the document that have been modified since the last updates. The
+	 * reconcile deltas of edits in member bodies and Javadoc comments have no affected children,
+	 * the members in these regions are recomputed by an incremental update.
+	 */
+	private static final class DirtyRegionTracker implements IDocumentListener {
+		private final IDocument fDocument;
+		/** The start and end of the region modified since the last update, or <code>null</code> */
+		private int[] fRegion;
+		/**
+		 * The region taken by the last update. It may contain edits that were made after the
+		 * reconcile of that update and are only reported by the next delta.
+		 */
+		private int[] fPreviousRegion;
+
+		DirtyRegionTracker(IDocument document) {
+			fDocument= document;
+			fDocument.addDocumentListener(this);
+		}
+
+		void dispose() {
+			fDocument.removeDocumentListener(this);
+		}
+
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+		}
+
+		@Override
+		public synchronized void documentChanged(DocumentEvent event) {
+			int offset= event.getOffset();
+			int length= event.getLength();
+			int newLength= event.getText() == null ? 0 : event.getText().length();
+			fPreviousRegion= adjust(fPreviousRegion, offset, length, newLength);
+			fRegion= union(adjust(fRegion, offset, length, newLength), new int[] { offset, offset + newLength });
+		}
+
+		/**
+		 * Returns the region to recompute and starts tracking the edits for the next update.
+		 *
+		 * @return the modified region or <code>null</code> if the document has not been modified
+		 *         since the last two updates
+		 */
+		synchronized IRegion takeRegion() {
+			int[] region= union(fRegion, fPreviousRegion);
+			fPreviousRegion= fRegion;
+			fRegion= null;
+			return region == null ? null : new Region(region[0], region[1] - region[0]);
+		}
+
+		private static int[] adjust(int[] region, int offset, int length, int newLength) {
+			if (region == null || offset > region[1])
+				return region;
+			int shift= newLength - length;
+			if (offset + length < region[0])
+				return new int[] { region[0] + shift, region[1] + shift };
+			return new int[] { Math.min(region[0], offset), Math.max(region[1] + shift, offset + newLength) };
+		}
+
+		private static int[] union(int[] region, int[] other) {
+			if (region == null)
+				return other;
+			if (other == null)
+				return region;
+			return new int[] { Math.min(region[0], other[0]), Math.max(region[1], other[1]) };
+		}
+	}
+
 	/**
 	 * Filter for annotations.
 	 */
@@ -352,6 +452,11 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 
 	private class ElementChangedListener implements IElementChangedListener {
 
+		/**
+		 * Tells whether a delta has been ignored since the last update.
+		 */
+		private boolean fHasIgnoredDelta;
+
 		/*
 		 * @see org.eclipse.jdt.core.IElementChangedListener#elementChanged(org.eclipse.jdt.core.ElementChangedEvent)
 		 */
@@ -360,12 +465,18 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 			IJavaElementDelta delta= findElement(fInput, e.getDelta());
 			if (delta != null && (delta.getFlags() & (IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_CHILDREN)) != 0) {
 
-				if (shouldIgnoreDelta(e.getDelta().getCompilationUnitAST(), delta))
+				if (shouldIgnoreDelta(e.getDelta().getCompilationUnitAST(), delta)) {
+					fHasIgnoredDelta= true;
 					return;
+				}
+
+				// an incremental update would miss the changes of ignored deltas
+				IJavaElementDelta updateDelta= fHasIgnoredDelta ? null : delta;
+				fHasIgnoredDelta= false;
 
 				fUpdatingCount++;
 				try {
-					update(createContext(false));
+					update(createContext(false), updateDelta);
 				} finally {
 					fUpdatingCount--;
 				}
@@ -705,6 +816,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 	private ProjectionListener fProjectionListener;
 	private IJavaElement fInput;
 	private IElementChangedListener fElementListener;
+	private DirtyRegionTracker fDirtyRegionTracker;
 
 	/* preferences */
 	private boolean fCollapseJavadoc= false;
@@ -810,8 +922,8 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		handleProjectionDisabled();
 
 		if (isInstalled()) {
-			initialize();
 			fElementListener= new ElementChangedListener();
+			initialize();
 			JavaCore.addElementChangedListener(fElementListener);
 		}
 	}
@@ -831,6 +943,14 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 			JavaCore.removeElementChangedListener(fElementListener);
 			fElementListener= null;
 		}
+		disposeDirtyRegionTracker();
+	}
+
+	private void disposeDirtyRegionTracker() {
+		if (fDirtyRegionTracker != null) {
+			fDirtyRegionTracker.dispose();
+			fDirtyRegionTracker= null;
+		}
 	}
 
 	/*
@@ -838,6 +958,12 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 	 */
 	@Override
 	public final void initialize() {
+		disposeDirtyRegionTracker();
+		if (fElementListener != null) {
+			IDocument document= getDocument();
+			if (document != null)
+				fDirtyRegionTracker= new DirtyRegionTracker(document);
+		}
 		fUpdatingCount++;
 		try {
 			update(createInitialContext());
@@ -888,16 +1014,37 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 	}
 
 	private void update(FoldingStructureComputationContext ctx) {
+		update(ctx, null);
+	}
+
+	/**
+	 * Updates the projection model. If the given delta describes all changed members, only the
+	 * folding structure of these members is computed and compared against their annotations. The
+	 * annotations of all other members are left untouched, their positions are kept up to date by
+	 * the document.
+	 *
+	 * @param ctx the folding context or <code>null</code>
+	 * @param delta the delta of the input element or <code>null</code> to update the whole
+	 *            folding structure
+	 */
+	private void update(FoldingStructureComputationContext ctx, IJavaElementDelta delta) {
 		if (ctx == null)
 			return;
 
+		long start= System.nanoTime();
 		Map<JavaProjectionAnnotation, Position> additions= new HashMap<>();
 		List<JavaProjectionAnnotation> deletions= new ArrayList<>();
 		List<JavaProjectionAnnotation> updates= new ArrayList<>();
 
-		computeFoldingStructure(ctx);
+		DirtyRegionTracker tracker= fDirtyRegionTracker;
+		IRegion dirtyRegion= tracker != null ? tracker.takeRegion() : null;
+		UpdateScope scope= delta != null && tracker != null ? computeUpdateScope(delta, dirtyRegion) : null;
+		if (scope != null)
+			computeFoldingStructure(scope, ctx);
+		else
+			computeFoldingStructure(ctx);
 		Map<JavaProjectionAnnotation, Position> newStructure= ctx.fMap;
-		Map<IJavaElement, List<Tuple>> oldStructure= computeCurrentStructure(ctx);
+		Map<IJavaElement, List<Tuple>> oldStructure= computeCurrentStructure(ctx, scope);
 
 		Iterator<JavaProjectionAnnotation> e= newStructure.keySet().iterator();
 		while (e.hasNext()) {
@@ -966,6 +1113,135 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		ctx.getModel().modifyAnnotations(deletedArray, additions, changedArray);
 
 		ctx.fScanner.setSource(null);
+
+		if (JavaPlugin.DEBUG_FOLDING) {
+			String kind= scope != null ? "incremental update of " + scope.size() + " elements" : "full update"; //$NON-NLS-1$ //$NON-NLS-2$
+			System.out.println("Folding " + fInput.getElementName() + ": " + kind + ", " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ additions.size() + " added, " + changedArray.length + " changed, " + deletedArray.length + " deleted, " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ (System.nanoTime() - start) / 1000 + " \u00b5s"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Computes the elements affected by a reconcile delta of the input. Edits of member bodies and
+	 * Javadoc comments are not described by the delta, the members in the modified region of the
+	 * document are recomputed as well.
+	 *
+	 * @param delta the delta of the input element
+	 * @param dirtyRegion the region of the document that has been modified since the last updates
+	 *            or <code>null</code>
+	 * @return the scope of an incremental update or <code>null</code> if the whole folding
+	 *         structure must be updated
+	 */
+	private UpdateScope computeUpdateScope(IJavaElementDelta delta, IRegion dirtyRegion) {
+		if (!(fInput instanceof ICompilationUnit))
+			return null;
+		// only fine grained deltas report all changed members
+		if ((delta.getFlags() & IJavaElementDelta.F_FINE_GRAINED) == 0)
+			return null;
+
+		try {
+			IType[] types= ((ICompilationUnit) fInput).getTypes();
+			if (types.length == 0)
+				return null;
+			UpdateScope scope= new UpdateScope(types[0]);
+			if (!collectUpdateScope(delta.getAffectedChildren(), scope))
+				return null;
+			if (dirtyRegion != null) {
+				// the header comment, package and imports are computed by a full update
+				ISourceRange firstRange= types[0].getSourceRange();
+				if (!SourceRange.isAvailable(firstRange) || dirtyRegion.getOffset() <= firstRange.getOffset())
+					return null;
+				if (!collectUpdateScope(types, dirtyRegion.getOffset(), dirtyRegion.getOffset() + dirtyRegion.getLength(), scope))
+					return null;
+			}
+			return scope;
+		} catch (JavaModelException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Adds the members that intersect or touch the given region to the scope.
+	 *
+	 * @param members the members to check
+	 * @param start the start of the modified region
+	 * @param end the end of the modified region
+	 * @param scope the scope to add to
+	 * @return <code>false</code> if the whole folding structure must be updated
+	 * @throws JavaModelException if the source range of a member cannot be accessed
+	 */
+	private boolean collectUpdateScope(IJavaElement[] members, int start, int end, UpdateScope scope) throws JavaModelException {
+		for (IJavaElement member : members) {
+			if (!(member instanceof IMember))
+				continue;
+			ISourceRange range= ((IMember) member).getSourceRange();
+			if (!SourceRange.isAvailable(range))
+				return false;
+			int memberEnd= range.getOffset() + range.getLength();
+			if (end < range.getOffset() || start > memberEnd)
+				continue;
+
+			if (member.getElementType() == IJavaElement.TYPE) {
+				// the Javadoc and the code region of a type only change with edits outside its body
+				ISourceRange nameRange= ((IType) member).getNameRange();
+				int bodyStart= SourceRange.isAvailable(nameRange) ? nameRange.getOffset() + nameRange.getLength() : memberEnd;
+				if (start <= bodyStart || end >= memberEnd) {
+					// the header comment is computed together with the first type
+					if (member.equals(scope.fFirstType))
+						return false;
+					scope.fElements.add(member);
+				}
+				if (!collectUpdateScope(((IType) member).getChildren(), start, end, scope))
+					return false;
+			} else {
+				scope.fSubtrees.add(member);
+			}
+		}
+		return true;
+	}
+
+	private boolean collectUpdateScope(IJavaElementDelta[] deltas, UpdateScope scope) {
+		for (IJavaElementDelta delta : deltas) {
+			IJavaElement element= delta.getElement();
+			boolean isType= element.getElementType() == IJavaElement.TYPE;
+			if (delta.getKind() == IJavaElementDelta.CHANGED && isType) {
+				if ((delta.getFlags() & ~IJavaElementDelta.F_CHILDREN) != 0) {
+					// the header comment is computed together with the first type
+					if (element.equals(scope.fFirstType))
+						return false;
+					scope.fElements.add(element);
+				}
+				if (!collectUpdateScope(delta.getAffectedChildren(), scope))
+					return false;
+			} else if (isType && fInput.equals(element.getParent())) {
+				// an added or removed top-level type may change the first type
+				return false;
+			} else {
+				scope.fSubtrees.add(element);
+			}
+		}
+		return true;
+	}
+
+	private void computeFoldingStructure(UpdateScope scope, FoldingStructureComputationContext ctx) {
+		try {
+			String source= ((ISourceReference) fInput).getSource();
+			if (source == null)
+				return;
+
+			ctx.getScanner().setSource(source.toCharArray());
+			ctx.setFirstType(scope.fFirstType);
+			for (IJavaElement element : scope.fElements) {
+				if (element.exists())
+					computeFoldingStructure(element, ctx);
+			}
+			for (IJavaElement element : scope.fSubtrees) {
+				if (element.exists())
+					computeFoldingStructure(new IJavaElement[] { element }, ctx);
+			}
+		} catch (JavaModelException x) {
+		}
 	}
 
 	private void computeFoldingStructure(FoldingStructureComputationContext ctx) {
@@ -1391,7 +1667,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		return null;
 	}
 
-	private Map<IJavaElement, List<Tuple>> computeCurrentStructure(FoldingStructureComputationContext ctx) {
+	private Map<IJavaElement, List<Tuple>> computeCurrentStructure(FoldingStructureComputationContext ctx, UpdateScope scope) {
 		Map<IJavaElement, List<Tuple>> map= new HashMap<>();
 		ProjectionAnnotationModel model= ctx.getModel();
 		Iterator<Annotation> e= model.getAnnotationIterator();
@@ -1399,6 +1675,8 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 			Object annotation= e.next();
 			if (annotation instanceof JavaProjectionAnnotation) {
 				JavaProjectionAnnotation java= (JavaProjectionAnnotation) annotation;
+				if (scope != null && !scope.contains(java.getElement()))
+					continue;
 				Position position= model.getPosition(java);
 				Assert.isNotNull(position);
 				List<Tuple> list= map.get(java.getElement());
@@ -25,11 +25,13 @@ import org.eclipse.ltk.core.refactoring.tests.scripting.RefactoringScriptingTest
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 	RefactoringContextTest.class,
+	CompositeChangeValidationTests.class,
 	ParticipantTests.class,
 	RefactoringHistoryTests.class,
 	RefactoringScriptingTests.class,
 	ResourceRefactoringTests.class,
-	ResourceRefactoringUndoTests.class
+	ResourceRefactoringUndoTests.class,
+	UndoManagerBudgetTests.class
 })
 public class AllTests {
 }
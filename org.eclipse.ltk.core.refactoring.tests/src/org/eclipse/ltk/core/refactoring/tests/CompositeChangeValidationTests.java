@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourceAttributes;
+
+import org.eclipse.text.edits.MultiTextEdit;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.TextFileChange;
+import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
+import org.eclipse.ltk.internal.core.refactoring.BufferValidationBatch;
+
+/**
+ * Tests that composite changes report the same problems of their files whether the files are
+ * validated in a {@link BufferValidationBatch} or one by one.
+ */
+public class CompositeChangeValidationTests {
+
+	private static class RecordingChange extends TextFileChange {
+
+		private RefactoringStatus fStatus;
+
+		public RecordingChange(IFile file, int saveMode) {
+			super(file.getName(), file);
+			setEdit(new MultiTextEdit());
+			setSaveMode(saveMode);
+		}
+
+		@Override
+		public RefactoringStatus isValid(IProgressMonitor monitor) throws CoreException {
+			fStatus= super.isValid(monitor);
+			return fStatus;
+		}
+
+		public RefactoringStatus getStatus() {
+			return fStatus;
+		}
+	}
+
+	private SimpleTestProject fProject;
+	private String fBatchValidation;
+	private IFile fFile1;
+	private IFile fFile2;
+	private IFile fFile3;
+
+	@Before
+	public void setUp() throws Exception {
+		fBatchValidation= System.getProperty(BufferValidationBatch.ENABLED_PROPERTY);
+		fProject= new SimpleTestProject();
+		fFile1= fProject.createFile(fProject.getProject(), "file1.txt", "content 1");
+		fFile2= fProject.createFile(fProject.getProject(), "file2.txt", "content 2");
+		fFile3= fProject.createFile(fProject.getProject(), "file3.txt", "content 3");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (fBatchValidation == null)
+			System.clearProperty(BufferValidationBatch.ENABLED_PROPERTY);
+		else
+			System.setProperty(BufferValidationBatch.ENABLED_PROPERTY, fBatchValidation);
+		setReadOnly(fFile2, false);
+		fProject.delete();
+	}
+
+	private static void setBatchValidation(boolean enabled) {
+		System.setProperty(BufferValidationBatch.ENABLED_PROPERTY, String.valueOf(enabled));
+		assertEquals(enabled, BufferValidationBatch.isEnabled());
+	}
+
+	private static void setReadOnly(IFile file, boolean readOnly) throws CoreException {
+		ResourceAttributes attributes= file.getResourceAttributes();
+		if (attributes != null && attributes.isReadOnly() != readOnly) {
+			attributes.setReadOnly(readOnly);
+			file.setResourceAttributes(attributes);
+		}
+	}
+
+	private static void makeOutOfSync(IFile file) throws Exception {
+		File location= file.getLocation().toFile();
+		Files.write(location.toPath(), "changed outside".getBytes());
+		location.setLastModified(file.getLocalTimeStamp() + 60000);
+		assertFalse(file.isSynchronized(IResource.DEPTH_ZERO));
+	}
+
+	private static RefactoringStatus validate(Change change) throws CoreException {
+		change.initializeValidationData(new NullProgressMonitor());
+		try {
+			return change.isValid(new NullProgressMonitor());
+		} finally {
+			change.dispose();
+		}
+	}
+
+	@Test
+	public void testReadOnlyFile() throws Exception {
+		setReadOnly(fFile2, true);
+		for (boolean batch : new boolean[] { true, false }) {
+			setBatchValidation(batch);
+			RecordingChange first= new RecordingChange(fFile1, TextFileChange.KEEP_SAVE_STATE);
+			RecordingChange readOnly= new RecordingChange(fFile2, TextFileChange.KEEP_SAVE_STATE);
+			RecordingChange last= new RecordingChange(fFile3, TextFileChange.KEEP_SAVE_STATE);
+			CompositeChange composite= new CompositeChange("composite", new Change[] { first, readOnly, last });
+
+			RefactoringStatus status= validate(composite);
+			assertTrue(status.toString(), status.hasFatalError());
+			assertTrue(first.getStatus().isOK());
+			assertTrue(readOnly.getStatus().hasFatalError());
+			// the children after the first fatal error are not validated
+			assertNull(last.getStatus());
+		}
+	}
+
+	@Test
+	public void testOutOfSyncModifiedFile() throws Exception {
+		makeOutOfSync(fFile2);
+		for (boolean batch : new boolean[] { true, false }) {
+			setBatchValidation(batch);
+			RecordingChange outOfSync= new RecordingChange(fFile2, TextFileChange.KEEP_SAVE_STATE);
+			CompositeChange composite= new CompositeChange("composite", new Change[] { new RecordingChange(fFile1, TextFileChange.KEEP_SAVE_STATE), outOfSync });
+
+			RefactoringStatus status= validate(composite);
+			assertTrue(status.toString(), status.hasFatalError());
+			assertTrue(outOfSync.getStatus().hasFatalError());
+		}
+	}
+
+	@Test
+	public void testOutOfSyncReadFile() throws Exception {
+		makeOutOfSync(fFile2);
+		for (boolean batch : new boolean[] { true, false }) {
+			setBatchValidation(batch);
+			RecordingChange outOfSync= new RecordingChange(fFile2, TextFileChange.LEAVE_DIRTY);
+			RecordingChange last= new RecordingChange(fFile3, TextFileChange.KEEP_SAVE_STATE);
+			CompositeChange composite= new CompositeChange("composite", new Change[] { new RecordingChange(fFile1, TextFileChange.KEEP_SAVE_STATE), outOfSync, last });
+
+			RefactoringStatus status= validate(composite);
+			assertEquals(status.toString(), RefactoringStatus.ERROR, status.getSeverity());
+			assertEquals(1, status.getEntries().length);
+			assertTrue(last.getStatus().isOK());
+		}
+	}
+
+	@Test
+	public void testNestedComposites() throws Exception {
+		makeOutOfSync(fFile2);
+		for (boolean batch : new boolean[] { true, false }) {
+			setBatchValidation(batch);
+			RecordingChange outOfSync= new RecordingChange(fFile2, TextFileChange.LEAVE_DIRTY);
+			CompositeChange inner= new CompositeChange("inner", new Change[] { new RecordingChange(fFile1, TextFileChange.KEEP_SAVE_STATE), outOfSync });
+			CompositeChange outer= new CompositeChange("outer", new Change[] { inner, new RecordingChange(fFile3, TextFileChange.KEEP_SAVE_STATE) });
+
+			RefactoringStatus status= validate(outer);
+			assertEquals(status.toString(), RefactoringStatus.ERROR, status.getSeverity());
+			// the file is reported once, by the outermost composite if the files are batched
+			assertEquals(1, status.getEntries().length);
+			assertEquals(batch ? RefactoringStatus.OK : RefactoringStatus.ERROR, outOfSync.getStatus().getSeverity());
+
+			// a nested composite validated on its own starts its own batch
+			status= validate(inner);
+			assertEquals(status.toString(), RefactoringStatus.ERROR, status.getSeverity());
+			assertEquals(1, status.getEntries().length);
+		}
+	}
+
+	@Test
+	public void testNestedReadOnlyFile() throws Exception {
+		setReadOnly(fFile2, true);
+		for (boolean batch : new boolean[] { true, false }) {
+			setBatchValidation(batch);
+			RecordingChange last= new RecordingChange(fFile3, TextFileChange.KEEP_SAVE_STATE);
+			CompositeChange inner= new CompositeChange("inner", new Change[] { new RecordingChange(fFile2, TextFileChange.KEEP_SAVE_STATE) });
+			CompositeChange outer= new CompositeChange("outer", new Change[] { new RecordingChange(fFile1, TextFileChange.KEEP_SAVE_STATE), inner, last });
+
+			RefactoringStatus status= validate(outer);
+			assertTrue(status.toString(), status.hasFatalError());
+			assertNull(last.getStatus());
+		}
+	}
+
+	@Test
+	public void testDisabledBatchValidation() throws Exception {
+		makeOutOfSync(fFile2);
+		setBatchValidation(false);
+		RecordingChange outOfSync= new RecordingChange(fFile2, TextFileChange.LEAVE_DIRTY);
+		RefactoringStatus status= validate(new CompositeChange("composite", new Change[] { outOfSync }));
+		// the file is validated by its change, not deferred to the composite
+		assertNotNull(outOfSync.getStatus());
+		assertEquals(RefactoringStatus.ERROR, outOfSync.getStatus().getSeverity());
+		assertEquals(RefactoringStatus.ERROR, status.getSeverity());
+
+		setBatchValidation(true);
+		outOfSync= new RecordingChange(fFile2, TextFileChange.LEAVE_DIRTY);
+		status= validate(new CompositeChange("composite", new Change[] { outOfSync }));
+		assertTrue(outOfSync.getStatus().isOK());
+		assertEquals(RefactoringStatus.ERROR, status.getSeverity());
+	}
+}
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.NullChange;
+import org.eclipse.ltk.internal.core.refactoring.UndoFootprint;
+import org.eclipse.ltk.internal.core.refactoring.UndoManager2;
+
+/**
+ * Tests that the refactoring undo history of {@link UndoManager2} is kept within its budget.
+ */
+public class UndoManagerBudgetTests {
+
+	/** The number of children of the undo changes */
+	private static final int CHILDREN= 9;
+
+	private UndoManager2 fManager;
+	private long fSize;
+
+	@Before
+	public void setUp() {
+		fManager= new UndoManager2();
+		fManager.flush();
+		fManager.setUndoBudget(0);
+		fSize= UndoFootprint.estimate(createUndo("size"));
+	}
+
+	@After
+	public void tearDown() {
+		fManager.flush();
+	}
+
+	private static Change createUndo(String name) {
+		CompositeChange result= new CompositeChange(name);
+		for (int i= 0; i < CHILDREN; i++)
+			result.add(new NullChange(name + i));
+		return result;
+	}
+
+	private void execute(String name) {
+		Change change= new NullChange(name);
+		fManager.aboutToPerformChange(change);
+		fManager.changePerformed(change, true);
+		fManager.addUndo(name, createUndo(name));
+	}
+
+	private void undo() throws CoreException {
+		fManager.performUndo(null, new NullProgressMonitor());
+	}
+
+	@Test
+	public void testFootprint() throws Exception {
+		assertEquals(0, fManager.getUndoFootprint());
+		execute("1");
+		execute("2");
+		assertEquals(2 * fSize, fManager.getUndoFootprint());
+
+		// the undone change is replaced by its redo change of the same size
+		undo();
+		assertTrue(fManager.anythingToRedo());
+		assertEquals(2 * fSize, fManager.getUndoFootprint());
+
+		fManager.flush();
+		assertEquals(0, fManager.getUndoFootprint());
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		fManager.setUndoBudget(2 * fSize + fSize / 2);
+		for (int i= 1; i <= 4; i++)
+			execute(String.valueOf(i));
+
+		assertEquals(2, fManager.getDroppedUndos());
+		assertEquals(2 * fSize, fManager.getUndoFootprint());
+		assertEquals("4", fManager.peekUndoName());
+		undo();
+		assertEquals("3", fManager.peekUndoName());
+		undo();
+		assertFalse(fManager.anythingToUndo());
+	}
+
+	@Test
+	public void testMostRecentUndoIsKept() throws Exception {
+		fManager.setUndoBudget(1);
+		execute("1");
+		assertEquals(0, fManager.getDroppedUndos());
+		execute("2");
+
+		assertEquals(1, fManager.getDroppedUndos());
+		assertEquals(fSize, fManager.getUndoFootprint());
+		assertEquals("2", fManager.peekUndoName());
+	}
+
+	@Test
+	public void testSetUndoBudget() throws Exception {
+		for (int i= 1; i <= 3; i++)
+			execute(String.valueOf(i));
+		assertEquals(3 * fSize, fManager.getUndoFootprint());
+
+		fManager.setUndoBudget(fSize);
+		assertEquals(2, fManager.getDroppedUndos());
+		assertEquals("3", fManager.peekUndoName());
+
+		// no limit
+		fManager.setUndoBudget(0);
+		execute("4");
+		assertEquals(2, fManager.getDroppedUndos());
+		assertEquals(2 * fSize, fManager.getUndoFootprint());
+	}
+
+	@Test
+	public void testRedoCountsAgainstBudget() throws Exception {
+		for (int i= 1; i <= 3; i++)
+			execute(String.valueOf(i));
+		undo();
+
+		// two undos and one redo exceed the budget, the oldest undo is dropped
+		fManager.setUndoBudget(2 * fSize);
+		assertEquals(1, fManager.getDroppedUndos());
+		assertEquals(2 * fSize, fManager.getUndoFootprint());
+		assertEquals("2", fManager.peekUndoName());
+
+		// neither the most recent undo nor the redo is dropped
+		fManager.setUndoBudget(fSize);
+		assertEquals(1, fManager.getDroppedUndos());
+		assertEquals("2", fManager.peekUndoName());
+		assertEquals("3", fManager.peekRedoName());
+	}
+}
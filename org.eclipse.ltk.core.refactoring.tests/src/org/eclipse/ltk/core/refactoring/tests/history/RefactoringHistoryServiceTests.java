@@ -21,8 +21,11 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.After;
@@ -32,6 +35,7 @@ import org.osgi.service.prefs.BackingStoreException;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
@@ -50,9 +54,11 @@ import org.eclipse.ltk.core.refactoring.history.RefactoringExecutionEvent;
 import org.eclipse.ltk.core.refactoring.history.RefactoringHistory;
 import org.eclipse.ltk.core.refactoring.history.RefactoringHistoryEvent;
 import org.eclipse.ltk.core.refactoring.tests.util.SimpleTestProject;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringDescriptorProxyAdapter;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryImplementation;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryIndex;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
 
 public class RefactoringHistoryServiceTests {
@@ -188,6 +194,70 @@ public class RefactoringHistoryServiceTests {
 		}
 	}
 
+	private RefactoringDescriptor executeRefactoring(String project, long stamp, String description) throws CoreException {
+		RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		try {
+			service.setOverrideTimeStamp(stamp);
+			MockRefactoring refactoring= new MockRefactoring(project, description, "A mock comment", Collections.<String, String> emptyMap(), RefactoringDescriptor.NONE);
+			RefactoringDescriptor descriptor= refactoring.createRefactoringDescriptor();
+			PerformRefactoringOperation operation= new PerformRefactoringOperation(refactoring, CheckConditionsOperation.ALL_CONDITIONS);
+			ResourcesPlugin.getWorkspace().run(operation, null);
+			return descriptor;
+		} finally {
+			service.setOverrideTimeStamp(-1);
+		}
+	}
+
+	private static String describe(RefactoringHistory history) {
+		List<String> result= new ArrayList<>();
+		for (RefactoringDescriptorProxy proxy : history.getDescriptors())
+			result.add(proxy.getTimeStamp() + " " + proxy.getDescription());
+		Collections.sort(result);
+		return String.join("\n", result);
+	}
+
+	/**
+	 * Reads the whole project history, so that its store is indexed.
+	 */
+	private void indexProjectHistory() {
+		RefactoringHistoryService.getInstance().getProjectHistory(fProject.getProject(), null);
+		RefactoringHistoryIndex.getDefault().resetStatistics();
+	}
+
+	/**
+	 * Queries a time range of the project history and compares it with the history read from
+	 * disk.
+	 *
+	 * @param start the start time stamp, inclusive
+	 * @param end the end time stamp, inclusive
+	 * @param indexed whether the query must be answered from the index
+	 * @return the queried history
+	 */
+	private RefactoringHistory assertProjectHistory(long start, long end, boolean indexed) {
+		final IProject project= fProject.getProject();
+		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		final RefactoringHistoryIndex index= RefactoringHistoryIndex.getDefault();
+		index.resetStatistics();
+		RefactoringHistory history= service.getProjectHistory(project, start, end, RefactoringDescriptor.NONE, null);
+		if (indexed)
+			assertEquals("Query should have been answered from the index", 0, index.getMisses());
+		else
+			assertTrue("Query should have read the history store", index.getMisses() > 0);
+		index.clear();
+		assertEquals("Indexed history differs from the stored history", describe(service.getProjectHistory(project, start, end, RefactoringDescriptor.NONE, null)), describe(history));
+		indexProjectHistory();
+		return history;
+	}
+
+	private void setBinaryRefactoringHistory(boolean binary) throws BackingStoreException {
+		final IEclipsePreferences preferences= InstanceScope.INSTANCE.getNode(RefactoringCore.ID_PLUGIN);
+		if (binary)
+			preferences.putBoolean(RefactoringPreferenceConstants.PREFERENCE_BINARY_REFACTORING_HISTORY, true);
+		else
+			preferences.remove(RefactoringPreferenceConstants.PREFERENCE_BINARY_REFACTORING_HISTORY);
+		preferences.flush();
+	}
+
 	private void setSharedRefactoringHistory(boolean shared) throws BackingStoreException, CoreException {
 		final IEclipsePreferences preferences= new ProjectScope(fProject.getProject()).getNode(RefactoringCore.ID_PLUGIN);
 		preferences.put(RefactoringPreferenceConstants.PREFERENCE_SHARED_REFACTORING_HISTORY, Boolean.toString(shared));
@@ -239,6 +309,74 @@ public class RefactoringHistoryServiceTests {
 		fProject.delete();
 	}
 
+	private File getPrivateHistoryLog() {
+		return RefactoringCorePlugin.getDefault().getStateLocation().append(RefactoringHistoryService.NAME_HISTORY_FOLDER).append(fProject.getProject().getName()).append("refactorings.log").toFile();
+	}
+
+	@Test
+	public void testBinaryHistory0() throws Exception {
+		final IProject project= fProject.getProject();
+		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		setSharedRefactoringHistory(false);
+		final File log= getPrivateHistoryLog();
+		try {
+			setBinaryRefactoringHistory(true);
+			RefactoringHistory history= service.getProjectHistory(project, null);
+			assertEquals("Refactoring history has wrong size", TOTAL_PROJECT_NUMBER, history.getDescriptors().length);
+			assertDescendingSortOrder(history.getDescriptors());
+			assertTrue("Refactoring history log should exist", log.exists());
+			history= service.getProjectHistory(project, STAMP_FACTOR * 3, STAMP_FACTOR * 5, RefactoringDescriptor.NONE, null);
+			assertEquals("Refactoring history has wrong size", 3, history.getDescriptors().length);
+			RefactoringDescriptorProxy proxy= history.getDescriptors()[0];
+			assertNotNull("Refactoring descriptor must be resolvable", proxy.requestDescriptor(null));
+			history= service.getProjectHistory(project, 0, Long.MAX_VALUE, RefactoringDescriptor.BREAKING_CHANGE, null);
+			service.deleteRefactoringDescriptors(history.getDescriptors(), null);
+			history= service.getProjectHistory(project, null);
+			assertEquals("Refactoring history has wrong size", TOTAL_PROJECT_NUMBER - BREAKING_NUMBER, history.getDescriptors().length);
+		} finally {
+			setBinaryRefactoringHistory(false);
+		}
+		RefactoringHistory history= service.getProjectHistory(project, null);
+		assertEquals("Refactoring history has wrong size", TOTAL_PROJECT_NUMBER - BREAKING_NUMBER, history.getDescriptors().length);
+		assertFalse("Refactoring history log should not exist", log.exists());
+	}
+
+	@Test
+	public void testBinaryHistory1() throws Exception {
+		final IProject project= fProject.getProject();
+		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		final IFolder folder= project.getFolder(RefactoringHistoryService.NAME_HISTORY_FOLDER);
+		try {
+			setBinaryRefactoringHistory(true);
+			RefactoringHistory history= service.getProjectHistory(project, null);
+			assertEquals("Refactoring history has wrong size", TOTAL_PROJECT_NUMBER, history.getDescriptors().length);
+			assertFalse("Shared refactoring history must not use a log", folder.getLocation().append("refactorings.log").toFile().exists());
+		} finally {
+			setBinaryRefactoringHistory(false);
+		}
+	}
+
+	@Test
+	public void testBinaryHistory2() throws Exception {
+		final IProject project= fProject.getProject();
+		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		setSharedRefactoringHistory(false);
+		try {
+			setBinaryRefactoringHistory(true);
+			RefactoringHistory history= service.getProjectHistory(project, null);
+			assertEquals("Refactoring history has wrong size", TOTAL_PROJECT_NUMBER, history.getDescriptors().length);
+			assertTrue("Refactoring history log should exist", getPrivateHistoryLog().exists());
+			setSharedRefactoringHistory(true);
+			final IFolder folder= project.getFolder(RefactoringHistoryService.NAME_HISTORY_FOLDER);
+			assertFalse("Shared refactoring history must not use a log", folder.getLocation().append("refactorings.log").toFile().exists());
+			assertFalse("Refactoring history log should have been exported", getPrivateHistoryLog().exists());
+			history= service.getProjectHistory(project, null);
+			assertEquals("Refactoring history has wrong size", TOTAL_PROJECT_NUMBER, history.getDescriptors().length);
+		} finally {
+			setBinaryRefactoringHistory(false);
+		}
+	}
+
 	@Test
 	public void testDeleteProjectHistory0() throws Exception {
 		setUpWorkspaceRefactorings();
@@ -278,6 +416,55 @@ public class RefactoringHistoryServiceTests {
 		assertTrue("Refactoring history should be empty", workspaceHistory.isEmpty());
 	}
 
+	/**
+	 * Reads the project history at a time stamp from disk.
+	 *
+	 * @param stamp the time stamp
+	 * @return the description of the history
+	 */
+	private String readProjectHistory(long stamp) {
+		RefactoringHistoryIndex.getDefault().clear();
+		return describe(RefactoringHistoryService.getInstance().getProjectHistory(fProject.getProject(), stamp, stamp, RefactoringDescriptor.NONE, null));
+	}
+
+	@Test
+	public void testBinaryHistorySharedTimeStamp() throws Exception {
+		final String name= fProject.getProject().getName();
+		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		final long stamp= STAMP_FACTOR * 1000L;
+		setSharedRefactoringHistory(false);
+		executeRefactoring(name, stamp, "A first refactoring");
+		executeRefactoring(name, stamp, "A second refactoring");
+		final File index= new File(getPrivateHistoryLog().getParentFile(), "refactorings.stamps");
+		try {
+			setBinaryRefactoringHistory(true);
+			// migrated to the log
+			assertEquals(stamp + " A first refactoring\n" + stamp + " A second refactoring", readProjectHistory(stamp));
+			assertTrue("Refactoring history log should exist", getPrivateHistoryLog().exists());
+
+			// appended to the index
+			executeRefactoring(name, stamp, "A third refactoring");
+			final String expected= stamp + " A first refactoring\n" + stamp + " A second refactoring\n" + stamp + " A third refactoring";
+			assertEquals(expected, readProjectHistory(stamp));
+
+			// rebuilt from the log
+			assertTrue(index.delete());
+			assertEquals(expected, readProjectHistory(stamp));
+
+			RefactoringHistory history= service.getProjectHistory(fProject.getProject(), stamp, stamp, RefactoringDescriptor.NONE, null);
+			for (RefactoringDescriptorProxy proxy : history.getDescriptors()) {
+				if (proxy.getDescription().startsWith("A second"))
+					service.deleteRefactoringDescriptors(new RefactoringDescriptorProxy[] { proxy }, null);
+			}
+			assertEquals(stamp + " A first refactoring\n" + stamp + " A third refactoring", readProjectHistory(stamp));
+			assertTrue(index.delete());
+			assertEquals(stamp + " A first refactoring\n" + stamp + " A third refactoring", readProjectHistory(stamp));
+			assertEquals(TOTAL_PROJECT_NUMBER + 2, service.getProjectHistory(fProject.getProject(), null).getDescriptors().length);
+		} finally {
+			setBinaryRefactoringHistory(false);
+		}
+	}
+
 	@Test
 	public void testDeleteRefactoringDescriptors0() throws Exception {
 		final IProject project= fProject.getProject();
@@ -739,4 +926,72 @@ public class RefactoringHistoryServiceTests {
 		assertDescendingSortOrder(proxies);
 	}
 
-}
\ No newline at end of file
+
+	@Test
+	public void testIndexedRangeQueries() throws Exception {
+		indexProjectHistory();
+		assertEquals(TOTAL_PROJECT_NUMBER, assertProjectHistory(0, Long.MAX_VALUE, true).getDescriptors().length);
+		assertEquals(3, assertProjectHistory(STAMP_FACTOR * 3, STAMP_FACTOR * 5, true).getDescriptors().length);
+		assertEquals(1, assertProjectHistory(STAMP_FACTOR * 3, STAMP_FACTOR * 3, true).getDescriptors().length);
+		assertEquals(0, assertProjectHistory(STAMP_FACTOR * 3 + 1, STAMP_FACTOR * 4 - 1, true).getDescriptors().length);
+		assertEquals(0, assertProjectHistory(STAMP_FACTOR * 5, STAMP_FACTOR * 3, true).getDescriptors().length);
+	}
+
+	@Test
+	public void testIndexAddedDescriptor() throws Exception {
+		setSharedRefactoringHistory(false);
+		indexProjectHistory();
+		final long stamp= STAMP_FACTOR * 1000L;
+		executeRefactoring(fProject.getProject().getName(), stamp, "An added refactoring");
+		assertEquals(1, assertProjectHistory(stamp, stamp, true).getDescriptors().length);
+		assertEquals(TOTAL_PROJECT_NUMBER + 1, assertProjectHistory(0, Long.MAX_VALUE, true).getDescriptors().length);
+	}
+
+	@Test
+	public void testIndexPoppedDescriptor() throws Exception {
+		setSharedRefactoringHistory(false);
+		indexProjectHistory();
+		final long stamp= STAMP_FACTOR * 1000L;
+		executeRefactoring(fProject.getProject().getName(), stamp, "A popped refactoring");
+		RefactoringCore.getUndoManager().performUndo(null, null);
+		assertEquals(0, assertProjectHistory(stamp, stamp, true).getDescriptors().length);
+		assertEquals(TOTAL_PROJECT_NUMBER, assertProjectHistory(0, Long.MAX_VALUE, true).getDescriptors().length);
+	}
+
+	@Test
+	public void testIndexPoppedDescriptorWithSharedTimeStamp() throws Exception {
+		setSharedRefactoringHistory(false);
+		indexProjectHistory();
+		final String name= fProject.getProject().getName();
+		final long stamp= STAMP_FACTOR * 1000L;
+		executeRefactoring(name, stamp, "A first refactoring");
+		executeRefactoring(name, stamp, "A second refactoring");
+		assertEquals(2, assertProjectHistory(stamp, stamp, true).getDescriptors().length);
+
+		// the stores do not agree on which refactorings with the time stamp are removed
+		RefactoringCore.getUndoManager().performUndo(null, null);
+		assertProjectHistory(stamp, stamp, false);
+		assertProjectHistory(STAMP_FACTOR * 3, STAMP_FACTOR * 5, true);
+	}
+
+	@Test
+	public void testIndexDeletedDescriptors() throws Exception {
+		final IProject project= fProject.getProject();
+		final RefactoringHistoryService service= RefactoringHistoryService.getInstance();
+		indexProjectHistory();
+		RefactoringHistory history= service.getProjectHistory(project, 0, Long.MAX_VALUE, RefactoringDescriptor.BREAKING_CHANGE, null);
+		service.deleteRefactoringDescriptors(history.getDescriptors(), null);
+		assertEquals(TOTAL_PROJECT_NUMBER - BREAKING_NUMBER, assertProjectHistory(0, Long.MAX_VALUE, false).getDescriptors().length);
+		assertEquals(TOTAL_PROJECT_NUMBER - BREAKING_NUMBER, assertProjectHistory(0, Long.MAX_VALUE, true).getDescriptors().length);
+	}
+
+	@Test
+	public void testIndexSharedHistory() throws Exception {
+		indexProjectHistory();
+		setSharedRefactoringHistory(false);
+		assertEquals(3, assertProjectHistory(STAMP_FACTOR * 3, STAMP_FACTOR * 5, false).getDescriptors().length);
+		setSharedRefactoringHistory(true);
+		assertEquals(3, assertProjectHistory(STAMP_FACTOR * 3, STAMP_FACTOR * 5, false).getDescriptors().length);
+		assertEquals(TOTAL_PROJECT_NUMBER, assertProjectHistory(0, Long.MAX_VALUE, true).getDescriptors().length);
+	}
+}
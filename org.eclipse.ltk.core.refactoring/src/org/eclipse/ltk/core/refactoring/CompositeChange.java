@@ -27,6 +27,7 @@ import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
+import org.eclipse.ltk.internal.core.refactoring.BufferValidationBatch;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
 
@@ -204,7 +205,7 @@ public class CompositeChange extends Change {
 	 * {@inheritDoc}
 	 * <p>
 	 * The composite change sends <code>initializeValidationData</code> to all its
-	 * children.
+	 * children. The open file buffers are looked up once for all children.
 	 * </p>
 	 * <p>
 	 * Client are allowed to extend this method.
@@ -213,9 +214,15 @@ public class CompositeChange extends Change {
 	@Override
 	public void initializeValidationData(IProgressMonitor pm) {
 		pm.beginTask("", fChanges.size()); //$NON-NLS-1$
-		for (Change change : fChanges) {
-			change.initializeValidationData(new SubProgressMonitor(pm, 1));
-			pm.worked(1);
+		BufferValidationBatch batch= BufferValidationBatch.begin();
+		try {
+			for (Change change : fChanges) {
+				change.initializeValidationData(new SubProgressMonitor(pm, 1));
+				pm.worked(1);
+			}
+		} finally {
+			if (batch != null)
+				batch.end();
 		}
 	}
 
@@ -225,7 +232,9 @@ public class CompositeChange extends Change {
 	 * The composite change sends <code>isValid</code> to all its children
 	 * until the first one returns a status with a severity of <code>FATAL
 	 * </code>. If one of the children throws an exception the remaining children
-	 * will not receive the <code>isValid</code> call.
+	 * will not receive the <code>isValid</code> call. The files of text changes
+	 * are checked for being in sync and made committable in one pass once all
+	 * children have been validated.
 	 * </p>
 	 * <p>
 	 * Client are allowed to extend this method.
@@ -235,14 +244,22 @@ public class CompositeChange extends Change {
 	public RefactoringStatus isValid(IProgressMonitor pm) throws CoreException {
 		RefactoringStatus result= new RefactoringStatus();
 		pm.beginTask("", fChanges.size()); //$NON-NLS-1$
-		for (Iterator<Change> iter= fChanges.iterator(); iter.hasNext() && !result.hasFatalError();) {
-			Change change= iter.next();
-			if (change.isEnabled())
-				result.merge(change.isValid(new SubProgressMonitor(pm, 1)));
-			else
-				pm.worked(1);
-			if (pm.isCanceled())
-				throw new OperationCanceledException();
+		BufferValidationBatch batch= BufferValidationBatch.begin();
+		try {
+			for (Iterator<Change> iter= fChanges.iterator(); iter.hasNext() && !result.hasFatalError();) {
+				Change change= iter.next();
+				if (change.isEnabled())
+					result.merge(change.isValid(new SubProgressMonitor(pm, 1)));
+				else
+					pm.worked(1);
+				if (pm.isCanceled())
+					throw new OperationCanceledException();
+			}
+			if (batch != null && !result.hasFatalError())
+				result.merge(batch.validateFiles());
+		} finally {
+			if (batch != null)
+				batch.end();
 		}
 		pm.done();
 		return result;
@@ -818,12 +818,7 @@ public class MultiStateTextFileChange extends TextEditBasedChange {
 			fDirty= buffer != null && buffer.isDirty();
 
 			final RefactoringStatus status= fValidationState.isValid(needsSaving());
-			if (needsSaving()) {
-				status.merge(Changes.validateModifiesFiles(new IFile[] { fFile }));
-			} else {
-				// we are reading the file. So it should be at least in sync
-				status.merge(Changes.checkInSync(new IFile[] { fFile }));
-			}
+			status.merge(Changes.validateFile(fFile, needsSaving()));
 
 			return status;
 		} finally {
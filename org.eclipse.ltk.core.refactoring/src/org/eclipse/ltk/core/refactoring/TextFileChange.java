@@ -185,12 +185,7 @@ public class TextFileChange extends TextChange {
 
 			boolean needsSaving= needsSaving();
 			RefactoringStatus result= fValidationState.isValid(needsSaving);
-			if (needsSaving) {
-				result.merge(Changes.validateModifiesFiles(new IFile[] { fFile}));
-			} else {
-				// we are reading the file. So it should be at least in sync
-				result.merge(Changes.checkInSync(new IFile[] { fFile}));
-			}
+			result.merge(Changes.validateFile(fFile, needsSaving));
 			return result;
 		} finally {
 			monitor.done();
@@ -139,6 +139,20 @@ public class UndoTextFileChange extends Change {
 		return new Object[] { modifiedElement };
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The change adapts to the {@link UndoEdit} it performs.
+	 * </p>
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T getAdapter(Class<T> adapter) {
+		if (UndoEdit.class.equals(adapter))
+			return (T) fUndo;
+		return super.getAdapter(adapter);
+	}
+
 	@Override
 	public void initializeValidationData(IProgressMonitor pm) {
 		if (pm == null)
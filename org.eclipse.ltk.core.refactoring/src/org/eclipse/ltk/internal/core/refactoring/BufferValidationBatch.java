@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IPath;
+
+import org.eclipse.core.resources.IFile;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.IFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+
+/**
+ * Validates the files of the changes of a composite change in one pass.
+ * <p>
+ * While a batch is active on the current thread, {@link BufferValidationState}s look up the open
+ * text file buffers in a snapshot taken when the batch was started instead of asking the file
+ * buffer manager for every file, and {@link Changes#validateFile(IFile, boolean)} collects the
+ * files, so that the in sync check and the validate edit are done once for all files of the
+ * batch.
+ * </p>
+ * <p>
+ * Batches can be disabled with the system property
+ * <code>org.eclipse.ltk.core.refactoring.batchValidation=false</code>, which is read whenever a
+ * batch is started. Without batches every text change validates its file on its own.
+ * </p>
+ */
+public final class BufferValidationBatch {
+
+	/** The system property that disables batches if set to <code>false</code> */
+	public static final String ENABLED_PROPERTY= "org.eclipse.ltk.core.refactoring.batchValidation"; //$NON-NLS-1$
+
+	private static final ThreadLocal<BufferValidationBatch> fgCurrent= new ThreadLocal<>();
+
+	/** The open text file buffers, by location */
+	private final Map<IPath, ITextFileBuffer> fBuffers= new HashMap<>();
+
+	/** The files that are modified by the changes of the batch */
+	private final List<IFile> fFilesToModify= new ArrayList<>();
+
+	/** The files that are only read by the changes of the batch */
+	private final List<IFile> fFilesToRead= new ArrayList<>();
+
+	private BufferValidationBatch() {
+		for (IFileBuffer buffer : FileBuffers.getTextFileBufferManager().getFileBuffers()) {
+			if (buffer instanceof ITextFileBuffer)
+				fBuffers.put(buffer.getLocation(), (ITextFileBuffer) buffer);
+		}
+	}
+
+	/**
+	 * Starts a batch on the current thread.
+	 *
+	 * @return the new batch or <code>null</code> if batches are disabled or a batch is already
+	 *         active on the current thread
+	 */
+	public static BufferValidationBatch begin() {
+		if (!isEnabled() || fgCurrent.get() != null)
+			return null;
+		BufferValidationBatch batch= new BufferValidationBatch();
+		fgCurrent.set(batch);
+		return batch;
+	}
+
+	/**
+	 * @return whether composite changes validate their files in batches
+	 */
+	public static boolean isEnabled() {
+		return Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true")); //$NON-NLS-1$
+	}
+
+	/**
+	 * @return the batch that is active on the current thread or <code>null</code>
+	 */
+	static BufferValidationBatch getCurrent() {
+		return fgCurrent.get();
+	}
+
+	/**
+	 * Returns the open text file buffer of the given file.
+	 *
+	 * @param file the file
+	 * @return the buffer or <code>null</code> if the file had no open buffer when the batch was
+	 *         started
+	 */
+	ITextFileBuffer getBuffer(IFile file) {
+		return fBuffers.get(file.getFullPath());
+	}
+
+	/**
+	 * Adds a file whose validation is deferred to {@link #validateFiles()}.
+	 *
+	 * @param file the file
+	 * @param needsSaving <code>true</code> if the file is modified, <code>false</code> if it is
+	 *            only read
+	 */
+	void addFile(IFile file, boolean needsSaving) {
+		if (needsSaving)
+			fFilesToModify.add(file);
+		else
+			fFilesToRead.add(file);
+	}
+
+	/**
+	 * Validates all files added to this batch.
+	 *
+	 * @return the status of the validation
+	 */
+	public RefactoringStatus validateFiles() {
+		RefactoringStatus result= new RefactoringStatus();
+		if (!fFilesToModify.isEmpty())
+			result.merge(Changes.validateModifiesFiles(fFilesToModify.toArray(new IFile[fFilesToModify.size()])));
+		if (!fFilesToRead.isEmpty())
+			result.merge(Changes.checkInSync(fFilesToRead.toArray(new IFile[fFilesToRead.size()])));
+		fFilesToModify.clear();
+		fFilesToRead.clear();
+		return result;
+	}
+
+	/**
+	 * Ends this batch. Files that have not been validated yet are dropped.
+	 */
+	public void end() {
+		if (fgCurrent.get() == this)
+			fgCurrent.remove();
+	}
+}
@@ -169,6 +169,9 @@ public abstract class BufferValidationState {
 	}
 
 	protected static ITextFileBuffer getBuffer(IFile file) {
+		BufferValidationBatch batch= BufferValidationBatch.getCurrent();
+		if (batch != null)
+			return batch.getBuffer(file);
 		ITextFileBufferManager manager= FileBuffers.getTextFileBufferManager();
 		IPath path= file.getFullPath();
 		ITextFileBuffer buffer= manager.getTextFileBuffer(path, LocationKind.IFILE);
@@ -52,6 +52,27 @@ public class Changes {
 		return result;
 	}
 
+	/**
+	 * Validates a file of a text change. If a {@link BufferValidationBatch} is active, the file is
+	 * validated together with the other files of the batch.
+	 *
+	 * @param file the file
+	 * @param needsSaving <code>true</code> if the file is modified, <code>false</code> if it is
+	 *            only read
+	 * @return the status of the validation, OK if it has been deferred
+	 */
+	public static RefactoringStatus validateFile(IFile file, boolean needsSaving) {
+		BufferValidationBatch batch= BufferValidationBatch.getCurrent();
+		if (batch != null) {
+			batch.addFile(file, needsSaving);
+			return new RefactoringStatus();
+		}
+		if (needsSaving)
+			return validateModifiesFiles(new IFile[] { file });
+		// we are reading the file. So it should be at least in sync
+		return checkInSync(new IFile[] { file });
+	}
+
 	public static CoreException asCoreException(BadLocationException e) {
 		String message= e.getMessage();
 		if (message == null)
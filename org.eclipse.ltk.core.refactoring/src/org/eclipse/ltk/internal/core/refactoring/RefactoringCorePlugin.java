@@ -33,6 +33,7 @@ import org.eclipse.ltk.core.refactoring.IUndoManager;
 import org.eclipse.ltk.core.refactoring.RefactoringCore;
 import org.eclipse.ltk.core.refactoring.history.IRefactoringHistoryListener;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringContributionManager;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryIndex;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistorySerializer;
 import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
 
@@ -121,6 +122,7 @@ public class RefactoringCorePlugin extends Plugin {
 		service.connect();
 		fRefactoringHistoryListener= new RefactoringHistorySerializer();
 		service.addHistoryListener(fRefactoringHistoryListener);
+		RefactoringHistoryIndex.getDefault().schedulePopulate();
 	}
 
 	@Override
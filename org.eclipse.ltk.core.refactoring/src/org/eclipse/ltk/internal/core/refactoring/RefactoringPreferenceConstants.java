@@ -23,6 +23,14 @@ public final class RefactoringPreferenceConstants {
 	/** The shared refactoring history preference */
 	public static final String PREFERENCE_SHARED_REFACTORING_HISTORY= "org.eclipse.ltk.core.refactoring.enable.project.refactoring.history"; //$NON-NLS-1$
 
+	/**
+	 * The binary refactoring history preference. If enabled, refactoring histories are
+	 * stored in a binary, append-only log instead of the XML history tree.
+	 *
+	 * @since 3.13
+	 */
+	public static final String PREFERENCE_BINARY_REFACTORING_HISTORY= "org.eclipse.ltk.core.refactoring.binary.refactoring.history"; //$NON-NLS-1$
+
 	private RefactoringPreferenceConstants() {
 		// Not for instantiation
 	}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import org.eclipse.text.edits.InsertEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
+import org.eclipse.text.edits.UndoEdit;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.UndoTextFileChange;
+
+/**
+ * Estimates the memory held by undo changes.
+ * <p>
+ * The estimate is dominated by the edit trees of {@link UndoTextFileChange}s, which are obtained
+ * by adapting the changes to {@link UndoEdit}. Other changes are counted with a fixed size.
+ * </p>
+ */
+public final class UndoFootprint {
+
+	/** The estimated size of a change that is not a text file change */
+	private static final long CHANGE_SIZE= 128;
+
+	/** The estimated size of a text edit without its text */
+	private static final long EDIT_SIZE= 64;
+
+	private UndoFootprint() {
+	}
+
+	/**
+	 * Estimates the size of the given change and its children.
+	 *
+	 * @param change the change, may be <code>null</code>
+	 * @return the estimated size in bytes
+	 */
+	public static long estimate(Change change) {
+		if (change == null)
+			return 0;
+		long size= CHANGE_SIZE;
+		if (change instanceof CompositeChange) {
+			for (Change child : ((CompositeChange) change).getChildren()) {
+				size+= estimate(child);
+			}
+		} else if (change instanceof UndoTextFileChange) {
+			size+= estimate(change.getAdapter(UndoEdit.class));
+		}
+		return size;
+	}
+
+	private static long estimate(TextEdit edit) {
+		if (edit == null)
+			return 0;
+		long size= EDIT_SIZE;
+		if (edit instanceof ReplaceEdit)
+			size+= 2L * ((ReplaceEdit) edit).getText().length();
+		else if (edit instanceof InsertEdit)
+			size+= 2L * ((InsertEdit) edit).getText().length();
+		for (TextEdit child : edit.getChildren()) {
+			size+= estimate(child);
+		}
+		return size;
+	}
+}
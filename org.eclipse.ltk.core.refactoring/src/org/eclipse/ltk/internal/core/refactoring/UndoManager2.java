@@ -16,6 +16,7 @@ package org.eclipse.ltk.internal.core.refactoring;
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.operations.IOperationHistory;
 import org.eclipse.core.commands.operations.IOperationHistoryListener;
+import org.eclipse.core.commands.operations.IUndoContext;
 import org.eclipse.core.commands.operations.IUndoableOperation;
 import org.eclipse.core.commands.operations.OperationHistoryEvent;
 import org.eclipse.core.commands.operations.OperationHistoryFactory;
@@ -38,6 +39,13 @@ import org.eclipse.ltk.core.refactoring.RefactoringStatus;
 
 public class UndoManager2 implements IUndoManager {
 
+	/**
+	 * The maximal estimated size of the refactoring undo and redo history in bytes, <code>0</code>
+	 * for no limit. The oldest undo changes are dropped once the budget is exceeded, the most
+	 * recent one and the redo changes are always kept.
+	 */
+	private static final long UNDO_BUDGET= Long.getLong("org.eclipse.ltk.core.refactoring.undoBudget", 64L * 1024 * 1024).longValue(); //$NON-NLS-1$
+
 	private class OperationHistoryListener implements IOperationHistoryListener {
 		@Override
 		public void historyNotification(OperationHistoryEvent event) {
@@ -115,8 +123,14 @@ public class UndoManager2 implements IUndoManager {
 
 	private ListenerList<IUndoManagerListener> fListeners;
 
+	private long fBudget;
+
+	/** The number of undo changes dropped to stay within the budget */
+	private long fDroppedUndos;
+
 	public UndoManager2() {
 		fOperationHistory= OperationHistoryFactory.getOperationHistory();
+		fBudget= UNDO_BUDGET;
 	}
 
 	@Override
@@ -177,6 +191,66 @@ public class UndoManager2 implements IUndoManager {
 			operation.setLabel(name);
 			fOperationHistory.add(fActiveOperation);
 			fActiveOperation= null;
+			enforceBudget();
+		}
+	}
+
+	/**
+	 * Sets the maximal estimated size of the refactoring undo and redo history. The redo changes
+	 * count against the budget but are never dropped.
+	 *
+	 * @param budget the budget in bytes, <code>0</code> for no limit
+	 */
+	public void setUndoBudget(long budget) {
+		fBudget= budget;
+		enforceBudget();
+	}
+
+	/**
+	 * @return the estimated size of the changes in the refactoring undo and redo history, in bytes
+	 */
+	public long getUndoFootprint() {
+		IUndoContext context= RefactoringCorePlugin.getUndoContext();
+		return getFootprint(fOperationHistory.getUndoHistory(context)) + getFootprint(fOperationHistory.getRedoHistory(context));
+	}
+
+	/**
+	 * @return the number of undo changes that have been dropped because the undo budget was
+	 *         exceeded
+	 */
+	public long getDroppedUndos() {
+		return fDroppedUndos;
+	}
+
+	private long getFootprint(IUndoableOperation[] operations) {
+		long footprint= 0;
+		for (IUndoableOperation operation : operations) {
+			UndoableOperation2ChangeAdapter changeOperation= getUnwrappedOperation(operation);
+			if (changeOperation != null)
+				footprint+= changeOperation.getFootprint();
+		}
+		return footprint;
+	}
+
+	/**
+	 * Drops the oldest undo changes until the {@link #getUndoFootprint() footprint} of the undo
+	 * and redo history fits into the budget.
+	 */
+	private void enforceBudget() {
+		if (fBudget <= 0)
+			return;
+		IUndoContext context= RefactoringCorePlugin.getUndoContext();
+		IUndoableOperation[] undos= fOperationHistory.getUndoHistory(context);
+		long footprint= getFootprint(undos) + getFootprint(fOperationHistory.getRedoHistory(context));
+		// the history is ordered from the oldest to the most recent operation
+		for (int i= 0; footprint > fBudget && i < undos.length - 1; i++) {
+			UndoableOperation2ChangeAdapter changeOperation= getUnwrappedOperation(undos[i]);
+			if (changeOperation == null)
+				continue;
+			footprint-= changeOperation.getFootprint();
+			fOperationHistory.replaceOperation(undos[i], new IUndoableOperation[0]);
+			undos[i].dispose();
+			fDroppedUndos++;
 		}
 	}
 
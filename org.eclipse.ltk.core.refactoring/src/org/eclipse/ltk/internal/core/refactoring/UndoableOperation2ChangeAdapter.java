@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.ltk.internal.core.refactoring;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -52,6 +53,10 @@ public class UndoableOperation2ChangeAdapter implements IUndoableOperation, IAdv
 	private Change fRedoChange;
 	private Change fActiveChange;
 
+	/** The change whose size is {@link #fFootprint}, weak to not keep performed changes */
+	private WeakReference<Change> fFootprintChange;
+	private long fFootprint;
+
 	private ChangeDescriptor fChangeDescriptor;
 
 	private List<IUndoContext> fContexts= new ArrayList<>();
@@ -98,6 +103,18 @@ public class UndoableOperation2ChangeAdapter implements IUndoableOperation, IAdv
 		return fActiveChange;
 	}
 
+	/**
+	 * @return the estimated size of the change that is performed next, in bytes
+	 */
+	public long getFootprint() {
+		Change change= fActiveChange;
+		if (fFootprintChange == null || change != fFootprintChange.get()) {
+			fFootprint= UndoFootprint.estimate(change);
+			fFootprintChange= new WeakReference<>(change);
+		}
+		return fFootprint;
+	}
+
 	public ChangeDescriptor getChangeDescriptor() {
 		return fChangeDescriptor;
 	}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring.history;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.eclipse.core.filesystem.IFileStore;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
+
+/**
+ * In-memory index of the refactoring descriptor proxies of the history stores, ordered by time
+ * stamp.
+ * <p>
+ * A store is indexed when it has been read completely, either by the background job scheduled
+ * with {@link #schedulePopulate()} or by a query for the whole history. Time range queries on
+ * indexed stores do not touch the disk. The index is updated from the history notifications
+ * processed by {@link RefactoringHistorySerializer}; changes of a history store that are not
+ * reported that way must {@link #invalidate(IFileStore) invalidate} the store. A store read
+ * while the index has been modified is not indexed.
+ * </p>
+ * <p>
+ * The index can be disabled with the system property
+ * <code>org.eclipse.ltk.core.refactoring.historyIndex=false</code>.
+ * </p>
+ */
+public final class RefactoringHistoryIndex {
+
+	/** Whether history stores are indexed */
+	private static final boolean ENABLED= Boolean.parseBoolean(System.getProperty("org.eclipse.ltk.core.refactoring.historyIndex", "true")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private static RefactoringHistoryIndex fgDefault;
+
+	/** Maps the indexed stores to the descriptions of their refactorings by time stamp */
+	private final Map<IFileStore, NavigableMap<Long, List<String>>> fStores= new HashMap<>();
+
+	/** Incremented whenever the index is modified */
+	private long fModificationStamp;
+
+	private long fHits;
+	private long fMisses;
+
+	private RefactoringHistoryIndex() {
+	}
+
+	/**
+	 * @return the workspace wide index
+	 */
+	public static synchronized RefactoringHistoryIndex getDefault() {
+		if (fgDefault == null)
+			fgDefault= new RefactoringHistoryIndex();
+		return fgDefault;
+	}
+
+	/**
+	 * Schedules a background job that indexes the history stores of the workspace and of all
+	 * accessible projects.
+	 */
+	public void schedulePopulate() {
+		if (!ENABLED)
+			return;
+		Job job= Job.create(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, monitor -> {
+			populate(monitor);
+			return Status.OK_STATUS;
+		});
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
+	private void populate(IProgressMonitor monitor) {
+		IProject[] projects= ResourcesPlugin.getWorkspace().getRoot().getProjects();
+		SubMonitor subMonitor= SubMonitor.convert(monitor, projects.length + 1);
+		index(null, subMonitor.split(1));
+		for (IProject project : projects) {
+			if (project.isAccessible())
+				index(project.getName(), subMonitor.split(1));
+			else
+				subMonitor.worked(1);
+		}
+	}
+
+	private void index(String name, IProgressMonitor monitor) {
+		IFileStore store= RefactoringHistoryService.getHistoryStore(name);
+		if (store != null && !isIndexed(store))
+			new RefactoringHistoryManager(store, name).indexHistory(monitor);
+	}
+
+	/**
+	 * @return the current modification stamp, to be passed to
+	 *         {@link #put(IFileStore, Collection, long)}
+	 */
+	synchronized long getModificationStamp() {
+		return fModificationStamp;
+	}
+
+	synchronized boolean isIndexed(IFileStore store) {
+		return fStores.containsKey(store);
+	}
+
+	/**
+	 * Adds the refactoring descriptor proxies of an indexed store in the given time range to the
+	 * collection.
+	 *
+	 * @param store the history store
+	 * @param project the name of the project, or <code>null</code> for the workspace
+	 * @param start the start time stamp, inclusive
+	 * @param end the end time stamp, inclusive
+	 * @param collection the collection to add the proxies to
+	 * @return <code>true</code> if the store is indexed, <code>false</code> if it must be read
+	 *         from disk
+	 */
+	synchronized boolean readProxies(IFileStore store, String project, long start, long end, Collection<? super RefactoringDescriptorProxy> collection) {
+		if (!ENABLED)
+			return false;
+		NavigableMap<Long, List<String>> entries= fStores.get(store);
+		if (entries == null) {
+			fMisses++;
+			return false;
+		}
+		fHits++;
+		if (start > end)
+			return true;
+		for (Map.Entry<Long, List<String>> entry : entries.subMap(Long.valueOf(start), true, Long.valueOf(end), true).entrySet()) {
+			for (String description : entry.getValue()) {
+				collection.add(new DefaultRefactoringDescriptorProxy(description, project, entry.getKey().longValue()));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Indexes a store that has been read completely, unless the index has been modified since the
+	 * store has been read.
+	 *
+	 * @param store the history store
+	 * @param proxies all refactoring descriptor proxies of the store
+	 * @param stamp the modification stamp before the store has been read
+	 */
+	synchronized void put(IFileStore store, Collection<? extends RefactoringDescriptorProxy> proxies, long stamp) {
+		if (!ENABLED || stamp != fModificationStamp)
+			return;
+		NavigableMap<Long, List<String>> entries= new TreeMap<>();
+		for (RefactoringDescriptorProxy proxy : proxies) {
+			add(entries, proxy);
+		}
+		fStores.put(store, entries);
+	}
+
+	/**
+	 * Adds a refactoring descriptor proxy to an indexed store.
+	 *
+	 * @param store the history store
+	 * @param proxy the proxy that has been added to the store
+	 */
+	synchronized void added(IFileStore store, RefactoringDescriptorProxy proxy) {
+		fModificationStamp++;
+		NavigableMap<Long, List<String>> entries= fStores.get(store);
+		if (entries != null)
+			add(entries, proxy);
+	}
+
+	/**
+	 * Removes a refactoring descriptor proxy from an indexed store.
+	 * <p>
+	 * The history stores remove refactorings by time stamp, but not in the same way: the binary
+	 * log removes all refactorings with the time stamp of the proxy, the XML history tree keeps
+	 * the other refactorings with that time stamp in its index. If the time stamp is not unique,
+	 * the store is therefore removed from the index and read again by the next query.
+	 * </p>
+	 *
+	 * @param store the history store
+	 * @param proxy the proxy that has been removed from the store
+	 */
+	synchronized void removed(IFileStore store, RefactoringDescriptorProxy proxy) {
+		fModificationStamp++;
+		NavigableMap<Long, List<String>> entries= fStores.get(store);
+		if (entries == null)
+			return;
+		Long stamp= Long.valueOf(proxy.getTimeStamp());
+		List<String> descriptions= entries.get(stamp);
+		if (descriptions == null)
+			return;
+		if (descriptions.size() == 1 && descriptions.contains(proxy.getDescription()))
+			entries.remove(stamp);
+		else
+			fStores.remove(store);
+	}
+
+	/**
+	 * Removes a store from the index after it has been changed without a history notification.
+	 *
+	 * @param store the history store
+	 */
+	public synchronized void invalidate(IFileStore store) {
+		fModificationStamp++;
+		fStores.remove(store);
+	}
+
+	/**
+	 * Removes all stores from the index.
+	 */
+	public synchronized void clear() {
+		fModificationStamp++;
+		fStores.clear();
+	}
+
+	private static void add(NavigableMap<Long, List<String>> entries, RefactoringDescriptorProxy proxy) {
+		List<String> descriptions= entries.computeIfAbsent(Long.valueOf(proxy.getTimeStamp()), stamp -> new ArrayList<>(1));
+		if (!descriptions.contains(proxy.getDescription()))
+			descriptions.add(proxy.getDescription());
+	}
+
+	/**
+	 * @return the number of queries answered from the index
+	 */
+	public synchronized long getHits() {
+		return fHits;
+	}
+
+	/**
+	 * @return the number of queries on stores that were not indexed
+	 */
+	public synchronized long getMisses() {
+		return fMisses;
+	}
+
+	public synchronized void resetStatistics() {
+		fHits= 0;
+		fMisses= 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "RefactoringHistoryIndex [stores=" + fStores.size() + ", hits=" + fHits + ", misses=" + fMisses + "]"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+	}
+}
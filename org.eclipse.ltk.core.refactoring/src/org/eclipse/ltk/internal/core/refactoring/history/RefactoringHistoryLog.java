@@ -0,0 +1,711 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring.history;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.Assert;
+
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
+
+/**
+ * Binary, append-only store of a refactoring history.
+ * <p>
+ * The log file starts with a header followed by length-prefixed records. A record
+ * either adds a refactoring descriptor, replaces the descriptor of an earlier record,
+ * which is how comments are changed without rewriting the log, or removes the
+ * descriptor of an earlier record. Records refer to earlier records by their offset,
+ * since several descriptors may have the same time stamp.
+ * </p>
+ * <p>
+ * The stamp index file contains the time stamps of all live descriptors in ascending
+ * order, each with the offset of its record in the log. Descriptors with the same time
+ * stamp are in the order they have been added. Time range queries do a binary
+ * search with positional reads on the index. The index is not memory-mapped, since a
+ * mapped file can neither be deleted nor replaced on some platforms until the mapping
+ * is garbage collected. It records the length of the log it has been computed from and
+ * is rebuilt from the log whenever it is out of date.
+ * </p>
+ */
+final class RefactoringHistoryLog {
+
+	/** The name of the log file */
+	static final String NAME_LOG_FILE= "refactorings.log"; //$NON-NLS-1$
+
+	/** The name of the stamp index file */
+	static final String NAME_STAMP_FILE= "refactorings.stamps"; //$NON-NLS-1$
+
+	/** The log file magic number */
+	private static final int LOG_MAGIC= 0x52484C47;
+
+	/** The index file magic number */
+	private static final int INDEX_MAGIC= 0x52484958;
+
+	/** The format version */
+	private static final int VERSION= 1;
+
+	/** The size of the log header: magic, version */
+	private static final int LOG_HEADER_SIZE= 8;
+
+	/** The size of the index header: magic, version, log length, entry count */
+	private static final int INDEX_HEADER_SIZE= 20;
+
+	/** The size of an index entry: stamp, offset */
+	private static final int INDEX_ENTRY_SIZE= 16;
+
+	/** The size of a record prefix: length, kind, stamp */
+	private static final int RECORD_PREFIX_SIZE= 13;
+
+	/** The size of a reference to an earlier record: offset */
+	private static final int RECORD_REFERENCE_SIZE= 8;
+
+	/** The record kind of an added descriptor */
+	private static final byte KIND_DESCRIPTOR= 1;
+
+	/**
+	 * The record kind of a removed descriptor. Removal records without a
+	 * reference remove all descriptors with their time stamp.
+	 */
+	private static final byte KIND_REMOVAL= 2;
+
+	/** The record kind of a replaced descriptor */
+	private static final byte KIND_REPLACEMENT= 3;
+
+	/**
+	 * Decoded contents of a descriptor record.
+	 */
+	static final class Record {
+
+		final Map<String, String> fArguments;
+
+		final String fComment;
+
+		final String fDescription;
+
+		final int fFlags;
+
+		final String fId;
+
+		final long fStamp;
+
+		Record(final long stamp, final String id, final String description, final String comment, final int flags, final Map<String, String> arguments) {
+			fStamp= stamp;
+			fId= id;
+			fDescription= description;
+			fComment= comment;
+			fFlags= flags;
+			fArguments= arguments;
+		}
+
+		/**
+		 * Creates a refactoring descriptor for this record.
+		 *
+		 * @param project
+		 *            the name of the project, or <code>null</code> for the
+		 *            workspace
+		 * @param defaults
+		 *            <code>true</code> to create a
+		 *            {@link DefaultRefactoringDescriptor}, <code>false</code> to
+		 *            ask the refactoring contribution
+		 * @return the refactoring descriptor
+		 */
+		RefactoringDescriptor createDescriptor(final String project, final boolean defaults) {
+			final RefactoringDescriptor descriptor;
+			if (defaults)
+				descriptor= new DefaultRefactoringDescriptor(fId, project, fDescription, fComment, fArguments, fFlags);
+			else
+				descriptor= RefactoringContributionManager.getInstance().createDescriptor(fId, project, fDescription, fComment, fArguments, fFlags);
+			descriptor.setTimeStamp(fStamp);
+			return descriptor;
+		}
+	}
+
+	/**
+	 * Open stamp index, read with positional reads.
+	 */
+	private static final class Index implements AutoCloseable {
+
+		private final FileChannel fChannel;
+
+		private final int fCount;
+
+		private final ByteBuffer fEntry= ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+
+		Index(final FileChannel channel, final int count) {
+			fChannel= channel;
+			fCount= count;
+		}
+
+		int getCount() {
+			return fCount;
+		}
+
+		long getStamp(final int position) throws IOException {
+			return readEntry(position).getLong(0);
+		}
+
+		long getOffset(final int position) throws IOException {
+			return readEntry(position).getLong(8);
+		}
+
+		/**
+		 * Returns the position of the first entry whose stamp is not less than
+		 * the specified stamp.
+		 *
+		 * @param stamp
+		 *            the time stamp
+		 * @return the position, or the number of entries if there is none
+		 * @throws IOException
+		 *             if an input/output error occurs
+		 */
+		int lowerBound(final long stamp) throws IOException {
+			int low= 0;
+			int high= fCount;
+			while (low < high) {
+				final int middle= (low + high) >>> 1;
+				if (getStamp(middle) < stamp)
+					low= middle + 1;
+				else
+					high= middle;
+			}
+			return low;
+		}
+
+		private ByteBuffer readEntry(final int position) throws IOException {
+			fEntry.clear();
+			readFully(fChannel, fEntry, INDEX_HEADER_SIZE + (long) position * INDEX_ENTRY_SIZE);
+			return fEntry;
+		}
+
+		@Override
+		public void close() throws IOException {
+			fChannel.close();
+		}
+	}
+
+	/** The index file */
+	private final File fIndexFile;
+
+	/** The log file */
+	private final File fLogFile;
+
+	/**
+	 * Creates a new refactoring history log.
+	 *
+	 * @param folder
+	 *            the folder of the history store
+	 */
+	RefactoringHistoryLog(final File folder) {
+		Assert.isNotNull(folder);
+		fLogFile= new File(folder, NAME_LOG_FILE);
+		fIndexFile= new File(folder, NAME_STAMP_FILE);
+	}
+
+	/**
+	 * Appends the specified descriptor records to the log.
+	 *
+	 * @param records
+	 *            the records to append
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	synchronized void append(final Record[] records) throws IOException {
+		if (records.length == 0)
+			return;
+		final long[] offsets= new long[records.length];
+		final long logLength= ensureLog();
+		long offset= logLength;
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(256 * records.length);
+		final DataOutputStream output= new DataOutputStream(bytes);
+		for (int index= 0; index < records.length; index++) {
+			offsets[index]= offset;
+			final int start= output.size();
+			writeRecord(output, records[index], -1);
+			offset+= output.size() - start;
+		}
+		output.flush();
+		try (FileOutputStream stream= new FileOutputStream(fLogFile, true)) {
+			bytes.writeTo(stream);
+		}
+		appendIndexEntries(logLength, records, offsets);
+	}
+
+	/**
+	 * Appends removal records for the descriptors of the specified proxies to
+	 * the log. A proxy removes the descriptors with its time stamp and
+	 * description, or all descriptors with its time stamp if none has its
+	 * description.
+	 *
+	 * @param proxies
+	 *            the proxies of the descriptors to remove
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	synchronized void appendRemovals(final RefactoringDescriptorProxy[] proxies) throws IOException {
+		if (proxies.length == 0 || !fLogFile.exists())
+			return;
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(proxies.length * (RECORD_PREFIX_SIZE + RECORD_REFERENCE_SIZE));
+		final DataOutputStream output= new DataOutputStream(bytes);
+		try (Index index= openIndex(); FileChannel channel= FileChannel.open(fLogFile.toPath(), StandardOpenOption.READ)) {
+			for (RefactoringDescriptorProxy proxy : proxies) {
+				final long stamp= proxy.getTimeStamp();
+				final List<Long> offsets= new ArrayList<>(1);
+				final List<Long> matches= new ArrayList<>(1);
+				for (int position= index.lowerBound(stamp); position < index.getCount() && index.getStamp(position) == stamp; position++) {
+					final Long offset= Long.valueOf(index.getOffset(position));
+					offsets.add(offset);
+					if (Objects.equals(proxy.getDescription(), readRecord(channel, offset.longValue()).fDescription))
+						matches.add(offset);
+				}
+				for (Long offset : matches.isEmpty() ? offsets : matches) {
+					output.writeInt(RECORD_PREFIX_SIZE - 4 + RECORD_REFERENCE_SIZE);
+					output.writeByte(KIND_REMOVAL);
+					output.writeLong(stamp);
+					output.writeLong(offset.longValue());
+				}
+			}
+		}
+		if (output.size() == 0)
+			return;
+		output.flush();
+		try (FileOutputStream stream= new FileOutputStream(fLogFile, true)) {
+			bytes.writeTo(stream);
+		}
+		rebuildIndex();
+	}
+
+	/**
+	 * Deletes the log and its index.
+	 */
+	synchronized void delete() {
+		fIndexFile.delete();
+		fLogFile.delete();
+	}
+
+	/**
+	 * Returns whether the log exists.
+	 *
+	 * @return <code>true</code> if the log exists, <code>false</code> otherwise
+	 */
+	boolean exists() {
+		return fLogFile.exists();
+	}
+
+	/**
+	 * Reads the descriptor record with the specified time stamp.
+	 *
+	 * @param stamp
+	 *            the time stamp
+	 * @return the record, or <code>null</code> if the log does not contain a
+	 *         live descriptor with this time stamp
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	synchronized Record readRecord(final long stamp) throws IOException {
+		if (!fLogFile.exists())
+			return null;
+		try (Index index= openIndex()) {
+			final int position= index.lowerBound(stamp);
+			if (position < index.getCount() && index.getStamp(position) == stamp) {
+				try (FileChannel channel= FileChannel.open(fLogFile.toPath(), StandardOpenOption.READ)) {
+					return readRecord(channel, index.getOffset(position));
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the comment of the first descriptor with the specified time stamp.
+	 *
+	 * @param stamp
+	 *            the time stamp
+	 * @param comment
+	 *            the comment
+	 * @return <code>true</code> if the comment has been set,
+	 *         <code>false</code> if the log does not contain a live descriptor
+	 *         with this time stamp
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	synchronized boolean setComment(final long stamp, final String comment) throws IOException {
+		if (!fLogFile.exists())
+			return false;
+		final int position;
+		final long offset;
+		final Record record;
+		try (Index index= openIndex()) {
+			position= index.lowerBound(stamp);
+			if (position == index.getCount() || index.getStamp(position) != stamp)
+				return false;
+			offset= index.getOffset(position);
+		}
+		try (FileChannel channel= FileChannel.open(fLogFile.toPath(), StandardOpenOption.READ)) {
+			record= readRecord(channel, offset);
+		}
+		final long logLength= fLogFile.length();
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(256);
+		final DataOutputStream output= new DataOutputStream(bytes);
+		writeRecord(output, new Record(stamp, record.fId, record.fDescription, comment, record.fFlags, record.fArguments), offset);
+		output.flush();
+		try (FileOutputStream stream= new FileOutputStream(fLogFile, true)) {
+			bytes.writeTo(stream);
+		}
+		// The index has just been validated against the log, so the entry can be updated in place
+		try (RandomAccessFile file= new RandomAccessFile(fIndexFile, "rw")) { //$NON-NLS-1$
+			file.seek(INDEX_HEADER_SIZE + (long) position * INDEX_ENTRY_SIZE + 8);
+			file.writeLong(logLength);
+			file.seek(8);
+			file.writeLong(fLogFile.length());
+		}
+		return true;
+	}
+
+	/**
+	 * Reads all live descriptor records in ascending order of their time stamps.
+	 *
+	 * @return the records
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	synchronized Record[] readRecords() throws IOException {
+		if (!fLogFile.exists())
+			return new Record[0];
+		try (Index index= openIndex(); FileChannel channel= FileChannel.open(fLogFile.toPath(), StandardOpenOption.READ)) {
+			final Record[] records= new Record[index.getCount()];
+			for (int position= 0; position < records.length; position++)
+				records[position]= readRecord(channel, index.getOffset(position));
+			return records;
+		}
+	}
+
+	/**
+	 * Reads the refactoring descriptor proxies in the specified time range.
+	 *
+	 * @param project
+	 *            the name of the project, or <code>null</code> for the
+	 *            workspace
+	 * @param start
+	 *            the start time stamp, inclusive
+	 * @param end
+	 *            the end time stamp, inclusive
+	 * @param collection
+	 *            the collection of proxies to fill in
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	synchronized void readProxies(final String project, final long start, final long end, final Collection<? super RefactoringDescriptorProxy> collection) throws IOException {
+		if (!fLogFile.exists() || start > end)
+			return;
+		try (Index index= openIndex()) {
+			int position= index.lowerBound(start);
+			if (position == index.getCount())
+				return;
+			try (FileChannel channel= FileChannel.open(fLogFile.toPath(), StandardOpenOption.READ)) {
+				for (; position < index.getCount(); position++) {
+					final long stamp= index.getStamp(position);
+					if (stamp > end)
+						break;
+					final Record record= readRecord(channel, index.getOffset(position));
+					collection.add(new DefaultRefactoringDescriptorProxy(record.fDescription, project, stamp));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the index entries for appended records, or rebuilds the index if
+	 * the new entries cannot simply be appended.
+	 *
+	 * @param logLength
+	 *            the length of the log before the records have been appended
+	 * @param records
+	 *            the appended records
+	 * @param offsets
+	 *            the offsets of the appended records
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private void appendIndexEntries(final long logLength, final Record[] records, final long[] offsets) throws IOException {
+		if (fIndexFile.exists()) {
+			try (RandomAccessFile file= new RandomAccessFile(fIndexFile, "rw")) { //$NON-NLS-1$
+				if (file.length() >= INDEX_HEADER_SIZE && file.readInt() == INDEX_MAGIC && file.readInt() == VERSION && file.readLong() == logLength) {
+					final int count= file.readInt();
+					long last= Long.MIN_VALUE;
+					if (count > 0) {
+						file.seek(INDEX_HEADER_SIZE + (long) (count - 1) * INDEX_ENTRY_SIZE);
+						last= file.readLong();
+					}
+					boolean ascending= true;
+					for (Record record : records) {
+						if (record.fStamp < last) {
+							ascending= false;
+							break;
+						}
+						last= record.fStamp;
+					}
+					if (ascending) {
+						final ByteArrayOutputStream bytes= new ByteArrayOutputStream(records.length * INDEX_ENTRY_SIZE);
+						final DataOutputStream output= new DataOutputStream(bytes);
+						for (int index= 0; index < records.length; index++) {
+							output.writeLong(records[index].fStamp);
+							output.writeLong(offsets[index]);
+						}
+						file.seek(INDEX_HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE);
+						file.write(bytes.toByteArray());
+						file.seek(8);
+						file.writeLong(fLogFile.length());
+						file.writeInt(count + records.length);
+						return;
+					}
+				}
+			}
+		}
+		rebuildIndex();
+	}
+
+	/**
+	 * Creates the log file if it does not exist yet.
+	 *
+	 * @return the length of the log
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private long ensureLog() throws IOException {
+		if (!fLogFile.exists()) {
+			fLogFile.getParentFile().mkdirs();
+			try (DataOutputStream output= new DataOutputStream(new FileOutputStream(fLogFile))) {
+				output.writeInt(LOG_MAGIC);
+				output.writeInt(VERSION);
+			}
+			return LOG_HEADER_SIZE;
+		}
+		return fLogFile.length();
+	}
+
+	/**
+	 * Opens the index, rebuilding it first if it does not match the log. The
+	 * caller must close the returned index.
+	 *
+	 * @return the open index
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private Index openIndex() throws IOException {
+		for (int attempt= 0; attempt < 2; attempt++) {
+			if (fIndexFile.exists()) {
+				final FileChannel channel= FileChannel.open(fIndexFile.toPath(), StandardOpenOption.READ);
+				boolean valid= false;
+				try {
+					final long size= channel.size();
+					if (size >= INDEX_HEADER_SIZE) {
+						final ByteBuffer header= ByteBuffer.allocate(INDEX_HEADER_SIZE);
+						readFully(channel, header, 0);
+						final int count= header.getInt(16);
+						if (header.getInt(0) == INDEX_MAGIC && header.getInt(4) == VERSION && header.getLong(8) == fLogFile.length()
+								&& count >= 0 && INDEX_HEADER_SIZE + (long) count * INDEX_ENTRY_SIZE <= size) {
+							valid= true;
+							return new Index(channel, count);
+						}
+					}
+				} finally {
+					if (!valid)
+						channel.close();
+				}
+			}
+			rebuildIndex();
+		}
+		throw new IOException(fIndexFile.toString());
+	}
+
+	private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0)
+				throw new IOException();
+		}
+	}
+
+	/**
+	 * Rebuilds the index by scanning the log. An incomplete record at the end
+	 * of the log, as left behind by an interrupted write, is truncated.
+	 *
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private void rebuildIndex() throws IOException {
+		// The offsets of the live descriptors, by time stamp in the order they have been added
+		final TreeMap<Long, List<Long>> live= new TreeMap<>();
+		int count= 0;
+		long length= LOG_HEADER_SIZE;
+		if (fLogFile.exists()) {
+			try (RandomAccessFile file= new RandomAccessFile(fLogFile, "rw")) { //$NON-NLS-1$
+				final long size= file.length();
+				if (size < LOG_HEADER_SIZE || file.readInt() != LOG_MAGIC || file.readInt() != VERSION)
+					throw new IOException(fLogFile.toString());
+				final FileChannel channel= file.getChannel();
+				final ByteBuffer prefix= ByteBuffer.allocate(RECORD_PREFIX_SIZE);
+				final ByteBuffer reference= ByteBuffer.allocate(RECORD_REFERENCE_SIZE);
+				while (length + RECORD_PREFIX_SIZE <= size) {
+					prefix.clear();
+					readFully(channel, prefix, length);
+					final int recordLength= prefix.getInt(0);
+					if (recordLength < RECORD_PREFIX_SIZE - 4 || length + 4 + recordLength > size)
+						break;
+					final byte kind= prefix.get(4);
+					final Long stamp= Long.valueOf(prefix.getLong(5));
+					final boolean referenced= kind == KIND_REPLACEMENT || kind == KIND_REMOVAL && recordLength >= RECORD_PREFIX_SIZE - 4 + RECORD_REFERENCE_SIZE;
+					if (kind == KIND_REPLACEMENT && recordLength < RECORD_PREFIX_SIZE - 4 + RECORD_REFERENCE_SIZE)
+						break;
+					if (kind == KIND_DESCRIPTOR) {
+						live.computeIfAbsent(stamp, key -> new ArrayList<>(1)).add(Long.valueOf(length));
+						count++;
+					} else if (referenced) {
+						reference.clear();
+						readFully(channel, reference, length + RECORD_PREFIX_SIZE);
+						final List<Long> offsets= live.get(stamp);
+						final int position= offsets != null ? offsets.indexOf(Long.valueOf(reference.getLong(0))) : -1;
+						if (position >= 0) {
+							if (kind == KIND_REPLACEMENT) {
+								offsets.set(position, Long.valueOf(length));
+							} else {
+								offsets.remove(position);
+								count--;
+								if (offsets.isEmpty())
+									live.remove(stamp);
+							}
+						}
+					} else if (kind == KIND_REMOVAL) {
+						final List<Long> offsets= live.remove(stamp);
+						if (offsets != null)
+							count-= offsets.size();
+					}
+					length+= 4 + recordLength;
+				}
+				if (length < size)
+					file.setLength(length);
+			}
+		}
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(INDEX_HEADER_SIZE + count * INDEX_ENTRY_SIZE);
+		final DataOutputStream output= new DataOutputStream(bytes);
+		output.writeInt(INDEX_MAGIC);
+		output.writeInt(VERSION);
+		output.writeLong(length);
+		output.writeInt(count);
+		for (Entry<Long, List<Long>> entry : live.entrySet()) {
+			for (Long offset : entry.getValue()) {
+				output.writeLong(entry.getKey().longValue());
+				output.writeLong(offset.longValue());
+			}
+		}
+		// The index may be open in a concurrent reader, so it is overwritten in place but never truncated
+		try (RandomAccessFile file= new RandomAccessFile(fIndexFile, "rw")) { //$NON-NLS-1$
+			file.write(bytes.toByteArray());
+		}
+	}
+
+	private static Record readRecord(final FileChannel channel, final long offset) throws IOException {
+		final ByteBuffer prefix= ByteBuffer.allocate(4);
+		readFully(channel, prefix, offset);
+		final ByteBuffer buffer= ByteBuffer.allocate(prefix.getInt(0));
+		readFully(channel, buffer, offset + 4);
+		buffer.flip();
+		final byte kind= buffer.get();
+		if (kind != KIND_DESCRIPTOR && kind != KIND_REPLACEMENT)
+			throw new IOException();
+		final long stamp= buffer.getLong();
+		if (kind == KIND_REPLACEMENT)
+			buffer.getLong();
+		final int flags= buffer.getInt();
+		final String id= readString(buffer);
+		final String description= readString(buffer);
+		final String comment= readString(buffer);
+		final int size= buffer.getInt();
+		final Map<String, String> arguments= new HashMap<>(size);
+		for (int index= 0; index < size; index++)
+			arguments.put(readString(buffer), readString(buffer));
+		return new Record(stamp, id, description, comment, flags, arguments);
+	}
+
+	private static String readString(final ByteBuffer buffer) {
+		final int length= buffer.getInt();
+		if (length < 0)
+			return null;
+		final String string= new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return string;
+	}
+
+	/**
+	 * Writes a descriptor record.
+	 *
+	 * @param output
+	 *            the output to write to
+	 * @param record
+	 *            the record
+	 * @param replaced
+	 *            the offset of the record replaced by this record, or
+	 *            <code>-1</code> to add a descriptor
+	 * @throws IOException
+	 *             if an input/output error occurs
+	 */
+	private static void writeRecord(final DataOutputStream output, final Record record, final long replaced) throws IOException {
+		final ByteArrayOutputStream bytes= new ByteArrayOutputStream(256);
+		final DataOutputStream payload= new DataOutputStream(bytes);
+		payload.writeByte(replaced < 0 ? KIND_DESCRIPTOR : KIND_REPLACEMENT);
+		payload.writeLong(record.fStamp);
+		if (replaced >= 0)
+			payload.writeLong(replaced);
+		payload.writeInt(record.fFlags);
+		writeString(payload, record.fId);
+		writeString(payload, record.fDescription);
+		writeString(payload, record.fComment);
+		final List<Entry<String, String>> arguments= record.fArguments != null ? new ArrayList<>(record.fArguments.entrySet()) : new ArrayList<>();
+		payload.writeInt(arguments.size());
+		for (Entry<String, String> entry : arguments) {
+			writeString(payload, entry.getKey());
+			writeString(payload, entry.getValue());
+		}
+		payload.flush();
+		output.writeInt(bytes.size());
+		bytes.writeTo(output);
+	}
+
+	private static void writeString(final DataOutputStream output, final String string) throws IOException {
+		if (string == null) {
+			output.writeInt(-1);
+		} else {
+			final byte[] bytes= string.getBytes(StandardCharsets.UTF_8);
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		}
+	}
+}
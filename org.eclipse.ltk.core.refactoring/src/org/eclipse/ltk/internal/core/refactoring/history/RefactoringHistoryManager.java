@@ -16,6 +16,7 @@ package org.eclipse.ltk.internal.core.refactoring.history;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -67,6 +68,7 @@ import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
@@ -82,8 +84,10 @@ import org.eclipse.ltk.internal.core.refactoring.IRefactoringSerializationConsta
 import org.eclipse.ltk.internal.core.refactoring.Messages;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringPreferenceConstants;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringSessionReader;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringSessionTransformer;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryLog.Record;
 
 /**
  * Manager for persistable refactoring histories.
@@ -146,6 +150,63 @@ public final class RefactoringHistoryManager {
 		return new CoreException(new Status(IStatus.ERROR, RefactoringCore.ID_PLUGIN, IRefactoringCoreStatusCodes.REFACTORING_HISTORY_IO_ERROR, exception.getLocalizedMessage(), exception));
 	}
 
+	/**
+	 * Creates a new refactoring history log for the specified history store.
+	 * <p>
+	 * Only the private history stores in the state location of the plug-in
+	 * use a log. Shared project histories are usually under version control
+	 * and must remain readable by all clients, so they keep the XML history
+	 * tree.
+	 * </p>
+	 *
+	 * @param store
+	 *            the history file store
+	 * @return the refactoring history log, or <code>null</code> if the store
+	 *         is shared or not located on the local file system
+	 */
+	private static RefactoringHistoryLog createLog(final IFileStore store) {
+		final RefactoringCorePlugin plugin= RefactoringCorePlugin.getDefault();
+		if (plugin == null || !EFS.getLocalFileSystem().getStore(plugin.getStateLocation()).isParentOf(store))
+			return null;
+		try {
+			final File folder= store.toLocalFile(EFS.NONE, null);
+			if (folder != null)
+				return new RefactoringHistoryLog(folder);
+		} catch (CoreException exception) {
+			// Do nothing
+		}
+		return null;
+	}
+
+	/**
+	 * Creates a log record representing the specified refactoring descriptor.
+	 *
+	 * @param descriptor
+	 *            the refactoring descriptor
+	 * @return the log record
+	 * @throws CoreException
+	 *             if the argument map of the descriptor is not well-formed
+	 */
+	private static Record createRecord(final RefactoringDescriptor descriptor) throws CoreException {
+		Map<String, String> arguments= getArgumentMap(descriptor);
+		if (arguments != null)
+			checkArgumentMap(arguments);
+		else
+			arguments= Collections.emptyMap();
+		return new Record(descriptor.getTimeStamp(), descriptor.getID(), descriptor.getDescription(), descriptor.getComment(), descriptor.getFlags(), arguments);
+	}
+
+	/**
+	 * Returns whether refactoring histories are stored in a binary log.
+	 *
+	 * @return <code>true</code> if the binary refactoring history is enabled,
+	 *         <code>false</code> otherwise
+	 * @see RefactoringPreferenceConstants#PREFERENCE_BINARY_REFACTORING_HISTORY
+	 */
+	public static boolean isBinaryRefactoringHistory() {
+		return Platform.getPreferencesService().getBoolean(RefactoringCorePlugin.getPluginId(), RefactoringPreferenceConstants.PREFERENCE_BINARY_REFACTORING_HISTORY, false, null);
+	}
+
 	/**
 	 * Escapes the specified string for the history index.
 	 *
@@ -733,6 +794,12 @@ public final class RefactoringHistoryManager {
 	/** The history file store */
 	private final IFileStore fHistoryStore;
 
+	/**
+	 * The binary history log, or <code>null</code> if the store is shared or
+	 * not local
+	 */
+	private final RefactoringHistoryLog fHistoryLog;
+
 	/**
 	 * The non-empty name of the managed project, or <code>null</code> for the
 	 * workspace
@@ -753,6 +820,7 @@ public final class RefactoringHistoryManager {
 		Assert.isTrue(name == null || !"".equals(name)); //$NON-NLS-1$
 		fHistoryStore= store;
 		fProjectName= name;
+		fHistoryLog= createLog(store);
 	}
 
 	/**
@@ -771,6 +839,40 @@ public final class RefactoringHistoryManager {
 	 *             if an error occurs while adding the descriptor to the history
 	 */
 	void addRefactoringDescriptor(final RefactoringDescriptor descriptor, final boolean sort, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 20);
+			final RefactoringHistoryLog log= getHistoryLog(new SubProgressMonitor(monitor, 2, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			if (log != null) {
+				if (descriptor.getTimeStamp() >= 0) {
+					try {
+						log.append(new Record[] { createRecord(descriptor)});
+					} catch (IOException exception) {
+						throw createCoreException(exception);
+					}
+				}
+			} else
+				addXMLRefactoringDescriptor(descriptor, sort, new SubProgressMonitor(monitor, 18, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Adds the specified refactoring descriptor to the XML history tree.
+	 *
+	 * @param descriptor
+	 *            the refactoring descriptor to add
+	 * @param sort
+	 *            <code>true</code> if the refactoring descriptor should be
+	 *            inserted into the history according to its time stamp,
+	 *            <code>false</code> if the descriptor is assumed to be the
+	 *            most recent one, and its simply appended
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while adding the descriptor to the history
+	 */
+	private void addXMLRefactoringDescriptor(final RefactoringDescriptor descriptor, final boolean sort, final IProgressMonitor monitor) throws CoreException {
 		try {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 18);
 			final long stamp= descriptor.getTimeStamp();
@@ -848,6 +950,186 @@ public final class RefactoringHistoryManager {
 		}
 	}
 
+	/**
+	 * Exports the binary refactoring history log into the XML history tree
+	 * and deletes the log.
+	 *
+	 * @param log
+	 *            the refactoring history log
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while exporting the history
+	 */
+	void exportToXML(final RefactoringHistoryLog log, final IProgressMonitor monitor) throws CoreException {
+		try {
+			final Record[] records= log.readRecords();
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, records.length);
+			for (Record record : records) {
+				addXMLRefactoringDescriptor(record.createDescriptor(null, true), false, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+			}
+			log.delete();
+		} catch (IOException exception) {
+			throw createCoreException(exception);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Exports the binary refactoring history log of the managed store into
+	 * the XML history tree, if there is a log. This must be done before the
+	 * store is moved to a location which does not support the log.
+	 *
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while exporting the history
+	 */
+	void exportHistoryLog(final IProgressMonitor monitor) throws CoreException {
+		if (fHistoryLog != null && fHistoryLog.exists())
+			exportToXML(fHistoryLog, monitor);
+		else
+			monitor.done();
+	}
+
+	/**
+	 * Returns the binary refactoring history log if the binary refactoring
+	 * history is enabled.
+	 * <p>
+	 * An existing XML history tree is migrated into the log the first time the
+	 * log is requested. If the binary refactoring history has been disabled, an
+	 * existing log is exported back into the XML history tree.
+	 * </p>
+	 *
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @return the refactoring history log, or <code>null</code> if the XML
+	 *         history tree is used
+	 * @throws CoreException
+	 *             if an error occurs while migrating the history
+	 */
+	private RefactoringHistoryLog getHistoryLog(final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 1);
+			if (fHistoryLog == null)
+				return null;
+			if (isBinaryRefactoringHistory()) {
+				if (!fHistoryLog.exists())
+					migrateToLog(fHistoryLog, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				return fHistoryLog;
+			}
+			if (fHistoryLog.exists())
+				exportToXML(fHistoryLog, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			return null;
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Migrates the XML history tree into the binary refactoring history log
+	 * and deletes the XML history tree.
+	 *
+	 * @param log
+	 *            the refactoring history log
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while migrating the history
+	 */
+	void migrateToLog(final RefactoringHistoryLog log, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 100);
+			final List<RefactoringDescriptor> descriptors= new ArrayList<>(64);
+			final List<IFileStore> folders= new ArrayList<>();
+			if (fHistoryStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists()) {
+				for (IFileStore store : fHistoryStore.childStores(EFS.NONE, new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL))) {
+					if (store.fetchInfo().isDirectory() && isStampFolder(store.getName())) {
+						folders.add(store);
+						readHistoryFiles(store, descriptors, new SubProgressMonitor(monitor, 0, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+					}
+				}
+			}
+			final RefactoringDescriptor[] array= descriptors.toArray(new RefactoringDescriptor[descriptors.size()]);
+			sortRefactoringDescriptorsAscending(array);
+			final List<Record> records= new ArrayList<>(array.length);
+			for (RefactoringDescriptor descriptor : array) {
+				if (descriptor.getTimeStamp() >= 0)
+					records.add(createRecord(descriptor));
+			}
+			log.append(records.toArray(new Record[records.size()]));
+			monitor.worked(40);
+			for (IFileStore folder : folders) {
+				folder.delete(EFS.NONE, new SubProgressMonitor(monitor, 0, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			}
+			fCachedDocument= null;
+			fCachedPath= null;
+			fCachedDescriptor= null;
+			fCachedStore= null;
+		} catch (IOException exception) {
+			throw createCoreException(exception);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Returns whether the specified name denotes a folder of the XML history
+	 * tree created by {@link #stampToPath(long)}.
+	 *
+	 * @param name
+	 *            the name of the folder
+	 * @return <code>true</code> if the folder is part of the history tree,
+	 *         <code>false</code> otherwise
+	 */
+	private static boolean isStampFolder(final String name) {
+		if (name.isEmpty())
+			return false;
+		for (char character : name.toCharArray()) {
+			if (!Character.isDigit(character))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the refactoring descriptors of all history files below the
+	 * specified file store.
+	 *
+	 * @param store
+	 *            the file store to read
+	 * @param collection
+	 *            the collection of descriptors to fill in
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs
+	 */
+	private static void readHistoryFiles(final IFileStore store, final Collection<RefactoringDescriptor> collection, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 1);
+			for (IFileStore child : store.childStores(EFS.NONE, null)) {
+				final IFileInfo info= child.fetchInfo();
+				if (info.isDirectory()) {
+					readHistoryFiles(child, collection, new NullProgressMonitor());
+				} else if (RefactoringHistoryService.NAME_HISTORY_FILE.equalsIgnoreCase(child.getName())) {
+					try (InputStream stream= child.openInputStream(EFS.NONE, null)) {
+						readRefactoringDescriptors(stream, collection, new NullProgressMonitor());
+					} catch (IOException exception) {
+						throw createCoreException(exception);
+					}
+				}
+				if (monitor.isCanceled())
+					throw new OperationCanceledException();
+			}
+		} finally {
+			monitor.done();
+		}
+	}
+
 	/**
 	 * Returns the cached refactoring history document.
 	 *
@@ -919,15 +1201,20 @@ public final class RefactoringHistoryManager {
 	 */
 	RefactoringHistory readRefactoringHistory(final long start, final long end, final IProgressMonitor monitor) {
 		try {
-			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 200);
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 210);
 			final Set<RefactoringDescriptorProxy> set= new HashSet<>();
 			try {
-				if (fHistoryStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					readRefactoringDescriptorProxies(fHistoryStore, fProjectName, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
+				if (!RefactoringHistoryIndex.getDefault().readProxies(fHistoryStore, fProjectName, start, end, set))
+					readHistoryStore(fHistoryStore, getHistoryLog(new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)), fProjectName, start, end, set, new SubProgressMonitor(monitor, 100));
+				else
+					monitor.worked(110);
 				final IFileStore store= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation()).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER).getChild(RefactoringHistoryService.NAME_WORKSPACE_PROJECT);
-				if (store.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					readRefactoringDescriptorProxies(store, null, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
-			} catch (CoreException exception) {
+				if (!RefactoringHistoryIndex.getDefault().readProxies(store, null, start, end, set)) {
+					final RefactoringHistoryLog workspaceLog= createLog(store);
+					readHistoryStore(store, workspaceLog != null && workspaceLog.exists() ? workspaceLog : null, null, start, end, set, new SubProgressMonitor(monitor, 100));
+				} else
+					monitor.worked(100);
+			} catch (CoreException | IOException exception) {
 				RefactoringCorePlugin.log(exception);
 			}
 			final RefactoringDescriptorProxy[] proxies= new RefactoringDescriptorProxy[set.size()];
@@ -938,6 +1225,73 @@ public final class RefactoringHistoryManager {
 		}
 	}
 
+	/**
+	 * Reads the refactoring descriptor proxies of one history store from disk.
+	 * The store is indexed if it has been read completely.
+	 *
+	 * @param store
+	 *            the history store
+	 * @param log
+	 *            the binary history log of the store, or <code>null</code>
+	 *            to read the XML history tree
+	 * @param project
+	 *            the name of the project, or <code>null</code> for the
+	 *            workspace
+	 * @param start
+	 *            the start time stamp, inclusive
+	 * @param end
+	 *            the end time stamp, inclusive
+	 * @param collection
+	 *            the collection of proxies to fill in
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while reading the XML history tree
+	 * @throws IOException
+	 *             if an error occurs while reading the log
+	 */
+	private static void readHistoryStore(final IFileStore store, final RefactoringHistoryLog log, final String project, final long start, final long end, final Collection<RefactoringDescriptorProxy> collection, final IProgressMonitor monitor) throws CoreException, IOException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 100);
+			final RefactoringHistoryIndex index= RefactoringHistoryIndex.getDefault();
+			final long stamp= index.getModificationStamp();
+			final List<RefactoringDescriptorProxy> proxies= new ArrayList<>();
+			if (log != null) {
+				log.readProxies(project, start, end, proxies);
+				monitor.worked(100);
+			} else if (store.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
+				readRefactoringDescriptorProxies(store, project, proxies, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
+			if (start == 0 && end == Long.MAX_VALUE)
+				index.put(store, proxies, stamp);
+			collection.addAll(proxies);
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Reads the managed history store completely, so that it is indexed by
+	 * the {@link RefactoringHistoryIndex}. Unlike reading the history, this
+	 * does not migrate the store between the XML history tree and the binary
+	 * log.
+	 *
+	 * @param monitor
+	 *            the progress monitor to use
+	 */
+	void indexHistory(final IProgressMonitor monitor) {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 100);
+			final RefactoringHistoryLog log= fHistoryLog != null && isBinaryRefactoringHistory() ? fHistoryLog : null;
+			if (fHistoryLog != null && fHistoryLog.exists() != (log != null))
+				return; // the store is migrated by the next read of the history
+			readHistoryStore(fHistoryStore, log, fProjectName, 0, Long.MAX_VALUE, new ArrayList<>(), new SubProgressMonitor(monitor, 100));
+		} catch (CoreException | IOException exception) {
+			RefactoringCorePlugin.log(exception);
+		} finally {
+			monitor.done();
+		}
+	}
+
 	/**
 	 * Removes refactoring descriptors from the managed history.
 	 * <p>
@@ -1039,7 +1393,16 @@ public final class RefactoringHistoryManager {
 	void removeRefactoringDescriptors(final RefactoringDescriptorProxy[] proxies, final IProgressMonitor monitor, final String task) throws CoreException {
 		try {
 			final Map<IPath, Collection<RefactoringDescriptorProxy>> paths= new HashMap<>();
-			monitor.beginTask(task, proxies.length + 300);
+			monitor.beginTask(task, proxies.length + 310);
+			final RefactoringHistoryLog log= getHistoryLog(new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+			if (log != null) {
+				try {
+					log.appendRemovals(proxies);
+				} catch (IOException exception) {
+					throw createCoreException(exception);
+				}
+				return;
+			}
 			for (RefactoringDescriptorProxy proxy : proxies) {
 				final IPath path= stampToPath(proxy.getTimeStamp());
 				Collection<RefactoringDescriptorProxy> collection= paths.get(path);
@@ -1077,9 +1440,19 @@ public final class RefactoringHistoryManager {
 	 */
 	RefactoringDescriptor requestDescriptor(final RefactoringDescriptorProxy proxy, final IProgressMonitor monitor) {
 		try {
-			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_resolving_information, 2);
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_resolving_information, 3);
 			final long stamp= proxy.getTimeStamp();
 			if (stamp >= 0) {
+				try {
+					final RefactoringHistoryLog log= getHistoryLog(new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+					if (log != null) {
+						final Record record= log.readRecord(stamp);
+						return record != null ? record.createDescriptor(fProjectName, false) : null;
+					}
+				} catch (CoreException | IOException | IllegalArgumentException exception) {
+					RefactoringCorePlugin.log(exception);
+					return null;
+				}
 				InputStream input= null;
 				try {
 					final IFileStore folder= fHistoryStore.getFileStore(stampToPath(stamp));
@@ -1127,9 +1500,18 @@ public final class RefactoringHistoryManager {
 	 */
 	void setComment(final RefactoringDescriptorProxy proxy, final String comment, final IProgressMonitor monitor) throws CoreException {
 		try {
-			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 100);
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_updating_history, 110);
 			final long stamp= proxy.getTimeStamp();
 			if (stamp >= 0) {
+				final RefactoringHistoryLog log= getHistoryLog(new SubProgressMonitor(monitor, 10, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
+				if (log != null) {
+					try {
+						log.setComment(stamp, comment);
+					} catch (IOException exception) {
+						throw createCoreException(exception);
+					}
+					return;
+				}
 				final IPath path= stampToPath(stamp);
 				final IFileStore folder= fHistoryStore.getFileStore(path);
 				final IFileStore history= folder.getChild(RefactoringHistoryService.NAME_HISTORY_FILE);
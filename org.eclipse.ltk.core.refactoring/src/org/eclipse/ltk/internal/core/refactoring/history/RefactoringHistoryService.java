@@ -49,6 +49,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
@@ -252,6 +253,8 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 					if (enable) {
 						final IFileStore source= history.getChild(name);
 						if (source.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20)).exists()) {
+							// shared histories are always kept in the XML history tree
+							new RefactoringHistoryManager(source, name).exportHistoryLog(new SubProgressMonitor(monitor, 20));
 							IFileStore destination= EFS.getStore(uri).getChild(NAME_HISTORY_FOLDER);
 							if (destination.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20)).exists())
 								destination.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
@@ -281,6 +284,7 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 				}
 			}
 		} finally {
+			RefactoringHistoryIndex.getDefault().clear();
 			monitor.done();
 		}
 	}
@@ -430,6 +434,7 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 				subMonitor.done();
 			}
 		} finally {
+			RefactoringHistoryIndex.getDefault().clear();
 			monitor.done();
 		}
 	}
@@ -530,6 +535,7 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 				}
 			}
 		} finally {
+			RefactoringHistoryIndex.getDefault().clear();
 			monitor.done();
 		}
 	}
@@ -858,6 +864,7 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 		} catch (CoreException exception) {
 			RefactoringCorePlugin.log(exception);
 		} finally {
+			RefactoringHistoryIndex.getDefault().clear();
 			monitor.done();
 		}
 	}
@@ -867,6 +874,7 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 		if ((type & IResourceChangeEvent.POST_CHANGE) != 0) {
 			final IResourceDelta delta= event.getDelta();
 			if (delta != null) {
+				invalidateHistoryIndex(delta);
 				final IResourceDelta[] deltas= delta.getAffectedChildren();
 				if (deltas.length == 2) {
 					final IPath toPath= deltas[0].getMovedToPath();
@@ -889,6 +897,29 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 		}
 	}
 
+	/**
+	 * Invalidates the indexed history stores which may have been changed
+	 * without a history notification, e.g. shared histories updated from a
+	 * repository.
+	 *
+	 * @param delta
+	 *            the workspace delta
+	 */
+	private void invalidateHistoryIndex(final IResourceDelta delta) {
+		final RefactoringHistoryIndex index= RefactoringHistoryIndex.getDefault();
+		for (IResourceDelta projectDelta : delta.getAffectedChildren()) {
+			if (projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+				index.clear();
+				return;
+			}
+			if (projectDelta.findMember(new Path(NAME_HISTORY_FOLDER)) != null) {
+				final IFileStore store= getHistoryStore(projectDelta.getResource().getName());
+				if (store != null)
+					index.invalidate(store);
+			}
+		}
+	}
+
 	private RefactoringDescriptor getRefactoringDescriptor(IUndoableOperation operation) {
 		if (operation instanceof TriggeredOperations) {
 			operation= ((TriggeredOperations) operation).getTriggeringOperation();
@@ -955,6 +986,22 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 	 * @return the refactoring history manager, or <code>null</code>
 	 */
 	private RefactoringHistoryManager getManager(final String name) {
+		final IFileStore store= getHistoryStore(name);
+		if (store == null)
+			return null;
+		return getManager(store, name != null && !"".equals(name) ? name : null); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the history store of the project with the specified name.
+	 *
+	 * @param name
+	 *            the name of the project, or <code>null</code> for the
+	 *            workspace
+	 * @return the history store, or <code>null</code> if the project is not
+	 *         accessible
+	 */
+	static IFileStore getHistoryStore(final String name) {
 		final IFileStore store= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation()).getChild(NAME_HISTORY_FOLDER);
 		if (name != null && !"".equals(name)) {//$NON-NLS-1$
 			try {
@@ -963,15 +1010,15 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 					if (hasSharedRefactoringHistory(project)) {
 						final URI uri= project.getLocationURI();
 						if (uri != null)
-							return getManager(EFS.getStore(uri).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER), name);
+							return EFS.getStore(uri).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER);
 					} else
-						return getManager(store.getChild(name), name);
+						return store.getChild(name);
 				}
 			} catch (CoreException exception) {
 				// Do nothing
 			}
 		} else
-			return getManager(store.getChild(NAME_WORKSPACE_PROJECT), null);
+			return store.getChild(NAME_WORKSPACE_PROJECT);
 		return null;
 	}
 